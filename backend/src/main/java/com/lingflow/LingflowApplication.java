@@ -3,12 +3,14 @@ package com.lingflow;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * LingFlow 流程管理系统主应用类
  */
 @SpringBootApplication
 @MapperScan("com.lingflow.repository")
+@EnableScheduling
 public class LingflowApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,68 @@
+package com.lingflow.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flowable.common.engine.api.Engine;
+import org.flowable.common.engine.api.engine.EngineLifecycleListener;
+import org.flowable.spring.SpringProcessEngineConfiguration;
+import org.flowable.spring.boot.EngineConfigurationConfigurer;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Flowable 历史表补充索引
+ *
+ * <p>Flowable 表由引擎启动时创建，晚于 Flyway 迁移：全新数据库执行 V17 迁移时表还不存在，索引会被跳过。
+ * 本配置在流程引擎构建完成（表已创建或升级）后执行 CREATE INDEX IF NOT EXISTS，已存在的索引不重复创建。
+ * 创建失败只记录日志，不影响引擎启动。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Component
+public class FlowableHistoryIndexConfigurer implements EngineConfigurationConfigurer<SpringProcessEngineConfiguration> {
+
+    /**
+     * 补充索引（与 V17__create_variable_history_indexes.sql 一致）
+     */
+    static final String[] INDEX_STATEMENTS = {
+            "CREATE INDEX IF NOT EXISTS idx_hi_detail_var_revision"
+                    + " ON act_hi_detail(proc_inst_id_, name_, time_ DESC, id_ DESC)"
+                    + " WHERE type_ = 'VariableUpdate'",
+            "COMMENT ON INDEX idx_hi_detail_var_revision IS '变量修订历史索引（流程实例 + 变量名 + 更新时间）'",
+            "CREATE INDEX IF NOT EXISTS idx_hi_varinst_proc_scope"
+                    + " ON act_hi_varinst(proc_inst_id_, name_)"
+                    + " WHERE task_id_ IS NULL",
+            "COMMENT ON INDEX idx_hi_varinst_proc_scope IS '流程实例级历史变量索引（流程实例 + 变量名）'"
+    };
+
+    @Override
+    public void configure(SpringProcessEngineConfiguration configuration) {
+        configuration.addEngineLifecycleListener(new EngineLifecycleListener() {
+            @Override
+            public void onEngineBuilt(Engine engine) {
+                createIndexes(configuration.getDataSource());
+            }
+
+            @Override
+            public void onEngineClosed(Engine engine) {
+            }
+        });
+    }
+
+    static void createIndexes(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : INDEX_STATEMENTS) {
+                statement.execute(sql);
+            }
+            log.info("Flowable 历史表补充索引已就绪");
+        } catch (SQLException e) {
+            log.warn("创建 Flowable 历史表补充索引失败: {}", e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package com.lingflow.controller;
 
+import com.lingflow.dto.KeysetPage;
 import com.lingflow.dto.ProcessCategoryDTO;
 import com.lingflow.dto.ProcessCategoryTreeDTO;
 import com.lingflow.dto.ProcessSearchResultDTO;
 import com.lingflow.dto.Result;
 import com.lingflow.dto.SortOrderDTO;
 import com.lingflow.entity.ProcessCategory;
+import com.lingflow.service.CategoryTreeCache;
 import com.lingflow.service.ProcessCategoryService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -31,17 +36,29 @@ public class ProcessCategoryController {
     /**
      * 获取分类树
      * GET /api/process-category/tree?tenantId=xxx&appId=xxx&contextId=xxx
+     * <p>支持 ETag：请求头 If-None-Match 与当前版本一致时返回 304，不查询也不序列化分类树
      */
     @GetMapping("/tree")
     public Result<List<ProcessCategoryTreeDTO>> getCategoryTree(
             @RequestParam String tenantId,
             @RequestParam(required = false) String appId,
-            @RequestParam(required = false) String contextId
+            @RequestParam(required = false) String contextId,
+            WebRequest webRequest,
+            HttpServletResponse response
     ) {
         try {
+            String etag = categoryService.getCategoryTreeETag(tenantId, appId, contextId);
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return null;
+            }
+
             logger.info("获取分类树: tenantId={}, appId={}, contextId={}", tenantId, appId, contextId);
-            List<ProcessCategoryTreeDTO> tree = categoryService.getCategoryTree(tenantId, appId, contextId);
-            return Result.success(tree);
+            CategoryTreeCache.Snapshot snapshot = categoryService.getCategoryTreeSnapshot(tenantId, appId, contextId);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            if (webRequest.checkNotModified(snapshot.getEtag())) {
+                return null;
+            }
+            return Result.success(snapshot.getTree());
         } catch (Exception e) {
             logger.error("获取分类树失败", e);
             return Result.error(e.getMessage());
@@ -148,15 +165,19 @@ public class ProcessCategoryController {
     }
 
     /**
-     * 批量更新排序（拖拽排序）
-     * PUT /api/process-category/sort/batch
+     * 批量更新排序（拖拽排序），返回更新后的分类树版本号
+     * PUT /api/process-category/sort/batch?tenantId=xxx
      */
     @PutMapping("/sort/batch")
-    public Result<Void> batchUpdateSortOrder(@RequestBody List<SortOrderDTO> sortOrderList) {
+    public Result<Long> batchUpdateSortOrder(
+            @RequestParam String tenantId,
+            @RequestBody List<SortOrderDTO> sortOrderList
+    ) {
         try {
-            logger.info("批量更新排序: count={}", sortOrderList.size());
-            categoryService.batchUpdateSortOrder(sortOrderList);
-            return Result.success();
+            logger.info("批量更新排序: tenantId={}, count={}", tenantId, sortOrderList.size());
+            categoryService.batchUpdateSortOrder(tenantId, sortOrderList);
+            // 事务已提交，版本号已递增
+            return Result.success(categoryService.getCategoryTreeVersion(tenantId));
         } catch (Exception e) {
             logger.error("批量更新排序失败", e);
             return Result.error(e.getMessage());
@@ -206,21 +227,46 @@ public class ProcessCategoryController {
     }
 
     /**
-     * 搜索流程模板（支持模糊搜索，返回分类路径）
-     * GET /api/process-category/processes/search?keyword=xxx&tenantId=xxx
+     * 流程输入联想（内存索引，返回分类路径）
+     * GET /api/process-category/processes/suggest?keyword=xxx&tenantId=xxx&limit=10
+     */
+    @GetMapping("/processes/suggest")
+    public Result<List<ProcessSearchResultDTO>> suggestProcesses(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam String tenantId,
+            @RequestParam(required = false) String appId,
+            @RequestParam(required = false) String contextId,
+            @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            List<ProcessSearchResultDTO> results = categoryService.suggestProcesses(
+                    keyword, categoryId, tenantId, appId, contextId, limit);
+            return Result.success(results);
+        } catch (Exception e) {
+            logger.error("流程输入联想失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 搜索流程模板（支持模糊搜索，按相关度排序，返回分类路径）
+     * GET /api/process-category/processes/search?keyword=xxx&tenantId=xxx&cursor=xxx&limit=20
      */
     @GetMapping("/processes/search")
-    public Result<List<ProcessSearchResultDTO>> searchProcesses(
+    public Result<KeysetPage<ProcessSearchResultDTO>> searchProcesses(
             @RequestParam String keyword,
             @RequestParam(required = false) String categoryId,
             @RequestParam String tenantId,
             @RequestParam(required = false) String appId,
-            @RequestParam(required = false) String contextId
+            @RequestParam(required = false) String contextId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
     ) {
         try {
             logger.info("搜索流程: keyword={}, categoryId={}, tenantId={}", keyword, categoryId, tenantId);
-            List<ProcessSearchResultDTO> results = categoryService.searchProcesses(
-                    keyword, categoryId, tenantId, appId, contextId);
+            KeysetPage<ProcessSearchResultDTO> results = categoryService.searchProcesses(
+                    keyword, categoryId, tenantId, appId, contextId, cursor, limit);
             return Result.success(results);
         } catch (Exception e) {
             logger.error("搜索流程失败", e);
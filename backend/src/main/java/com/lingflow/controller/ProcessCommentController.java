@@ -1,5 +1,6 @@
 package com.lingflow.controller;
 
+import com.lingflow.dto.KeysetPage;
 import com.lingflow.dto.Result;
 import com.lingflow.service.ProcessCommentService;
 import lombok.Data;
@@ -129,6 +130,29 @@ public class ProcessCommentController {
         }
     }
 
+    /**
+     * 按游标分页获取流程实例的评论时间线（流程、任务、系统评论按时间正序合并）
+     * GET /api/comments/process/{processInstanceId}/timeline?cursor=xxx&limit=50
+     *
+     * @param processInstanceId 流程实例ID
+     * @param cursor 分页游标（首页为空，下一页使用上一页返回的 nextCursor）
+     * @param limit 每页数量
+     * @return 评论分页结果
+     */
+    @GetMapping("/process/{processInstanceId}/timeline")
+    public Result<KeysetPage<ProcessCommentService.Comment>> getCommentTimeline(
+            @PathVariable("processInstanceId") String processInstanceId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            KeysetPage<ProcessCommentService.Comment> page =
+                commentService.getCommentTimeline(processInstanceId, cursor, limit);
+            return Result.success(page);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 删除评论
      *
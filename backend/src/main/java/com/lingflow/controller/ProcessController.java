@@ -1,15 +1,23 @@
 package com.lingflow.controller;
 
+import com.lingflow.dto.BatchJobProgressDTO;
+import com.lingflow.dto.BulkStartItem;
+import com.lingflow.dto.KeysetPage;
 import com.lingflow.dto.ProcessDefinitionVO;
 import com.lingflow.dto.ProcessInstanceVO;
 import com.lingflow.dto.Result;
 import com.lingflow.dto.BpmnElementExtensionDTO;
 import com.lingflow.dto.ElementExtensionQueryResult;
 import com.lingflow.dto.DeployProcessRequest;
+import com.lingflow.entity.BatchJobItem;
 import com.lingflow.entity.BpmnElementExtension;
 import com.lingflow.service.ProcessDefinitionService;
+import com.lingflow.service.ProcessStartJobService;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -30,6 +38,9 @@ public class ProcessController {
     @Autowired
     private ProcessDefinitionService processDefinitionService;
 
+    @Autowired
+    private ProcessStartJobService processStartJobService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -88,6 +99,102 @@ public class ProcessController {
         }
     }
 
+    /**
+     * 批量启动流程实例（JSON 请求体，后台按分块执行）
+     *
+     * @param processKey 流程定义Key
+     * @param request 启动明细与操作人
+     * @return 任务进度（含任务ID）
+     */
+    @PostMapping(value = "/start/{processKey}/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Result<BatchJobProgressDTO> startProcessBatch(
+            @PathVariable("processKey") String processKey,
+            @RequestBody BulkStartRequest request) {
+        try {
+            BatchJobProgressDTO progress = processStartJobService.submit(
+                processKey,
+                request.getItems() != null ? request.getItems().iterator() : null,
+                request.getUserId()
+            );
+            return Result.success(progress);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 批量启动流程实例（NDJSON 流，每行一个 {businessKey, variables}，边解析边写入，适合超大批量）
+     *
+     * @param processKey 流程定义Key
+     * @param userId 操作人
+     * @param httpRequest 请求（读取请求体流）
+     * @return 任务进度（含任务ID）
+     */
+    @PostMapping(value = "/start/{processKey}/batch", consumes = "application/x-ndjson")
+    public Result<BatchJobProgressDTO> startProcessBatchStream(
+            @PathVariable("processKey") String processKey,
+            @RequestParam(value = "userId", required = false) String userId,
+            HttpServletRequest httpRequest) {
+        try (MappingIterator<BulkStartItem> items = objectMapper.readerFor(BulkStartItem.class)
+                .readValues(httpRequest.getInputStream())) {
+            return Result.success(processStartJobService.submit(processKey, items, userId));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 查询批量启动任务进度（含吞吐量）
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    @GetMapping("/start/jobs/{jobId}")
+    public Result<BatchJobProgressDTO> getStartJob(@PathVariable("jobId") String jobId) {
+        try {
+            return Result.success(processStartJobService.getProgress(jobId));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 按游标分页查询批量启动任务的逐项结果（成功与跳过的明细 result 为流程实例ID）
+     *
+     * @param jobId  任务ID
+     * @param status 状态（可选，如 FAILED、SKIPPED）
+     * @param cursor 上一页返回的游标，首页不传
+     * @param limit  每页数量
+     * @return 明细分页
+     */
+    @GetMapping("/start/jobs/{jobId}/items")
+    public Result<KeysetPage<BatchJobItem>> getStartJobItems(
+            @PathVariable("jobId") String jobId,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return Result.success(processStartJobService.getItems(jobId, status, cursor, limit));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 续跑失败或中断的批量启动任务
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    @PostMapping("/start/jobs/{jobId}/resume")
+    public Result<BatchJobProgressDTO> resumeStartJob(@PathVariable("jobId") String jobId) {
+        try {
+            return Result.success(processStartJobService.resume(jobId));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取运行中的流程实例
      */
@@ -259,4 +366,20 @@ public class ProcessController {
             return Result.error(e.getMessage());
         }
     }
+
+    /**
+     * 批量启动流程实例请求参数
+     */
+    @Data
+    public static class BulkStartRequest {
+        /**
+         * 启动明细
+         */
+        private List<BulkStartItem> items;
+
+        /**
+         * 操作人
+         */
+        private String userId;
+    }
 }
@@ -1,10 +1,14 @@
 package com.lingflow.controller;
 
+import com.lingflow.dto.KeysetPage;
 import com.lingflow.dto.Result;
 import com.lingflow.service.ProcessNotificationService;
+import com.lingflow.service.UnreadCountPublisher;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -19,6 +23,9 @@ public class ProcessNotificationController {
     @Autowired
     private ProcessNotificationService notificationService;
 
+    @Autowired
+    private UnreadCountPublisher unreadCountPublisher;
+
     /**
      * 发送任务分配通知
      *
@@ -185,6 +192,27 @@ public class ProcessNotificationController {
         }
     }
 
+    /**
+     * 批量发送自定义通知（大量接收人）
+     *
+     * @param request 请求参数
+     * @return 全部通知ID
+     */
+    @PostMapping("/custom/batch")
+    public Result<List<String>> sendCustomNotifications(@RequestBody CustomNotificationRequest request) {
+        try {
+            List<String> notificationIds = notificationService.sendCustomNotifications(
+                request.getRecipients(),
+                request.getTitle(),
+                request.getContent(),
+                request.getProcessInstanceId()
+            );
+            return Result.success(notificationIds);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取用户的通知列表
      *
@@ -205,6 +233,35 @@ public class ProcessNotificationController {
         }
     }
 
+    /**
+     * 按游标分页获取用户收件箱
+     * GET /api/notifications/user/{userId}/inbox?type=xxx&read=false&processInstanceId=xxx&cursor=xxx&limit=20
+     *
+     * @param userId 用户ID
+     * @param type 通知类型
+     * @param read 是否已读
+     * @param processInstanceId 流程实例ID
+     * @param cursor 分页游标（首页为空，下一页使用上一页返回的 nextCursor）
+     * @param limit 每页数量
+     * @return 通知分页结果
+     */
+    @GetMapping("/user/{userId}/inbox")
+    public Result<KeysetPage<ProcessNotificationService.NotificationRecordVO>> getUserInbox(
+            @PathVariable("userId") String userId,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "read", required = false) Boolean read,
+            @RequestParam(value = "processInstanceId", required = false) String processInstanceId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            KeysetPage<ProcessNotificationService.NotificationRecordVO> page =
+                notificationService.getUserInbox(userId, type, read, processInstanceId, cursor, limit);
+            return Result.success(page);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取未读通知数量
      *
@@ -221,6 +278,17 @@ public class ProcessNotificationController {
         }
     }
 
+    /**
+     * 订阅未读通知数量（SSE，事件名 unread-count）
+     *
+     * @param userId 用户ID
+     * @return SSE 连接
+     */
+    @GetMapping(value = "/user/{userId}/unread-count/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeUnreadCount(@PathVariable("userId") String userId) {
+        return unreadCountPublisher.subscribe(userId);
+    }
+
     /**
      * 标记通知为已读
      *
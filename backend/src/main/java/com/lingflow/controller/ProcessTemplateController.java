@@ -247,6 +247,38 @@ public class ProcessTemplateController {
         }
     }
 
+    /**
+     * 按相关度搜索发布态模板（游标分页）
+     * GET /api/process/template/published/search?keyword=xxx&tenantId=xxx&cursor=xxx&limit=20
+     *
+     * @param keyword 关键词（匹配名称、描述、标签）
+     * @param tenantId 租户ID（必需）
+     * @param cursor 分页游标（可选，取上一页返回的 nextCursor）
+     * @param limit 每页数量（可选）
+     */
+    @GetMapping("/published/search")
+    public Result<KeysetPage<ProcessTemplatePublishedVO>> searchPublished(
+            @RequestParam String keyword,
+            @RequestParam String tenantId,
+            @RequestParam(required = false) String appId,
+            @RequestParam(required = false) String contextId,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(required = false) ProcessTemplateStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            logger.info("搜索发布态模板: tenantId={}, keyword={}", tenantId, keyword);
+            KeysetPage<ProcessTemplatePublishedVO> result = templateService.searchPublished(
+                    keyword, tenantId, appId, contextId, categoryId, status, cursor, limit
+            );
+            return Result.success(result);
+        } catch (Exception e) {
+            logger.error("搜索发布态模板失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
     // ============ 快照管理 ============
 
     /**
@@ -270,6 +302,22 @@ public class ProcessTemplateController {
         }
     }
 
+    /**
+     * 查询快照详情（包含BPMN内容）
+     * GET /api/process/template/snapshot/detail/{id}
+     */
+    @GetMapping("/snapshot/detail/{id}")
+    public Result<ProcessTemplateSnapshotVO> getSnapshot(@PathVariable String id) {
+        try {
+            logger.info("查询快照详情: id={}", id);
+            ProcessTemplateSnapshotVO result = templateService.getSnapshot(id);
+            return Result.success(result);
+        } catch (Exception e) {
+            logger.error("查询快照详情失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 查询快照列表
      * GET /api/process/template/snapshot/{templateKey}
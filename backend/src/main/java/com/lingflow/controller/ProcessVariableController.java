@@ -1,7 +1,17 @@
 package com.lingflow.controller;
 
+import com.lingflow.dto.BatchJobProgressDTO;
+import com.lingflow.dto.KeysetPage;
 import com.lingflow.dto.Result;
+import com.lingflow.dto.VariableBatchResult;
+import com.lingflow.dto.VariableMetaDTO;
+import com.lingflow.dto.VariableRevisionDTO;
+import com.lingflow.dto.VariableSearchHitDTO;
+import com.lingflow.entity.BatchJobItem;
+import com.lingflow.entity.SearchableVariable;
 import com.lingflow.service.ProcessVariableService;
+import com.lingflow.service.VariableCopyJobService;
+import com.lingflow.service.VariableSearchService;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -20,23 +30,51 @@ public class ProcessVariableController {
     @Autowired
     private ProcessVariableService variableService;
 
+    @Autowired
+    private VariableSearchService variableSearchService;
+
+    @Autowired
+    private VariableCopyJobService variableCopyJobService;
+
     /**
-     * 获取流程实例的所有变量
+     * 获取流程实例的变量
      *
      * @param processInstanceId 流程实例ID
+     * @param names            变量名（可选，指定时只加载这些变量）
      * @return 变量Map
      */
     @GetMapping("/process/{processInstanceId}")
     public Result<Map<String, Object>> getProcessVariables(
-            @PathVariable("processInstanceId") String processInstanceId) {
+            @PathVariable("processInstanceId") String processInstanceId,
+            @RequestParam(value = "names", required = false) List<String> names) {
         try {
-            Map<String, Object> variables = variableService.getProcessVariables(processInstanceId);
+            Map<String, Object> variables = names == null || names.isEmpty()
+                    ? variableService.getProcessVariables(processInstanceId)
+                    : variableService.getNamedProcessInstanceVariables(processInstanceId, names);
             return Result.success(variables);
         } catch (Exception e) {
             return Result.error(e.getMessage());
         }
     }
 
+    /**
+     * 获取流程实例变量的元数据（名称、类型、大小）
+     *
+     * @param processInstanceId 流程实例ID
+     * @param includeValues    是否同时返回小变量的值（超过上限的变量 large=true，需单独获取）
+     * @return 变量元数据列表
+     */
+    @GetMapping("/process/{processInstanceId}/meta")
+    public Result<List<VariableMetaDTO>> getProcessVariableMeta(
+            @PathVariable("processInstanceId") String processInstanceId,
+            @RequestParam(value = "includeValues", defaultValue = "false") boolean includeValues) {
+        try {
+            return Result.success(variableService.getProcessInstanceVariableMeta(processInstanceId, includeValues));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取流程实例的单个变量
      *
@@ -95,6 +133,44 @@ public class ProcessVariableController {
         }
     }
 
+    /**
+     * 批量获取多个流程实例的变量
+     * POST /api/variables/process/batch/query
+     *
+     * @param request 请求参数
+     * @return 流程实例ID → 变量Map
+     */
+    @PostMapping("/process/batch/query")
+    public Result<Map<String, Map<String, Object>>> batchGetProcessVariables(
+            @RequestBody BatchGetVariablesRequest request) {
+        try {
+            Map<String, Map<String, Object>> variables = variableService.getProcessInstanceVariables(
+                request.getProcessInstanceIds(),
+                request.getVariableNames()
+            );
+            return Result.success(variables);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 批量设置多个流程实例的变量
+     * PUT /api/variables/process/batch
+     *
+     * @param request 请求参数
+     * @return 批量设置结果
+     */
+    @PutMapping("/process/batch")
+    public Result<VariableBatchResult> batchSetProcessVariables(@RequestBody BatchSetVariablesRequest request) {
+        try {
+            VariableBatchResult result = variableService.setProcessInstanceVariables(request.getVariables());
+            return Result.success(result);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 删除流程实例变量
      *
@@ -115,21 +191,44 @@ public class ProcessVariableController {
     }
 
     /**
-     * 获取任务的所有本地变量
+     * 获取任务的变量
      *
      * @param taskId 任务ID
+     * @param names  变量名（可选，指定时只加载这些变量）
      * @return 变量Map
      */
     @GetMapping("/task/{taskId}")
-    public Result<Map<String, Object>> getTaskVariables(@PathVariable("taskId") String taskId) {
+    public Result<Map<String, Object>> getTaskVariables(
+            @PathVariable("taskId") String taskId,
+            @RequestParam(value = "names", required = false) List<String> names) {
         try {
-            Map<String, Object> variables = variableService.getTaskVariables(taskId);
+            Map<String, Object> variables = names == null || names.isEmpty()
+                    ? variableService.getTaskVariables(taskId)
+                    : variableService.getNamedTaskVariables(taskId, names);
             return Result.success(variables);
         } catch (Exception e) {
             return Result.error(e.getMessage());
         }
     }
 
+    /**
+     * 获取任务可见变量的元数据（名称、类型、大小）
+     *
+     * @param taskId        任务ID
+     * @param includeValues 是否同时返回小变量的值（超过上限的变量 large=true，需单独获取）
+     * @return 变量元数据列表
+     */
+    @GetMapping("/task/{taskId}/meta")
+    public Result<List<VariableMetaDTO>> getTaskVariableMeta(
+            @PathVariable("taskId") String taskId,
+            @RequestParam(value = "includeValues", defaultValue = "false") boolean includeValues) {
+        try {
+            return Result.success(variableService.getTaskVariableMeta(taskId, includeValues));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取任务的单个本地变量
      *
@@ -206,19 +305,23 @@ public class ProcessVariableController {
     }
 
     /**
-     * 获取变量的历史变更记录
+     * 按游标分页获取变量的历史变更记录（按更新时间倒序）
      *
      * @param processInstanceId 流程实例ID
      * @param variableName     变量名
-     * @return 历史记录列表
+     * @param cursor           上一页返回的游标，首页不传
+     * @param limit            每页数量
+     * @return 修订记录分页
      */
     @GetMapping("/history/{processInstanceId}/variable/{variableName}")
-    public Result<List<org.flowable.variable.api.history.HistoricVariableInstance>> getVariableHistory(
+    public Result<KeysetPage<VariableRevisionDTO>> getVariableHistory(
             @PathVariable("processInstanceId") String processInstanceId,
-            @PathVariable("variableName") String variableName) {
+            @PathVariable("variableName") String variableName,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         try {
-            List<org.flowable.variable.api.history.HistoricVariableInstance> history =
-                variableService.getVariableHistory(processInstanceId, variableName);
+            KeysetPage<VariableRevisionDTO> history =
+                variableService.getVariableHistory(processInstanceId, variableName, cursor, limit);
             return Result.success(history);
         } catch (Exception e) {
             return Result.error(e.getMessage());
@@ -245,8 +348,207 @@ public class ProcessVariableController {
         }
     }
 
+    /**
+     * 提交批量复制变量任务（一个源实例复制到大量目标实例，后台分块执行）
+     *
+     * @param request 请求参数
+     * @return 任务进度（含任务ID）
+     */
+    @PostMapping("/copy/jobs")
+    public Result<BatchJobProgressDTO> submitCopyJob(@RequestBody BulkCopyVariablesRequest request) {
+        try {
+            BatchJobProgressDTO progress = variableCopyJobService.submit(
+                request.getSourceProcessInstanceId(),
+                request.getVariableNames(),
+                request.getTargetProcessInstanceIds(),
+                request.getUserId()
+            );
+            return Result.success(progress);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 查询批量复制变量任务进度
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    @GetMapping("/copy/jobs/{jobId}")
+    public Result<BatchJobProgressDTO> getCopyJob(@PathVariable("jobId") String jobId) {
+        try {
+            return Result.success(variableCopyJobService.getProgress(jobId));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 按游标分页查询批量复制变量任务的逐项结果
+     *
+     * @param jobId  任务ID
+     * @param status 状态（可选，如 FAILED）
+     * @param cursor 上一页返回的游标，首页不传
+     * @param limit  每页数量
+     * @return 明细分页
+     */
+    @GetMapping("/copy/jobs/{jobId}/items")
+    public Result<KeysetPage<BatchJobItem>> getCopyJobItems(
+            @PathVariable("jobId") String jobId,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return Result.success(variableCopyJobService.getItems(jobId, status, cursor, limit));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 续跑失败或中断的批量复制变量任务
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    @PostMapping("/copy/jobs/{jobId}/resume")
+    public Result<BatchJobProgressDTO> resumeCopyJob(@PathVariable("jobId") String jobId) {
+        try {
+            return Result.success(variableCopyJobService.resume(jobId));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 按可搜索变量的值查找流程实例
+     *
+     * @param name                 变量名
+     * @param value                变量值（前缀查找时为前缀）
+     * @param prefix               是否前缀查找
+     * @param processDefinitionKey 流程定义Key（可选）
+     * @param limit                返回数量
+     * @return 命中记录
+     */
+    @GetMapping("/search")
+    public Result<List<VariableSearchHitDTO>> searchByVariable(
+            @RequestParam("name") String name,
+            @RequestParam("value") String value,
+            @RequestParam(value = "prefix", defaultValue = "false") boolean prefix,
+            @RequestParam(value = "processDefinitionKey", required = false) String processDefinitionKey,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return Result.success(variableSearchService.search(name, value, prefix, processDefinitionKey, limit));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 查询可搜索变量配置
+     *
+     * @param processDefinitionKey 流程定义Key（可选）
+     * @return 配置列表
+     */
+    @GetMapping("/searchable")
+    public Result<List<SearchableVariable>> listSearchableVariables(
+            @RequestParam(value = "processDefinitionKey", required = false) String processDefinitionKey) {
+        try {
+            return Result.success(variableSearchService.listSearchableVariables(processDefinitionKey));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 标记可搜索变量（同时回填运行中流程实例的现有值）
+     *
+     * @param request 请求参数
+     * @return 回填的流程实例数量
+     */
+    @PostMapping("/searchable")
+    public Result<Integer> addSearchableVariable(@RequestBody SearchableVariableRequest request) {
+        try {
+            int backfilled = variableSearchService.addSearchableVariable(
+                request.getProcessDefinitionKey(),
+                request.getVariableName(),
+                request.getUserId()
+            );
+            return Result.success(backfilled);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 取消可搜索变量
+     *
+     * @param processDefinitionKey 流程定义Key
+     * @param variableName         变量名
+     * @return 是否成功
+     */
+    @DeleteMapping("/searchable/{processDefinitionKey}/{variableName}")
+    public Result<Boolean> removeSearchableVariable(
+            @PathVariable("processDefinitionKey") String processDefinitionKey,
+            @PathVariable("variableName") String variableName) {
+        try {
+            variableSearchService.removeSearchableVariable(processDefinitionKey, variableName);
+            return Result.success(true);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     // ==================== VO 类定义 ====================
 
+    /**
+     * 批量复制变量请求参数
+     */
+    @Data
+    public static class BulkCopyVariablesRequest {
+        /**
+         * 源流程实例ID
+         */
+        private String sourceProcessInstanceId;
+
+        /**
+         * 要复制的变量名（为空则复制全部）
+         */
+        private List<String> variableNames;
+
+        /**
+         * 目标流程实例ID列表
+         */
+        private List<String> targetProcessInstanceIds;
+
+        /**
+         * 操作人
+         */
+        private String userId;
+    }
+
+    /**
+     * 可搜索变量配置请求参数
+     */
+    @Data
+    public static class SearchableVariableRequest {
+        /**
+         * 流程定义Key
+         */
+        private String processDefinitionKey;
+
+        /**
+         * 变量名
+         */
+        private String variableName;
+
+        /**
+         * 操作人
+         */
+        private String userId;
+    }
+
     /**
      * 设置变量请求参数
      */
@@ -263,6 +565,33 @@ public class ProcessVariableController {
         private Map<String, Object> variables;
     }
 
+    /**
+     * 批量获取变量请求参数
+     */
+    @Data
+    public static class BatchGetVariablesRequest {
+        /**
+         * 流程实例ID列表
+         */
+        private List<String> processInstanceIds;
+
+        /**
+         * 变量名列表（为空则返回全部流程级变量）
+         */
+        private List<String> variableNames;
+    }
+
+    /**
+     * 批量设置变量请求参数
+     */
+    @Data
+    public static class BatchSetVariablesRequest {
+        /**
+         * 流程实例ID → 变量Map
+         */
+        private Map<String, Map<String, Object>> variables;
+    }
+
     /**
      * 更新变量请求参数
      */
@@ -0,0 +1,87 @@
+package com.lingflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批量任务进度数据传输对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchJobProgressDTO {
+    /**
+     * 任务ID（续跑时使用）
+     */
+    private String jobId;
+
+    /**
+     * 任务类型
+     */
+    private String jobType;
+
+    /**
+     * 状态：PENDING、RUNNING、COMPLETED、FAILED、INTERRUPTED
+     */
+    private String status;
+
+    /**
+     * 明细总数
+     */
+    private Integer totalCount;
+
+    /**
+     * 已处理数
+     */
+    private Integer processedCount;
+
+    /**
+     * 成功数
+     */
+    private Integer successCount;
+
+    /**
+     * 失败数
+     */
+    private Integer failureCount;
+
+    /**
+     * 跳过数（去重跳过的明细）
+     */
+    private Integer skippedCount;
+
+    /**
+     * 已处理的最大明细序号（续跑位置）
+     */
+    private Integer cursorSeq;
+
+    /**
+     * 本次执行的吞吐量（明细数/秒）
+     */
+    private Double throughputPerSecond;
+
+    /**
+     * 任务失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 本次开始执行时间
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime endTime;
+}
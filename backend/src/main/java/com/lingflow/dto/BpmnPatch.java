@@ -0,0 +1,37 @@
+package com.lingflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * BPMN XML 增量补丁
+ *
+ * <p>表示对上一次保存内容的单段替换：从 {@code offset} 开始删除 {@code deleteLength}
+ * 个字符，再插入 {@code insertText}。偏移量按 UTF-16 字符计算（与前端字符串下标一致）。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BpmnPatch {
+
+    /**
+     * 替换起始位置
+     */
+    private Integer offset;
+
+    /**
+     * 删除长度
+     */
+    private Integer deleteLength;
+
+    /**
+     * 插入内容
+     */
+    private String insertText;
+}
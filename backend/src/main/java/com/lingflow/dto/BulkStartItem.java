@@ -0,0 +1,28 @@
+package com.lingflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 批量启动流程实例的单项参数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStartItem {
+
+    /**
+     * 业务Key（同一流程定义下已存在实例的业务Key会跳过；为空则不去重）
+     */
+    private String businessKey;
+
+    /**
+     * 流程变量
+     */
+    private Map<String, Object> variables;
+}
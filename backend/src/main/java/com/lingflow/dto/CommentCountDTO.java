@@ -0,0 +1,31 @@
+package com.lingflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 评论数量统计数据传输对象
+ * 用于单条聚合查询返回流程实例的评论统计
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentCountDTO {
+    /**
+     * 流程评论数
+     */
+    private Long processCommentCount;
+
+    /**
+     * 任务评论数
+     */
+    private Long taskCommentCount;
+
+    /**
+     * 参与评论的用户数
+     */
+    private Long participantCount;
+}
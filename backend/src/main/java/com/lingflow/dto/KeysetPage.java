@@ -0,0 +1,39 @@
+package com.lingflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果（Keyset 分页）
+ *
+ * <p>与 {@link PageResult} 不同，游标分页不统计总数，也不使用 OFFSET：
+ * 下一页从 {@code nextCursor} 指向的位置继续查询，翻页代价与页码无关。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    /**
+     * 数据列表
+     */
+    private List<T> list;
+
+    /**
+     * 下一页游标（没有更多数据时为null）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+}
@@ -66,6 +66,11 @@ public class ProcessCategoryTreeDTO {
      */
     private String icon;
 
+    /**
+     * 乐观锁版本号（批量排序时回传）
+     */
+    private Integer version;
+
     /**
      * 该分类下的流程数量
      */
@@ -12,7 +12,7 @@ import java.util.List;
  * 用于返回搜索到的流程模板及其分类路径信息
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProcessSearchResultDTO {
@@ -42,10 +42,15 @@ public class ProcessTemplateDraftVO {
     private String description;
 
     /**
-     * BPMN XML内容
+     * BPMN XML内容（仅详情查询返回）
      */
     private String bpmnXml;
 
+    /**
+     * BPMN内容哈希（SHA-256）
+     */
+    private String bpmnHash;
+
     /**
      * 分类ID
      */
@@ -67,7 +72,7 @@ public class ProcessTemplateDraftVO {
     private List<String> tags;
 
     /**
-     * 表单配置
+     * 表单配置（仅详情查询返回）
      */
     private Object formConfig;
 
@@ -115,4 +120,9 @@ public class ProcessTemplateDraftVO {
      * 版本号
      */
     private Integer version;
+
+    /**
+     * 本次保存的BPMN校验警告（结构性问题不阻止草稿保存，发布时会被拒绝；未重新校验时为空）
+     */
+    private List<String> validationWarnings;
 }
@@ -42,10 +42,15 @@ public class ProcessTemplatePublishedVO {
     private String description;
 
     /**
-     * BPMN XML内容
+     * BPMN XML内容（仅详情查询返回）
      */
     private String bpmnXml;
 
+    /**
+     * BPMN内容哈希（SHA-256）
+     */
+    private String bpmnHash;
+
     /**
      * Flowable流程定义ID
      */
@@ -82,7 +87,7 @@ public class ProcessTemplatePublishedVO {
     private List<String> tags;
 
     /**
-     * 表单配置
+     * 表单配置（仅详情查询返回）
      */
     private Object formConfig;
 
@@ -37,10 +37,15 @@ public class ProcessTemplateSnapshotVO {
     private String snapshotName;
 
     /**
-     * BPMN XML内容
+     * BPMN XML内容（仅详情查询返回）
      */
     private String bpmnXml;
 
+    /**
+     * BPMN内容哈希（SHA-256）
+     */
+    private String bpmnHash;
+
     /**
      * 来源模板ID
      */
@@ -77,7 +82,7 @@ public class ProcessTemplateSnapshotVO {
     private List<String> tags;
 
     /**
-     * 表单配置
+     * 表单配置（仅详情查询返回）
      */
     private Object formConfig;
 
@@ -23,4 +23,9 @@ public class SortOrderDTO {
      * 排序序号
      */
     private Integer sortOrder;
+
+    /**
+     * 乐观锁版本号（为空时不校验）
+     */
+    private Integer version;
 }
@@ -32,11 +32,20 @@ public class UpdateDraftTemplateRequest {
     private String description;
 
     /**
-     * BPMN XML内容
+     * BPMN XML内容（完整内容，与 bpmnPatch 二选一）
      */
-    @NotBlank(message = "BPMN XML内容不能为空")
     private String bpmnXml;
 
+    /**
+     * BPMN XML增量补丁（相对 baseVersion 版本的内容，与 bpmnXml 二选一）
+     */
+    private BpmnPatch bpmnPatch;
+
+    /**
+     * 补丁所基于的模板版本号（提交 bpmnPatch 时必填）
+     */
+    private Integer baseVersion;
+
     /**
      * 分类ID
      */
@@ -0,0 +1,32 @@
+package com.lingflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量设置变量结果数据传输对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariableBatchResult {
+    /**
+     * 已更新的流程实例数
+     */
+    private Integer updatedInstances;
+
+    /**
+     * 已写入的变量数
+     */
+    private Integer updatedVariables;
+
+    /**
+     * 不存在（或已结束）的流程实例ID
+     */
+    private List<String> missingProcessInstanceIds;
+}
@@ -0,0 +1,46 @@
+package com.lingflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 变量元数据数据传输对象
+ * 用于变量列表投影：只返回名称、类型与大小，大变量的值按需单独加载
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariableMetaDTO {
+    /**
+     * 变量名
+     */
+    private String name;
+
+    /**
+     * Flowable 变量类型（string、integer、json、serializable、bytes 等）
+     */
+    private String type;
+
+    /**
+     * 变量作用域：process（流程实例）、execution（子执行本地）、task（任务本地）
+     */
+    private String scope;
+
+    /**
+     * 存储大小（字节，字节数组变量为 ACT_GE_BYTEARRAY 中的大小）
+     */
+    private Long size;
+
+    /**
+     * 是否超过内联加载上限（超过时不随列表返回值）
+     */
+    private Boolean large;
+
+    /**
+     * 变量值（仅在请求包含值且未超过上限时返回）
+     */
+    private Object value;
+}
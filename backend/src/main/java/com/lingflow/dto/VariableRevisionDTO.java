@@ -0,0 +1,68 @@
+package com.lingflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 变量修订记录数据传输对象
+ * 对应 ACT_HI_DETAIL 中的一次变量更新，或（未记录更新明细时）ACT_HI_VARINST 中一个作用域的当前值
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariableRevisionDTO {
+    /**
+     * 历史明细ID
+     */
+    private String id;
+
+    /**
+     * 变量名
+     */
+    private String variableName;
+
+    /**
+     * Flowable 变量类型
+     */
+    private String variableType;
+
+    /**
+     * 修订号（变量每次更新递增，来源为 instance 时为空）
+     */
+    private Integer revision;
+
+    /**
+     * 本次更新后的值
+     */
+    private Object value;
+
+    /**
+     * 更新所在的执行ID
+     */
+    private String executionId;
+
+    /**
+     * 更新所在的任务ID（任务本地变量）
+     */
+    private String taskId;
+
+    /**
+     * 更新所在的活动实例ID
+     */
+    private String activityInstanceId;
+
+    /**
+     * 更新时间
+     */
+    private Date time;
+
+    /**
+     * 记录来源：detail（ACT_HI_DETAIL 更新记录）或 instance（ACT_HI_VARINST 当前值）
+     */
+    private String source;
+}
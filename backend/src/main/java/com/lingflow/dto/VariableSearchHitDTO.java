@@ -0,0 +1,40 @@
+package com.lingflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 变量查找结果数据传输对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariableSearchHitDTO {
+    /**
+     * 流程实例ID
+     */
+    private String processInstanceId;
+
+    /**
+     * 流程定义Key
+     */
+    private String processDefinitionKey;
+
+    /**
+     * 变量名
+     */
+    private String variableName;
+
+    /**
+     * 值类型：string、long、boolean
+     */
+    private String valueType;
+
+    /**
+     * 变量值（文本形式）
+     */
+    private String value;
+}
@@ -0,0 +1,132 @@
+package com.lingflow.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批量任务实体类
+ * 记录分块执行的批量操作的状态、进度与续跑位置
+ */
+@Data
+@TableName("lf_batch_job")
+public class BatchJob {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_INTERRUPTED = "INTERRUPTED";
+
+    /**
+     * 任务ID
+     */
+    @TableId(value = "job_id", type = IdType.INPUT)
+    private String jobId;
+
+    /**
+     * 任务类型
+     */
+    @TableField("job_type")
+    private String jobType;
+
+    /**
+     * 状态
+     */
+    @TableField("status")
+    private String status;
+
+    /**
+     * 任务参数（JSON）
+     */
+    @TableField("params")
+    private String params;
+
+    /**
+     * 明细总数
+     */
+    @TableField("total_count")
+    private Integer totalCount;
+
+    /**
+     * 已处理数
+     */
+    @TableField("processed_count")
+    private Integer processedCount;
+
+    /**
+     * 成功数
+     */
+    @TableField("success_count")
+    private Integer successCount;
+
+    /**
+     * 失败数
+     */
+    @TableField("failure_count")
+    private Integer failureCount;
+
+    /**
+     * 跳过数
+     */
+    @TableField("skipped_count")
+    private Integer skippedCount;
+
+    /**
+     * 已处理的最大明细序号（续跑位置）
+     */
+    @TableField("cursor_seq")
+    private Integer cursorSeq;
+
+    /**
+     * 本次执行开始时的续跑位置
+     */
+    @TableField("start_seq")
+    private Integer startSeq;
+
+    /**
+     * 当前执行令牌（每次领取时生成）
+     */
+    @TableField("run_token")
+    private String runToken;
+
+    /**
+     * 任务失败原因
+     */
+    @TableField("error_message")
+    private String errorMessage;
+
+    /**
+     * 创建人
+     */
+    @TableField("create_by")
+    private String createBy;
+
+    /**
+     * 创建时间
+     */
+    @TableField("create_time")
+    private LocalDateTime createTime;
+
+    /**
+     * 本次开始执行时间
+     */
+    @TableField("start_time")
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    @TableField("end_time")
+    private LocalDateTime endTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,61 @@
+package com.lingflow.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+/**
+ * 批量任务明细实体类
+ * 批量任务中的单个处理目标及其处理结果
+ */
+@Data
+@TableName("lf_batch_job_item")
+public class BatchJobItem {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_SKIPPED = "SKIPPED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * 任务ID
+     */
+    @TableField("job_id")
+    private String jobId;
+
+    /**
+     * 明细序号（从1开始）
+     */
+    @TableField("seq")
+    private Integer seq;
+
+    /**
+     * 明细标识（如目标流程实例ID）
+     */
+    @TableField("item_key")
+    private String itemKey;
+
+    /**
+     * 明细参数（JSON）
+     */
+    @TableField("payload")
+    private String payload;
+
+    /**
+     * 状态
+     */
+    @TableField("status")
+    private String status;
+
+    /**
+     * 处理结果
+     */
+    @TableField("result")
+    private String result;
+
+    /**
+     * 失败原因
+     */
+    @TableField("message")
+    private String message;
+}
@@ -0,0 +1,69 @@
+package com.lingflow.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * BPMN 内容块实体类
+ *
+ * <p>以内容的 SHA-256 作为主键（内容寻址），相同的 BPMN XML 在设计态、发布态和快照之间只存储一份。
+ * 内容以压缩后的字节形式存储。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BpmnContentBlob {
+
+    /**
+     * 压缩方式：Deflate
+     */
+    public static final String COMPRESSION_DEFLATE = "DEFLATE";
+
+    /**
+     * 压缩方式：未压缩（迁移回填的历史数据）
+     */
+    public static final String COMPRESSION_NONE = "NONE";
+
+    /**
+     * 内容哈希（UTF-8 字节的 SHA-256，十六进制小写）
+     */
+    private String contentHash;
+
+    /**
+     * 压缩方式
+     */
+    private String compression;
+
+    /**
+     * 存储内容
+     */
+    private byte[] content;
+
+    /**
+     * 原始大小（字节）
+     */
+    private Integer rawSize;
+
+    /**
+     * 存储大小（字节）
+     */
+    private Integer storedSize;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdTime;
+
+    /**
+     * 最近一次被引用的时间（用于回收未引用内容）
+     */
+    private LocalDateTime lastReferencedTime;
+}
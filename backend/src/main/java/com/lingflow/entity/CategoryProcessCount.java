@@ -0,0 +1,29 @@
+package com.lingflow.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分类流程数量（按分类分组统计的查询结果）
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryProcessCount {
+
+    /**
+     * 分类ID
+     */
+    private String categoryId;
+
+    /**
+     * 直接归属该分类的流程数量（不含子分类）
+     */
+    private Integer processCount;
+}
@@ -17,6 +17,26 @@ import java.util.UUID;
 @TableName("lf_notification_record")
 public class NotificationRecord {
 
+    /**
+     * 投递状态：待投递
+     */
+    public static final String DELIVERY_PENDING = "PENDING";
+
+    /**
+     * 投递状态：已投递
+     */
+    public static final String DELIVERY_SENT = "SENT";
+
+    /**
+     * 投递状态：投递失败（重试耗尽）
+     */
+    public static final String DELIVERY_FAILED = "FAILED";
+
+    /**
+     * 投递状态：等待合并为摘要投递（高频接收人超出限流的通知）
+     */
+    public static final String DELIVERY_COALESCED = "COALESCED";
+
     /**
      * 主键ID
      */
@@ -128,6 +148,36 @@ public class NotificationRecord {
     @TableField("extra_data")
     private String extraData;
 
+    /**
+     * 投递状态：PENDING, COALESCED, SENT, FAILED
+     */
+    @TableField("delivery_status")
+    private String deliveryStatus = DELIVERY_PENDING;
+
+    /**
+     * 投递尝试次数（各渠道累计）
+     */
+    @TableField("delivery_attempts")
+    private Integer deliveryAttempts = 0;
+
+    /**
+     * 最近一次投递错误
+     */
+    @TableField("delivery_error")
+    private String deliveryError;
+
+    /**
+     * 投递成功时间
+     */
+    @TableField("delivered_time")
+    private LocalDateTime deliveredTime;
+
+    /**
+     * 投递租约到期时间（补偿领取或重试时写入）
+     */
+    @TableField("delivery_lease_until")
+    private LocalDateTime deliveryLeaseUntil;
+
     /**
      * 构造函数
      */
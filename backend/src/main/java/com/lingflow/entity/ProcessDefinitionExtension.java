@@ -88,4 +88,29 @@ public class ProcessDefinitionExtension {
      * 不持久化到数据库，仅用于查询结果
      */
     private String categoryPath;
+
+    /**
+     * 分类名称（不持久化，仅用于查询结果）
+     */
+    private String categoryName;
+
+    /**
+     * 流程Key（来自 ACT_RE_PROCDEF，仅搜索查询返回）
+     */
+    private String processKey;
+
+    /**
+     * 流程名称（来自 ACT_RE_PROCDEF，仅搜索查询返回）
+     */
+    private String processName;
+
+    /**
+     * 流程版本号（来自 ACT_RE_PROCDEF，仅搜索查询返回）
+     */
+    private Integer processVersion;
+
+    /**
+     * 搜索相关度（不持久化，仅搜索查询返回）
+     */
+    private Float searchScore;
 }
@@ -43,6 +43,11 @@ public class ProcessSnapshot {
      */
     private String bpmnXml;
     
+    /**
+     * BPMN内容哈希（引用 bpmn_content_blob）
+     */
+    private String bpmnHash;
+    
     /**
      * 快照描述
      */
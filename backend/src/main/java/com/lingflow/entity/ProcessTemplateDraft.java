@@ -61,6 +61,11 @@ public class ProcessTemplateDraft {
      */
     private String bpmnXml;
 
+    /**
+     * BPMN基线内容哈希（引用 bpmn_content_blob）
+     */
+    private String bpmnHash;
+
     /**
      * 所属分类ID（外键）
      */
@@ -123,6 +128,21 @@ public class ProcessTemplateDraft {
      */
     private Integer version;
 
+    /**
+     * bpmnXml 基线对应的模板版本号
+     */
+    private Integer bpmnBaseVersion;
+
+    /**
+     * 基线之后的增量数量
+     */
+    private Integer bpmnDeltaCount;
+
+    /**
+     * 基线之后的增量累计大小（字符数）
+     */
+    private Integer bpmnDeltaSize;
+
     // ============ 非持久化字段 ============
 
     /**
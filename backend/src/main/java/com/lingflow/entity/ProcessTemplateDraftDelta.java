@@ -0,0 +1,69 @@
+package com.lingflow.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 设计态模板 BPMN 增量记录实体类
+ *
+ * <p>设计态模板的 bpmn_xml 字段只保存最近一次压缩后的完整内容（基线），
+ * 之后的每次保存以单段替换补丁的形式追加到增量表中。当前内容 = 基线 + 按版本顺序应用全部增量。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessTemplateDraftDelta {
+
+    /**
+     * 主键ID (UUID)
+     */
+    private String id;
+
+    /**
+     * 设计态模板ID
+     */
+    private String draftId;
+
+    /**
+     * 补丁所基于的模板版本号
+     */
+    private Integer baseVersion;
+
+    /**
+     * 替换起始位置
+     */
+    private Integer patchOffset;
+
+    /**
+     * 删除长度
+     */
+    private Integer deleteLength;
+
+    /**
+     * 插入内容
+     */
+    private String insertText;
+
+    /**
+     * 应用补丁前的内容长度（用于一致性校验）
+     */
+    private Integer baseLength;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdTime;
+
+    /**
+     * 创建人
+     */
+    private String createdBy;
+}
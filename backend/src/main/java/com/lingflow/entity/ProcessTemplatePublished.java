@@ -61,6 +61,11 @@ public class ProcessTemplatePublished {
      */
     private String bpmnXml;
 
+    /**
+     * BPMN内容哈希（引用 bpmn_content_blob）
+     */
+    private String bpmnHash;
+
     /**
      * Flowable流程定义ID
      */
@@ -155,6 +160,11 @@ public class ProcessTemplatePublished {
      */
     private String categoryCode;
 
+    /**
+     * 搜索相关度（不持久化，仅搜索查询返回）
+     */
+    private Float searchScore;
+
     /**
      * 标签列表（不持久化，从tags字段解析）
      */
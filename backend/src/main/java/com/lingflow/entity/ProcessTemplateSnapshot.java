@@ -55,6 +55,11 @@ public class ProcessTemplateSnapshot {
      */
     private String bpmnXml;
 
+    /**
+     * BPMN内容哈希（引用 bpmn_content_blob）
+     */
+    private String bpmnHash;
+
     /**
      * 来源模板ID
      */
@@ -262,6 +267,7 @@ public class ProcessTemplateSnapshot {
                 .templateKey(draft.getTemplateKey())
                 .snapshotName(snapshotName)
                 .bpmnXml(draft.getBpmnXml())
+                .bpmnHash(draft.getBpmnHash())
                 .sourceTemplateId(draft.getId())
                 .sourceTemplateStatus(ProcessTemplateStatus.DRAFT)
                 .sourceTemplateVersion(draft.getVersion())
@@ -295,6 +301,7 @@ public class ProcessTemplateSnapshot {
                 .templateKey(published.getTemplateKey())
                 .snapshotName(snapshotName)
                 .bpmnXml(published.getBpmnXml())
+                .bpmnHash(published.getBpmnHash())
                 .sourceTemplateId(published.getId())
                 .sourceTemplateStatus(published.getStatus())
                 .sourceTemplateVersion(published.getFlowableVersion())
@@ -0,0 +1,48 @@
+package com.lingflow.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 可搜索变量配置实体类
+ * 标记某个流程定义下可按值查找流程实例的变量
+ */
+@Data
+@TableName("lf_searchable_variable")
+public class SearchableVariable {
+
+    /**
+     * 主键ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 流程定义Key
+     */
+    @TableField("process_definition_key")
+    private String processDefinitionKey;
+
+    /**
+     * 变量名
+     */
+    @TableField("variable_name")
+    private String variableName;
+
+    /**
+     * 创建人
+     */
+    @TableField("create_by")
+    private String createBy;
+
+    /**
+     * 创建时间
+     */
+    @TableField("create_time")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,77 @@
+package com.lingflow.mapper;
+
+import com.lingflow.entity.BatchJobItem;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 批量任务明细Mapper接口
+ */
+@Mapper
+public interface BatchJobItemMapper {
+
+    /**
+     * 批量插入明细
+     * @param items 明细列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO lf_batch_job_item (job_id, seq, item_key, payload, status) VALUES " +
+            "<foreach collection='items' item='i' separator=','>" +
+            "(#{i.jobId}, #{i.seq}, #{i.itemKey}, #{i.payload}, 'PENDING')" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("items") List<BatchJobItem> items);
+
+    /**
+     * 查询续跑位置之后的明细
+     * @param jobId 任务ID
+     * @param afterSeq 续跑位置
+     * @param limit 数量
+     * @return 明细列表（按序号正序）
+     */
+    @Select("SELECT * FROM lf_batch_job_item WHERE job_id = #{jobId} AND seq > #{afterSeq} " +
+            "ORDER BY seq LIMIT #{limit}")
+    List<BatchJobItem> findAfter(@Param("jobId") String jobId,
+                                 @Param("afterSeq") int afterSeq,
+                                 @Param("limit") int limit);
+
+    /**
+     * 按状态游标分页查询明细
+     * @param jobId 任务ID
+     * @param status 状态（可选）
+     * @param afterSeq 游标位置
+     * @param limit 数量
+     * @return 明细列表（按序号正序）
+     */
+    @Select("<script>" +
+            "SELECT * FROM lf_batch_job_item WHERE job_id = #{jobId} AND seq > #{afterSeq} " +
+            "<if test='status != null'>AND status = #{status} </if>" +
+            "ORDER BY seq LIMIT #{limit}" +
+            "</script>")
+    List<BatchJobItem> findPage(@Param("jobId") String jobId,
+                                @Param("status") String status,
+                                @Param("afterSeq") int afterSeq,
+                                @Param("limit") int limit);
+
+    /**
+     * 一条语句回写一个分块的明细结果
+     * @param jobId 任务ID
+     * @param items 明细（seq、status、result、message）
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE lf_batch_job_item i SET status = v.status, result = v.result, message = v.message FROM (VALUES " +
+            "<foreach collection='items' item='r' separator=','>" +
+            "(#{r.seq}, #{r.status}, CAST(#{r.result} AS VARCHAR), CAST(#{r.message} AS VARCHAR))" +
+            "</foreach>" +
+            ") AS v(seq, status, result, message) " +
+            "WHERE i.job_id = #{jobId} AND i.seq = v.seq" +
+            "</script>")
+    int updateResults(@Param("jobId") String jobId, @Param("items") List<BatchJobItem> items);
+}
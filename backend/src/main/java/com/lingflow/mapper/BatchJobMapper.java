@@ -0,0 +1,90 @@
+package com.lingflow.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lingflow.entity.BatchJob;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批量任务Mapper接口
+ */
+@Mapper
+public interface BatchJobMapper extends BaseMapper<BatchJob> {
+
+    /**
+     * 领取任务：待执行、失败或中断的任务置为执行中并写入新的执行令牌（并发领取时只有一个成功）
+     * @param jobId 任务ID
+     * @param runToken 本次执行令牌
+     * @return 更新行数，0 表示任务不可执行
+     */
+    @Update("UPDATE lf_batch_job SET status = 'RUNNING', run_token = #{runToken}, start_seq = cursor_seq, " +
+            "error_message = NULL, start_time = CURRENT_TIMESTAMP, end_time = NULL, update_time = CURRENT_TIMESTAMP " +
+            "WHERE job_id = #{jobId} AND status IN ('PENDING', 'FAILED', 'INTERRUPTED')")
+    int claim(@Param("jobId") String jobId, @Param("runToken") String runToken);
+
+    /**
+     * 推进进度：累加计数并把续跑位置移动到分块最后一个序号（只有持有当前令牌的执行中任务可以推进）
+     * @param jobId 任务ID
+     * @param runToken 执行令牌
+     * @param cursorSeq 分块最后一个明细序号
+     * @param processed 分块明细数
+     * @param success 成功数
+     * @param skipped 跳过数
+     * @param failure 失败数
+     * @return 更新行数
+     */
+    @Update("UPDATE lf_batch_job SET cursor_seq = #{cursorSeq}, " +
+            "processed_count = processed_count + #{processed}, " +
+            "success_count = success_count + #{success}, " +
+            "skipped_count = skipped_count + #{skipped}, " +
+            "failure_count = failure_count + #{failure}, " +
+            "update_time = CURRENT_TIMESTAMP " +
+            "WHERE job_id = #{jobId} AND run_token = #{runToken} AND status = 'RUNNING' " +
+            "AND cursor_seq < #{cursorSeq}")
+    int advance(@Param("jobId") String jobId,
+                @Param("runToken") String runToken,
+                @Param("cursorSeq") int cursorSeq,
+                @Param("processed") int processed,
+                @Param("success") int success,
+                @Param("skipped") int skipped,
+                @Param("failure") int failure);
+
+    /**
+     * 更新明细总数（流式提交明细后写入）
+     * @param jobId 任务ID
+     * @param totalCount 明细总数
+     * @return 更新行数
+     */
+    @Update("UPDATE lf_batch_job SET total_count = #{totalCount}, update_time = CURRENT_TIMESTAMP " +
+            "WHERE job_id = #{jobId}")
+    int updateTotalCount(@Param("jobId") String jobId, @Param("totalCount") int totalCount);
+
+    /**
+     * 结束任务（只有持有当前令牌的执行中任务可以结束）
+     * @param jobId 任务ID
+     * @param runToken 执行令牌
+     * @param status 结束状态（COMPLETED、FAILED）
+     * @param errorMessage 失败原因
+     * @return 更新行数
+     */
+    @Update("UPDATE lf_batch_job SET status = #{status}, error_message = #{errorMessage}, " +
+            "end_time = CURRENT_TIMESTAMP, update_time = CURRENT_TIMESTAMP " +
+            "WHERE job_id = #{jobId} AND run_token = #{runToken} AND status = 'RUNNING'")
+    int finish(@Param("jobId") String jobId,
+               @Param("runToken") String runToken,
+               @Param("status") String status,
+               @Param("errorMessage") String errorMessage);
+
+    /**
+     * 将长时间没有进度的执行中任务标记为中断（执行节点已停止）
+     * <p>排队等待的待执行任务不计入；被标记的任务续跑时生成新令牌，原执行的后续写入不再生效
+     * @param before 最后更新时间早于该时间的任务
+     * @return 更新行数
+     */
+    @Update("UPDATE lf_batch_job SET status = 'INTERRUPTED', update_time = CURRENT_TIMESTAMP " +
+            "WHERE status = 'RUNNING' AND update_time < #{before}")
+    int interruptStale(@Param("before") LocalDateTime before);
+}
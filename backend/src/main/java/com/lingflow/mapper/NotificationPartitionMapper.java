@@ -0,0 +1,51 @@
+package com.lingflow.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 通知记录分区维护Mapper接口
+ * <p>分区名由调用方校验（lf_notification_record_pYYYYMM）后才拼接进 DDL
+ */
+@Mapper
+public interface NotificationPartitionMapper {
+
+    /**
+     * 创建从指定月份到当前月份之后若干个月的分区（已存在的跳过）
+     * @param fromMonth 起始月份
+     * @param monthsAhead 预创建的月数
+     * @return 新建的分区数量
+     */
+    @Select("SELECT lf_notification_ensure_partitions(#{fromMonth}, #{monthsAhead})")
+    int ensurePartitions(@Param("fromMonth") LocalDate fromMonth, @Param("monthsAhead") int monthsAhead);
+
+    /**
+     * 查询通知记录表的全部按月分区名（不含默认分区）
+     * @return 分区名列表（按名称升序，即按月份升序）
+     */
+    @Select("SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'lf_notification_record' AND c.relname LIKE 'lf\\_notification\\_record\\_p%' " +
+            "ORDER BY c.relname")
+    List<String> findMonthlyPartitions();
+
+    /**
+     * 从通知记录表分离分区
+     * @param partition 分区名
+     */
+    @Update("ALTER TABLE lf_notification_record DETACH PARTITION ${partition}")
+    void detachPartition(@Param("partition") String partition);
+
+    /**
+     * 删除已分离的分区表
+     * @param partition 分区名
+     */
+    @Update("DROP TABLE IF EXISTS ${partition}")
+    void dropPartition(@Param("partition") String partition);
+}
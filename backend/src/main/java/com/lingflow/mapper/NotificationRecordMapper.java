@@ -2,8 +2,10 @@ package com.lingflow.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lingflow.entity.NotificationRecord;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
 import java.time.LocalDateTime;
@@ -15,6 +17,23 @@ import java.util.List;
 @Mapper
 public interface NotificationRecordMapper extends BaseMapper<NotificationRecord> {
 
+    /**
+     * 批量插入通知记录（单条多行 INSERT，调用方负责控制每批行数）
+     * @param records 通知记录列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO lf_notification_record (notification_id, type, recipient_id, title, content, " +
+            "process_instance_id, process_name, task_id, task_name, is_read, create_time, update_time, " +
+            "extra_data, delivery_status, delivery_attempts) VALUES " +
+            "<foreach collection='records' item='r' separator=','>" +
+            "(#{r.notificationId}, #{r.type}, #{r.recipientId}, #{r.title}, #{r.content}, " +
+            "#{r.processInstanceId}, #{r.processName}, #{r.taskId}, #{r.taskName}, #{r.isRead}, " +
+            "#{r.createTime}, #{r.updateTime}, #{r.extraData}, #{r.deliveryStatus}, #{r.deliveryAttempts})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("records") List<NotificationRecord> records);
+
     /**
      * 根据notificationId查找通知记录
      * @param notificationId 通知UUID
@@ -42,6 +61,34 @@ public interface NotificationRecordMapper extends BaseMapper<NotificationRecord>
         );
     }
 
+    /**
+     * 按游标分页查询用户收件箱（按 create_time、id 倒序，Keyset 分页）
+     * @param recipientId 接收人ID
+     * @param type 通知类型（为空时不过滤）
+     * @param isRead 是否已读（为空时不过滤）
+     * @param processInstanceId 流程实例ID（为空时不过滤）
+     * @param cursorTime 上一页最后一条的创建时间（首页为空）
+     * @param cursorId 上一页最后一条的ID（首页为空）
+     * @param limit 限制数量
+     * @return 通知记录列表
+     */
+    default List<NotificationRecord> findInboxPage(String recipientId, String type, Boolean isRead,
+                                                   String processInstanceId, LocalDateTime cursorTime,
+                                                   Long cursorId, int limit) {
+        return selectList(
+            new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<NotificationRecord>()
+                .eq(NotificationRecord::getRecipientId, recipientId)
+                .eq(type != null, NotificationRecord::getType, type)
+                .eq(isRead != null, NotificationRecord::getIsRead, isRead)
+                .eq(processInstanceId != null, NotificationRecord::getProcessInstanceId, processInstanceId)
+                // 行比较可直接使用 (recipient_id, create_time DESC, id DESC) 索引定位
+                .apply(cursorTime != null, "(create_time, id) < ({0}, {1})", cursorTime, cursorId)
+                .orderByDesc(NotificationRecord::getCreateTime)
+                .orderByDesc(NotificationRecord::getId)
+                .last("LIMIT " + limit)
+        );
+    }
+
     /**
      * 统计用户未读通知数量
      * @param recipientId 接收人ID
@@ -57,13 +104,15 @@ public interface NotificationRecordMapper extends BaseMapper<NotificationRecord>
     }
 
     /**
-     * 标记通知为已读
+     * 标记通知为已读（仅未读且属于该接收人的通知）
      * @param notificationId 通知UUID
+     * @param recipientId 接收人ID
      * @param readTime 读取时间
      * @return 更新行数
      */
-    @Update("UPDATE lf_notification_record SET is_read = true, read_time = #{readTime}, update_time = #{readTime} WHERE notification_id = #{notificationId}")
-    int markAsRead(@Param("notificationId") String notificationId, @Param("readTime") LocalDateTime readTime);
+    @Update("UPDATE lf_notification_record SET is_read = true, read_time = #{readTime}, update_time = #{readTime} WHERE notification_id = #{notificationId} AND recipient_id = #{recipientId} AND is_read = false")
+    int markAsRead(@Param("notificationId") String notificationId, @Param("recipientId") String recipientId,
+                   @Param("readTime") LocalDateTime readTime);
 
     /**
      * 批量标记用户所有通知为已读
@@ -74,6 +123,70 @@ public interface NotificationRecordMapper extends BaseMapper<NotificationRecord>
     @Update("UPDATE lf_notification_record SET is_read = true, read_time = #{readTime}, update_time = #{readTime} WHERE recipient_id = #{recipientId} AND is_read = false")
     int markAllAsReadForUser(@Param("recipientId") String recipientId, @Param("readTime") LocalDateTime readTime);
 
+    /**
+     * 回写投递结果（投递次数加1；已失败的通知状态不再变更）
+     * @param notificationIds 通知UUID列表
+     * @param status 投递状态（为空时不变更）
+     * @param error 投递错误（为空时不变更）
+     * @param deliveredTime 投递成功时间（为空时不变更）
+     * @param leaseUntil 投递租约到期时间（为空时不变更）
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE lf_notification_record SET " +
+            "delivery_status = CASE WHEN delivery_status = 'FAILED' THEN delivery_status " +
+            "ELSE COALESCE(#{status,jdbcType=VARCHAR}, delivery_status) END, " +
+            "delivery_attempts = delivery_attempts + 1, " +
+            "delivery_error = COALESCE(#{error,jdbcType=VARCHAR}, delivery_error), " +
+            "delivered_time = COALESCE(#{deliveredTime,jdbcType=TIMESTAMP}, delivered_time), " +
+            "delivery_lease_until = COALESCE(#{leaseUntil,jdbcType=TIMESTAMP}, delivery_lease_until), " +
+            "update_time = CURRENT_TIMESTAMP " +
+            "WHERE notification_id IN " +
+            "<foreach collection='notificationIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int updateDelivery(@Param("notificationIds") List<String> notificationIds, @Param("status") String status,
+                       @Param("error") String error, @Param("deliveredTime") LocalDateTime deliveredTime,
+                       @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * 领取租约已过期、仍待投递的通知并写入新租约（并发领取时跳过已被锁定的行，每条通知只被一个节点领取）
+     * <p>租约为空的通知以创建时间早于 before 视为过期
+     * @param before 创建时间上限
+     * @param now 当前时间
+     * @param leaseUntil 新租约到期时间
+     * @param limit 限制数量
+     * @return 领取到的通知记录列表
+     */
+    @Select("UPDATE lf_notification_record SET delivery_lease_until = #{leaseUntil} " +
+            "WHERE (notification_id, create_time) IN (" +
+            "SELECT notification_id, create_time FROM lf_notification_record " +
+            "WHERE delivery_status = 'PENDING' AND create_time < #{before} " +
+            "AND (delivery_lease_until IS NULL OR delivery_lease_until < #{now}) " +
+            "ORDER BY create_time LIMIT #{limit} FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *")
+    List<NotificationRecord> claimExpiredDeliveries(@Param("before") LocalDateTime before,
+                                                    @Param("now") LocalDateTime now,
+                                                    @Param("leaseUntil") LocalDateTime leaseUntil,
+                                                    @Param("limit") int limit);
+
+    /**
+     * 领取合并投递的通知：最早一条已早于 before 的 (接收人, 类型) 分组整组置为待投递并写入租约
+     * <p>多个节点同时领取时，行锁释放后重新检查 delivery_status，每条通知只被领取一次
+     * @param before 分组最早通知的创建时间上限（窗口结束）
+     * @param leaseUntil 投递租约到期时间
+     * @param limit 分组数量上限
+     * @return 领取到的通知记录列表
+     */
+    @Select("UPDATE lf_notification_record SET delivery_status = 'PENDING', " +
+            "delivery_lease_until = #{leaseUntil}, update_time = CURRENT_TIMESTAMP " +
+            "WHERE delivery_status = 'COALESCED' AND (recipient_id, type) IN (" +
+            "SELECT recipient_id, type FROM lf_notification_record WHERE delivery_status = 'COALESCED' " +
+            "GROUP BY recipient_id, type HAVING MIN(create_time) < #{before} LIMIT #{limit}) " +
+            "RETURNING *")
+    List<NotificationRecord> claimCoalesced(@Param("before") LocalDateTime before,
+                                            @Param("leaseUntil") LocalDateTime leaseUntil,
+                                            @Param("limit") int limit);
+
     /**
      * 根据流程实例ID查询通知列表
      * @param processInstanceId 流程实例ID
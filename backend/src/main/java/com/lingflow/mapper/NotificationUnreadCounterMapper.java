@@ -0,0 +1,80 @@
+package com.lingflow.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 通知未读数量计数Mapper接口
+ */
+@Mapper
+public interface NotificationUnreadCounterMapper {
+
+    /**
+     * 查询接收人的未读数量
+     * @param recipientId 接收人ID
+     * @return 未读数量，没有计数行时返回null
+     */
+    @Select("SELECT unread_count FROM lf_notification_unread_counter WHERE recipient_id = #{recipientId}")
+    Long findUnreadCount(@Param("recipientId") String recipientId);
+
+    /**
+     * 增减接收人的未读数量（没有计数行时创建，结果不小于0）
+     * @param recipientId 接收人ID
+     * @param delta 变化量
+     * @return 更新行数
+     */
+    @Insert("INSERT INTO lf_notification_unread_counter (recipient_id, unread_count, update_time) " +
+            "VALUES (#{recipientId}, GREATEST(#{delta}, 0), CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (recipient_id) DO UPDATE SET " +
+            "unread_count = GREATEST(lf_notification_unread_counter.unread_count + #{delta}, 0), " +
+            "update_time = CURRENT_TIMESTAMP")
+    int increment(@Param("recipientId") String recipientId, @Param("delta") long delta);
+
+    /**
+     * 批量增加多个接收人的未读数量（接收人不能重复）
+     * @param deltas 接收人ID → 增加量
+     * @return 更新行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO lf_notification_unread_counter (recipient_id, unread_count, update_time) VALUES " +
+            "<foreach collection='deltas' index='recipientId' item='delta' separator=','>" +
+            "(#{recipientId}, #{delta}, CURRENT_TIMESTAMP)" +
+            "</foreach> " +
+            "ON CONFLICT (recipient_id) DO UPDATE SET " +
+            "unread_count = lf_notification_unread_counter.unread_count + EXCLUDED.unread_count, " +
+            "update_time = CURRENT_TIMESTAMP" +
+            "</script>")
+    int incrementAll(@Param("deltas") Map<String, Long> deltas);
+
+    /**
+     * 校准：按通知记录表重算有未读通知的接收人的计数
+     * <p>只覆盖 update_time 早于 before 的计数行：语句快照之后提交的增减会更新 update_time，
+     * 这些行留到下次校准，避免用旧快照的计数覆盖并发的增减
+     * @param before 计数行最后更新时间上限
+     * @return 修正的行数
+     */
+    @Insert("INSERT INTO lf_notification_unread_counter (recipient_id, unread_count, update_time) " +
+            "SELECT recipient_id, COUNT(*), CURRENT_TIMESTAMP FROM lf_notification_record " +
+            "WHERE is_read = false GROUP BY recipient_id " +
+            "ON CONFLICT (recipient_id) DO UPDATE SET " +
+            "unread_count = EXCLUDED.unread_count, update_time = CURRENT_TIMESTAMP " +
+            "WHERE lf_notification_unread_counter.unread_count <> EXCLUDED.unread_count " +
+            "AND lf_notification_unread_counter.update_time < #{before}")
+    int reconcileUnread(@Param("before") LocalDateTime before);
+
+    /**
+     * 校准：将已没有未读通知的接收人计数清零（同样只处理 update_time 早于 before 的计数行）
+     * @param before 计数行最后更新时间上限
+     * @return 修正的行数
+     */
+    @Update("UPDATE lf_notification_unread_counter c SET unread_count = 0, update_time = CURRENT_TIMESTAMP " +
+            "WHERE c.unread_count <> 0 AND c.update_time < #{before} AND NOT EXISTS (" +
+            "SELECT 1 FROM lf_notification_record r WHERE r.recipient_id = c.recipient_id AND r.is_read = false)")
+    int reconcileRead(@Param("before") LocalDateTime before);
+}
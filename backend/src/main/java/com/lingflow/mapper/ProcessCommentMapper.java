@@ -1,6 +1,7 @@
 package com.lingflow.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lingflow.dto.CommentCountDTO;
 import com.lingflow.entity.ProcessComment;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -55,6 +56,22 @@ public interface ProcessCommentMapper extends BaseMapper<ProcessComment> {
         );
     }
 
+    /**
+     * 查询流程实例的流程级评论（task_id 为空，不含任务评论）
+     * @param processInstanceId 流程实例ID
+     * @param isDeleted 是否删除
+     * @return 评论记录列表
+     */
+    default List<ProcessComment> findByProcessInstanceIdAndTaskIdIsNullAndIsDeleted(String processInstanceId, Boolean isDeleted) {
+        return selectList(
+            new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<ProcessComment>()
+                .eq(ProcessComment::getProcessInstanceId, processInstanceId)
+                .isNull(ProcessComment::getTaskId)
+                .eq(ProcessComment::getIsDeleted, isDeleted)
+                .orderByAsc(ProcessComment::getCreateTime)
+        );
+    }
+
     /**
      * 查询任务的所有评论
      * @param taskId 任务ID
@@ -85,12 +102,25 @@ public interface ProcessCommentMapper extends BaseMapper<ProcessComment> {
     }
 
     /**
-     * 查询流程实例的所有评论（包括已删除）
+     * 按游标分页查询流程实例的评论时间线（流程、任务、系统评论，不含已删除，按 create_time、id 正序）
      * @param processInstanceId 流程实例ID
+     * @param cursorTime 上一页最后一条的创建时间（首页为空）
+     * @param cursorId 上一页最后一条的ID（首页为空）
+     * @param limit 限制数量
      * @return 评论记录列表
      */
-    @Select("SELECT * FROM lf_process_comment WHERE process_instance_id = #{processInstanceId} ORDER BY create_time ASC")
-    List<ProcessComment> findAllByProcessInstanceId(@Param("processInstanceId") String processInstanceId);
+    default List<ProcessComment> findTimelinePage(String processInstanceId, LocalDateTime cursorTime,
+                                                  Long cursorId, int limit) {
+        return selectList(
+            new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<ProcessComment>()
+                .eq(ProcessComment::getProcessInstanceId, processInstanceId)
+                .eq(ProcessComment::getIsDeleted, false)
+                .apply(cursorTime != null, "(create_time, id) > ({0}, {1})", cursorTime, cursorId)
+                .orderByAsc(ProcessComment::getCreateTime)
+                .orderByAsc(ProcessComment::getId)
+                .last("LIMIT " + limit)
+        );
+    }
 
     /**
      * 统计流程实例的评论数量（按类型）
@@ -143,34 +173,17 @@ public interface ProcessCommentMapper extends BaseMapper<ProcessComment> {
     int logicalDelete(@Param("commentId") String commentId, @Param("deleteTime") LocalDateTime deleteTime);
 
     /**
-     * 统计参与评论的不同用户数量
-     * @param processInstanceId 流程实例ID
-     * @return 用户数量
-     */
-    @Select("SELECT COUNT(DISTINCT user_id) FROM lf_process_comment WHERE process_instance_id = #{processInstanceId} AND user_id IS NOT NULL AND is_deleted = false")
-    Long countParticipantUsers(@Param("processInstanceId") String processInstanceId);
-
-    /**
-     * 统计任务的评论数量
-     * @param taskId 任务ID
-     * @param isDeleted 是否删除
-     * @return 评论数量
-     */
-    default Long countByTaskIdAndIsDeleted(String taskId, Boolean isDeleted) {
-        return selectCount(
-            new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<ProcessComment>()
-                .eq(ProcessComment::getTaskId, taskId)
-                .eq(ProcessComment::getIsDeleted, isDeleted)
-        );
-    }
-
-    /**
-     * 查询流程实例的所有任务ID
+     * 统计流程实例的评论数量（单条聚合查询：流程评论数、任务评论数、参与用户数）
      * @param processInstanceId 流程实例ID
-     * @return 任务ID列表
+     * @param processType 流程评论类型
+     * @return 评论统计
      */
-    @Select("SELECT DISTINCT task_id FROM lf_process_comment WHERE process_instance_id = #{processInstanceId} AND task_id IS NOT NULL AND is_deleted = false")
-    List<String> findTaskIdsByProcessInstanceId(@Param("processInstanceId") String processInstanceId);
+    @Select("SELECT COUNT(*) FILTER (WHERE type = #{processType}) AS process_comment_count, " +
+            "COUNT(*) FILTER (WHERE task_id IS NOT NULL) AS task_comment_count, " +
+            "COUNT(DISTINCT user_id) AS participant_count " +
+            "FROM lf_process_comment WHERE process_instance_id = #{processInstanceId} AND is_deleted = false")
+    CommentCountDTO countStatistics(@Param("processInstanceId") String processInstanceId,
+                                    @Param("processType") String processType);
 
     /**
      * 查询用户的所有评论
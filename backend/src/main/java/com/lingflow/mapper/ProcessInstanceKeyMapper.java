@@ -0,0 +1,72 @@
+package com.lingflow.mapper;
+
+import com.lingflow.dto.ProcessInstanceVO;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 流程实例业务Key查询Mapper接口
+ * <p>直接查询 Flowable 历史流程实例表（含运行中与已结束的实例），按业务Key批量查找，
+ * 使用引擎自带的 ACT_IDX_HI_PRO_I_BUSKEY 索引；批量启动时通过 lf_process_business_key_claim 原子占用业务Key
+ */
+@Mapper
+public interface ProcessInstanceKeyMapper {
+
+    /**
+     * 按业务Key批量查询流程实例
+     * @param processDefinitionKey 流程定义Key（任意版本）
+     * @param businessKeys 业务Key
+     * @return 流程实例（只含 id、processDefinitionId、businessKey、startTime、endTime）
+     */
+    @Select("<script>" +
+            "SELECT p.ID_ AS id, p.PROC_DEF_ID_ AS processDefinitionId, p.BUSINESS_KEY_ AS businessKey, " +
+            "p.START_TIME_ AS startTime, p.END_TIME_ AS endTime " +
+            "FROM ACT_HI_PROCINST p JOIN ACT_RE_PROCDEF d ON d.ID_ = p.PROC_DEF_ID_ " +
+            "WHERE d.KEY_ = #{processDefinitionKey} AND p.BUSINESS_KEY_ IN " +
+            "<foreach collection='businessKeys' item='businessKey' open='(' separator=',' close=')'>#{businessKey}</foreach>" +
+            "</script>")
+    List<ProcessInstanceVO> findByBusinessKeys(@Param("processDefinitionKey") String processDefinitionKey,
+                                               @Param("businessKeys") Collection<String> businessKeys);
+
+    /**
+     * 占用业务Key（在启动实例的事务内调用；已被占用时返回0，并发占用时等待对方事务结束）
+     * @param processDefinitionKey 流程定义Key
+     * @param businessKey 业务Key
+     * @return 插入行数
+     */
+    @Insert("INSERT INTO lf_process_business_key_claim (process_definition_key, business_key, create_time) " +
+            "VALUES (#{processDefinitionKey}, #{businessKey}, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (process_definition_key, business_key) DO NOTHING")
+    int claimBusinessKey(@Param("processDefinitionKey") String processDefinitionKey,
+                         @Param("businessKey") String businessKey);
+
+    /**
+     * 回写占用业务Key启动的流程实例ID
+     * @param processDefinitionKey 流程定义Key
+     * @param businessKey 业务Key
+     * @param processInstanceId 流程实例ID
+     * @return 更新行数
+     */
+    @Update("UPDATE lf_process_business_key_claim SET process_instance_id = #{processInstanceId} " +
+            "WHERE process_definition_key = #{processDefinitionKey} AND business_key = #{businessKey}")
+    int bindClaim(@Param("processDefinitionKey") String processDefinitionKey,
+                  @Param("businessKey") String businessKey,
+                  @Param("processInstanceId") String processInstanceId);
+
+    /**
+     * 查询占用业务Key的流程实例ID
+     * @param processDefinitionKey 流程定义Key
+     * @param businessKey 业务Key
+     * @return 流程实例ID
+     */
+    @Select("SELECT process_instance_id FROM lf_process_business_key_claim " +
+            "WHERE process_definition_key = #{processDefinitionKey} AND business_key = #{businessKey}")
+    String findClaimedInstance(@Param("processDefinitionKey") String processDefinitionKey,
+                               @Param("businessKey") String businessKey);
+}
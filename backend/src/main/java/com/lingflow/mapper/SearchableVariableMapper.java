@@ -0,0 +1,25 @@
+package com.lingflow.mapper;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lingflow.entity.SearchableVariable;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 可搜索变量配置Mapper接口
+ */
+@Mapper
+public interface SearchableVariableMapper extends BaseMapper<SearchableVariable> {
+
+    /**
+     * 查询指定流程定义Key下的变量配置
+     * @param processDefinitionKey 流程定义Key
+     * @param variableName 变量名
+     * @return 配置记录，不存在时返回null
+     */
+    default SearchableVariable findByKeyAndName(String processDefinitionKey, String variableName) {
+        return selectOne(new LambdaQueryWrapper<SearchableVariable>()
+                .eq(SearchableVariable::getProcessDefinitionKey, processDefinitionKey)
+                .eq(SearchableVariable::getVariableName, variableName));
+    }
+}
@@ -0,0 +1,50 @@
+package com.lingflow.mapper;
+
+import com.lingflow.dto.VariableMetaDTO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 流程变量元数据Mapper接口
+ * <p>直接查询 Flowable 运行时变量表，只取名称、类型和大小，不反序列化变量值
+ */
+@Mapper
+public interface VariableMetaMapper {
+
+    /**
+     * 查询流程实例级变量的元数据
+     * @param processInstanceId 流程实例ID
+     * @return 变量元数据列表（按名称排序）
+     */
+    @Select("SELECT v.NAME_ AS name, v.TYPE_ AS type, 'process' AS scope, " +
+            "COALESCE(octet_length(b.BYTES_), octet_length(v.TEXT_), 0) AS size " +
+            "FROM ACT_RU_VARIABLE v LEFT JOIN ACT_GE_BYTEARRAY b ON b.ID_ = v.BYTEARRAY_ID_ " +
+            "WHERE v.EXECUTION_ID_ = #{processInstanceId} AND v.TASK_ID_ IS NULL " +
+            "ORDER BY v.NAME_")
+    List<VariableMetaDTO> findProcessInstanceVariables(@Param("processInstanceId") String processInstanceId);
+
+    /**
+     * 查询任务可见变量的元数据：任务本地变量，以及任务所属执行沿 PARENT_ID_ 逐级向上直到流程实例的各级执行变量
+     * （与 TaskService.getVariables 的解析范围一致，如多实例、子流程内的局部变量）。
+     * 同名变量按作用域由近到远排列：任务本地、所属执行、上级执行……流程实例
+     * @param taskId 任务ID
+     * @return 变量元数据列表（按名称排序）
+     */
+    @Select("WITH RECURSIVE scope_chain (id, parent_id, depth) AS (" +
+            "SELECT e.ID_, e.PARENT_ID_, 1 FROM ACT_RU_EXECUTION e " +
+            "JOIN ACT_RU_TASK t ON t.EXECUTION_ID_ = e.ID_ WHERE t.ID_ = #{taskId} " +
+            "UNION ALL " +
+            "SELECT p.ID_, p.PARENT_ID_, c.depth + 1 FROM ACT_RU_EXECUTION p JOIN scope_chain c ON p.ID_ = c.parent_id) " +
+            "SELECT v.NAME_ AS name, v.TYPE_ AS type, " +
+            "CASE WHEN v.TASK_ID_ IS NOT NULL THEN 'task' " +
+            "WHEN v.EXECUTION_ID_ = v.PROC_INST_ID_ THEN 'process' ELSE 'execution' END AS scope, " +
+            "COALESCE(octet_length(b.BYTES_), octet_length(v.TEXT_), 0) AS size " +
+            "FROM ACT_RU_VARIABLE v LEFT JOIN ACT_GE_BYTEARRAY b ON b.ID_ = v.BYTEARRAY_ID_ " +
+            "LEFT JOIN scope_chain s ON v.TASK_ID_ IS NULL AND s.id = v.EXECUTION_ID_ " +
+            "WHERE v.TASK_ID_ = #{taskId} OR s.id IS NOT NULL " +
+            "ORDER BY v.NAME_, COALESCE(s.depth, 0)")
+    List<VariableMetaDTO> findTaskVariables(@Param("taskId") String taskId);
+}
@@ -0,0 +1,124 @@
+package com.lingflow.mapper;
+
+import com.lingflow.dto.VariableSearchHitDTO;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 变量查找表Mapper接口
+ */
+@Mapper
+public interface VariableSearchIndexMapper {
+
+    /**
+     * 写入或更新流程实例的变量值
+     * @param processInstanceId 流程实例ID
+     * @param variableName 变量名
+     * @param processDefinitionKey 流程定义Key
+     * @param valueType 值类型
+     * @param textValue 值的文本形式
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO lf_variable_search_index " +
+            "(process_instance_id, variable_name, process_definition_key, value_type, text_value, update_time) " +
+            "VALUES (#{processInstanceId}, #{variableName}, #{processDefinitionKey}, #{valueType}, #{textValue}, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (process_instance_id, variable_name) DO UPDATE SET " +
+            "value_type = EXCLUDED.value_type, text_value = EXCLUDED.text_value, update_time = CURRENT_TIMESTAMP")
+    int upsert(@Param("processInstanceId") String processInstanceId,
+               @Param("variableName") String variableName,
+               @Param("processDefinitionKey") String processDefinitionKey,
+               @Param("valueType") String valueType,
+               @Param("textValue") String textValue);
+
+    /**
+     * 删除流程实例的单个变量
+     * @param processInstanceId 流程实例ID
+     * @param variableName 变量名
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM lf_variable_search_index " +
+            "WHERE process_instance_id = #{processInstanceId} AND variable_name = #{variableName}")
+    int delete(@Param("processInstanceId") String processInstanceId,
+               @Param("variableName") String variableName);
+
+    /**
+     * 删除流程实例的全部查找记录
+     * @param processInstanceId 流程实例ID
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM lf_variable_search_index WHERE process_instance_id = #{processInstanceId}")
+    int deleteByProcessInstanceId(@Param("processInstanceId") String processInstanceId);
+
+    /**
+     * 删除流程定义Key下某个变量的全部查找记录（取消可搜索配置时调用）
+     * @param processDefinitionKey 流程定义Key
+     * @param variableName 变量名
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM lf_variable_search_index " +
+            "WHERE process_definition_key = #{processDefinitionKey} AND variable_name = #{variableName}")
+    int deleteByKeyAndName(@Param("processDefinitionKey") String processDefinitionKey,
+                           @Param("variableName") String variableName);
+
+    /**
+     * 按运行中流程实例的现有变量回填查找表（新增可搜索配置时调用）
+     * <p>字符串与整数类型取 TEXT_，布尔类型取 LONG_，与实时维护时的文本形式一致
+     * @param processDefinitionKey 流程定义Key
+     * @param variableName 变量名
+     * @param maxLength 值的最大长度
+     * @return 写入行数
+     */
+    @Insert("INSERT INTO lf_variable_search_index " +
+            "(process_instance_id, variable_name, process_definition_key, value_type, text_value, update_time) " +
+            "SELECT v.PROC_INST_ID_, v.NAME_, d.KEY_, " +
+            "CASE WHEN v.TYPE_ = 'string' THEN 'string' WHEN v.TYPE_ = 'boolean' THEN 'boolean' ELSE 'long' END, " +
+            "CASE WHEN v.TYPE_ = 'boolean' THEN (CASE WHEN v.LONG_ = 1 THEN 'true' ELSE 'false' END) ELSE v.TEXT_ END, " +
+            "CURRENT_TIMESTAMP " +
+            "FROM ACT_RU_VARIABLE v " +
+            "JOIN ACT_RU_EXECUTION e ON e.ID_ = v.PROC_INST_ID_ " +
+            "JOIN ACT_RE_PROCDEF d ON d.ID_ = e.PROC_DEF_ID_ " +
+            "WHERE d.KEY_ = #{processDefinitionKey} AND v.NAME_ = #{variableName} " +
+            "AND v.EXECUTION_ID_ = v.PROC_INST_ID_ AND v.TASK_ID_ IS NULL " +
+            "AND v.TYPE_ IN ('string', 'long', 'integer', 'short', 'boolean') " +
+            "AND (v.TYPE_ = 'boolean' OR (v.TEXT_ IS NOT NULL AND char_length(v.TEXT_) <= #{maxLength})) " +
+            "ON CONFLICT (process_instance_id, variable_name) DO UPDATE SET " +
+            "value_type = EXCLUDED.value_type, text_value = EXCLUDED.text_value, update_time = CURRENT_TIMESTAMP")
+    int backfill(@Param("processDefinitionKey") String processDefinitionKey,
+                 @Param("variableName") String variableName,
+                 @Param("maxLength") int maxLength);
+
+    /**
+     * 按变量值查找流程实例
+     * <p>精确查找时 upperBound 为空；前缀查找时查询 [value, upperBound) 区间，
+     * 使用 varchar_pattern_ops 的区间运算符，参数化语句在通用执行计划下也能走索引
+     * @param variableName 变量名
+     * @param value 变量值或前缀
+     * @param prefix 是否前缀查找
+     * @param upperBound 前缀区间上界（不包含），为空时不限上界
+     * @param processDefinitionKey 流程定义Key（可选）
+     * @param limit 返回数量上限
+     * @return 命中记录（按值、流程实例ID排序）
+     */
+    @Select("<script>" +
+            "SELECT process_instance_id, process_definition_key, variable_name, value_type, text_value AS value " +
+            "FROM lf_variable_search_index WHERE variable_name = #{variableName} " +
+            "<choose>" +
+            "<when test='prefix'>AND text_value ~&gt;=~ #{value} " +
+            "<if test='upperBound != null'>AND text_value ~&lt;~ #{upperBound} </if></when>" +
+            "<otherwise>AND text_value = #{value} </otherwise>" +
+            "</choose>" +
+            "<if test='processDefinitionKey != null'>AND process_definition_key = #{processDefinitionKey} </if>" +
+            "ORDER BY text_value USING ~&lt;~, process_instance_id LIMIT #{limit}" +
+            "</script>")
+    List<VariableSearchHitDTO> search(@Param("variableName") String variableName,
+                                      @Param("value") String value,
+                                      @Param("prefix") boolean prefix,
+                                      @Param("upperBound") String upperBound,
+                                      @Param("processDefinitionKey") String processDefinitionKey,
+                                      @Param("limit") int limit);
+}
@@ -0,0 +1,58 @@
+package com.lingflow.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量任务指标
+ *
+ * <ul>
+ *   <li>{@code lingflow.batch.job.items}：处理的明细数量，按任务类型与结果（success/skipped/failure）区分，
+ *       success 的速率即任务吞吐量</li>
+ *   <li>{@code lingflow.batch.job.chunk}：每个分块（一个引擎事务）的耗时，按任务类型区分</li>
+ * </ul>
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Component
+public class BatchJobMetrics {
+
+    private final MeterRegistry registry;
+
+    public BatchJobMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 记录一个分块
+     *
+     * @param jobType 任务类型
+     * @param success 成功数
+     * @param skipped 跳过数
+     * @param failure 失败数
+     * @param durationNanos 耗时（纳秒）
+     */
+    public void recordChunk(String jobType, int success, int skipped, int failure, long durationNanos) {
+        Timer.builder("lingflow.batch.job.chunk")
+                .description("批量任务每个分块的耗时")
+                .tag("type", jobType)
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        items(jobType, "success").increment(success);
+        items(jobType, "skipped").increment(skipped);
+        items(jobType, "failure").increment(failure);
+    }
+
+    private Counter items(String jobType, String result) {
+        return Counter.builder("lingflow.batch.job.items")
+                .description("批量任务处理的明细数量")
+                .tag("type", jobType)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,92 @@
+package com.lingflow.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通知投递指标
+ *
+ * <ul>
+ *   <li>{@code lingflow.notification.dispatch}：投递结果数量，按渠道与结果（sent/retry/failed/dropped）区分，
+ *       sent 的速率即渠道吞吐量</li>
+ *   <li>{@code lingflow.notification.dispatch.batch}：每批投递耗时，按渠道区分</li>
+ *   <li>{@code lingflow.notification.dispatch.batch.size}：每批通知数量，按渠道区分</li>
+ *   <li>{@code lingflow.notification.dispatch.queue}：待投递队列长度，按渠道区分</li>
+ * </ul>
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Component
+public class NotificationDispatchMetrics {
+
+    public static final String OUTCOME_SENT = "sent";
+    public static final String OUTCOME_RETRY = "retry";
+    public static final String OUTCOME_FAILED = "failed";
+    public static final String OUTCOME_DROPPED = "dropped";
+
+    private final MeterRegistry registry;
+
+    public NotificationDispatchMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 记录一批投递
+     *
+     * @param channel 渠道名称
+     * @param size 通知数量
+     * @param durationNanos 耗时（纳秒）
+     */
+    public void recordBatch(String channel, int size, long durationNanos) {
+        Timer.builder("lingflow.notification.dispatch.batch")
+                .description("通知每批投递耗时")
+                .tag("channel", channel)
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("lingflow.notification.dispatch.batch.size")
+                .description("通知每批投递数量")
+                .tag("channel", channel)
+                .register(registry)
+                .record(size);
+    }
+
+    /**
+     * 记录投递结果
+     *
+     * @param channel 渠道名称
+     * @param outcome 结果
+     * @param count 通知数量
+     */
+    public void recordOutcome(String channel, String outcome, int count) {
+        if (count == 0) {
+            return;
+        }
+        Counter.builder("lingflow.notification.dispatch")
+                .description("通知投递结果数量")
+                .tag("channel", channel)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment(count);
+    }
+
+    /**
+     * 注册待投递队列长度
+     *
+     * @param channel 渠道名称
+     * @param queue 待投递队列
+     */
+    public void registerQueue(String channel, Collection<?> queue) {
+        Gauge.builder("lingflow.notification.dispatch.queue", queue, Collection::size)
+                .description("通知待投递队列长度")
+                .tag("channel", channel)
+                .register(registry);
+    }
+}
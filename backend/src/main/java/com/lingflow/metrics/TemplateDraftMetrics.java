@@ -0,0 +1,67 @@
+package com.lingflow.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 设计态模板保存指标
+ *
+ * <ul>
+ *   <li>{@code lingflow.template.draft.save}：保存耗时，按写入方式（full/delta/metadata）区分</li>
+ *   <li>{@code lingflow.template.draft.save.size}：每次保存写入的BPMN字符数（存储增长）</li>
+ *   <li>{@code lingflow.template.draft.compaction}：增量压缩次数</li>
+ * </ul>
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Component
+public class TemplateDraftMetrics {
+
+    public static final String MODE_FULL = "full";
+    public static final String MODE_DELTA = "delta";
+    public static final String MODE_METADATA = "metadata";
+
+    private final MeterRegistry registry;
+    private final Counter compactionCounter;
+
+    public TemplateDraftMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.compactionCounter = Counter.builder("lingflow.template.draft.compaction")
+                .description("设计态模板增量压缩次数")
+                .register(registry);
+    }
+
+    /**
+     * 记录一次保存
+     *
+     * @param mode 写入方式
+     * @param writtenChars 写入的BPMN字符数
+     * @param durationNanos 耗时（纳秒）
+     */
+    public void recordSave(String mode, long writtenChars, long durationNanos) {
+        Timer.builder("lingflow.template.draft.save")
+                .description("设计态模板保存耗时")
+                .tag("mode", mode)
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("lingflow.template.draft.save.size")
+                .description("设计态模板保存写入的BPMN字符数")
+                .baseUnit("chars")
+                .tag("mode", mode)
+                .register(registry)
+                .record(writtenChars);
+    }
+
+    /**
+     * 记录一次增量压缩
+     */
+    public void recordCompaction() {
+        compactionCounter.increment();
+    }
+}
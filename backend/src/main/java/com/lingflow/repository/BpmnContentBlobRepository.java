@@ -0,0 +1,61 @@
+package com.lingflow.repository;
+
+import com.lingflow.entity.BpmnContentBlob;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * BPMN 内容块数据访问接口
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Mapper
+public interface BpmnContentBlobRepository {
+
+    /**
+     * 根据哈希查询内容块
+     *
+     * @param contentHash 内容哈希
+     * @return 内容块
+     */
+    BpmnContentBlob findByHash(@Param("contentHash") String contentHash);
+
+    /**
+     * 根据哈希批量查询内容块
+     *
+     * @param contentHashes 内容哈希集合
+     * @return 内容块列表
+     */
+    List<BpmnContentBlob> findByHashes(@Param("contentHashes") Collection<String> contentHashes);
+
+    /**
+     * 刷新内容块的引用时间
+     * <p>同时用作存在性检查：返回0表示内容块不存在
+     *
+     * @param contentHash 内容哈希
+     * @param referencedTime 引用时间
+     * @return 影响的行数
+     */
+    int touch(@Param("contentHash") String contentHash, @Param("referencedTime") LocalDateTime referencedTime);
+
+    /**
+     * 保存内容块（已存在时忽略）
+     *
+     * @param blob 内容块
+     * @return 影响的行数
+     */
+    int save(BpmnContentBlob blob);
+
+    /**
+     * 删除未被任何模板、快照引用的内容块
+     *
+     * @param referencedBefore 最近引用时间早于该时间的才会被删除
+     * @return 删除的行数
+     */
+    int deleteUnreferenced(@Param("referencedBefore") LocalDateTime referencedBefore);
+}
@@ -1,9 +1,11 @@
 package com.lingflow.repository;
 
+import com.lingflow.dto.SortOrderDTO;
 import com.lingflow.entity.ProcessCategory;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,6 +21,11 @@ public interface ProcessCategoryRepository {
      */
     ProcessCategory findById(@Param("id") String id);
 
+    /**
+     * 根据ID列表批量查询分类
+     */
+    List<ProcessCategory> findByIds(@Param("ids") Collection<String> ids);
+
     /**
      * 根据编码查询分类（多租户）
      */
@@ -63,19 +70,23 @@ public interface ProcessCategoryRepository {
     // ============ 搜索相关 ============
 
     /**
-     * 根据名称或编码搜索分类（模糊搜索，多租户）
+     * 根据名称或编码搜索分类（按相关度排序，多租户）
      */
     List<ProcessCategory> searchByName(
         @Param("keyword") String keyword,
+        @Param("pattern") String pattern,
         @Param("tenantId") String tenantId,
         @Param("appId") String appId,
-        @Param("contextId") String contextId
+        @Param("contextId") String contextId,
+        @Param("limit") int limit
     );
 
     /**
      * 根据路径前缀查询分类（用于查询某个节点下的所有后代）
+     *
+     * @param pathPattern 路径前缀匹配模式（见 {@code SearchKeyword.prefixPattern}）
      */
-    List<ProcessCategory> findByPathLike(
+    List<ProcessCategory> findByPathPrefix(
         @Param("pathPattern") String pathPattern,
         @Param("tenantId") String tenantId,
         @Param("appId") String appId,
@@ -103,6 +114,36 @@ public interface ProcessCategoryRepository {
         @Param("level") Integer level
     );
 
+    /**
+     * 移动子树：将所有后代的路径前缀由 oldPath 改写为 newPath，层级统一加 levelDelta（单条语句）
+     *
+     * @param oldPath 被移动节点的原路径
+     * @param newPath 被移动节点的新路径
+     * @param levelDelta 层级变化量
+     * @param pathPattern 后代路径匹配模式（oldPath + "/" 的前缀模式）
+     * @param tenantId 租户ID
+     * @return 影响的行数
+     */
+    int moveSubtree(
+        @Param("oldPath") String oldPath,
+        @Param("newPath") String newPath,
+        @Param("levelDelta") int levelDelta,
+        @Param("pathPattern") String pathPattern,
+        @Param("tenantId") String tenantId
+    );
+
+    /**
+     * 批量更新排序（单条语句，携带版本号的条目校验乐观锁）
+     *
+     * @param tenantId 租户ID
+     * @param items 排序列表
+     * @return 影响的行数
+     */
+    int batchUpdateSortOrder(
+        @Param("tenantId") String tenantId,
+        @Param("items") List<SortOrderDTO> items
+    );
+
     /**
      * 更新乐观锁版本号
      * @return 影响的行数
@@ -1,5 +1,6 @@
 package com.lingflow.repository;
 
+import com.lingflow.entity.CategoryProcessCount;
 import com.lingflow.entity.ProcessDefinitionExtension;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -28,21 +29,45 @@ public interface ProcessDefinitionExtensionRepository {
     List<ProcessDefinitionExtension> findByCategoryIds(@Param("categoryIds") List<String> categoryIds);
 
     /**
-     * 搜索流程（支持模糊搜索，多租户）
+     * 搜索流程（按相关度排序，Keyset 分页，多租户）
+     * <p>匹配 ACT_RE_PROCDEF 的 NAME_ 与 KEY_，按相关度降序、ID升序排列
      */
     List<ProcessDefinitionExtension> searchProcesses(
         @Param("keyword") String keyword,
+        @Param("pattern") String pattern,
         @Param("categoryId") String categoryId,
         @Param("tenantId") String tenantId,
         @Param("appId") String appId,
-        @Param("contextId") String contextId
+        @Param("contextId") String contextId,
+        @Param("cursorScore") Float cursorScore,
+        @Param("cursorId") String cursorId,
+        @Param("limit") int limit
     );
 
+    /**
+     * 查询租户下全部搜索索引条目（包含流程名称/Key/版本与分类名称/路径）
+     */
+    List<ProcessDefinitionExtension> findSearchEntries(@Param("tenantId") String tenantId);
+
+    /**
+     * 查询单个流程定义的搜索索引条目
+     */
+    ProcessDefinitionExtension findSearchEntry(@Param("processDefinitionId") String processDefinitionId);
+
     /**
      * 统计分类下的流程数量
      */
     int countByCategoryId(@Param("categoryId") String categoryId);
 
+    /**
+     * 按分类分组统计流程数量（多租户，一次查询覆盖整棵分类树）
+     */
+    List<CategoryProcessCount> countGroupByCategory(
+        @Param("tenantId") String tenantId,
+        @Param("appId") String appId,
+        @Param("contextId") String contextId
+    );
+
     /**
      * 统计多个分类下的流程数量
      */
@@ -0,0 +1,44 @@
+package com.lingflow.repository;
+
+import com.lingflow.entity.ProcessTemplateDraftDelta;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 设计态模板 BPMN 增量数据访问接口
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Mapper
+public interface ProcessTemplateDraftDeltaRepository {
+
+    /**
+     * 查询模板在基线版本之后的增量（按版本升序）
+     *
+     * @param draftId 设计态模板ID
+     * @param fromVersion 基线版本号
+     * @return 增量列表
+     */
+    List<ProcessTemplateDraftDelta> findByDraftId(
+            @Param("draftId") String draftId,
+            @Param("fromVersion") Integer fromVersion
+    );
+
+    /**
+     * 保存增量
+     *
+     * @param delta 增量记录
+     */
+    void save(ProcessTemplateDraftDelta delta);
+
+    /**
+     * 删除模板的全部增量（压缩后调用）
+     *
+     * @param draftId 设计态模板ID
+     * @return 删除的行数
+     */
+    int deleteByDraftId(@Param("draftId") String draftId);
+}
@@ -109,6 +109,7 @@ public interface ProcessTemplateDraftRepository {
 
     /**
      * 分页查询设计态模板（多租户）
+     * <p>只返回摘要列，不含BPMN内容与表单配置
      *
      * @param tenantId 租户ID
      * @param appId 应用ID
@@ -164,6 +165,15 @@ public interface ProcessTemplateDraftRepository {
      */
     int update(ProcessTemplateDraft draft);
 
+    /**
+     * 更新设计态模板（不写入BPMN列）
+     * <p>BPMN 改动以增量形式保存时使用，避免重写大字段
+     *
+     * @param draft 设计态模板
+     * @return 影响的行数
+     */
+    int updateWithoutBpmn(ProcessTemplateDraft draft);
+
     /**
      * 删除设计态模板
      *
@@ -148,10 +148,40 @@ public interface ProcessTemplatePublishedRepository {
             @Param("contextId") String contextId
     );
 
+    /**
+     * 按相关度搜索发布态模板（多租户，Keyset 分页）
+     * <p>匹配名称、描述、标签，按相关度降序、ID升序排列；只返回摘要列
+     *
+     * @param keyword 关键词（用于计算相关度）
+     * @param pattern 匹配模式（%keyword%，通配符已转义）
+     * @param tenantId 租户ID
+     * @param appId 应用ID
+     * @param contextId 上下文ID
+     * @param categoryId 分类ID（可选）
+     * @param status 状态（可选）
+     * @param cursorScore 游标：上一页最后一条的相关度（首页为null）
+     * @param cursorId 游标：上一页最后一条的ID（首页为null）
+     * @param limit 限制数量
+     * @return 发布态模板列表（包含 searchScore）
+     */
+    List<ProcessTemplatePublished> searchRanked(
+            @Param("keyword") String keyword,
+            @Param("pattern") String pattern,
+            @Param("tenantId") String tenantId,
+            @Param("appId") String appId,
+            @Param("contextId") String contextId,
+            @Param("categoryId") String categoryId,
+            @Param("status") ProcessTemplateStatus status,
+            @Param("cursorScore") Float cursorScore,
+            @Param("cursorId") String cursorId,
+            @Param("limit") int limit
+    );
+
     // ============ 分页查询 ============
 
     /**
      * 分页查询发布态模板（多租户）
+     * <p>只返回摘要列，不含BPMN内容与表单配置
      *
      * @param tenantId 租户ID
      * @param appId 应用ID
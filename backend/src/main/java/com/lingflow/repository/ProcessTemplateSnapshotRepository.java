@@ -27,6 +27,7 @@ public interface ProcessTemplateSnapshotRepository {
 
     /**
      * 根据模板Key查询快照列表（多租户）
+     * <p>只返回摘要列，不含BPMN内容与表单配置
      *
      * @param templateKey 模板Key
      * @param tenantId 租户ID
@@ -87,6 +88,7 @@ public interface ProcessTemplateSnapshotRepository {
 
     /**
      * 分页查询快照（多租户）
+     * <p>只返回摘要列，不含BPMN内容与表单配置
      *
      * @param tenantId 租户ID
      * @param appId 应用ID
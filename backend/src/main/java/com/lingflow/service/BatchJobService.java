@@ -0,0 +1,421 @@
+package com.lingflow.service;
+
+import com.lingflow.dto.BatchJobProgressDTO;
+import com.lingflow.dto.KeysetPage;
+import com.lingflow.entity.BatchJob;
+import com.lingflow.entity.BatchJobItem;
+import com.lingflow.exception.BusinessException;
+import com.lingflow.mapper.BatchJobItemMapper;
+import com.lingflow.mapper.BatchJobMapper;
+import com.lingflow.util.KeysetCursor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量任务服务
+ *
+ * <p>大批量引擎操作拆成明细写入 lf_batch_job_item，由有界线程池在后台按分块执行：
+ * <ul>
+ *   <li>每个分块处理完成后在一个事务内回写明细结果并推进任务的续跑位置（cursor_seq）</li>
+ *   <li>任务失败或执行节点停止后，可按任务ID从续跑位置继续执行，已完成的分块不会重复处理</li>
+ *   <li>长时间没有进度的执行中任务由定时任务标记为中断</li>
+ *   <li>每次领取生成新的执行令牌，推进进度与结束任务须携带该令牌，任务被中断并续跑后原执行的写入不再生效</li>
+ * </ul>
+ *
+ * <p>具体的批量操作（如批量复制变量）负责读取明细、执行分块并调用本服务记录进度。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class BatchJobService {
+
+    /**
+     * 每条插入语句的明细数量
+     */
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @Autowired
+    private BatchJobMapper jobMapper;
+
+    @Autowired
+    private BatchJobItemMapper itemMapper;
+
+    /**
+     * 执行批量任务的线程数
+     */
+    @Value("${lingflow.batch-job.worker-threads:2}")
+    private int workerThreads;
+
+    /**
+     * 等待执行的任务数量上限
+     */
+    @Value("${lingflow.batch-job.queue-capacity:16}")
+    private int queueCapacity;
+
+    /**
+     * 执行中的任务超过该时间没有进度视为中断（分钟），待执行任务超过该时间未被领取可续跑
+     */
+    @Value("${lingflow.batch-job.stale-minutes:10}")
+    private long staleMinutes;
+
+    /**
+     * 明细查询默认每页数量
+     */
+    @Value("${lingflow.batch-job.items.default-limit:100}")
+    private int itemsDefaultLimit;
+
+    /**
+     * 明细查询每页数量上限
+     */
+    @Value("${lingflow.batch-job.items.max-limit:1000}")
+    private int itemsMaxLimit;
+
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger workerIndex = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-job-" + workerIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        // 未完成的任务保持执行中状态，超时后标记为中断，可按任务ID续跑
+        workers.shutdownNow();
+    }
+
+    /**
+     * 创建批量任务（任务行与全部明细在同一事务内写入）
+     *
+     * @param jobType 任务类型
+     * @param params 任务参数（JSON）
+     * @param items 明细（只需 itemKey 与 payload，序号按顺序从1编号）
+     * @param userId 创建人
+     * @return 任务
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public BatchJob create(String jobType, String params, List<BatchJobItem> items, String userId) {
+        if (items == null || items.isEmpty()) {
+            throw new BusinessException("批量任务明细不能为空");
+        }
+        return create(jobType, params, items.iterator(), Integer.MAX_VALUE, userId);
+    }
+
+    /**
+     * 流式创建批量任务：边读取边按批写入明细，不在内存中保留全部明细
+     *
+     * @param jobType 任务类型
+     * @param params 任务参数（JSON）
+     * @param items 明细迭代器（只需 itemKey 与 payload，序号按顺序从1编号）
+     * @param maxItems 明细数量上限
+     * @param userId 创建人
+     * @return 任务
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public BatchJob create(String jobType, String params, Iterator<BatchJobItem> items, int maxItems, String userId) {
+        BatchJob job = newJob(jobType, params, userId);
+        jobMapper.insert(job);
+
+        List<BatchJobItem> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        int seq = 0;
+        while (items.hasNext()) {
+            if (seq >= maxItems) {
+                throw new BusinessException("批量任务明细数量超过上限: " + maxItems);
+            }
+            BatchJobItem item = items.next();
+            item.setJobId(job.getJobId());
+            item.setSeq(++seq);
+            batch.add(item);
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                itemMapper.insertBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            itemMapper.insertBatch(batch);
+        }
+        if (seq == 0) {
+            throw new BusinessException("批量任务明细不能为空");
+        }
+        job.setTotalCount(seq);
+        jobMapper.updateTotalCount(job.getJobId(), seq);
+        log.info("创建批量任务: jobId={}, type={}, items={}", job.getJobId(), jobType, seq);
+        return job;
+    }
+
+    private static BatchJob newJob(String jobType, String params, String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        BatchJob job = new BatchJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setJobType(jobType);
+        job.setStatus(BatchJob.STATUS_PENDING);
+        job.setParams(params);
+        job.setTotalCount(0);
+        job.setProcessedCount(0);
+        job.setSuccessCount(0);
+        job.setSkippedCount(0);
+        job.setFailureCount(0);
+        job.setCursorSeq(0);
+        job.setStartSeq(0);
+        job.setCreateBy(userId);
+        job.setCreateTime(now);
+        job.setUpdateTime(now);
+        return job;
+    }
+
+    /**
+     * 提交任务到后台执行（存在事务时于提交后提交）
+     *
+     * @param jobId 任务ID
+     * @param runner 任务执行逻辑
+     */
+    public void submit(String jobId, Runnable runner) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    execute(jobId, runner);
+                }
+            });
+        } else {
+            execute(jobId, runner);
+        }
+    }
+
+    /**
+     * 查询任务，类型不符时视为不存在
+     *
+     * @param jobId 任务ID
+     * @param jobType 任务类型
+     * @return 任务
+     */
+    public BatchJob requireJob(String jobId, String jobType) {
+        BatchJob job = jobMapper.selectById(jobId);
+        if (job == null || !job.getJobType().equals(jobType)) {
+            throw new BusinessException("批量任务不存在: " + jobId);
+        }
+        return job;
+    }
+
+    /**
+     * 检查任务是否可以续跑
+     *
+     * @param job 任务
+     */
+    public void checkResumable(BatchJob job) {
+        if (BatchJob.STATUS_FAILED.equals(job.getStatus()) || BatchJob.STATUS_INTERRUPTED.equals(job.getStatus())) {
+            return;
+        }
+        // 待执行任务长时间未被领取（队列已满或提交节点已停止）也可续跑，领取是原子的，不会重复执行
+        if (BatchJob.STATUS_PENDING.equals(job.getStatus()) && job.getUpdateTime() != null
+                && job.getUpdateTime().isBefore(LocalDateTime.now().minusMinutes(staleMinutes))) {
+            return;
+        }
+        throw new BusinessException("只有失败、中断或长时间未执行的批量任务可以续跑，当前状态: " + job.getStatus());
+    }
+
+    /**
+     * 领取任务（置为执行中并生成执行令牌）
+     *
+     * @param jobId 任务ID
+     * @return 领取成功返回任务（含本次执行令牌），任务不可执行时返回null
+     */
+    public BatchJob claim(String jobId) {
+        String runToken = UUID.randomUUID().toString();
+        if (jobMapper.claim(jobId, runToken) == 0) {
+            return null;
+        }
+        BatchJob job = jobMapper.selectById(jobId);
+        job.setRunToken(runToken);
+        return job;
+    }
+
+    /**
+     * 读取续跑位置之后的一个分块
+     *
+     * @param jobId 任务ID
+     * @param afterSeq 续跑位置
+     * @param limit 分块大小
+     * @return 明细列表
+     */
+    public List<BatchJobItem> nextChunk(String jobId, int afterSeq, int limit) {
+        return itemMapper.findAfter(jobId, afterSeq, limit);
+    }
+
+    /**
+     * 记录一个分块的结果并推进续跑位置
+     *
+     * <p>先推进任务行（同时锁定该行），令牌不匹配说明本次执行已被中断或接管，抛出异常使执行停止且不写入明细结果。
+     *
+     * @param jobId 任务ID
+     * @param runToken 执行令牌
+     * @param results 分块明细（已设置 status、result、message）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void recordChunk(String jobId, String runToken, List<BatchJobItem> results) {
+        int success = 0;
+        int skipped = 0;
+        int lastSeq = 0;
+        for (BatchJobItem item : results) {
+            if (BatchJobItem.STATUS_SUCCESS.equals(item.getStatus())) {
+                success++;
+            } else if (BatchJobItem.STATUS_SKIPPED.equals(item.getStatus())) {
+                skipped++;
+            }
+            lastSeq = Math.max(lastSeq, item.getSeq());
+        }
+        int advanced = jobMapper.advance(jobId, runToken, lastSeq, results.size(),
+                success, skipped, results.size() - success - skipped);
+        if (advanced == 0) {
+            throw new BusinessException("批量任务已被中断或由其他执行接管: " + jobId);
+        }
+        itemMapper.updateResults(jobId, results);
+    }
+
+    /**
+     * 任务执行完成
+     *
+     * @param jobId 任务ID
+     * @param runToken 执行令牌
+     */
+    public void complete(String jobId, String runToken) {
+        if (jobMapper.finish(jobId, runToken, BatchJob.STATUS_COMPLETED, null) == 0) {
+            log.warn("批量任务已被中断或由其他执行接管，忽略完成: jobId={}", jobId);
+        }
+    }
+
+    /**
+     * 任务执行失败（保留续跑位置）
+     *
+     * @param jobId 任务ID
+     * @param runToken 执行令牌
+     * @param errorMessage 失败原因
+     */
+    public void fail(String jobId, String runToken, String errorMessage) {
+        if (jobMapper.finish(jobId, runToken, BatchJob.STATUS_FAILED, truncate(errorMessage, 1000)) == 0) {
+            log.warn("批量任务已被中断或由其他执行接管，忽略失败: jobId={}", jobId);
+        }
+    }
+
+    /**
+     * 查询任务进度
+     *
+     * @param jobId 任务ID
+     * @param jobType 任务类型
+     * @return 任务进度
+     */
+    public BatchJobProgressDTO getProgress(String jobId, String jobType) {
+        return toProgress(requireJob(jobId, jobType));
+    }
+
+    /**
+     * 按游标分页查询任务明细
+     *
+     * @param jobId 任务ID
+     * @param jobType 任务类型
+     * @param status 状态（可选，如只看 FAILED）
+     * @param cursor 上一页返回的游标，首页为空
+     * @param limit 每页数量
+     * @return 明细分页
+     */
+    public KeysetPage<BatchJobItem> getItems(String jobId, String jobType, String status, String cursor, Integer limit) {
+        requireJob(jobId, jobType);
+        int pageSize = limit == null || limit <= 0 ? itemsDefaultLimit : Math.min(limit, itemsMaxLimit);
+        String[] cursorKeys = KeysetCursor.decode(cursor, 1);
+        int afterSeq;
+        try {
+            afterSeq = cursorKeys == null ? 0 : Integer.parseInt(cursorKeys[0]);
+        } catch (NumberFormatException e) {
+            throw new BusinessException("无效的分页游标");
+        }
+
+        // 多查一条用于判断是否还有下一页
+        List<BatchJobItem> items = itemMapper.findPage(jobId, status, afterSeq, pageSize + 1);
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+        }
+        return KeysetPage.<BatchJobItem>builder()
+                .list(items)
+                .nextCursor(hasMore ? KeysetCursor.encode(items.get(items.size() - 1).getSeq()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * 将长时间没有进度的任务标记为中断
+     */
+    @Scheduled(fixedDelayString = "${lingflow.batch-job.stale-check-ms:60000}")
+    public void interruptStaleJobs() {
+        int interrupted = jobMapper.interruptStale(LocalDateTime.now().minusMinutes(staleMinutes));
+        if (interrupted > 0) {
+            log.warn("批量任务长时间没有进度，已标记为中断: count={}", interrupted);
+        }
+    }
+
+    // ============ 私有辅助方法 ============
+
+    private void execute(String jobId, Runnable runner) {
+        try {
+            workers.execute(runner);
+        } catch (RejectedExecutionException e) {
+            // 任务保持待执行状态，超过 stale-minutes 未被领取后可续跑
+            log.warn("批量任务队列已满，任务稍后可续跑: jobId={}", jobId);
+        }
+    }
+
+    static BatchJobProgressDTO toProgress(BatchJob job) {
+        Double throughput = null;
+        if (job.getStartTime() != null) {
+            LocalDateTime end = job.getEndTime() != null ? job.getEndTime() : LocalDateTime.now();
+            long millis = Duration.between(job.getStartTime(), end).toMillis();
+            int processedThisRun = job.getCursorSeq() - job.getStartSeq();
+            throughput = millis > 0 ? processedThisRun * 1000.0 / millis : null;
+        }
+        return BatchJobProgressDTO.builder()
+                .jobId(job.getJobId())
+                .jobType(job.getJobType())
+                .status(job.getStatus())
+                .totalCount(job.getTotalCount())
+                .processedCount(job.getProcessedCount())
+                .successCount(job.getSuccessCount())
+                .skippedCount(job.getSkippedCount())
+                .failureCount(job.getFailureCount())
+                .cursorSeq(job.getCursorSeq())
+                .throughputPerSecond(throughput)
+                .errorMessage(job.getErrorMessage())
+                .createTime(job.getCreateTime())
+                .startTime(job.getStartTime())
+                .endTime(job.getEndTime())
+                .build();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
@@ -0,0 +1,220 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.BpmnContentBlob;
+import com.lingflow.exception.BusinessException;
+import com.lingflow.repository.BpmnContentBlobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * BPMN 内容寻址存储
+ *
+ * <p>设计态、发布态模板和快照只保存 BPMN 内容的 SHA-256 哈希，内容本身以 Deflate 压缩后
+ * 存入 bpmn_content_blob 表。相同内容只存储一份：再次保存已存在的内容时只刷新引用时间，
+ * 不再写入内容本身。
+ *
+ * <p>内容块不可变，读取结果按哈希缓存（LRU）。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class BpmnContentStore {
+
+    /**
+     * 缓存的内容块数量上限
+     */
+    private static final int CACHE_SIZE = 64;
+
+    @Autowired
+    private BpmnContentBlobRepository blobRepository;
+
+    /**
+     * 未被引用的内容块保留天数（之后由回收任务删除）
+     */
+    @Value("${lingflow.bpmn-content.gc-grace-days:1}")
+    private int gcGraceDays;
+
+    private final Map<String, String> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    /**
+     * 保存内容，返回内容哈希
+     * <p>内容已存在时只刷新引用时间，不写入内容
+     *
+     * @param bpmnXml BPMN XML
+     * @return 内容哈希
+     */
+    public String put(String bpmnXml) {
+        byte[] raw = bpmnXml.getBytes(StandardCharsets.UTF_8);
+        String hash = hash(raw);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (blobRepository.touch(hash, now) > 0) {
+            return hash;
+        }
+
+        byte[] compressed = deflate(raw);
+        blobRepository.save(BpmnContentBlob.builder()
+                .contentHash(hash)
+                .compression(BpmnContentBlob.COMPRESSION_DEFLATE)
+                .content(compressed)
+                .rawSize(raw.length)
+                .storedSize(compressed.length)
+                .createdTime(now)
+                .lastReferencedTime(now)
+                .build());
+        log.debug("保存BPMN内容: hash={}, rawSize={}, storedSize={}", hash, raw.length, compressed.length);
+        return hash;
+    }
+
+    /**
+     * 根据哈希读取内容
+     *
+     * @param hash 内容哈希
+     * @return BPMN XML，哈希为空时返回null
+     */
+    public String get(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        String cached = cache.get(hash);
+        if (cached != null) {
+            return cached;
+        }
+
+        BpmnContentBlob blob = blobRepository.findByHash(hash);
+        if (blob == null) {
+            throw new BusinessException("BPMN内容不存在: " + hash);
+        }
+        String content = decode(blob);
+        cache.put(hash, content);
+        return content;
+    }
+
+    /**
+     * 根据哈希批量读取内容（一次查询）
+     *
+     * @param hashes 内容哈希集合
+     * @return 哈希 → BPMN XML
+     */
+    public Map<String, String> getAll(Collection<String> hashes) {
+        Map<String, String> result = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String hash : hashes) {
+            if (hash == null) {
+                continue;
+            }
+            String cached = cache.get(hash);
+            if (cached != null) {
+                result.put(hash, cached);
+            } else {
+                missing.add(hash);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (BpmnContentBlob blob : blobRepository.findByHashes(missing)) {
+                String content = decode(blob);
+                cache.put(blob.getContentHash(), content);
+                result.put(blob.getContentHash(), content);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 计算内容哈希
+     *
+     * @param bpmnXml BPMN XML
+     * @return 内容哈希
+     */
+    public String hashOf(String bpmnXml) {
+        return hash(bpmnXml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 回收未被引用的内容块
+     */
+    @Scheduled(cron = "${lingflow.bpmn-content.gc-cron:0 30 3 * * ?}")
+    public void collectGarbage() {
+        int deleted = blobRepository.deleteUnreferenced(LocalDateTime.now().minusDays(gcGraceDays));
+        log.info("回收未引用的BPMN内容: deleted={}", deleted);
+    }
+
+    // ============ 私有辅助方法 ============
+
+    private String decode(BpmnContentBlob blob) {
+        byte[] raw = BpmnContentBlob.COMPRESSION_DEFLATE.equals(blob.getCompression())
+                ? inflate(blob.getContent(), blob.getRawSize())
+                : blob.getContent();
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    private static String hash(byte[] raw) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(raw));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawSize];
+            int offset = 0;
+            while (offset < rawSize && !inflater.finished()) {
+                int n = inflater.inflate(raw, offset, rawSize - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += n;
+            }
+            if (offset != rawSize) {
+                throw new IllegalStateException("BPMN内容解压后大小不一致: expected=" + rawSize + ", actual=" + offset);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("BPMN内容解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
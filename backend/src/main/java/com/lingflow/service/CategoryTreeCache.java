@@ -0,0 +1,168 @@
+package com.lingflow.service;
+
+import com.lingflow.dto.ProcessCategoryTreeDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 分类树缓存（按租户/应用/上下文）
+ *
+ * <p>每个租户维护一个单调递增的版本号，分类增删改、移动、排序以及流程分类变更都会使版本号递增。
+ * 缓存的分类树快照记录构建时的版本号，版本号变化后下次读取时重建。
+ *
+ * <p>版本号在事务提交后才递增：提交前读取到的仍是旧数据与旧版本号，
+ * 不会出现以新版本号缓存旧数据的情况。
+ *
+ * <p>版本号只在本节点递增，其他节点的修改不会使本节点的版本号变化，因此快照另有有效期（ttl-minutes），
+ * 过期后重建；ETag 由启动时间戳、版本号与分类树内容摘要组成，过期重建后内容有变化时 ETag 随之变化，
+ * 多节点部署下最多返回一个有效期内的旧分类树。服务重启后不会与重启前的 ETag 冲突。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class CategoryTreeCache {
+
+    /**
+     * 启动时间戳（区分不同进程生命周期的版本号）
+     */
+    private final long epoch = System.currentTimeMillis();
+
+    /**
+     * 快照有效期（分钟），过期后重建以读取其他节点的修改
+     */
+    @Value("${lingflow.category.tree-cache.ttl-minutes:5}")
+    private long ttlMinutes;
+
+    private final Map<String, AtomicLong> tenantVersions = new ConcurrentHashMap<>();
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 获取分类树（缓存未命中或已过期时调用 loader 构建）
+     *
+     * @param tenantId 租户ID
+     * @param appId 应用ID
+     * @param contextId 上下文ID
+     * @param loader 分类树加载器
+     * @return 分类树快照（只读）
+     */
+    public Snapshot get(String tenantId, String appId, String contextId,
+                        Supplier<List<ProcessCategoryTreeDTO>> loader) {
+        String key = cacheKey(tenantId, appId, contextId);
+        long version = currentVersion(tenantId);
+
+        Snapshot snapshot = snapshots.get(key);
+        if (isValid(snapshot, version)) {
+            return snapshot;
+        }
+
+        List<ProcessCategoryTreeDTO> tree = loader.get();
+        snapshot = new Snapshot(version, etag(tenantId, version, tree), Collections.unmodifiableList(tree));
+        // 构建期间版本号可能已变化，只缓存不旧于现有快照的结果
+        snapshots.merge(key, snapshot, (current, created) ->
+                created.getVersion() >= current.getVersion() ? created : current);
+        return snapshot;
+    }
+
+    /**
+     * 获取当前有效的 ETag（缓存中没有当前版本的快照或快照已过期时返回null）
+     *
+     * @param tenantId 租户ID
+     * @param appId 应用ID
+     * @param contextId 上下文ID
+     * @return ETag
+     */
+    public String currentETag(String tenantId, String appId, String contextId) {
+        Snapshot snapshot = snapshots.get(cacheKey(tenantId, appId, contextId));
+        return isValid(snapshot, currentVersion(tenantId)) ? snapshot.getEtag() : null;
+    }
+
+    /**
+     * 获取租户当前的分类树版本号
+     *
+     * @param tenantId 租户ID
+     * @return 版本号
+     */
+    public long currentVersion(String tenantId) {
+        return tenantVersions.computeIfAbsent(tenantId, key -> new AtomicLong(1)).get();
+    }
+
+    /**
+     * 使租户的分类树缓存失效（存在事务时于提交后生效）
+     *
+     * @param tenantId 租户ID
+     */
+    public void invalidate(String tenantId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersion(tenantId);
+                }
+            });
+        } else {
+            bumpVersion(tenantId);
+        }
+    }
+
+    private void bumpVersion(String tenantId) {
+        long version = tenantVersions.computeIfAbsent(tenantId, key -> new AtomicLong(1)).incrementAndGet();
+        log.debug("分类树版本递增: tenantId={}, version={}", tenantId, version);
+    }
+
+    private boolean isValid(Snapshot snapshot, long version) {
+        return snapshot != null && snapshot.getVersion() == version
+                && System.currentTimeMillis() - snapshot.createdAt <= ttlMinutes * 60_000L;
+    }
+
+    private String etag(String tenantId, long version, List<ProcessCategoryTreeDTO> tree) {
+        return "\"" + Integer.toHexString(Objects.hashCode(tenantId)) + "-" + epoch + "-" + version
+                + "-" + Integer.toHexString(Objects.hashCode(tree)) + "\"";
+    }
+
+    private static String cacheKey(String tenantId, String appId, String contextId) {
+        return tenantId + "|" + (appId != null ? appId : "") + "|" + (contextId != null ? contextId : "");
+    }
+
+    /**
+     * 分类树快照（不可变）
+     */
+    public static class Snapshot {
+
+        private final long createdAt = System.currentTimeMillis();
+        private final long version;
+        private final String etag;
+        private final List<ProcessCategoryTreeDTO> tree;
+
+        Snapshot(long version, String etag, List<ProcessCategoryTreeDTO> tree) {
+            this.version = version;
+            this.etag = etag;
+            this.tree = tree;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public List<ProcessCategoryTreeDTO> getTree() {
+            return tree;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.lingflow.service;
 import org.flowable.engine.RepositoryService;
 import com.lingflow.dto.ProcessDefinitionVO;
 import com.lingflow.extension.wrapper.FlowableServiceTemplate;
+import com.lingflow.util.BpmnStreamingValidator;
+import com.lingflow.util.ProcessValidator;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.io.Resources;
 import org.flowable.bpmn.converter.BpmnXMLConverter;
@@ -186,6 +188,12 @@ public class ExtendedRepositoryService {
      * @param bpmnXml BPMN XML 字符串
      */
     private void validateBpmnXml(String bpmnXml) {
+        // 流式预校验：缺少开始节点、连线引用不存在、ID重复等结构性错误直接拒绝部署
+        ProcessValidator.ValidationResult preCheck = BpmnStreamingValidator.validate(bpmnXml);
+        if (!preCheck.isValid()) {
+            throw new RuntimeException("BPMN XML 验证失败: " + String.join("; ", preCheck.getErrors()));
+        }
+
         try {
             BpmnXMLConverter bpmnXMLConverter = new BpmnXMLConverter();
 
@@ -0,0 +1,44 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.NotificationRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 日志通知渠道
+ * <p>只输出日志，用于开发环境和未接入实际渠道时
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class LogNotificationChannel implements NotificationChannel {
+
+    @Value("${lingflow.notification.channels.log.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Map<String, String> deliver(List<NotificationRecord> records) {
+        for (NotificationRecord record : records) {
+            log.info("发送通知: 类型={}, 接收人={}, 标题={}",
+                record.getType(), record.getRecipientId(), record.getTitle());
+        }
+        return Collections.emptyMap();
+    }
+}
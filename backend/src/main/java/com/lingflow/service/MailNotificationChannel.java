@@ -0,0 +1,135 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.NotificationRecord;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.flowable.engine.IdentityService;
+import org.flowable.idm.api.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 邮件通知渠道
+ *
+ * <p>每批通知使用一次 SMTP 会话发送，SMTP 服务器默认沿用 Flowable 邮件服务配置。
+ * 接收人ID本身是邮箱地址时直接使用，否则按用户ID批量查询 Flowable 用户的邮箱；
+ * 查不到邮箱的通知按投递失败处理，不猜测地址。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class MailNotificationChannel implements NotificationChannel {
+
+    @Autowired
+    private IdentityService identityService;
+
+    @Value("${lingflow.notification.channels.mail.enabled:false}")
+    private boolean enabled;
+
+    @Value("${lingflow.notification.channels.mail.host:${spring.flowable.mail.server.host:localhost}}")
+    private String host;
+
+    @Value("${lingflow.notification.channels.mail.port:${spring.flowable.mail.server.port:25}}")
+    private int port;
+
+    @Value("${lingflow.notification.channels.mail.username:}")
+    private String username;
+
+    @Value("${lingflow.notification.channels.mail.password:}")
+    private String password;
+
+    @Value("${lingflow.notification.channels.mail.from:lingflow@example.com}")
+    private String from;
+
+    @Override
+    public String getName() {
+        return "mail";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Map<String, String> deliver(List<NotificationRecord> records) throws MessagingException {
+        Map<String, String> failures = new HashMap<>();
+        Map<String, String> addresses = resolveAddresses(records);
+        List<NotificationRecord> deliverable = new ArrayList<>(records.size());
+        for (NotificationRecord record : records) {
+            if (addresses.containsKey(record.getRecipientId())) {
+                deliverable.add(record);
+            } else {
+                failures.put(record.getNotificationId(), "未找到接收人邮箱: " + record.getRecipientId());
+            }
+        }
+        if (deliverable.isEmpty()) {
+            return failures;
+        }
+
+        Properties properties = new Properties();
+        properties.put("mail.smtp.host", host);
+        properties.put("mail.smtp.port", String.valueOf(port));
+        properties.put("mail.smtp.auth", String.valueOf(!username.isEmpty()));
+        Session session = Session.getInstance(properties);
+
+        try (Transport transport = session.getTransport("smtp")) {
+            transport.connect(host, port, username.isEmpty() ? null : username, password.isEmpty() ? null : password);
+            for (NotificationRecord record : deliverable) {
+                try {
+                    MimeMessage message = new MimeMessage(session);
+                    message.setFrom(new InternetAddress(from));
+                    message.setRecipient(Message.RecipientType.TO, new InternetAddress(addresses.get(record.getRecipientId())));
+                    message.setSubject(record.getTitle(), StandardCharsets.UTF_8.name());
+                    message.setText(record.getContent() != null ? record.getContent() : "", StandardCharsets.UTF_8.name());
+                    message.setSentDate(new Date());
+                    transport.sendMessage(message, message.getAllRecipients());
+                } catch (MessagingException e) {
+                    failures.put(record.getNotificationId(), e.toString());
+                }
+            }
+        }
+        log.debug("邮件通知发送完成: total={}, failed={}", records.size(), failures.size());
+        return failures;
+    }
+
+    /**
+     * 解析接收人邮箱：接收人ID是邮箱时直接使用，其余一次查询用户邮箱
+     *
+     * @return 接收人ID → 邮箱（查不到邮箱的接收人不在结果中）
+     */
+    private Map<String, String> resolveAddresses(List<NotificationRecord> records) {
+        Map<String, String> addresses = new HashMap<>();
+        Set<String> userIds = new HashSet<>();
+        for (NotificationRecord record : records) {
+            String recipientId = record.getRecipientId();
+            if (recipientId == null) {
+                continue;
+            }
+            if (recipientId.contains("@")) {
+                addresses.put(recipientId, recipientId);
+            } else {
+                userIds.add(recipientId);
+            }
+        }
+        if (!userIds.isEmpty()) {
+            for (User user : identityService.createUserQuery().userIds(new ArrayList<>(userIds)).list()) {
+                if (user.getEmail() != null && !user.getEmail().isBlank()) {
+                    addresses.put(user.getId(), user.getEmail());
+                }
+            }
+        }
+        return addresses;
+    }
+}
@@ -0,0 +1,41 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.NotificationRecord;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通知投递渠道
+ *
+ * <p>渠道由 {@link NotificationDispatcher} 在事务提交后异步调用，每次投递一批通知，
+ * 实现应复用同一连接/会话发送整批通知（如一次 SMTP 会话发送多封邮件）。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+public interface NotificationChannel {
+
+    /**
+     * 渠道名称（用于指标标签与日志）
+     *
+     * @return 渠道名称
+     */
+    String getName();
+
+    /**
+     * 是否启用
+     *
+     * @return 是否启用
+     */
+    boolean isEnabled();
+
+    /**
+     * 批量投递
+     *
+     * @param records 通知记录
+     * @return 投递失败的通知ID → 错误信息（全部成功时返回空Map）
+     * @throws Exception 整批投递失败（如连接失败），整批按失败重试
+     */
+    Map<String, String> deliver(List<NotificationRecord> records) throws Exception;
+}
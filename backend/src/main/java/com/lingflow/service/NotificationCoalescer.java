@@ -0,0 +1,215 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.NotificationRecord;
+import com.lingflow.mapper.NotificationRecordMapper;
+import com.lingflow.service.ProcessNotificationService.NotificationMessage;
+import com.lingflow.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 通知合并器（高频接收人摘要模式）
+ *
+ * <p>按接收人限流：每个接收人在一个窗口内可立即投递的可合并类型通知数量有上限，
+ * 超出后的通知仍在业务事务内写入通知记录（收件箱与未读数量不受影响），但投递状态为 COALESCED，
+ * 不单独投递到各渠道。定时任务领取最早一条已超过窗口的 (接收人, 类型) 分组，
+ * 将分组内全部合并通知合成一条摘要投递一次，投递结果回写到每条成员记录。
+ * 低频接收人不受影响；不可合并的类型（超时、审批结果等时效性通知）始终立即投递。
+ *
+ * <p>限流计数在业务事务提交后才累加，回滚的事务不占用额度。合并状态保存在通知记录表中，
+ * 服务重启不会丢失；领取后未投递完成的成员记录由 {@link NotificationDispatcher} 的补偿任务按租约重新投递。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class NotificationCoalescer {
+
+    /**
+     * 摘要中记录的任务ID数量上限
+     */
+    private static final int MAX_DIGEST_TASK_IDS = 100;
+
+    @Autowired
+    private NotificationRecordMapper notificationRecordMapper;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    /**
+     * 是否启用合并
+     */
+    @Value("${lingflow.notification.coalesce.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 可合并的通知类型
+     */
+    @Value("${lingflow.notification.coalesce.types:TASK_ASSIGNED,TASK_COMPLETED}")
+    private Set<String> coalesceTypes;
+
+    /**
+     * 限流与合并窗口（毫秒）
+     */
+    @Value("${lingflow.notification.coalesce.window-ms:60000}")
+    private long windowMs;
+
+    /**
+     * 每个接收人每个窗口内可立即投递的通知数量
+     */
+    @Value("${lingflow.notification.coalesce.immediate-limit:5}")
+    private int immediateLimit;
+
+    /**
+     * 摘要内容中列出的通知条数上限
+     */
+    @Value("${lingflow.notification.coalesce.max-items:10}")
+    private int maxItems;
+
+    /**
+     * 每次领取的 (接收人, 类型) 分组数量上限
+     */
+    @Value("${lingflow.notification.coalesce.flush-groups:500}")
+    private int flushGroups;
+
+    /**
+     * 领取后摘要投递的租约时长（分钟），与投递补偿共用
+     */
+    @Value("${lingflow.notification.dispatch.recover-after-minutes:10}")
+    private long leaseMinutes;
+
+    /**
+     * 接收人 → 当前限流窗口
+     */
+    private final Map<String, RateWindow> rateWindows = new ConcurrentHashMap<>();
+
+    /**
+     * 判断通知是否合并投递：超出接收人限流的可合并通知返回true（调用方以 COALESCED 状态写入，不立即投递）
+     *
+     * <p>限流计数在事务提交后累加（没有事务时立即累加）
+     *
+     * @param message 通知消息
+     * @return true 表示合并投递，false 表示立即投递
+     */
+    public boolean shouldCoalesce(NotificationMessage message) {
+        if (!enabled || message.getType() == null || message.getRecipient() == null
+                || !coalesceTypes.contains(message.getType().name())) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        RateWindow window = rateWindows.get(message.getRecipient());
+        boolean coalesce = window != null && now - window.start < windowMs && window.count >= immediateLimit;
+
+        String recipient = message.getRecipient();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count(recipient);
+                }
+            });
+        } else {
+            count(recipient);
+        }
+        return coalesce;
+    }
+
+    /**
+     * 领取窗口已结束的合并分组并投递摘要
+     */
+    @Scheduled(fixedDelayString = "${lingflow.notification.coalesce.flush-interval-ms:5000}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        rateWindows.values().removeIf(window -> System.currentTimeMillis() - window.start >= windowMs);
+
+        List<NotificationRecord> claimed = notificationRecordMapper.claimCoalesced(
+                now.minusNanos(windowMs * 1_000_000L), now.plusMinutes(leaseMinutes), flushGroups);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        Map<String, List<NotificationRecord>> groups = new LinkedHashMap<>();
+        claimed.stream()
+                .sorted(Comparator.comparing(NotificationRecord::getCreateTime))
+                .forEach(record -> groups.computeIfAbsent(record.getType() + ":" + record.getRecipientId(),
+                        key -> new ArrayList<>()).add(record));
+        for (List<NotificationRecord> members : groups.values()) {
+            if (members.size() == 1) {
+                notificationDispatcher.dispatch(members.get(0));
+            } else {
+                List<String> memberIds = new ArrayList<>(members.size());
+                members.forEach(member -> memberIds.add(member.getNotificationId()));
+                notificationDispatcher.dispatchDigest(toDigest(members, maxItems), memberIds);
+            }
+        }
+        log.debug("投递合并通知摘要: groups={}, notifications={}", groups.size(), claimed.size());
+    }
+
+    // ============ 私有辅助方法 ============
+
+    private void count(String recipient) {
+        long now = System.currentTimeMillis();
+        rateWindows.compute(recipient, (key, current) -> {
+            RateWindow next = current == null || now - current.start >= windowMs ? new RateWindow(now) : current;
+            next.count++;
+            return next;
+        });
+    }
+
+    /**
+     * 合成摘要（仅用于投递，不写入通知记录表）
+     */
+    static NotificationRecord toDigest(List<NotificationRecord> members, int maxItems) {
+        NotificationRecord first = members.get(0);
+        int total = members.size();
+        StringBuilder content = new StringBuilder();
+        int listed = Math.min(maxItems, total);
+        for (int i = 0; i < listed; i++) {
+            if (i > 0) {
+                content.append('\n');
+            }
+            content.append(i + 1).append(". ").append(members.get(i).getContent());
+        }
+        if (total > listed) {
+            content.append('\n').append("……等").append(total).append("条");
+        }
+
+        List<String> taskIds = new ArrayList<>();
+        for (NotificationRecord member : members) {
+            if (member.getTaskId() != null && taskIds.size() < MAX_DIGEST_TASK_IDS) {
+                taskIds.add(member.getTaskId());
+            }
+        }
+        Map<String, Object> extra = new LinkedHashMap<>();
+        extra.put("digest", true);
+        extra.put("count", total);
+        extra.put("taskIds", taskIds);
+
+        NotificationRecord digest = new NotificationRecord(first.getType(), first.getRecipientId(),
+                String.format("%s（共%d条）", first.getTitle(), total), content.toString());
+        digest.setExtraData(JsonUtil.toJson(extra));
+        return digest;
+    }
+
+    /**
+     * 接收人限流窗口
+     */
+    private static class RateWindow {
+
+        final long start;
+        int count;
+
+        RateWindow(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.NotificationRecord;
+import com.lingflow.mapper.NotificationRecordMapper;
+import com.lingflow.metrics.NotificationDispatchMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 通知异步投递调度器
+ *
+ * <p>通知记录在业务事务中写入，事务提交后才进入各渠道的待投递队列，渠道延迟不会占用数据库事务：
+ * <ul>
+ *   <li>每个启用的渠道一个有界队列，队列已满时通知保持 PENDING，由补偿任务重新投递</li>
+ *   <li>投递中的通知持有租约（提交后为 create_time + recover-after-minutes，重试与补偿领取时延长），
+ *       补偿任务只领取租约已过期的通知，不会重复投递仍在队列或退避中的通知</li>
+ *   <li>调度线程定期按批取出队列中的通知，交给有界线程池投递（线程池满时由调度线程自行投递，形成背压）</li>
+ *   <li>投递失败按指数退避重试，超过最大次数后标记为 FAILED</li>
+ *   <li>每批投递结果回写 lf_notification_record 的投递状态字段</li>
+ * </ul>
+ *
+ * <p>投递状态：任一渠道投递成功即为 SENT；任一渠道重试耗尽即为 FAILED（不再被覆盖）。
+ * 合并摘要作为一次投递发送，结果回写到摘要的全部成员记录。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class NotificationDispatcher {
+
+    @Autowired
+    private List<NotificationChannel> channels;
+
+    @Autowired
+    private NotificationRecordMapper notificationRecordMapper;
+
+    @Autowired
+    private NotificationDispatchMetrics metrics;
+
+    /**
+     * 投递线程数
+     */
+    @Value("${lingflow.notification.dispatch.worker-threads:4}")
+    private int workerThreads;
+
+    /**
+     * 每个渠道的待投递队列容量
+     */
+    @Value("${lingflow.notification.dispatch.queue-capacity:10000}")
+    private int queueCapacity;
+
+    /**
+     * 每批投递的最大通知数量
+     */
+    @Value("${lingflow.notification.dispatch.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 批次聚合间隔（毫秒）
+     */
+    @Value("${lingflow.notification.dispatch.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    /**
+     * 最大投递次数（含首次）
+     */
+    @Value("${lingflow.notification.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * 首次重试延迟（毫秒），之后每次翻倍
+     */
+    @Value("${lingflow.notification.dispatch.backoff-initial-ms:1000}")
+    private long backoffInitialMs;
+
+    /**
+     * 重试延迟上限（毫秒）
+     */
+    @Value("${lingflow.notification.dispatch.backoff-max-ms:60000}")
+    private long backoffMaxMs;
+
+    /**
+     * 投递租约时长（分钟），租约过期仍为 PENDING 的通知由补偿任务重新投递
+     */
+    @Value("${lingflow.notification.dispatch.recover-after-minutes:10}")
+    private long recoverAfterMinutes;
+
+    private final Map<String, BlockingQueue<Delivery>> queues = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor workers;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger workerIndex = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workerThreads * 2),
+                runnable -> daemon(runnable, "notification-dispatch-" + workerIndex.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "notification-flush"));
+
+        for (NotificationChannel channel : channels) {
+            if (channel.isEnabled()) {
+                BlockingQueue<Delivery> queue = new LinkedBlockingQueue<>(queueCapacity);
+                queues.put(channel.getName(), queue);
+                metrics.registerQueue(channel.getName(), queue);
+            }
+        }
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("通知投递调度器已启动: channels={}", queues.keySet());
+    }
+
+    @PreDestroy
+    public void stop() {
+        // 队列中未投递的通知保持 PENDING，由补偿任务在下次启动后重新投递
+        scheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 投递通知（存在事务时于提交后进入投递队列）
+     *
+     * @param record 已保存的通知记录
+     */
+    public void dispatch(NotificationRecord record) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(record);
+                }
+            });
+        } else {
+            enqueue(record);
+        }
+    }
+
+    /**
+     * 批量投递通知（存在事务时于提交后进入投递队列）
+     *
+     * @param records 已保存的通知记录
+     */
+    public void dispatchAll(List<NotificationRecord> records) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    records.forEach(NotificationDispatcher.this::enqueue);
+                }
+            });
+        } else {
+            records.forEach(this::enqueue);
+        }
+    }
+
+    /**
+     * 投递合并摘要（摘要本身不写入通知记录表，投递结果回写到成员记录）
+     *
+     * @param digest 合成的摘要通知
+     * @param memberIds 成员通知ID
+     */
+    public void dispatchDigest(NotificationRecord digest, List<String> memberIds) {
+        List<String> ids = List.copyOf(memberIds);
+        queues.forEach((channel, queue) -> offer(channel, new Delivery(digest, ids, 1)));
+    }
+
+    /**
+     * 补偿：领取租约已过期、仍为 PENDING 的通知并重新投递（队列已满被丢弃、服务重启时未投递完的通知）
+     */
+    @Scheduled(fixedDelayString = "${lingflow.notification.dispatch.recover-interval-ms:300000}")
+    public void recover() {
+        if (queues.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationRecord> pending = notificationRecordMapper.claimExpiredDeliveries(
+                now.minusMinutes(recoverAfterMinutes), now, now.plusMinutes(recoverAfterMinutes), queueCapacity / 2);
+        pending.forEach(this::enqueue);
+        if (!pending.isEmpty()) {
+            log.info("重新投递未完成的通知: count={}", pending.size());
+        }
+    }
+
+    // ============ 私有辅助方法 ============
+
+    private void enqueue(NotificationRecord record) {
+        List<String> ids = List.of(record.getNotificationId());
+        queues.forEach((channel, queue) -> offer(channel, new Delivery(record, ids, 1)));
+    }
+
+    private void offer(String channel, Delivery delivery) {
+        BlockingQueue<Delivery> queue = queues.get(channel);
+        if (queue == null || !queue.offer(delivery)) {
+            metrics.recordOutcome(channel, NotificationDispatchMetrics.OUTCOME_DROPPED, 1);
+            log.warn("通知投递队列已满，等待补偿投递: channel={}, notificationId={}",
+                    channel, delivery.record.getNotificationId());
+        }
+    }
+
+    /**
+     * 按批取出各渠道队列中的通知并提交投递
+     */
+    void flush() {
+        for (NotificationChannel channel : channels) {
+            BlockingQueue<Delivery> queue = queues.get(channel.getName());
+            if (queue == null) {
+                continue;
+            }
+            List<Delivery> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                List<Delivery> submitted = batch;
+                workers.execute(() -> deliver(channel, submitted));
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private void deliver(NotificationChannel channel, List<Delivery> batch) {
+        List<NotificationRecord> records = new ArrayList<>(batch.size());
+        batch.forEach(delivery -> records.add(delivery.record));
+
+        long start = System.nanoTime();
+        Map<String, String> failures;
+        try {
+            failures = channel.deliver(records);
+        } catch (Exception e) {
+            log.warn("通知批量投递失败: channel={}, size={}, error={}", channel.getName(), batch.size(), e.getMessage());
+            failures = new HashMap<>();
+            for (NotificationRecord record : records) {
+                failures.put(record.getNotificationId(), e.toString());
+            }
+        }
+        metrics.recordBatch(channel.getName(), batch.size(), System.nanoTime() - start);
+
+        List<String> sent = new ArrayList<>();
+        List<Delivery> retries = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        String lastError = null;
+        for (Delivery delivery : batch) {
+            if (!failures.containsKey(delivery.record.getNotificationId())) {
+                sent.addAll(delivery.notificationIds);
+                continue;
+            }
+            lastError = truncate(channel.getName() + ": " + failures.get(delivery.record.getNotificationId()));
+            if (delivery.attempt < maxAttempts) {
+                retries.add(delivery);
+            } else {
+                failed.addAll(delivery.notificationIds);
+            }
+        }
+
+        writeBack(sent, NotificationRecord.DELIVERY_SENT, null, LocalDateTime.now(), null);
+        writeBack(failed, NotificationRecord.DELIVERY_FAILED, lastError, null, null);
+        List<String> retryIds = new ArrayList<>(retries.size());
+        retries.forEach(delivery -> retryIds.addAll(delivery.notificationIds));
+        // 退避重试期间延长租约，补偿任务不会同时重新投递
+        writeBack(retryIds, null, lastError, null, LocalDateTime.now().plusMinutes(recoverAfterMinutes));
+
+        for (Delivery delivery : retries) {
+            scheduler.schedule(() -> offer(channel.getName(), delivery.next()),
+                    backoffMillis(delivery.attempt), TimeUnit.MILLISECONDS);
+        }
+
+        metrics.recordOutcome(channel.getName(), NotificationDispatchMetrics.OUTCOME_SENT, sent.size());
+        metrics.recordOutcome(channel.getName(), NotificationDispatchMetrics.OUTCOME_RETRY, retries.size());
+        metrics.recordOutcome(channel.getName(), NotificationDispatchMetrics.OUTCOME_FAILED, failed.size());
+    }
+
+    private void writeBack(List<String> notificationIds, String status, String error,
+                           LocalDateTime deliveredTime, LocalDateTime leaseUntil) {
+        if (notificationIds.isEmpty()) {
+            return;
+        }
+        try {
+            notificationRecordMapper.updateDelivery(notificationIds, status, error, deliveredTime, leaseUntil);
+        } catch (Exception e) {
+            log.error("回写通知投递状态失败: count={}, status={}", notificationIds.size(), status, e);
+        }
+    }
+
+    long backoffMillis(int attempt) {
+        long delay = backoffInitialMs << Math.min(attempt - 1, 30);
+        return Math.min(delay, backoffMaxMs);
+    }
+
+    private static String truncate(String error) {
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * 单个渠道的一次投递（合并摘要的 notificationIds 为全部成员记录）
+     */
+    private static class Delivery {
+
+        final NotificationRecord record;
+        final List<String> notificationIds;
+        final int attempt;
+
+        Delivery(NotificationRecord record, List<String> notificationIds, int attempt) {
+            this.record = record;
+            this.notificationIds = notificationIds;
+            this.attempt = attempt;
+        }
+
+        Delivery next() {
+            return new Delivery(record, notificationIds, attempt + 1);
+        }
+    }
+}
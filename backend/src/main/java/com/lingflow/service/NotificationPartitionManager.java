@@ -0,0 +1,170 @@
+package com.lingflow.service;
+
+import com.lingflow.mapper.NotificationPartitionMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 通知记录分区维护
+ *
+ * <p>lf_notification_record 按 create_time 月分区（见 V14 迁移脚本），本服务定时：
+ * <ul>
+ *   <li>预创建当前月份之后若干个月的分区，避免新数据落入默认分区</li>
+ *   <li>将超过保留月数的分区导出为 gzip 压缩的 CSV 文件，然后分离并删除分区</li>
+ * </ul>
+ *
+ * <p>先导出后分离：导出失败时分区保持不变，下次执行时重试。
+ * 删除的分区中可能有未读通知，归档后重新校准未读计数。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class NotificationPartitionManager {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("lf_notification_record_p(\\d{6})");
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private NotificationPartitionMapper partitionMapper;
+
+    @Autowired
+    private NotificationUnreadCounter unreadCounter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * 预创建的分区月数
+     */
+    @Value("${lingflow.notification.partition.months-ahead:2}")
+    private int monthsAhead;
+
+    /**
+     * 保留月数（当前月份之前），更早的分区归档后删除，小于等于0时不归档
+     */
+    @Value("${lingflow.notification.partition.retention-months:12}")
+    private int retentionMonths;
+
+    /**
+     * 归档文件目录
+     */
+    @Value("${lingflow.notification.partition.archive-dir:./archive/notification}")
+    private String archiveDir;
+
+    /**
+     * 启动后立即维护一次（确保当前月份分区存在）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintain();
+    }
+
+    /**
+     * 定时维护分区
+     */
+    @Scheduled(cron = "${lingflow.notification.partition.cron:0 0 2 * * ?}")
+    public void maintain() {
+        try {
+            int created = partitionMapper.ensurePartitions(LocalDate.now().withDayOfMonth(1), monthsAhead);
+            if (created > 0) {
+                log.info("创建通知记录分区: count={}", created);
+            }
+            archiveExpired();
+        } catch (Exception e) {
+            log.error("维护通知记录分区失败", e);
+        }
+    }
+
+    /**
+     * 归档并删除超过保留期的分区
+     *
+     * @return 归档的分区数量
+     */
+    public int archiveExpired() {
+        if (retentionMonths <= 0) {
+            return 0;
+        }
+        List<String> expired = expiredPartitions(partitionMapper.findMonthlyPartitions(),
+                YearMonth.now().minusMonths(retentionMonths));
+        int archived = 0;
+        for (String partition : expired) {
+            try {
+                Path file = exportPartition(partition);
+                partitionMapper.detachPartition(partition);
+                partitionMapper.dropPartition(partition);
+                archived++;
+                log.info("归档通知记录分区: partition={}, file={}", partition, file);
+            } catch (Exception e) {
+                log.error("归档通知记录分区失败，下次重试: partition={}", partition, e);
+                break;
+            }
+        }
+        if (archived > 0) {
+            unreadCounter.reconcile();
+        }
+        return archived;
+    }
+
+    /**
+     * 筛选月份早于截止月份的分区
+     *
+     * @param partitions 分区名列表
+     * @param cutoff 截止月份（不含）
+     * @return 过期分区名列表（按月份升序）
+     */
+    static List<String> expiredPartitions(List<String> partitions, YearMonth cutoff) {
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (matcher.matches() && YearMonth.parse(matcher.group(1), PARTITION_MONTH).isBefore(cutoff)) {
+                expired.add(partition);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 将分区数据导出为 gzip 压缩的 CSV 文件（先写临时文件，完成后重命名）
+     */
+    private Path exportPartition(String partition) throws IOException, SQLException {
+        Path dir = Paths.get(archiveDir);
+        Files.createDirectories(dir);
+        Path file = dir.resolve(partition + ".csv.gz");
+        Path tmp = dir.resolve(partition + ".csv.gz.tmp");
+
+        try (Connection connection = dataSource.getConnection();
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+            long rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyOut("COPY " + partition + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+            log.debug("导出通知记录分区: partition={}, rows={}", partition, rows);
+        }
+        return Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,202 @@
+package com.lingflow.service;
+
+import com.lingflow.mapper.NotificationUnreadCounterMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 通知未读数量计数器
+ *
+ * <p>未读数量保存在 lf_notification_unread_counter 计数表中，通知新增与已读时在同一事务内增减，
+ * 读取时按主键查询一行，不随通知历史增长。计数按用户缓存（LRU），变更在事务提交后使缓存失效。
+ *
+ * <p>缓存条目带版本号：失效时写入更高版本的失效标记，读取在加载期间发生过失效时不回填缓存，
+ * 避免并发读取把失效前加载的旧值写回。其他节点的变更由 {@link UnreadCountPublisher} 的节点间广播使缓存失效，
+ * 条目另按 unread-cache-ttl-seconds 过期，广播丢失时其他节点的变更最多延迟该时长可见。
+ *
+ * <p>定时校准任务按通知记录表重算计数，修正绕过服务层的数据变更造成的偏差。
+ * 校准跳过最近 reconcile-grace-minutes 内有增减的计数行，不会用校准语句的旧快照覆盖并发提交的增减。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class NotificationUnreadCounter {
+
+    /**
+     * 缓存的用户数量上限
+     */
+    private static final int CACHE_SIZE = 10_000;
+
+    /**
+     * 批量更新计数时每条语句的用户数量
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private NotificationUnreadCounterMapper counterMapper;
+
+    /**
+     * 校准时跳过该时间内有增减的计数行（分钟，应大于通知写入事务的最长耗时）
+     */
+    @Value("${lingflow.notification.unread-reconcile-grace-minutes:5}")
+    private long reconcileGraceMinutes;
+
+    /**
+     * 缓存有效期（秒），兜底其他节点的变更
+     */
+    @Value("${lingflow.notification.unread-cache-ttl-seconds:30}")
+    private long cacheTtlSeconds;
+
+    /**
+     * 失效版本号（每次失效递增）
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<String, CachedCount> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    /**
+     * 获取用户未读数量
+     *
+     * @param userId 用户ID
+     * @return 未读数量
+     */
+    public long get(String userId) {
+        long now = System.currentTimeMillis();
+        CachedCount cached = cache.get(userId);
+        if (cached != null && cached.value != null && cached.expiresAt > now) {
+            return cached.value;
+        }
+        long loadVersion = version.get();
+        Long count = counterMapper.findUnreadCount(userId);
+        long value = count != null ? count : 0L;
+        // 加载期间发生过失效时不回填，避免写回失效前的旧值
+        cache.compute(userId, (key, current) -> {
+            boolean invalidated = current == null ? version.get() != loadVersion : current.version > loadVersion;
+            return invalidated ? current
+                    : new CachedCount(value, loadVersion, now + cacheTtlSeconds * 1000L);
+        });
+        return value;
+    }
+
+    /**
+     * 增减用户未读数量（在调用方事务内更新计数表，提交后使缓存失效）
+     *
+     * @param userId 用户ID
+     * @param delta 变化量（新增为正，已读为负）
+     */
+    public void adjust(String userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        counterMapper.increment(userId, delta);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    /**
+     * 批量增加多个用户的未读数量（每批一条语句，提交后使缓存失效）
+     *
+     * @param deltas 用户ID → 增加量（只支持新增通知的正数增量）
+     */
+    public void adjustAll(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // 按用户ID排序加锁，避免并发批量更新死锁
+        List<String> userIds = new ArrayList<>(deltas.keySet());
+        Collections.sort(userIds);
+        for (int from = 0; from < userIds.size(); from += BATCH_SIZE) {
+            Map<String, Long> chunk = new LinkedHashMap<>();
+            for (String userId : userIds.subList(from, Math.min(from + BATCH_SIZE, userIds.size()))) {
+                chunk.put(userId, deltas.get(userId));
+            }
+            counterMapper.incrementAll(chunk);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userIds.forEach(NotificationUnreadCounter.this::evict);
+                }
+            });
+        } else {
+            userIds.forEach(this::evict);
+        }
+    }
+
+    /**
+     * 使用户的未读数量缓存失效（其他节点变更计数后调用）
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(String userId) {
+        evict(userId);
+    }
+
+    /**
+     * 校准未读数量
+     */
+    @Scheduled(cron = "${lingflow.notification.unread-reconcile-cron:0 15 * * * ?}")
+    public void reconcile() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(reconcileGraceMinutes);
+        int corrected = counterMapper.reconcileUnread(before) + counterMapper.reconcileRead(before);
+        if (corrected > 0) {
+            version.incrementAndGet();
+            cache.clear();
+        }
+        log.info("校准通知未读数量: corrected={}", corrected);
+    }
+
+    /**
+     * 使用户缓存失效：写入新版本的失效标记
+     */
+    private void evict(String userId) {
+        long evictVersion = version.incrementAndGet();
+        cache.put(userId, new CachedCount(null, evictVersion, 0L));
+    }
+
+    /**
+     * 缓存条目（value 为空表示失效标记）
+     */
+    private static class CachedCount {
+
+        final Long value;
+        final long version;
+        final long expiresAt;
+
+        CachedCount(Long value, long version, long expiresAt) {
+            this.value = value;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
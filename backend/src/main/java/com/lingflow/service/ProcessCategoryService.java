@@ -1,13 +1,17 @@
 package com.lingflow.service;
 
 import com.lingflow.dto.*;
+import com.lingflow.entity.CategoryProcessCount;
 import com.lingflow.entity.ProcessCategory;
 import com.lingflow.entity.ProcessDefinitionExtension;
 import com.lingflow.repository.ProcessCategoryRepository;
 import com.lingflow.repository.ProcessDefinitionExtensionRepository;
+import com.lingflow.util.KeysetCursor;
+import com.lingflow.util.SearchKeyword;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,36 +33,94 @@ public class ProcessCategoryService {
     @Autowired
     private ProcessDefinitionExtensionRepository extensionRepository;
 
+    @Autowired
+    private ProcessSearchIndex searchIndex;
+
+    @Autowired
+    private CategoryTreeCache treeCache;
+
+    /**
+     * 搜索默认返回数量
+     */
+    @Value("${lingflow.search.default-limit:20}")
+    private int searchDefaultLimit;
+
+    /**
+     * 搜索单页最大返回数量
+     */
+    @Value("${lingflow.search.max-limit:100}")
+    private int searchMaxLimit;
+
     // ============ 查询相关 ============
 
     /**
-     * 获取分类树
+     * 获取分类树（缓存，只读）
      */
     public List<ProcessCategoryTreeDTO> getCategoryTree(String tenantId, String appId, String contextId) {
-        logger.info("获取分类树: tenantId={}, appId={}, contextId={}", tenantId, appId, contextId);
+        return getCategoryTreeSnapshot(tenantId, appId, contextId).getTree();
+    }
+
+    /**
+     * 获取分类树快照（包含版本号与 ETag）
+     */
+    public CategoryTreeCache.Snapshot getCategoryTreeSnapshot(String tenantId, String appId, String contextId) {
+        return treeCache.get(tenantId, appId, contextId, () -> loadCategoryTree(tenantId, appId, contextId));
+    }
+
+    /**
+     * 获取分类树当前 ETag（缓存中没有当前版本时返回null）
+     */
+    public String getCategoryTreeETag(String tenantId, String appId, String contextId) {
+        return treeCache.currentETag(tenantId, appId, contextId);
+    }
+
+    /**
+     * 获取租户当前的分类树版本号（事务提交后调用才能读到本次修改后的版本）
+     */
+    public long getCategoryTreeVersion(String tenantId) {
+        return treeCache.currentVersion(tenantId);
+    }
+
+    /**
+     * 从数据库加载分类树
+     * <p>只执行两次查询：全部分类 + 按分类分组的流程数量，路径名称与子树流程总数在内存中计算
+     */
+    private List<ProcessCategoryTreeDTO> loadCategoryTree(String tenantId, String appId, String contextId) {
+        logger.info("加载分类树: tenantId={}, appId={}, contextId={}", tenantId, appId, contextId);
 
         // 查询所有分类
         List<ProcessCategory> categories = categoryRepository.findTree(tenantId, appId, contextId);
 
+        // 查询各分类直接归属的流程数量
+        Map<String, Integer> directCounts = new HashMap<>();
+        for (CategoryProcessCount count : extensionRepository.countGroupByCategory(tenantId, appId, contextId)) {
+            directCounts.put(count.getCategoryId(), count.getProcessCount());
+        }
+
         // 构建树形结构
-        return buildTree(categories);
+        return buildTree(categories, directCounts);
     }
 
     /**
      * 构建树形结构
      */
-    private List<ProcessCategoryTreeDTO> buildTree(List<ProcessCategory> categories) {
-        // 创建ID到节点的映射
-        Map<String, ProcessCategoryTreeDTO> nodeMap = new HashMap<>();
-        List<ProcessCategoryTreeDTO> roots = new ArrayList<>();
+    private List<ProcessCategoryTreeDTO> buildTree(List<ProcessCategory> categories,
+                                                   Map<String, Integer> directCounts) {
+        // 创建ID到分类的映射（用于解析路径名称）
+        Map<String, ProcessCategory> categoryMap = new HashMap<>();
+        for (ProcessCategory category : categories) {
+            categoryMap.put(category.getId(), category);
+        }
 
         // 第一遍：创建所有节点
+        Map<String, ProcessCategoryTreeDTO> nodeMap = new HashMap<>();
         for (ProcessCategory category : categories) {
-            ProcessCategoryTreeDTO node = convertToTreeDTO(category);
+            ProcessCategoryTreeDTO node = convertToTreeDTO(category, buildPathNames(category.getPath(), categoryMap));
             nodeMap.put(category.getId(), node);
         }
 
         // 第二遍：构建父子关系
+        List<ProcessCategoryTreeDTO> roots = new ArrayList<>();
         for (ProcessCategory category : categories) {
             ProcessCategoryTreeDTO node = nodeMap.get(category.getId());
 
@@ -77,20 +139,9 @@ public class ProcessCategoryService {
             }
         }
 
-        // 第三遍：设置子分类标识和流程数量
-        for (ProcessCategoryTreeDTO node : nodeMap.values()) {
-            // 设置是否有子分类
-            node.setHasChildren(node.getChildren() != null && !node.getChildren().isEmpty());
-
-            // 设置流程数量
-            if (node.getChildren() == null || node.getChildren().isEmpty()) {
-                // 叶子节点，直接统计
-                int count = extensionRepository.countByCategoryId(node.getId());
-                node.setProcessCount(count);
-            } else {
-                // 非叶子节点，递归统计
-                node.setProcessCount(countProcessesRecursively(node));
-            }
+        // 第三遍：后序遍历，设置子分类标识并汇总子树流程数量
+        for (ProcessCategoryTreeDTO root : roots) {
+            rollupProcessCount(root, directCounts);
         }
 
         // 对根节点按排序
@@ -101,65 +152,84 @@ public class ProcessCategoryService {
     }
 
     /**
-     * 递归统计流程数量
+     * 后序汇总流程数量（当前分类 + 全部子分类）
      */
-    private int countProcessesRecursively(ProcessCategoryTreeDTO node) {
-        int count = 0;
-
-        // 统计当前分类下的流程
-        count += extensionRepository.countByCategoryId(node.getId());
+    private int rollupProcessCount(ProcessCategoryTreeDTO node, Map<String, Integer> directCounts) {
+        int count = directCounts.getOrDefault(node.getId(), 0);
 
-        // 递归统计子分类
-        if (node.getChildren() != null) {
+        boolean hasChildren = node.getChildren() != null && !node.getChildren().isEmpty();
+        if (hasChildren) {
             for (ProcessCategoryTreeDTO child : node.getChildren()) {
-                count += countProcessesRecursively(child);
+                count += rollupProcessCount(child, directCounts);
             }
         }
 
+        node.setHasChildren(hasChildren);
+        node.setProcessCount(count);
         return count;
     }
 
     /**
      * 转换为树形DTO
      */
-    private ProcessCategoryTreeDTO convertToTreeDTO(ProcessCategory category) {
+    private ProcessCategoryTreeDTO convertToTreeDTO(ProcessCategory category, String pathNames) {
         return ProcessCategoryTreeDTO.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .code(category.getCode())
                 .parentId(category.getParentId())
                 .path(category.getPath())
-                .pathNames(buildPathNames(category.getPath()))
+                .pathNames(pathNames)
                 .level(category.getLevel())
                 .description(category.getDescription())
                 .sortOrder(category.getSortOrder())
                 .icon(category.getIcon())
+                .version(category.getVersion())
                 .build();
     }
 
     /**
      * 从路径ID构建路径名称
+     *
+     * @param path 分类路径
+     * @param categoryMap 分类ID到分类的映射（需包含路径上的全部分类）
      */
-    private String buildPathNames(String path) {
+    private String buildPathNames(String path, Map<String, ProcessCategory> categoryMap) {
         if (path == null || path.isEmpty()) {
             return "";
         }
 
-        String[] ids = path.split("/");
         List<String> names = new ArrayList<>();
-
-        for (String id : ids) {
-            if (!id.isEmpty()) {
-                ProcessCategory category = categoryRepository.findById(id);
-                if (category != null) {
-                    names.add(category.getName());
-                }
+        for (String id : path.split("/")) {
+            ProcessCategory category = id.isEmpty() ? null : categoryMap.get(id);
+            if (category != null) {
+                names.add(category.getName());
             }
         }
 
         return String.join("/", names);
     }
 
+    /**
+     * 一次查询加载多个路径上的全部分类
+     */
+    private Map<String, ProcessCategory> loadPathCategories(Collection<String> paths) {
+        Set<String> ids = new HashSet<>();
+        for (String path : paths) {
+            if (path != null) {
+                ids.addAll(buildPathIds(path));
+            }
+        }
+
+        Map<String, ProcessCategory> categoryMap = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (ProcessCategory category : categoryRepository.findByIds(ids)) {
+                categoryMap.put(category.getId(), category);
+            }
+        }
+        return categoryMap;
+    }
+
     // ============ 创建相关 ============
 
     /**
@@ -209,6 +279,7 @@ public class ProcessCategoryService {
 
         // 4. 保存分类
         categoryRepository.save(category);
+        treeCache.invalidate(category.getTenantId());
 
         logger.info("分类创建成功: id={}, path={}", category.getId(), category.getPath());
         return category;
@@ -244,6 +315,9 @@ public class ProcessCategoryService {
         category.setUpdatedBy("system");
 
         categoryRepository.update(category);
+        // 分类名称变化影响流程搜索索引中的路径名称
+        searchIndex.invalidate(category.getTenantId());
+        treeCache.invalidate(category.getTenantId());
         logger.info("分类更新成功: id={}", id);
     }
 
@@ -260,6 +334,7 @@ public class ProcessCategoryService {
         }
 
         String oldPath = category.getPath();
+        Integer oldLevel = category.getLevel() != null ? category.getLevel() : 0;
 
         // 计算新路径
         String newPath;
@@ -269,8 +344,8 @@ public class ProcessCategoryService {
             if (newParent == null) {
                 throw new RuntimeException("目标父分类不存在: " + newParentId);
             }
-            // 检查是否会形成循环引用
-            if (newParent.getPath().startsWith(oldPath)) {
+            // 检查是否会形成循环引用（目标为自身或自身的后代）
+            if (newParent.getPath().equals(oldPath) || newParent.getPath().startsWith(oldPath + "/")) {
                 throw new RuntimeException("不能将分类移动到其子节点下");
             }
             newPath = newParent.getPath() + "/" + id;
@@ -286,41 +361,13 @@ public class ProcessCategoryService {
         category.setLevel(newLevel);
         categoryRepository.update(category);
 
-        // 递归更新所有子节点的路径
-        updateChildrenPath(id, oldPath, newPath);
+        // 单条语句改写所有后代的路径前缀与层级
+        int moved = categoryRepository.moveSubtree(oldPath, newPath, newLevel - oldLevel,
+                SearchKeyword.prefixPattern(oldPath + "/"), category.getTenantId());
+        searchIndex.invalidate(category.getTenantId());
+        treeCache.invalidate(category.getTenantId());
 
-        logger.info("分类移动成功: id={}, oldPath={}, newPath={}", id, oldPath, newPath);
-    }
-
-    /**
-     * 递归更新子节点路径
-     */
-    private void updateChildrenPath(String parentId, String oldParentPath, String newParentPath) {
-        List<ProcessCategory> children = categoryRepository.findByParentId(parentId, null, null, null);
-
-        for (ProcessCategory child : children) {
-            String oldPath = child.getPath();
-            String newPath = newParentPath + "/" + child.getId();
-            Integer newLevel = calculateLevel(newPath);
-
-            child.setPath(newPath);
-            child.setLevel(newLevel);
-            categoryRepository.update(child);
-
-            // 递归更新子节点
-            updateChildrenPath(child.getId(), oldPath, newPath);
-        }
-    }
-
-    /**
-     * 从路径计算层级
-     */
-    private Integer calculateLevel(String path) {
-        if (path == null || path.isEmpty()) {
-            return 0;
-        }
-        String[] parts = path.split("/");
-        return parts.length - 1;
+        logger.info("分类移动成功: id={}, oldPath={}, newPath={}, descendants={}", id, oldPath, newPath, moved);
     }
 
     /**
@@ -337,26 +384,45 @@ public class ProcessCategoryService {
 
         category.setSortOrder(sortOrder);
         categoryRepository.update(category);
+        treeCache.invalidate(category.getTenantId());
 
         logger.info("分类排序更新成功: id={}", id);
     }
 
     /**
      * 批量更新排序（拖拽排序）
+     * <p>单条语句更新全部排序；携带版本号的条目校验乐观锁，
+     * 任一条目不存在或版本不一致时整体回滚
+     *
+     * @param tenantId 租户ID
+     * @param sortOrderList 排序列表（通常为拖拽后的完整同级列表）
+     * @return 更新的分类数量
      */
     @Transactional
-    public void batchUpdateSortOrder(List<SortOrderDTO> sortOrderList) {
-        logger.info("批量更新排序: count={}", sortOrderList.size());
+    public int batchUpdateSortOrder(String tenantId, List<SortOrderDTO> sortOrderList) {
+        logger.info("批量更新排序: tenantId={}, count={}", tenantId, sortOrderList.size());
+        if (sortOrderList.isEmpty()) {
+            return 0;
+        }
 
+        Set<String> ids = new HashSet<>();
         for (SortOrderDTO dto : sortOrderList) {
-            ProcessCategory category = categoryRepository.findById(dto.getId());
-            if (category != null) {
-                category.setSortOrder(dto.getSortOrder());
-                categoryRepository.update(category);
+            if (dto.getId() == null || dto.getSortOrder() == null) {
+                throw new RuntimeException("分类ID和排序序号不能为空");
+            }
+            if (!ids.add(dto.getId())) {
+                throw new RuntimeException("排序列表包含重复的分类: " + dto.getId());
             }
         }
 
-        logger.info("批量排序更新成功");
+        int updated = categoryRepository.batchUpdateSortOrder(tenantId, sortOrderList);
+        if (updated != sortOrderList.size()) {
+            throw new RuntimeException("分类已被修改或删除，请刷新后重试");
+        }
+        treeCache.invalidate(tenantId);
+
+        logger.info("批量排序更新成功: count={}", updated);
+        return updated;
     }
 
     // ============ 删除相关 ============
@@ -387,6 +453,8 @@ public class ProcessCategoryService {
 
         // 软删除
         categoryRepository.softDelete(id);
+        searchIndex.invalidate(category.getTenantId());
+        treeCache.invalidate(category.getTenantId());
 
         logger.info("分类删除成功: id={}", id);
     }
@@ -394,15 +462,24 @@ public class ProcessCategoryService {
     // ============ 搜索相关 ============
 
     /**
-     * 搜索分类（支持名称和编码模糊搜索）
+     * 搜索分类（支持名称和编码模糊搜索，按相关度排序）
      */
     public List<ProcessCategoryTreeDTO> searchCategories(String keyword, String tenantId, String appId, String contextId) {
         logger.info("搜索分类: keyword={}, tenantId={}", keyword, tenantId);
 
-        List<ProcessCategory> categories = categoryRepository.searchByName(keyword, tenantId, appId, contextId);
+        String normalized = SearchKeyword.normalize(keyword);
+        if (normalized == null) {
+            return new ArrayList<>();
+        }
+
+        List<ProcessCategory> categories = categoryRepository.searchByName(
+                normalized, SearchKeyword.containsPattern(normalized),
+                tenantId, appId, contextId, searchDefaultLimit);
 
+        Map<String, ProcessCategory> pathCategories = loadPathCategories(
+                categories.stream().map(ProcessCategory::getPath).collect(Collectors.toList()));
         return categories.stream()
-                .map(this::convertToTreeDTO)
+                .map(category -> convertToTreeDTO(category, buildPathNames(category.getPath(), pathCategories)))
                 .collect(Collectors.toList());
     }
 
@@ -439,49 +516,107 @@ public class ProcessCategoryService {
             extension.setUpdatedTime(LocalDateTime.now());
             extensionRepository.update(extension);
         }
+        searchIndex.upsert(extension.getTenantId(), processDefinitionId);
+        // 分类树包含流程数量
+        treeCache.invalidate(extension.getTenantId());
 
         logger.info("流程分类设置成功: processDefinitionId={}, categoryId={}", processDefinitionId, categoryId);
     }
 
     /**
-     * 搜索流程模板（支持模糊搜索，返回分类路径）
+     * 搜索流程模板（支持模糊搜索，按相关度排序，返回分类路径）
+     *
+     * @param cursor 分页游标（首页为空）
+     * @param limit 每页数量（为空时使用默认值）
      */
-    public List<ProcessSearchResultDTO> searchProcesses(
+    public KeysetPage<ProcessSearchResultDTO> searchProcesses(
             String keyword,
             String categoryId,
             String tenantId,
             String appId,
-            String contextId
+            String contextId,
+            String cursor,
+            Integer limit
     ) {
         logger.info("搜索流程: keyword={}, categoryId={}, tenantId={}", keyword, categoryId, tenantId);
 
-        // 1. 搜索流程定义扩展
-        List<ProcessDefinitionExtension> extensions = extensionRepository.searchProcesses(
-                keyword, categoryId, tenantId, appId, contextId);
+        String normalized = SearchKeyword.normalize(keyword);
+        int pageSize = resolveSearchLimit(limit);
+        String[] cursorKeys = KeysetCursor.decode(cursor, 2);
 
-        // 2. 查询流程定义详细信息（从Flowable）
-        // TODO: 集成Flowable的ProcessDefinition查询
+        // 多查一条用于判断是否还有下一页
+        List<ProcessDefinitionExtension> extensions = extensionRepository.searchProcesses(
+                normalized, SearchKeyword.containsPattern(normalized), categoryId,
+                tenantId, appId, contextId,
+                cursorKeys != null ? parseCursorScore(cursorKeys[0]) : null,
+                cursorKeys != null ? cursorKeys[1] : null,
+                pageSize + 1);
+
+        boolean hasMore = extensions.size() > pageSize;
+        if (hasMore) {
+            extensions = extensions.subList(0, pageSize);
+        }
 
-        // 3. 构建结果并包含分类路径
+        Map<String, ProcessCategory> pathCategories = loadPathCategories(
+                extensions.stream().map(ProcessDefinitionExtension::getCategoryPath).collect(Collectors.toList()));
         List<ProcessSearchResultDTO> results = new ArrayList<>();
         for (ProcessDefinitionExtension ext : extensions) {
-            if (ext.getCategoryId() != null) {
-                ProcessCategory category = categoryRepository.findById(ext.getCategoryId());
-                if (category != null) {
-                    ProcessSearchResultDTO result = ProcessSearchResultDTO.builder()
-                            .id(ext.getProcessDefinitionId())
-                            .categoryId(category.getId())
-                            .categoryName(category.getName())
-                            .categoryPath(category.getPath())
-                            .categoryPathNames(buildPathNames(category.getPath()))
-                            .pathIds(buildPathIds(category.getPath()))
-                            .build();
-                    results.add(result);
-                }
-            }
+            results.add(ProcessSearchResultDTO.builder()
+                    .id(ext.getProcessDefinitionId())
+                    .key(ext.getProcessKey())
+                    .name(ext.getProcessName())
+                    .version(ext.getProcessVersion())
+                    .categoryId(ext.getCategoryId())
+                    .categoryName(ext.getCategoryName())
+                    .categoryPath(ext.getCategoryPath())
+                    .categoryPathNames(buildPathNames(ext.getCategoryPath(), pathCategories))
+                    .pathIds(buildPathIds(ext.getCategoryPath()))
+                    .build());
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProcessDefinitionExtension last = extensions.get(extensions.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getSearchScore(), last.getId());
         }
 
-        return results;
+        return KeysetPage.<ProcessSearchResultDTO>builder()
+                .list(results)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * 流程输入联想（内存索引，不访问数据库）
+     */
+    public List<ProcessSearchResultDTO> suggestProcesses(
+            String keyword,
+            String categoryId,
+            String tenantId,
+            String appId,
+            String contextId,
+            Integer limit
+    ) {
+        return searchIndex.suggest(keyword, categoryId, tenantId, appId, contextId, resolveSearchLimit(limit));
+    }
+
+    /**
+     * 计算搜索每页数量（默认值与上限见配置）
+     */
+    private int resolveSearchLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return searchDefaultLimit;
+        }
+        return Math.min(limit, searchMaxLimit);
+    }
+
+    private Float parseCursorScore(String score) {
+        try {
+            return Float.valueOf(score);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("无效的分页游标");
+        }
     }
 
     /**
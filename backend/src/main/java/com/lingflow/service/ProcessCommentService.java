@@ -1,16 +1,22 @@
 package com.lingflow.service;
 
+import com.lingflow.dto.CommentCountDTO;
+import com.lingflow.dto.KeysetPage;
+import com.lingflow.dto.TaskVO;
 import com.lingflow.entity.ProcessComment;
+import com.lingflow.exception.BusinessException;
 import com.lingflow.mapper.ProcessCommentMapper;
+import com.lingflow.util.KeysetCursor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 流程评论服务
@@ -23,9 +29,24 @@ public class ProcessCommentService {
     @Autowired
     private ExtendedTaskService extendedTaskService;
 
+    @Autowired
+    private ExtendedHistoryService extendedHistoryService;
+
     @Autowired
     private ProcessCommentMapper processCommentMapper;
 
+    /**
+     * 评论时间线默认每页数量
+     */
+    @Value("${lingflow.comment.timeline.default-limit:50}")
+    private int timelineDefaultLimit;
+
+    /**
+     * 评论时间线每页数量上限
+     */
+    @Value("${lingflow.comment.timeline.max-limit:200}")
+    private int timelineMaxLimit;
+
     /**
      * 添加流程实例评论
      *
@@ -72,6 +93,17 @@ public class ProcessCommentService {
         comment.setTaskId(taskId);
         comment.setUserId(userId);
 
+        // 记录任务所属流程实例，任务评论与流程评论在同一时间线中查询；
+        // 与 V16 回填一致从历史任务表查找，已完成的任务同样可以关联到流程实例
+        TaskVO task = extendedHistoryService.getHistoricTask(taskId);
+        if (task == null) {
+            task = extendedTaskService.getTask(taskId);
+        }
+        if (task != null) {
+            comment.setProcessInstanceId(task.getProcessInstanceId());
+            comment.setTaskName(task.getName());
+        }
+
         processCommentMapper.insert(comment);
         return comment.getCommentId();
     }
@@ -100,7 +132,8 @@ public class ProcessCommentService {
     }
 
     /**
-     * 获取流程实例的所有评论（不包括已删除）
+     * 获取流程实例的流程级评论（不包括任务评论与已删除）
+     * <p>任务评论也记录了流程实例ID，合并的时间线见 {@link #getCommentTimeline}
      *
      * @param processInstanceId 流程实例ID
      * @return 评论列表
@@ -109,7 +142,7 @@ public class ProcessCommentService {
         log.info("获取流程实例评论 - 流程实例ID: {}", processInstanceId);
 
         List<ProcessComment> comments =
-            processCommentMapper.findByProcessInstanceIdAndIsDeleted(
+            processCommentMapper.findByProcessInstanceIdAndTaskIdIsNullAndIsDeleted(
                 processInstanceId, false);
 
         return convertToCommentList(comments);
@@ -140,14 +173,54 @@ public class ProcessCommentService {
         log.info("获取流程实例的所有评论 - 流程实例ID: {}", processInstanceId);
 
         List<ProcessComment> comments =
-            processCommentMapper.findAllByProcessInstanceId(processInstanceId);
-
-        // 过滤已删除的评论
-        return convertToCommentList(
-            comments.stream()
-                .filter(c -> !c.getIsDeleted())
-                .collect(Collectors.toList())
-        );
+            processCommentMapper.findByProcessInstanceIdAndIsDeleted(processInstanceId, false);
+
+        return convertToCommentList(comments);
+    }
+
+    /**
+     * 按游标分页获取流程实例的评论时间线（流程、任务、系统评论按时间正序合并，不包括已删除）
+     *
+     * @param processInstanceId 流程实例ID
+     * @param cursor 分页游标（首页为空）
+     * @param limit 每页数量（为空时使用默认值）
+     * @return 评论分页结果
+     */
+    public KeysetPage<Comment> getCommentTimeline(String processInstanceId, String cursor, Integer limit) {
+        log.debug("获取评论时间线 - 流程实例ID: {}", processInstanceId);
+
+        int pageSize = limit == null || limit <= 0 ? timelineDefaultLimit : Math.min(limit, timelineMaxLimit);
+        String[] cursorKeys = KeysetCursor.decode(cursor, 2);
+        LocalDateTime cursorTime = null;
+        Long cursorId = null;
+        if (cursorKeys != null) {
+            try {
+                cursorTime = LocalDateTime.parse(cursorKeys[0]);
+                cursorId = Long.valueOf(cursorKeys[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new BusinessException("无效的分页游标");
+            }
+        }
+
+        // 多查一条用于判断是否还有下一页
+        List<ProcessComment> comments = processCommentMapper.findTimelinePage(
+            processInstanceId, cursorTime, cursorId, pageSize + 1);
+        boolean hasMore = comments.size() > pageSize;
+        if (hasMore) {
+            comments = comments.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProcessComment last = comments.get(comments.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreateTime(), last.getId());
+        }
+
+        return KeysetPage.<Comment>builder()
+                .list(convertToCommentList(comments))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     /**
@@ -236,28 +309,23 @@ public class ProcessCommentService {
         CommentStatistics stats = new CommentStatistics();
         stats.setProcessInstanceId(processInstanceId);
 
-        // 统计流程评论数
-        Long processCommentCount = processCommentMapper.countByProcessInstanceIdAndTypeAndIsDeleted(
-            processInstanceId, CommentType.PROCESS.name(), false);
-        stats.setProcessCommentCount(processCommentCount != null ? processCommentCount.intValue() : 0);
-
-        // 统计任务评论数
-        List<String> taskIds = processCommentMapper.findTaskIdsByProcessInstanceId(processInstanceId);
-        int taskCommentCount = 0;
-        for (String taskId : taskIds) {
-            Long count = processCommentMapper.countByTaskIdAndIsDeleted(taskId, false);
-            taskCommentCount += count != null ? count.intValue() : 0;
-        }
-        stats.setTaskCommentCount(taskCommentCount);
-        stats.setTotalCommentCount(stats.getProcessCommentCount() + taskCommentCount);
-
-        // 统计参与评论的用户数
-        Long participantCount = processCommentMapper.countParticipantUsers(processInstanceId);
-        stats.setParticipantCount(participantCount != null ? participantCount.intValue() : 0);
+        // 流程评论数、任务评论数、参与用户数由一条聚合查询返回
+        CommentCountDTO counts = processCommentMapper.countStatistics(processInstanceId, CommentType.PROCESS.name());
+        stats.setProcessCommentCount(toInt(counts != null ? counts.getProcessCommentCount() : null));
+        stats.setTaskCommentCount(toInt(counts != null ? counts.getTaskCommentCount() : null));
+        stats.setTotalCommentCount(stats.getProcessCommentCount() + stats.getTaskCommentCount());
+        stats.setParticipantCount(toInt(counts != null ? counts.getParticipantCount() : null));
 
         return stats;
     }
 
+    /**
+     * 数量转换（为空时为0）
+     */
+    private static int toInt(Long count) {
+        return count != null ? count.intValue() : 0;
+    }
+
     /**
      * 检查是否为管理员
      */
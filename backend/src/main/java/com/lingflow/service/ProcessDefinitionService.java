@@ -72,7 +72,8 @@ public class ProcessDefinitionService {
      * 部署流程
      */
     public void deployProcess(String name, String xml) {
-        extendedRepositoryService.deploy(name, xml);
+        String deploymentId = extendedRepositoryService.deploy(name, xml);
+        refreshSearchIndex(findProcessDefinitionIds(deploymentId));
     }
 
     /**
@@ -86,7 +87,10 @@ public class ProcessDefinitionService {
      * 删除流程定义
      */
     public void deleteProcessDefinition(String deploymentId) {
+        // 删除前记录部署下的流程定义，删除后从搜索索引移除
+        List<String> processDefinitionIds = findProcessDefinitionIds(deploymentId);
         extendedRepositoryService.deleteDeployment(deploymentId, true, false);
+        refreshSearchIndex(processDefinitionIds);
     }
 
     /**
@@ -350,6 +354,12 @@ public class ProcessDefinitionService {
     @Autowired
     private ProcessSnapshotRepository processSnapshotRepository;
 
+    @Autowired
+    private BpmnContentStore bpmnContentStore;
+
+    @Autowired
+    private ProcessSearchIndex processSearchIndex;
+
     /**
      * 创建流程快照
      * @param processDefinitionKey 流程定义KEY
@@ -411,7 +421,7 @@ public class ProcessDefinitionService {
         snapshot.setProcessDefinitionKey(processDefinitionKey);
         snapshot.setSnapshotName(snapshotName);
         snapshot.setSnapshotVersion(nextVersion);
-        snapshot.setBpmnXml(bpmnXml);
+        snapshot.setBpmnHash(bpmnContentStore.put(bpmnXml));
         snapshot.setDescription(description);
         snapshot.setCreator(creator);
         snapshot.setCreatedTime(LocalDateTime.now());
@@ -441,7 +451,11 @@ public class ProcessDefinitionService {
 
         // 重新部署快照中的BPMN XML
         String snapshotName = snapshot.getSnapshotName() + "_rollback_" + System.currentTimeMillis();
-        extendedRepositoryService.deploy(snapshotName, snapshot.getBpmnXml());
+        String bpmnXml = snapshot.getBpmnHash() != null
+                ? bpmnContentStore.get(snapshot.getBpmnHash())
+                : snapshot.getBpmnXml();
+        String deploymentId = extendedRepositoryService.deploy(snapshotName, bpmnXml);
+        refreshSearchIndex(findProcessDefinitionIds(deploymentId));
     }
 
     /**
@@ -723,6 +737,28 @@ public class ProcessDefinitionService {
         }
     }
 
+    /**
+     * 查询部署下的流程定义ID
+     */
+    private List<String> findProcessDefinitionIds(String deploymentId) {
+        List<String> ids = new ArrayList<>();
+        for (ProcessDefinition definition : repositoryService.createProcessDefinitionQuery()
+                .deploymentId(deploymentId)
+                .list()) {
+            ids.add(definition.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * 增量更新流程搜索索引中的流程定义条目
+     */
+    private void refreshSearchIndex(List<String> processDefinitionIds) {
+        for (String processDefinitionId : processDefinitionIds) {
+            processSearchIndex.upsert(processDefinitionId);
+        }
+    }
+
     /**
      * 保存或更新流程定义扩展（分类关联）
      */
@@ -763,6 +799,7 @@ public class ProcessDefinitionService {
                 logger.info("保存流程定义扩展: processDefinitionId={}, categoryId={}",
                         processDefinitionId, categoryId);
             }
+            processSearchIndex.upsert(processDefinitionId);
         } catch (Exception e) {
             logger.error("保存流程定义扩展失败: processDefinitionId={}", processDefinitionId, e);
             // 不抛出异常，避免影响主流程
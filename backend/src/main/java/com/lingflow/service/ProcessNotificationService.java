@@ -1,14 +1,19 @@
 package com.lingflow.service;
 
+import com.lingflow.dto.KeysetPage;
 import com.lingflow.entity.NotificationRecord;
+import com.lingflow.exception.BusinessException;
 import com.lingflow.mapper.NotificationRecordMapper;
+import com.lingflow.util.KeysetCursor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
@@ -25,6 +30,36 @@ public class ProcessNotificationService {
     @Autowired
     private NotificationRecordMapper notificationRecordMapper;
 
+    @Autowired
+    private NotificationUnreadCounter unreadCounter;
+
+    @Autowired
+    private UnreadCountPublisher unreadCountPublisher;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private NotificationCoalescer notificationCoalescer;
+
+    /**
+     * 批量插入通知时每条 INSERT 语句的行数
+     */
+    @Value("${lingflow.notification.insert-batch-size:500}")
+    private int insertBatchSize;
+
+    /**
+     * 收件箱分页默认每页数量
+     */
+    @Value("${lingflow.notification.inbox.default-limit:20}")
+    private int inboxDefaultLimit;
+
+    /**
+     * 收件箱分页每页数量上限
+     */
+    @Value("${lingflow.notification.inbox.max-limit:100}")
+    private int inboxMaxLimit;
+
     /**
      * 发送任务分配通知
      *
@@ -51,7 +86,6 @@ public class ProcessNotificationService {
         message.setTaskName(taskName);
         message.setSendTime(LocalDateTime.now());
 
-        sendNotification(message);
         return recordNotification(message, true);
     }
 
@@ -62,7 +96,7 @@ public class ProcessNotificationService {
      * @param assignee 受理人
      * @param taskName 任务名称
      * @param nextAssignees 下一环节受理人列表
-     * @return 通知ID列表
+     * @return 最后一条通知ID
      */
     @Transactional
     public String sendTaskCompletedNotification(
@@ -74,25 +108,24 @@ public class ProcessNotificationService {
         log.info("发送任务完成通知 - 任务ID: {}, 受理人: {}, 任务名称: {}",
             taskId, assignee, taskName);
 
-        String notificationId = null;
-
         // 通知发起人任务已完成
-        if (nextAssignees != null && !nextAssignees.isEmpty()) {
-            for (String nextAssignee : nextAssignees) {
-                NotificationMessage message = new NotificationMessage();
-                message.setType(NotificationType.TASK_COMPLETED);
-                message.setRecipient(nextAssignee);
-                message.setTitle("前置任务已完成");
-                message.setContent(String.format("任务【%s】已完成，等待您处理", taskName));
-                message.setTaskId(taskId);
-                message.setTaskName(taskName);
-                message.setSendTime(LocalDateTime.now());
-
-                sendNotification(message);
-                notificationId = recordNotification(message, true);
-            }
+        if (nextAssignees == null || nextAssignees.isEmpty()) {
+            return null;
+        }
+        List<NotificationMessage> messages = new ArrayList<>(nextAssignees.size());
+        for (String nextAssignee : nextAssignees) {
+            NotificationMessage message = new NotificationMessage();
+            message.setType(NotificationType.TASK_COMPLETED);
+            message.setRecipient(nextAssignee);
+            message.setTitle("前置任务已完成");
+            message.setContent(String.format("任务【%s】已完成，等待您处理", taskName));
+            message.setTaskId(taskId);
+            message.setTaskName(taskName);
+            message.setSendTime(LocalDateTime.now());
+            messages.add(message);
         }
-        return notificationId;
+        List<String> notificationIds = recordNotifications(messages);
+        return notificationIds.get(notificationIds.size() - 1);
     }
 
     /**
@@ -123,7 +156,6 @@ public class ProcessNotificationService {
         message.setTaskName(taskName);
         message.setSendTime(LocalDateTime.now());
 
-        sendNotification(message);
         return recordNotification(message, true);
     }
 
@@ -155,7 +187,6 @@ public class ProcessNotificationService {
         message.setProcessName(processName);
         message.setSendTime(LocalDateTime.now());
 
-        sendNotification(message);
         return recordNotification(message, true);
     }
 
@@ -185,7 +216,6 @@ public class ProcessNotificationService {
         message.setProcessName(processName);
         message.setSendTime(LocalDateTime.now());
 
-        sendNotification(message);
         return recordNotification(message, true);
     }
 
@@ -217,7 +247,6 @@ public class ProcessNotificationService {
         message.setProcessName(processName);
         message.setSendTime(LocalDateTime.now());
 
-        sendNotification(message);
         return recordNotification(message, true);
     }
 
@@ -249,7 +278,6 @@ public class ProcessNotificationService {
         message.setTaskName(taskName);
         message.setSendTime(LocalDateTime.now());
 
-        sendNotification(message);
         return recordNotification(message, true);
     }
 
@@ -260,7 +288,7 @@ public class ProcessNotificationService {
      * @param title 通知标题
      * @param content 通知内容
      * @param processInstanceId 流程实例ID（可选）
-     * @return 通知ID
+     * @return 最后一条通知ID
      */
     @Transactional
     public String sendCustomNotification(
@@ -269,11 +297,30 @@ public class ProcessNotificationService {
         String content,
         String processInstanceId
     ) {
-        log.info("发送自定义通知 - 接收人: {}, 标题: {}, 内容: {}",
-            recipients, title, content);
+        List<String> notificationIds = sendCustomNotifications(recipients, title, content, processInstanceId);
+        return notificationIds.isEmpty() ? null : notificationIds.get(notificationIds.size() - 1);
+    }
 
-        String notificationId = null;
+    /**
+     * 批量发送自定义通知（按批插入，适用于大量接收人）
+     *
+     * @param recipients 接收人列表
+     * @param title 通知标题
+     * @param content 通知内容
+     * @param processInstanceId 流程实例ID（可选）
+     * @return 全部通知ID（与接收人顺序一致）
+     */
+    @Transactional
+    public List<String> sendCustomNotifications(
+        List<String> recipients,
+        String title,
+        String content,
+        String processInstanceId
+    ) {
+        log.info("发送自定义通知 - 接收人数量: {}, 标题: {}", recipients.size(), title);
 
+        List<NotificationMessage> messages = new ArrayList<>(recipients.size());
+        LocalDateTime now = LocalDateTime.now();
         for (String recipient : recipients) {
             NotificationMessage message = new NotificationMessage();
             message.setType(NotificationType.CUSTOM);
@@ -281,12 +328,10 @@ public class ProcessNotificationService {
             message.setTitle(title);
             message.setContent(content);
             message.setProcessInstanceId(processInstanceId);
-            message.setSendTime(LocalDateTime.now());
-
-            sendNotification(message);
-            notificationId = recordNotification(message, true);
+            message.setSendTime(now);
+            messages.add(message);
         }
-        return notificationId;
+        return recordNotifications(messages);
     }
 
     /**
@@ -304,33 +349,77 @@ public class ProcessNotificationService {
 
         List<NotificationRecordVO> result = new ArrayList<>();
         for (com.lingflow.entity.NotificationRecord record : records) {
-            NotificationRecordVO vo = new NotificationRecordVO();
-            vo.setId(record.getNotificationId());
-            vo.setType(record.getType());
-            vo.setRecipientId(record.getRecipientId());
-            vo.setTitle(record.getTitle());
-            vo.setContent(record.getContent());
-            vo.setProcessInstanceId(record.getProcessInstanceId());
-            vo.setTaskId(record.getTaskId());
-            vo.setRead(record.getIsRead());
-            vo.setCreateTime(formatDateTime(record.getCreateTime()));
-            vo.setReadTime(formatDateTime(record.getReadTime()));
-            result.add(vo);
+            result.add(toRecordVO(record));
         }
 
         return result;
     }
 
+    /**
+     * 按游标分页获取用户收件箱（按创建时间倒序，翻页代价与页码无关）
+     *
+     * @param userId 用户ID
+     * @param type 通知类型（为空时不过滤）
+     * @param read 是否已读（为空时不过滤）
+     * @param processInstanceId 流程实例ID（为空时不过滤）
+     * @param cursor 分页游标（首页为空）
+     * @param limit 每页数量（为空时使用默认值）
+     * @return 通知分页结果
+     */
+    public KeysetPage<NotificationRecordVO> getUserInbox(String userId, String type, Boolean read,
+                                                         String processInstanceId, String cursor, Integer limit) {
+        log.debug("分页获取用户收件箱 - 用户ID: {}, 类型: {}, 已读: {}", userId, type, read);
+
+        int pageSize = limit == null || limit <= 0 ? inboxDefaultLimit : Math.min(limit, inboxMaxLimit);
+        String[] cursorKeys = KeysetCursor.decode(cursor, 2);
+        LocalDateTime cursorTime = null;
+        Long cursorId = null;
+        if (cursorKeys != null) {
+            try {
+                cursorTime = LocalDateTime.parse(cursorKeys[0]);
+                cursorId = Long.valueOf(cursorKeys[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new BusinessException("无效的分页游标");
+            }
+        }
+
+        // 多查一条用于判断是否还有下一页
+        List<NotificationRecord> records = notificationRecordMapper.findInboxPage(userId,
+                emptyToNull(type), read, emptyToNull(processInstanceId), cursorTime, cursorId, pageSize + 1);
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = records.subList(0, pageSize);
+        }
+
+        List<NotificationRecordVO> result = new ArrayList<>(records.size());
+        for (NotificationRecord record : records) {
+            result.add(toRecordVO(record));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            NotificationRecord last = records.get(records.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreateTime(), last.getId());
+        }
+
+        return KeysetPage.<NotificationRecordVO>builder()
+                .list(result)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
     /**
      * 获取未读通知数量
+     * <p>读取未读计数（计数表 + 缓存），不统计通知记录表
      *
      * @param userId 用户ID
      * @return 未读数量
      */
     public Long getUnreadNotificationCount(String userId) {
-        log.info("获取未读通知数量 - 用户ID: {}", userId);
+        log.debug("获取未读通知数量 - 用户ID: {}", userId);
 
-        return notificationRecordMapper.countByRecipientIdAndIsRead(userId, false);
+        return unreadCounter.get(userId);
     }
 
     /**
@@ -338,14 +427,15 @@ public class ProcessNotificationService {
      *
      * @param userId 用户ID
      * @param notificationId 通知ID
-     * @return 是否成功
+     * @return 是否成功（通知不存在、不属于该用户或已读时返回false）
      */
     @Transactional
     public boolean markNotificationAsRead(String userId, String notificationId) {
         log.info("标记通知为已读 - 用户ID: {}, 通知ID: {}", userId, notificationId);
 
         try {
-            int updated = notificationRecordMapper.markAsRead(notificationId, LocalDateTime.now());
+            int updated = notificationRecordMapper.markAsRead(notificationId, userId, LocalDateTime.now());
+            changeUnreadCount(userId, -updated);
             return updated > 0;
         } catch (Exception e) {
             log.error("标记通知为已读失败", e);
@@ -364,7 +454,9 @@ public class ProcessNotificationService {
         log.info("批量标记通知为已读 - 用户ID: {}", userId);
 
         try {
-            return notificationRecordMapper.markAllAsReadForUser(userId, LocalDateTime.now());
+            int updated = notificationRecordMapper.markAllAsReadForUser(userId, LocalDateTime.now());
+            changeUnreadCount(userId, -updated);
+            return updated;
         } catch (Exception e) {
             log.error("批量标记通知为已读失败", e);
             return 0;
@@ -372,25 +464,8 @@ public class ProcessNotificationService {
     }
 
     /**
-     * 发送通知
-     *
-     * @param message 通知消息
-     */
-    private void sendNotification(NotificationMessage message) {
-        // 这里集成实际的通知渠道（邮件、短信、企业微信等）
-        log.info("发送通知: 类型={}, 接收人={}, 标题={}",
-            message.getType(), message.getRecipient(), message.getTitle());
-
-        // TODO: 实现实际的通知发送逻辑
-        // 1. 邮件通知
-        // 2. 短信通知
-        // 3. 企业微信通知
-        // 4. 钉钉通知
-        // 5. WebSocket实时推送
-    }
-
-    /**
-     * 记录通知
+     * 记录通知（事务提交后由 NotificationDispatcher 异步投递到各渠道，
+     * 高频接收人超出限流的通知以 COALESCED 状态写入，由 NotificationCoalescer 合并为摘要投递）
      *
      * @param message 通知消息
      * @param success 是否成功
@@ -409,13 +484,104 @@ public class ProcessNotificationService {
         record.setTaskId(message.getTaskId());
         record.setTaskName(message.getTaskName());
         record.setProcessName(message.getProcessName());
+        record.setExtraData(message.getExtraData());
+        boolean coalesced = notificationCoalescer.shouldCoalesce(message);
+        if (coalesced) {
+            record.setDeliveryStatus(com.lingflow.entity.NotificationRecord.DELIVERY_COALESCED);
+        }
 
         notificationRecordMapper.insert(record);
+        changeUnreadCount(message.getRecipient(), 1);
+        if (!coalesced) {
+            notificationDispatcher.dispatch(record);
+        }
         com.lingflow.entity.NotificationRecord saved = record;
 
         return saved.getNotificationId();
     }
 
+    /**
+     * 批量记录通知（按 insertBatchSize 分批插入，未读计数按接收人合并更新；
+     * 超出接收人限流的可合并通知以 COALESCED 状态写入，不立即投递）
+     *
+     * @param messages 通知消息列表
+     * @return 通知ID列表（与消息顺序一致）
+     */
+    private List<String> recordNotifications(List<NotificationMessage> messages) {
+        if (messages.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<com.lingflow.entity.NotificationRecord> records = new ArrayList<>(messages.size());
+        Map<String, Long> unreadDeltas = new HashMap<>();
+        for (NotificationMessage message : messages) {
+            com.lingflow.entity.NotificationRecord record =
+                new com.lingflow.entity.NotificationRecord(
+                    message.getType().name(),
+                    message.getRecipient(),
+                    message.getTitle(),
+                    message.getContent()
+                );
+            record.setProcessInstanceId(message.getProcessInstanceId());
+            record.setTaskId(message.getTaskId());
+            record.setTaskName(message.getTaskName());
+            record.setProcessName(message.getProcessName());
+            record.setExtraData(message.getExtraData());
+            if (notificationCoalescer.shouldCoalesce(message)) {
+                record.setDeliveryStatus(com.lingflow.entity.NotificationRecord.DELIVERY_COALESCED);
+            }
+            records.add(record);
+            unreadDeltas.merge(message.getRecipient(), 1L, Long::sum);
+        }
+
+        int chunkSize = Math.max(1, insertBatchSize);
+        for (int from = 0; from < records.size(); from += chunkSize) {
+            notificationRecordMapper.insertBatch(records.subList(from, Math.min(from + chunkSize, records.size())));
+        }
+        unreadCounter.adjustAll(unreadDeltas);
+        unreadCountPublisher.publishAll(unreadDeltas);
+        List<com.lingflow.entity.NotificationRecord> immediate = new ArrayList<>(records.size());
+        for (com.lingflow.entity.NotificationRecord record : records) {
+            if (!com.lingflow.entity.NotificationRecord.DELIVERY_COALESCED.equals(record.getDeliveryStatus())) {
+                immediate.add(record);
+            }
+        }
+        notificationDispatcher.dispatchAll(immediate);
+
+        List<String> notificationIds = new ArrayList<>(records.size());
+        records.forEach(record -> notificationIds.add(record.getNotificationId()));
+        return notificationIds;
+    }
+
+    /**
+     * 增减未读数量并推送（计数在当前事务内更新，推送在提交后进行）
+     */
+    private void changeUnreadCount(String userId, long delta) {
+        unreadCounter.adjust(userId, delta);
+        unreadCountPublisher.publish(userId, delta);
+    }
+
+    /**
+     * 转换为通知记录VO
+     */
+    private NotificationRecordVO toRecordVO(NotificationRecord record) {
+        NotificationRecordVO vo = new NotificationRecordVO();
+        vo.setId(record.getNotificationId());
+        vo.setType(record.getType());
+        vo.setRecipientId(record.getRecipientId());
+        vo.setTitle(record.getTitle());
+        vo.setContent(record.getContent());
+        vo.setProcessInstanceId(record.getProcessInstanceId());
+        vo.setTaskId(record.getTaskId());
+        vo.setRead(record.getIsRead());
+        vo.setCreateTime(formatDateTime(record.getCreateTime()));
+        vo.setReadTime(formatDateTime(record.getReadTime()));
+        return vo;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
     /**
      * 格式化日期时间
      */
@@ -440,6 +606,7 @@ public class ProcessNotificationService {
         private String taskId;
         private String taskName;
         private LocalDateTime sendTime;
+        private String extraData;
     }
 
     /**
@@ -0,0 +1,431 @@
+package com.lingflow.service;
+
+import com.lingflow.dto.ProcessSearchResultDTO;
+import com.lingflow.entity.ProcessCategory;
+import com.lingflow.entity.ProcessDefinitionExtension;
+import com.lingflow.repository.ProcessCategoryRepository;
+import com.lingflow.repository.ProcessDefinitionExtensionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 流程选择器内存搜索索引（按租户）
+ *
+ * <p>为流程选择器的输入联想提供毫秒级以下的检索，查询时不访问数据库。
+ * 每个租户维护一份 n-gram 倒排索引，索引内容为流程定义名称、Key 与分类路径名称：
+ * <ul>
+ *   <li>单字与双字 gram → 条目位图；查询时取查询词 gram 位图的交集，再逐条校验子串</li>
+ *   <li>排序：名称前缀 &gt; Key 前缀 &gt; 名称包含 &gt; Key 包含 &gt; 分类路径包含</li>
+ * </ul>
+ *
+ * <p>维护方式：
+ * <ul>
+ *   <li>首次查询时从数据库加载（两次查询：流程扩展条目、分类）</li>
+ *   <li>设置流程分类、流程部署/删除时增量更新受影响的条目</li>
+ *   <li>分类改名/移动/删除时失效租户索引，下次查询重建</li>
+ *   <li>超过有效期后重建，兜底其他节点或绕过服务层的数据变更</li>
+ * </ul>
+ *
+ * <p>查询返回索引条目的副本，调用方修改结果不会影响索引。
+ *
+ * <p>存在事务时增量更新与失效都在提交后执行：提交前重建的索引会被失效，回滚的修改不会进入索引。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class ProcessSearchIndex {
+
+    @Autowired
+    private ProcessDefinitionExtensionRepository extensionRepository;
+
+    @Autowired
+    private ProcessCategoryRepository categoryRepository;
+
+    /**
+     * 索引有效期（分钟）
+     */
+    @Value("${lingflow.search.index.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    private final Map<String, TenantIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * 输入联想搜索
+     *
+     * @param keyword 关键词
+     * @param categoryId 分类ID（可选）
+     * @param tenantId 租户ID
+     * @param appId 应用ID（可选）
+     * @param contextId 上下文ID（可选）
+     * @param limit 返回数量
+     * @return 搜索结果（按相关度排序）
+     */
+    public List<ProcessSearchResultDTO> suggest(String keyword, String categoryId,
+                                                String tenantId, String appId, String contextId, int limit) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return getIndex(tenantId).search(keyword.trim().toLowerCase(Locale.ROOT),
+                categoryId, appId, contextId, limit);
+    }
+
+    /**
+     * 增量更新单个流程定义的索引条目（租户索引未加载时忽略；存在事务时于提交后生效）
+     *
+     * @param tenantId 租户ID
+     * @param processDefinitionId 流程定义ID
+     */
+    public void upsert(String tenantId, String processDefinitionId) {
+        afterCommit(() -> reload(tenantId, processDefinitionId));
+    }
+
+    /**
+     * 增量更新单个流程定义的索引条目（租户未知时使用：按条目当前所属租户更新，
+     * 其他已加载租户中的同ID条目移除；流程定义或扩展记录已删除时从全部租户移除）
+     *
+     * @param processDefinitionId 流程定义ID
+     */
+    public void upsert(String processDefinitionId) {
+        afterCommit(() -> reload(processDefinitionId));
+    }
+
+    /**
+     * 失效租户索引（下次查询时重建；存在事务时于提交后生效）
+     *
+     * @param tenantId 租户ID
+     */
+    public void invalidate(String tenantId) {
+        afterCommit(() -> indexes.remove(tenantId));
+    }
+
+    /**
+     * 失效全部租户索引（存在事务时于提交后生效）
+     */
+    public void invalidateAll() {
+        afterCommit(indexes::clear);
+    }
+
+    private void reload(String tenantId, String processDefinitionId) {
+        TenantIndex index = indexes.get(tenantId);
+        if (index == null) {
+            return;
+        }
+        ProcessDefinitionExtension extension = extensionRepository.findSearchEntry(processDefinitionId);
+        if (extension == null) {
+            index.remove(processDefinitionId);
+        } else {
+            index.put(extension);
+        }
+    }
+
+    private void reload(String processDefinitionId) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        ProcessDefinitionExtension extension = extensionRepository.findSearchEntry(processDefinitionId);
+        indexes.forEach((tenantId, index) -> {
+            if (extension != null && tenantId.equals(extension.getTenantId())) {
+                index.put(extension);
+            } else {
+                index.remove(processDefinitionId);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private TenantIndex getIndex(String tenantId) {
+        TenantIndex index = indexes.get(tenantId);
+        if (index != null && !index.isExpired(ttlMinutes)) {
+            return index;
+        }
+        // 并发首次加载时只构建一次
+        return indexes.compute(tenantId, (key, current) ->
+                current != null && !current.isExpired(ttlMinutes) ? current : build(key));
+    }
+
+    private TenantIndex build(String tenantId) {
+        long start = System.nanoTime();
+        Map<String, ProcessCategory> categories = new HashMap<>();
+        for (ProcessCategory category : categoryRepository.findTree(tenantId, null, null)) {
+            categories.put(category.getId(), category);
+        }
+
+        TenantIndex index = new TenantIndex(categories);
+        for (ProcessDefinitionExtension extension : extensionRepository.findSearchEntries(tenantId)) {
+            index.put(extension);
+        }
+        log.info("构建流程搜索索引: tenantId={}, entries={}, costMs={}",
+                tenantId, index.size(), (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    /**
+     * 单个租户的倒排索引
+     */
+    private static class TenantIndex {
+
+        private static final char FIELD_SEPARATOR = '\u0001';
+
+        private final long createdAt = System.currentTimeMillis();
+        private final Map<String, ProcessCategory> categories;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /** 条目槽位（删除后置为null） */
+        private final List<Entry> entries = new ArrayList<>();
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final Map<String, BitSet> postings = new HashMap<>();
+
+        TenantIndex(Map<String, ProcessCategory> categories) {
+            this.categories = categories;
+        }
+
+        boolean isExpired(long ttlMinutes) {
+            return System.currentTimeMillis() - createdAt > ttlMinutes * 60_000L;
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return slots.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(ProcessDefinitionExtension extension) {
+            Entry entry = new Entry(extension, buildPathNames(extension.getCategoryPath()));
+            lock.writeLock().lock();
+            try {
+                removeInternal(entry.result.getId());
+                int slot = entries.size();
+                entries.add(entry);
+                slots.put(entry.result.getId(), slot);
+                for (String gram : grams(entry.text)) {
+                    postings.computeIfAbsent(gram, key -> new BitSet()).set(slot);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(String processDefinitionId) {
+            lock.writeLock().lock();
+            try {
+                removeInternal(processDefinitionId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<ProcessSearchResultDTO> search(String keyword, String categoryId,
+                                            String appId, String contextId, int limit) {
+            List<Entry> matches = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                BitSet candidates = candidates(keyword);
+                if (candidates == null) {
+                    return new ArrayList<>();
+                }
+                for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                    Entry entry = entries.get(slot);
+                    if (entry != null && entry.matches(keyword, categoryId, appId, contextId)) {
+                        matches.add(entry);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            matches.sort(Comparator.<Entry>comparingInt(entry -> -entry.score(keyword))
+                    .thenComparingInt(entry -> entry.name.length())
+                    .thenComparing(entry -> entry.name)
+                    .thenComparing(entry -> -Optional.ofNullable(entry.result.getVersion()).orElse(0)));
+
+            List<ProcessSearchResultDTO> results = new ArrayList<>(Math.min(limit, matches.size()));
+            for (int i = 0; i < matches.size() && i < limit; i++) {
+                results.add(matches.get(i).copy());
+            }
+            return results;
+        }
+
+        /**
+         * 查询词各 gram 位图的交集（某个 gram 不存在时返回null）
+         */
+        private BitSet candidates(String keyword) {
+            BitSet result = null;
+            for (String gram : queryGrams(keyword)) {
+                BitSet posting = postings.get(gram);
+                if (posting == null) {
+                    return null;
+                }
+                if (result == null) {
+                    result = (BitSet) posting.clone();
+                } else {
+                    result.and(posting);
+                }
+            }
+            return result;
+        }
+
+        private void removeInternal(String processDefinitionId) {
+            Integer slot = slots.remove(processDefinitionId);
+            if (slot == null) {
+                return;
+            }
+            for (String gram : grams(entries.get(slot).text)) {
+                BitSet posting = postings.get(gram);
+                if (posting != null) {
+                    posting.clear(slot);
+                }
+            }
+            entries.set(slot, null);
+        }
+
+        private String buildPathNames(String path) {
+            if (path == null || path.isEmpty()) {
+                return "";
+            }
+            StringJoiner names = new StringJoiner("/");
+            for (String id : path.split("/")) {
+                ProcessCategory category = id.isEmpty() ? null : categories.get(id);
+                if (category != null) {
+                    names.add(category.getName());
+                }
+            }
+            return names.toString();
+        }
+
+        /**
+         * 索引 gram：单字 + 双字（不跨字段）
+         */
+        private static Set<String> grams(String text) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == FIELD_SEPARATOR) {
+                    continue;
+                }
+                grams.add(String.valueOf(c));
+                if (i + 1 < text.length() && text.charAt(i + 1) != FIELD_SEPARATOR) {
+                    grams.add(text.substring(i, i + 2));
+                }
+            }
+            return grams;
+        }
+
+        /**
+         * 查询 gram：单字查询使用单字 gram，否则使用双字 gram
+         */
+        private static Set<String> queryGrams(String keyword) {
+            if (keyword.length() == 1) {
+                return Collections.singleton(keyword);
+            }
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + 1 < keyword.length(); i++) {
+                grams.add(keyword.substring(i, i + 2));
+            }
+            return grams;
+        }
+
+        /**
+         * 索引条目
+         */
+        private static class Entry {
+
+            final ProcessSearchResultDTO result;
+            final String appId;
+            final String contextId;
+            final String name;
+            final String key;
+            final String pathNames;
+            final String text;
+
+            Entry(ProcessDefinitionExtension extension, String categoryPathNames) {
+                this.result = ProcessSearchResultDTO.builder()
+                        .id(extension.getProcessDefinitionId())
+                        .key(extension.getProcessKey())
+                        .name(extension.getProcessName())
+                        .version(extension.getProcessVersion())
+                        .categoryId(extension.getCategoryId())
+                        .categoryName(extension.getCategoryName())
+                        .categoryPath(extension.getCategoryPath())
+                        .categoryPathNames(categoryPathNames)
+                        .pathIds(pathIds(extension.getCategoryPath()))
+                        .build();
+                this.appId = extension.getAppId();
+                this.contextId = extension.getContextId();
+                this.name = lower(extension.getProcessName());
+                this.key = lower(extension.getProcessKey());
+                this.pathNames = lower(categoryPathNames);
+                this.text = name + FIELD_SEPARATOR + key + FIELD_SEPARATOR + pathNames;
+            }
+
+            ProcessSearchResultDTO copy() {
+                return result.toBuilder()
+                        .pathIds(new ArrayList<>(result.getPathIds()))
+                        .build();
+            }
+
+            boolean matches(String keyword, String categoryId, String appId, String contextId) {
+                return (categoryId == null || categoryId.isEmpty() || categoryId.equals(result.getCategoryId()))
+                        && (appId == null || appId.equals(this.appId))
+                        && (contextId == null || contextId.equals(this.contextId))
+                        && (name.contains(keyword) || key.contains(keyword) || pathNames.contains(keyword));
+            }
+
+            int score(String keyword) {
+                if (name.startsWith(keyword)) {
+                    return 100;
+                }
+                if (key.startsWith(keyword)) {
+                    return 90;
+                }
+                if (name.contains(keyword)) {
+                    return 70;
+                }
+                if (key.contains(keyword)) {
+                    return 60;
+                }
+                return 30;
+            }
+
+            private static String lower(String value) {
+                return value != null ? value.toLowerCase(Locale.ROOT) : "";
+            }
+
+            private static List<String> pathIds(String path) {
+                List<String> ids = new ArrayList<>();
+                if (path != null) {
+                    for (String id : path.split("/")) {
+                        if (!id.isEmpty()) {
+                            ids.add(id);
+                        }
+                    }
+                }
+                return ids;
+            }
+        }
+    }
+}
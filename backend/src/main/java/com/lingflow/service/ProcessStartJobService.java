@@ -0,0 +1,397 @@
+package com.lingflow.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.lingflow.dto.BatchJobProgressDTO;
+import com.lingflow.dto.BulkStartItem;
+import com.lingflow.dto.KeysetPage;
+import com.lingflow.dto.ProcessInstanceVO;
+import com.lingflow.entity.BatchJob;
+import com.lingflow.entity.BatchJobItem;
+import com.lingflow.exception.BusinessException;
+import com.lingflow.mapper.ProcessInstanceKeyMapper;
+import com.lingflow.metrics.BatchJobMetrics;
+import com.lingflow.util.JsonUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.RepositoryService;
+import org.flowable.engine.RuntimeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量启动流程实例任务
+ *
+ * <p>接收大量 (业务Key, 变量) 明细，流式写入批量任务后在后台执行：
+ * <ul>
+ *   <li>每次取 分块大小 × 启动线程数 条明细为一轮，先按业务Key一次查询已存在的实例，已存在的跳过并返回已有实例ID，
+ *       同一轮内重复的业务Key只启动第一条</li>
+ *   <li>其余明细按分块并行启动，每个分块在一个引擎命令（事务）内启动全部实例；
+ *       分块失败时回滚后逐项启动，只有出错的明细记为失败</li>
+ *   <li>启动前在同一事务内占用 (流程定义Key, 业务Key)（lf_process_business_key_claim 主键），
+ *       已被其他任务或其他节点占用的明细跳过，并发任务不会为同一业务Key重复启动实例</li>
+ *   <li>每轮完成后记录逐项结果与续跑位置，吞吐量见任务进度与 {@code lingflow.batch.job.items} 指标</li>
+ * </ul>
+ *
+ * <p>任务失败或中断后按任务ID续跑，从未记录的一轮重新开始；该轮中已启动的实例按业务Key去重跳过，
+ * 不会重复启动。没有业务Key的明细不去重，续跑时可能重复启动。
+ * 占用表只约束批量启动：通过其他接口启动的实例仅由启动前的历史实例查询去重（尽力而为）。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class ProcessStartJobService {
+
+    public static final String JOB_TYPE = "PROCESS_START";
+
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private ProcessInstanceKeyMapper processInstanceKeyMapper;
+
+    @Autowired
+    private BatchJobService batchJobService;
+
+    @Autowired
+    private BatchJobMetrics metrics;
+
+    /**
+     * 每个引擎命令（事务）启动的实例数
+     */
+    @Value("${lingflow.process.bulk-start.chunk-size:50}")
+    private int chunkSize;
+
+    /**
+     * 并行启动分块的线程数（数据库连接池需留有同等数量的空闲连接）
+     */
+    @Value("${lingflow.process.bulk-start.worker-threads:4}")
+    private int workerThreads;
+
+    /**
+     * 单个任务的明细数量上限
+     */
+    @Value("${lingflow.process.bulk-start.max-items:1000000}")
+    private int maxItems;
+
+    private ThreadPoolExecutor starters;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger starterIndex = new AtomicInteger();
+        // 队列满时由任务执行线程自己启动分块，不丢弃也不无限排队
+        starters = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workerThreads),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "process-start-" + starterIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        starters.shutdownNow();
+    }
+
+    /**
+     * 提交批量启动任务（明细边读取边写入，可传入流式解析的迭代器）
+     *
+     * @param processDefinitionKey 流程定义Key（启动最新版本）
+     * @param items 启动明细
+     * @param userId 操作人
+     * @return 任务进度（含任务ID）
+     */
+    public BatchJobProgressDTO submit(String processDefinitionKey, Iterator<BulkStartItem> items, String userId) {
+        if (processDefinitionKey == null || processDefinitionKey.isBlank()) {
+            throw new BusinessException("流程定义Key不能为空");
+        }
+        if (items == null) {
+            throw new BusinessException("批量任务明细不能为空");
+        }
+        if (repositoryService.createProcessDefinitionQuery()
+                .processDefinitionKey(processDefinitionKey).latestVersion().count() == 0) {
+            throw new BusinessException("流程定义不存在: " + processDefinitionKey);
+        }
+
+        StartParams params = new StartParams();
+        params.setProcessDefinitionKey(processDefinitionKey);
+        Iterator<BatchJobItem> jobItems = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public BatchJobItem next() {
+                return toJobItem(items.next());
+            }
+        };
+
+        BatchJob job = batchJobService.create(JOB_TYPE, JsonUtil.toJson(params), jobItems, maxItems, userId);
+        batchJobService.submit(job.getJobId(), () -> run(job.getJobId()));
+        return BatchJobService.toProgress(job);
+    }
+
+    /**
+     * 续跑失败或中断的任务
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    public BatchJobProgressDTO resume(String jobId) {
+        BatchJob job = batchJobService.requireJob(jobId, JOB_TYPE);
+        batchJobService.checkResumable(job);
+        batchJobService.submit(jobId, () -> run(jobId));
+        return BatchJobService.toProgress(job);
+    }
+
+    /**
+     * 查询任务进度
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    public BatchJobProgressDTO getProgress(String jobId) {
+        return batchJobService.getProgress(jobId, JOB_TYPE);
+    }
+
+    /**
+     * 按游标分页查询任务明细（成功与跳过的明细 result 为流程实例ID）
+     *
+     * @param jobId 任务ID
+     * @param status 状态（可选）
+     * @param cursor 游标
+     * @param limit 每页数量
+     * @return 明细分页
+     */
+    public KeysetPage<BatchJobItem> getItems(String jobId, String status, String cursor, Integer limit) {
+        return batchJobService.getItems(jobId, JOB_TYPE, status, cursor, limit);
+    }
+
+    /**
+     * 执行任务：从续跑位置开始逐轮启动
+     *
+     * @param jobId 任务ID
+     */
+    void run(String jobId) {
+        BatchJob job = batchJobService.claim(jobId);
+        if (job == null) {
+            log.debug("批量启动任务不可执行，跳过: jobId={}", jobId);
+            return;
+        }
+        try {
+            StartParams params = JsonUtil.fromJson(job.getParams(), StartParams.class);
+            int waveSize = Math.max(1, chunkSize) * Math.max(1, workerThreads);
+            int cursor = job.getCursorSeq();
+            List<BatchJobItem> wave;
+            while (!(wave = batchJobService.nextChunk(jobId, cursor, waveSize)).isEmpty()) {
+                long start = System.nanoTime();
+                startWave(params.getProcessDefinitionKey(), wave);
+                batchJobService.recordChunk(jobId, job.getRunToken(), wave);
+                int success = countStatus(wave, BatchJobItem.STATUS_SUCCESS);
+                int skipped = countStatus(wave, BatchJobItem.STATUS_SKIPPED);
+                metrics.recordChunk(JOB_TYPE, success, skipped, wave.size() - success - skipped,
+                        System.nanoTime() - start);
+                cursor = wave.get(wave.size() - 1).getSeq();
+            }
+            batchJobService.complete(jobId, job.getRunToken());
+            log.info("批量启动流程实例完成: jobId={}, processDefinitionKey={}",
+                    jobId, params.getProcessDefinitionKey());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("批量启动任务被中断: jobId={}", jobId);
+            batchJobService.fail(jobId, job.getRunToken(), "任务被中断");
+        } catch (Exception e) {
+            log.error("批量启动流程实例失败: jobId={}", jobId, e);
+            batchJobService.fail(jobId, job.getRunToken(), e instanceof ExecutionException && e.getCause() != null
+                    ? e.getCause().getMessage() : e.getMessage());
+        }
+    }
+
+    /**
+     * 执行一轮：业务Key去重后按分块并行启动，返回时每个明细都已有结果
+     */
+    private void startWave(String processDefinitionKey, List<BatchJobItem> wave)
+            throws InterruptedException, ExecutionException {
+        Map<String, String> existing = findExisting(processDefinitionKey, wave);
+        Map<String, BatchJobItem> firstByKey = new HashMap<>();
+        List<BatchJobItem> duplicates = new ArrayList<>();
+        List<BatchJobItem> pending = new ArrayList<>(wave.size());
+        for (BatchJobItem item : wave) {
+            String businessKey = item.getItemKey();
+            if (!businessKey.isEmpty()) {
+                String processInstanceId = existing.get(businessKey);
+                if (processInstanceId != null) {
+                    skip(item, processInstanceId, "业务Key已存在流程实例");
+                    continue;
+                }
+                if (firstByKey.putIfAbsent(businessKey, item) != null) {
+                    duplicates.add(item);
+                    continue;
+                }
+            }
+            pending.add(item);
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<BatchJobItem> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            futures.add(starters.submit(() -> startChunk(processDefinitionKey, chunk)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        for (BatchJobItem item : duplicates) {
+            BatchJobItem first = firstByKey.get(item.getItemKey());
+            skip(item, first.getResult(), "业务Key与明细 " + first.getSeq() + " 重复");
+        }
+    }
+
+    /**
+     * 一次查询本轮业务Key已存在的流程实例
+     *
+     * @return 业务Key → 流程实例ID
+     */
+    private Map<String, String> findExisting(String processDefinitionKey, List<BatchJobItem> wave) {
+        Set<String> businessKeys = new HashSet<>();
+        for (BatchJobItem item : wave) {
+            if (!item.getItemKey().isEmpty()) {
+                businessKeys.add(item.getItemKey());
+            }
+        }
+        Map<String, String> existing = new HashMap<>();
+        if (businessKeys.isEmpty()) {
+            return existing;
+        }
+        for (ProcessInstanceVO instance : processInstanceKeyMapper.findByBusinessKeys(processDefinitionKey, businessKeys)) {
+            existing.putIfAbsent(instance.getBusinessKey(), instance.getId());
+        }
+        return existing;
+    }
+
+    /**
+     * 启动一个分块：一个引擎命令启动全部实例，失败时逐项启动以定位出错的明细
+     * <p>逐项启动时任何运行时异常（如 JavaDelegate 抛出的异常、变量无法解析）只让该明细失败，
+     * 否则同一个坏明细会让任务在每次续跑时都失败
+     */
+    private void startChunk(String processDefinitionKey, List<BatchJobItem> chunk) {
+        try {
+            managementService.executeCommand(commandContext -> {
+                for (BatchJobItem item : chunk) {
+                    startInstance(processDefinitionKey, item);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("分块启动失败，逐项重试: processDefinitionKey={}, size={}, error={}",
+                    processDefinitionKey, chunk.size(), e.getMessage());
+            for (BatchJobItem item : chunk) {
+                try {
+                    managementService.executeCommand(commandContext -> {
+                        startInstance(processDefinitionKey, item);
+                        return null;
+                    });
+                } catch (RuntimeException itemError) {
+                    item.setStatus(BatchJobItem.STATUS_FAILED);
+                    item.setResult(null);
+                    item.setMessage(itemError.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 在引擎命令的事务内占用业务Key并启动实例，结果写入明细；业务Key已被占用时跳过
+     */
+    private void startInstance(String processDefinitionKey, BatchJobItem item) {
+        String businessKey = item.getItemKey().isEmpty() ? null : item.getItemKey();
+        if (businessKey != null && processInstanceKeyMapper.claimBusinessKey(processDefinitionKey, businessKey) == 0) {
+            skip(item, processInstanceKeyMapper.findClaimedInstance(processDefinitionKey, businessKey),
+                    "业务Key已存在流程实例");
+            return;
+        }
+        Map<String, Object> variables = null;
+        if (item.getPayload() != null) {
+            variables = JsonUtil.fromJson(item.getPayload(), VARIABLES_TYPE);
+            if (variables == null) {
+                throw new BusinessException("流程变量无法解析");
+            }
+        }
+        String processInstanceId = runtimeService.startProcessInstanceByKey(
+                processDefinitionKey, businessKey, variables).getId();
+        if (businessKey != null) {
+            processInstanceKeyMapper.bindClaim(processDefinitionKey, businessKey, processInstanceId);
+        }
+        succeed(item, processInstanceId);
+    }
+
+    private static void succeed(BatchJobItem item, String processInstanceId) {
+        item.setStatus(BatchJobItem.STATUS_SUCCESS);
+        item.setResult(processInstanceId);
+        item.setMessage(null);
+    }
+
+    private static void skip(BatchJobItem item, String processInstanceId, String message) {
+        item.setStatus(BatchJobItem.STATUS_SKIPPED);
+        item.setResult(processInstanceId);
+        item.setMessage(message);
+    }
+
+    private static int countStatus(List<BatchJobItem> items, String status) {
+        int count = 0;
+        for (BatchJobItem item : items) {
+            if (status.equals(item.getStatus())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static BatchJobItem toJobItem(BulkStartItem source) {
+        if (source == null) {
+            throw new BusinessException("批量启动明细不能为空");
+        }
+        String businessKey = source.getBusinessKey() == null ? "" : source.getBusinessKey().trim();
+        if (businessKey.length() > 255) {
+            throw new BusinessException("业务Key长度不能超过255: " + businessKey.substring(0, 32) + "...");
+        }
+        BatchJobItem item = new BatchJobItem();
+        item.setItemKey(businessKey);
+        if (source.getVariables() != null && !source.getVariables().isEmpty()) {
+            item.setPayload(JsonUtil.toJson(source.getVariables()));
+        }
+        return item;
+    }
+
+    /**
+     * 批量启动任务参数
+     */
+    @Data
+    public static class StartParams {
+        /**
+         * 流程定义Key
+         */
+        private String processDefinitionKey;
+    }
+}
@@ -5,8 +5,14 @@ import com.lingflow.dto.*;
 import com.lingflow.entity.*;
 import com.lingflow.enums.ProcessTemplateStatus;
 import com.lingflow.exception.BusinessException;
+import com.lingflow.metrics.TemplateDraftMetrics;
 import com.lingflow.repository.*;
+import com.lingflow.util.BpmnStreamingValidator;
+import com.lingflow.util.BpmnTextDiff;
 import com.lingflow.util.JsonUtil;
+import com.lingflow.util.KeysetCursor;
+import com.lingflow.util.ProcessValidator;
+import com.lingflow.util.SearchKeyword;
 import lombok.extern.slf4j.Slf4j;
 import org.flowable.bpmn.converter.BpmnXMLConverter;
 import org.flowable.bpmn.model.BpmnModel;
@@ -14,11 +20,12 @@ import org.flowable.engine.RepositoryService;
 import org.flowable.engine.repository.Deployment;
 import org.flowable.engine.repository.ProcessDefinition;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -55,9 +62,39 @@ public class ProcessTemplateService {
     @Autowired
     private ProcessCategoryRepository categoryRepository;
 
+    @Autowired
+    private ProcessTemplateDraftDeltaRepository deltaRepository;
+
+    @Autowired
+    private BpmnContentStore contentStore;
+
     @Autowired
     private RepositoryService flowableRepositoryService;
 
+    @Autowired
+    private TemplateDraftMetrics templateDraftMetrics;
+
+    @Autowired
+    private ProcessSearchIndex searchIndex;
+
+    /**
+     * 增量数量达到该阈值后压缩为完整内容
+     */
+    @Value("${lingflow.template.draft.compaction-threshold:20}")
+    private int draftCompactionThreshold;
+
+    /**
+     * 搜索默认返回数量
+     */
+    @Value("${lingflow.search.default-limit:20}")
+    private int searchDefaultLimit;
+
+    /**
+     * 搜索单页最大返回数量
+     */
+    @Value("${lingflow.search.max-limit:100}")
+    private int searchMaxLimit;
+
     /**
      * 创建设计态模板
      *
@@ -86,8 +123,8 @@ public class ProcessTemplateService {
             throw new BusinessException("分类不存在: " + request.getCategoryId());
         }
 
-        // 3. 验证BPMN XML格式
-        validateBpmnXml(request.getBpmnXml());
+        // 3. 验证BPMN XML格式（草稿只拒绝无法解析的XML，结构问题作为警告返回）
+        List<String> warnings = validateDraftBpmnXml(request.getBpmnXml());
 
         // 4. 创建设计态模板
         ProcessTemplateDraft draft = ProcessTemplateDraft.builder()
@@ -96,6 +133,7 @@ public class ProcessTemplateService {
                 .templateName(request.getTemplateName())
                 .description(request.getDescription())
                 .bpmnXml(request.getBpmnXml())
+                .bpmnHash(contentStore.put(request.getBpmnXml()))
                 .categoryId(request.getCategoryId())
                 .categoryName(category.getName())
                 .categoryCode(category.getCode())
@@ -114,7 +152,9 @@ public class ProcessTemplateService {
         draftRepository.save(draft);
 
         log.info("设计态模板创建成功: id={}, templateKey={}", draft.getId(), draft.getTemplateKey());
-        return toDraftVO(draft);
+        ProcessTemplateDraftVO vo = toDraftVO(draft);
+        vo.setValidationWarnings(warnings);
+        return vo;
     }
 
     /**
@@ -128,6 +168,7 @@ public class ProcessTemplateService {
     @Transactional(rollbackFor = Exception.class)
     public ProcessTemplateDraftVO updateDraft(String id, UpdateDraftTemplateRequest request, String updatedBy) {
         log.info("更新设计态模板: id={}, updatedBy={}", id, updatedBy);
+        long startNanos = System.nanoTime();
 
         // 1. 查询设计态模板
         ProcessTemplateDraft draft = draftRepository.findById(id);
@@ -146,13 +187,20 @@ public class ProcessTemplateService {
             draft.setCategoryCode(category.getCode());
         }
 
-        // 3. 验证BPMN XML格式
-        validateBpmnXml(request.getBpmnXml());
+        // 3. 计算新的BPMN内容及相对上次保存的补丁
+        String currentXml = resolveBpmnXml(draft);
+        String newXml = resolveRequestedBpmnXml(draft, currentXml, request);
+        BpmnPatch patch = BpmnTextDiff.diff(currentXml, newXml);
+
+        // 4. 只重新校验发生变化的部分：仅修改图形信息（坐标、连线路径）时流程语义不变，无需校验
+        List<String> warnings = null;
+        if (patch != null && !BpmnTextDiff.isDiagramOnly(currentXml, patch)) {
+            warnings = validateDraftBpmnXml(newXml);
+        }
 
-        // 4. 更新设计态模板
+        // 5. 更新设计态模板
         draft.setTemplateName(request.getTemplateName());
         draft.setDescription(request.getDescription());
-        draft.setBpmnXml(request.getBpmnXml());
         if (request.getTags() != null) {
             draft.setTagList(request.getTags());
         }
@@ -163,13 +211,18 @@ public class ProcessTemplateService {
         }
         draft.markUpdated(updatedBy);
 
-        int rows = draftRepository.update(draft);
-        if (rows == 0) {
-            throw new BusinessException("更新设计态模板失败，可能已被其他用户修改");
-        }
+        String mode = saveDraftBpmn(draft, currentXml, newXml, patch, updatedBy);
+        draft.setBpmnXml(newXml);
+        draft.setVersion(draft.getVersion() + 1);
 
-        log.info("设计态模板更新成功: id={}", id);
-        return toDraftVO(draft);
+        long written = patch == null ? 0
+                : TemplateDraftMetrics.MODE_FULL.equals(mode) ? newXml.length() : BpmnTextDiff.size(patch);
+        templateDraftMetrics.recordSave(mode, written, System.nanoTime() - startNanos);
+
+        log.info("设计态模板更新成功: id={}, mode={}, version={}", id, mode, draft.getVersion());
+        ProcessTemplateDraftVO vo = toDraftVO(draft);
+        vo.setValidationWarnings(warnings);
+        return vo;
     }
 
     /**
@@ -183,6 +236,7 @@ public class ProcessTemplateService {
         if (draft == null) {
             throw new BusinessException("设计态模板不存在: " + id);
         }
+        draft.setBpmnXml(resolveBpmnXml(draft));
         return toDraftVO(draft);
     }
 
@@ -243,6 +297,8 @@ public class ProcessTemplateService {
         if (draft == null) {
             throw new BusinessException("设计态模板不存在: " + id);
         }
+        draft.setBpmnXml(resolveBpmnXml(draft));
+        validateBpmnXml(draft.getBpmnXml());
 
         // 2. 部署到Flowable（需要先部署才能获取实际的流程 key）
         String flowableProcessDefinitionId;
@@ -293,6 +349,7 @@ public class ProcessTemplateService {
                 .templateName(draft.getTemplateName())
                 .description(draft.getDescription())
                 .bpmnXml(draft.getBpmnXml())
+                .bpmnHash(currentBpmnHash(draft, draft.getBpmnXml()))
                 .flowableProcessDefinitionId(flowableProcessDefinitionId)
                 .flowableDeploymentId(flowableDeploymentId)
                 .flowableVersion(nextVersion)
@@ -316,6 +373,7 @@ public class ProcessTemplateService {
 
         // 5. 删除设计态模板
         draftRepository.delete(id);
+        searchIndex.upsert(draft.getTenantId(), flowableProcessDefinitionId);
 
         log.info("模板发布成功: draftId={}, publishedId={}, flowableVersion={}",
                 id, published.getId(), nextVersion);
@@ -398,6 +456,7 @@ public class ProcessTemplateService {
         if (published == null) {
             throw new BusinessException("发布态模板不存在: " + id);
         }
+        published.setBpmnXml(loadBpmnXml(published.getBpmnHash(), published.getBpmnXml()));
         return toPublishedVO(published);
     }
 
@@ -426,6 +485,61 @@ public class ProcessTemplateService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 按相关度搜索发布态模板（Keyset 分页）
+     *
+     * @param keyword 关键词
+     * @param tenantId 租户ID
+     * @param appId 应用ID
+     * @param contextId 上下文ID
+     * @param categoryId 分类ID（可选）
+     * @param status 状态（可选）
+     * @param cursor 分页游标（首页为空）
+     * @param limit 每页数量（为空时使用默认值）
+     * @return 发布态模板分页结果
+     */
+    public KeysetPage<ProcessTemplatePublishedVO> searchPublished(
+            String keyword, String tenantId, String appId, String contextId,
+            String categoryId, ProcessTemplateStatus status, String cursor, Integer limit) {
+        String normalized = SearchKeyword.normalize(keyword);
+        if (normalized == null) {
+            throw new BusinessException("搜索关键词不能为空");
+        }
+        int pageSize = limit == null || limit <= 0 ? searchDefaultLimit : Math.min(limit, searchMaxLimit);
+        String[] cursorKeys = KeysetCursor.decode(cursor, 2);
+        Float cursorScore = null;
+        if (cursorKeys != null) {
+            try {
+                cursorScore = Float.valueOf(cursorKeys[0]);
+            } catch (NumberFormatException e) {
+                throw new BusinessException("无效的分页游标");
+            }
+        }
+
+        // 多查一条用于判断是否还有下一页
+        List<ProcessTemplatePublished> list = publishedRepository.searchRanked(
+                normalized, SearchKeyword.containsPattern(normalized),
+                tenantId, appId, contextId, categoryId, status,
+                cursorScore, cursorKeys != null ? cursorKeys[1] : null, pageSize + 1
+        );
+
+        boolean hasMore = list.size() > pageSize;
+        if (hasMore) {
+            list = list.subList(0, pageSize);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            ProcessTemplatePublished last = list.get(list.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getSearchScore(), last.getId());
+        }
+
+        return KeysetPage.<ProcessTemplatePublishedVO>builder()
+                .list(list.stream().map(this::toPublishedVO).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
     /**
      * 创建快照
      *
@@ -458,7 +572,10 @@ public class ProcessTemplateService {
                     templateKey, tenantId, appId, contextId
             );
 
+            // 内容已存在时只插入快照元数据，不复制BPMN内容
             snapshot = ProcessTemplateSnapshot.fromDraft(draft, request.getSnapshotName(), createdBy);
+            snapshot.setBpmnHash(currentBpmnHash(draft, null));
+            snapshot.setBpmnXml(null);
             snapshot.setSnapshotVersion(nextVersion);
         } else if ("PUBLISHED".equals(request.getSourceTemplateType())) {
             // 从发布态创建快照
@@ -477,6 +594,10 @@ public class ProcessTemplateService {
             );
 
             snapshot = ProcessTemplateSnapshot.fromPublished(published, request.getSnapshotName(), createdBy);
+            if (snapshot.getBpmnHash() == null) {
+                snapshot.setBpmnHash(contentStore.put(published.getBpmnXml()));
+            }
+            snapshot.setBpmnXml(null);
             snapshot.setSnapshotVersion(nextVersion);
         } else {
             throw new BusinessException("无效的来源模板类型: " + request.getSourceTemplateType());
@@ -509,6 +630,21 @@ public class ProcessTemplateService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 查询快照详情
+     *
+     * @param id 快照ID
+     * @return 快照VO（包含BPMN内容）
+     */
+    public ProcessTemplateSnapshotVO getSnapshot(String id) {
+        ProcessTemplateSnapshot snapshot = snapshotRepository.findById(id);
+        if (snapshot == null) {
+            throw new BusinessException("快照不存在: " + id);
+        }
+        snapshot.setBpmnXml(loadBpmnXml(snapshot.getBpmnHash(), snapshot.getBpmnXml()));
+        return toSnapshotVO(snapshot);
+    }
+
     /**
      * 从快照恢复到设计态
      *
@@ -543,7 +679,10 @@ public class ProcessTemplateService {
                         ? request.getNewTemplateName()
                         : snapshot.getSnapshotName())
                 .description("从快照恢复: " + snapshot.getSnapshotName())
-                .bpmnXml(snapshot.getBpmnXml())
+                .bpmnXml(loadBpmnXml(snapshot.getBpmnHash(), snapshot.getBpmnXml()))
+                .bpmnHash(snapshot.getBpmnHash() != null
+                        ? snapshot.getBpmnHash()
+                        : contentStore.put(snapshot.getBpmnXml()))
                 .categoryId(snapshot.getCategoryId())
                 .categoryName(category != null ? category.getName() : snapshot.getCategoryName())
                 .categoryCode(category != null ? category.getCode() : snapshot.getCategoryCode())
@@ -586,7 +725,139 @@ public class ProcessTemplateService {
     // ============ 私有辅助方法 ============
 
     /**
-     * 验证BPMN XML格式
+     * 还原设计态模板的当前BPMN内容（基线 + 增量）
+     *
+     * @param draft 设计态模板
+     * @return 当前BPMN内容
+     */
+    private String resolveBpmnXml(ProcessTemplateDraft draft) {
+        String baseXml = loadBpmnXml(draft.getBpmnHash(), draft.getBpmnXml());
+        if (!hasBpmnDeltas(draft)) {
+            return baseXml;
+        }
+        return applyDeltas(baseXml, deltaRepository.findByDraftId(draft.getId(), draft.getBpmnBaseVersion()));
+    }
+
+    /**
+     * 设计态模板当前BPMN内容的哈希
+     * <p>没有增量时直接复用基线哈希，无需读取内容
+     *
+     * @param draft 设计态模板
+     * @param currentXml 已还原的当前内容（为null时按需还原）
+     * @return 内容哈希
+     */
+    private String currentBpmnHash(ProcessTemplateDraft draft, String currentXml) {
+        if (!hasBpmnDeltas(draft) && draft.getBpmnHash() != null) {
+            return draft.getBpmnHash();
+        }
+        return contentStore.put(currentXml != null ? currentXml : resolveBpmnXml(draft));
+    }
+
+    private boolean hasBpmnDeltas(ProcessTemplateDraft draft) {
+        return draft.getBpmnDeltaCount() != null && draft.getBpmnDeltaCount() > 0;
+    }
+
+    /**
+     * 读取BPMN内容：优先按哈希从内容存储读取，兼容未迁移的内联内容
+     */
+    private String loadBpmnXml(String bpmnHash, String inlineXml) {
+        return bpmnHash != null ? contentStore.get(bpmnHash) : inlineXml;
+    }
+
+    /**
+     * 按版本顺序应用增量
+     */
+    private String applyDeltas(String baseXml, List<ProcessTemplateDraftDelta> deltas) {
+        String xml = baseXml;
+        for (ProcessTemplateDraftDelta delta : deltas) {
+            if (delta.getBaseLength() != xml.length()) {
+                throw new BusinessException(String.format(
+                        "设计态模板增量不一致: draftId=%s, baseVersion=%d", delta.getDraftId(), delta.getBaseVersion()));
+            }
+            xml = BpmnTextDiff.apply(xml, BpmnPatch.builder()
+                    .offset(delta.getPatchOffset())
+                    .deleteLength(delta.getDeleteLength())
+                    .insertText(delta.getInsertText())
+                    .build());
+        }
+        return xml;
+    }
+
+    /**
+     * 根据请求确定新的BPMN内容（完整内容或补丁）
+     */
+    private String resolveRequestedBpmnXml(ProcessTemplateDraft draft, String currentXml,
+                                          UpdateDraftTemplateRequest request) {
+        if (request.getBpmnPatch() != null) {
+            if (request.getBaseVersion() == null || !request.getBaseVersion().equals(draft.getVersion())) {
+                throw new BusinessException("更新设计态模板失败，可能已被其他用户修改");
+            }
+            try {
+                return BpmnTextDiff.apply(currentXml, request.getBpmnPatch());
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("BPMN补丁无效: " + e.getMessage());
+            }
+        }
+        if (request.getBpmnXml() == null || request.getBpmnXml().trim().isEmpty()) {
+            throw new BusinessException("BPMN XML内容不能为空");
+        }
+        return request.getBpmnXml();
+    }
+
+    /**
+     * 保存设计态模板，BPMN改动以增量形式追加，达到阈值时压缩为完整内容
+     *
+     * @return 写入方式
+     */
+    private String saveDraftBpmn(ProcessTemplateDraft draft, String currentXml, String newXml,
+                                 BpmnPatch patch, String updatedBy) {
+        int deltaCount = draft.getBpmnDeltaCount() != null ? draft.getBpmnDeltaCount() : 0;
+        int deltaSize = draft.getBpmnDeltaSize() != null ? draft.getBpmnDeltaSize() : 0;
+
+        String mode;
+        int rows;
+        if (patch == null) {
+            mode = TemplateDraftMetrics.MODE_METADATA;
+            rows = draftRepository.updateWithoutBpmn(draft);
+        } else if (deltaCount + 1 > draftCompactionThreshold
+                || (long) (deltaSize + BpmnTextDiff.size(patch)) * 2 > newXml.length()) {
+            // 压缩：写入完整内容作为新基线，清理旧增量
+            mode = TemplateDraftMetrics.MODE_FULL;
+            draft.setBpmnXml(newXml);
+            draft.setBpmnHash(contentStore.put(newXml));
+            rows = draftRepository.update(draft);
+            if (rows > 0 && deltaCount > 0) {
+                deltaRepository.deleteByDraftId(draft.getId());
+                templateDraftMetrics.recordCompaction();
+            }
+        } else {
+            mode = TemplateDraftMetrics.MODE_DELTA;
+            draft.setBpmnDeltaCount(deltaCount + 1);
+            draft.setBpmnDeltaSize(deltaSize + BpmnTextDiff.size(patch));
+            rows = draftRepository.updateWithoutBpmn(draft);
+            if (rows > 0) {
+                deltaRepository.save(ProcessTemplateDraftDelta.builder()
+                        .id(UUID.randomUUID().toString())
+                        .draftId(draft.getId())
+                        .baseVersion(draft.getVersion())
+                        .patchOffset(patch.getOffset())
+                        .deleteLength(patch.getDeleteLength())
+                        .insertText(patch.getInsertText())
+                        .baseLength(currentXml.length())
+                        .createdTime(java.time.LocalDateTime.now())
+                        .createdBy(updatedBy)
+                        .build());
+            }
+        }
+
+        if (rows == 0) {
+            throw new BusinessException("更新设计态模板失败，可能已被其他用户修改");
+        }
+        return mode;
+    }
+
+    /**
+     * 验证BPMN XML（发布时使用）：结构性错误（缺少开始节点、连线引用不存在、ID重复等）直接拒绝
      *
      * @param bpmnXml BPMN XML字符串
      */
@@ -595,25 +866,55 @@ public class ProcessTemplateService {
             throw new BusinessException("BPMN XML内容不能为空");
         }
 
-        try {
-            BpmnXMLConverter bpmnXMLConverter = new BpmnXMLConverter();
+        // 流式预校验：结构性错误无需构建完整模型即可发现
+        ProcessValidator.ValidationResult preCheck = BpmnStreamingValidator.validate(bpmnXml);
+        if (!preCheck.isValid()) {
+            throw new BusinessException("BPMN XML格式错误: " + String.join("; ", preCheck.getErrors()));
+        }
 
-            // 将 String 转换为 XMLStreamReader
-            javax.xml.stream.XMLInputFactory factory = javax.xml.stream.XMLInputFactory.newFactory();
-            javax.xml.stream.XMLStreamReader reader = factory.createXMLStreamReader(
-                    new java.io.ByteArrayInputStream(bpmnXml.getBytes(StandardCharsets.UTF_8))
-            );
+        parseBpmnXml(bpmnXml);
+    }
+
+    /**
+     * 验证草稿BPMN XML：只拒绝无法解析的XML，画到一半的流程图仍可自动保存
+     *
+     * <p>先做流式预校验，只有预校验通过时才构建完整模型，有结构性问题的草稿直接返回问题列表，
+     * 自动保存不承担完整模型转换的开销。
+     *
+     * @param bpmnXml BPMN XML字符串
+     * @return 结构性问题与警告（发布时结构性问题会被拒绝）
+     */
+    private List<String> validateDraftBpmnXml(String bpmnXml) {
+        if (bpmnXml == null || bpmnXml.trim().isEmpty()) {
+            throw new BusinessException("BPMN XML内容不能为空");
+        }
+
+        ProcessValidator.ValidationResult findings = BpmnStreamingValidator.validate(bpmnXml);
+        if (findings.isMalformed()) {
+            throw new BusinessException("BPMN XML格式错误: " + String.join("; ", findings.getErrors()));
+        }
+        if (findings.isValid()) {
+            parseBpmnXml(bpmnXml);
+        }
+        List<String> warnings = new ArrayList<>(findings.getErrors());
+        warnings.addAll(findings.getWarnings());
+        return warnings;
+    }
 
-            BpmnModel bpmnModel = bpmnXMLConverter.convertToBpmnModel(reader);
+    /**
+     * 解析BPMN XML，无法解析或没有流程定义时抛出异常
+     */
+    private void parseBpmnXml(String bpmnXml) {
+        try {
+            BpmnXMLConverter bpmnXMLConverter = new BpmnXMLConverter();
+            BpmnModel bpmnModel = bpmnXMLConverter.convertToBpmnModel(BpmnStreamingValidator.createReader(bpmnXml));
 
             if (bpmnModel == null || bpmnModel.getMainProcess() == null) {
                 throw new BusinessException("BPMN XML格式错误：无法解析流程定义");
             }
 
-            if (bpmnModel.getMainProcess().getId() == null || bpmnModel.getMainProcess().getId().isEmpty()) {
-                throw new BusinessException("BPMN XML格式错误：流程ID不能为空");
-            }
-
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             throw new BusinessException("BPMN XML格式错误: " + e.getMessage());
         }
@@ -629,6 +930,7 @@ public class ProcessTemplateService {
                 .templateName(draft.getTemplateName())
                 .description(draft.getDescription())
                 .bpmnXml(draft.getBpmnXml())
+                .bpmnHash(draft.getBpmnHash())
                 .categoryId(draft.getCategoryId())
                 .categoryName(draft.getCategoryName())
                 .categoryCode(draft.getCategoryCode())
@@ -656,6 +958,7 @@ public class ProcessTemplateService {
                 .templateName(published.getTemplateName())
                 .description(published.getDescription())
                 .bpmnXml(published.getBpmnXml())
+                .bpmnHash(published.getBpmnHash())
                 .flowableProcessDefinitionId(published.getFlowableProcessDefinitionId())
                 .flowableDeploymentId(published.getFlowableDeploymentId())
                 .flowableVersion(published.getFlowableVersion())
@@ -686,6 +989,7 @@ public class ProcessTemplateService {
                 .templateKey(snapshot.getTemplateKey())
                 .snapshotName(snapshot.getSnapshotName())
                 .bpmnXml(snapshot.getBpmnXml())
+                .bpmnHash(snapshot.getBpmnHash())
                 .sourceTemplateId(snapshot.getSourceTemplateId())
                 .sourceTemplateStatus(snapshot.getSourceTemplateStatus())
                 .sourceTemplateVersion(snapshot.getSourceTemplateVersion())
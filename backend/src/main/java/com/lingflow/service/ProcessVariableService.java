@@ -1,12 +1,27 @@
 package com.lingflow.service;
 
+import com.lingflow.dto.KeysetPage;
+import com.lingflow.dto.VariableBatchResult;
+import com.lingflow.dto.VariableMetaDTO;
+import com.lingflow.dto.VariableRevisionDTO;
+import com.lingflow.exception.BusinessException;
 import com.lingflow.extension.wrapper.FlowableServiceTemplate;
+import com.lingflow.mapper.VariableMetaMapper;
+import com.lingflow.util.KeysetCursor;
 import lombok.extern.slf4j.Slf4j;
+import org.flowable.engine.history.HistoricDetail;
+import org.flowable.engine.history.HistoricVariableUpdate;
+import org.flowable.engine.history.NativeHistoricDetailQuery;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.variable.api.history.HistoricVariableInstance;
+import org.flowable.variable.api.history.NativeHistoricVariableInstanceQuery;
+import org.flowable.variable.api.persistence.entity.VariableInstance;
+import org.flowable.variable.api.runtime.VariableInstanceQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-import org.flowable.variable.api.history.HistoricVariableInstance;
+import java.util.*;
 
 /**
  * 流程变量管理服务
@@ -16,6 +31,16 @@ import org.flowable.variable.api.history.HistoricVariableInstance;
 @Service
 public class ProcessVariableService {
 
+    /**
+     * 修订记录来源：ACT_HI_DETAIL 更新记录
+     */
+    public static final String REVISION_SOURCE_DETAIL = "detail";
+
+    /**
+     * 修订记录来源：ACT_HI_VARINST 变量实例当前值
+     */
+    public static final String REVISION_SOURCE_INSTANCE = "instance";
+
     @Autowired
     private org.flowable.engine.RuntimeService flowableRuntimeService;
 
@@ -25,9 +50,51 @@ public class ProcessVariableService {
     @Autowired
     private org.flowable.engine.HistoryService flowableHistoryService;
 
+    @Autowired
+    private org.flowable.engine.ManagementService flowableManagementService;
+
     @Autowired
     private FlowableServiceTemplate serviceTemplate;
 
+    @Autowired
+    private VariableMetaMapper variableMetaMapper;
+
+    /**
+     * 变量列表中随元数据返回值的大小上限（字节），更大的变量按需单独加载
+     */
+    @Value("${lingflow.variable.inline-value-max-bytes:65536}")
+    private long inlineValueMaxBytes;
+
+    /**
+     * 批量读取时每条查询的流程实例数
+     */
+    @Value("${lingflow.variable.batch.instances-per-query:500}")
+    private int instancesPerQuery;
+
+    /**
+     * 批量写入时每个引擎命令（事务）的流程实例数
+     */
+    @Value("${lingflow.variable.batch.instances-per-command:100}")
+    private int instancesPerCommand;
+
+    /**
+     * 变量修订历史默认每页数量
+     */
+    @Value("${lingflow.variable.history.default-limit:20}")
+    private int historyDefaultLimit;
+
+    /**
+     * 变量修订历史每页数量上限
+     */
+    @Value("${lingflow.variable.history.max-limit:200}")
+    private int historyMaxLimit;
+
+    /**
+     * 是否从 ACT_HI_DETAIL 读取变量修订（需要引擎历史级别为 full）
+     */
+    @Value("${lingflow.variable.history.detail-enabled:false}")
+    private boolean historyDetailEnabled;
+
     /**
      * 设置流程实例变量
      *
@@ -84,6 +151,43 @@ public class ProcessVariableService {
         );
     }
 
+    /**
+     * 获取流程实例的指定变量（只加载并反序列化指定的变量）
+     *
+     * @param processInstanceId 流程实例ID
+     * @param variableNames 变量名集合
+     * @return 变量Map
+     */
+    public Map<String, Object> getNamedProcessInstanceVariables(
+        String processInstanceId,
+        Collection<String> variableNames
+    ) {
+        return serviceTemplate.execute(
+            "RuntimeService.getVariables",
+            () -> flowableRuntimeService.getVariables(processInstanceId, variableNames),
+            processInstanceId, variableNames
+        );
+    }
+
+    /**
+     * 获取流程实例变量的元数据（名称、类型、大小）
+     * <p>元数据直接查询变量表，不加载字节数组；需要值时只为未超过上限的变量加载一次
+     *
+     * @param processInstanceId 流程实例ID
+     * @param includeValues 是否返回未超过上限的变量值
+     * @return 变量元数据列表
+     */
+    public List<VariableMetaDTO> getProcessInstanceVariableMeta(
+        String processInstanceId,
+        boolean includeValues
+    ) {
+        List<VariableMetaDTO> metas = markLarge(variableMetaMapper.findProcessInstanceVariables(processInstanceId));
+        if (includeValues) {
+            fillValues(metas, getNamedProcessInstanceVariables(processInstanceId, inlineNames(metas)));
+        }
+        return metas;
+    }
+
     /**
      * 获取单个流程实例变量
      *
@@ -237,34 +341,248 @@ public class ProcessVariableService {
     }
 
     /**
-     * 获取历史流程实例变量
+     * 获取任务的指定变量（只加载并反序列化指定的变量）
      *
-     * @param processInstanceId 流程实例ID
+     * @param taskId 任务ID
+     * @param variableNames 变量名集合
      * @return 变量Map
      */
+    public Map<String, Object> getNamedTaskVariables(
+        String taskId,
+        Collection<String> variableNames
+    ) {
+        return serviceTemplate.execute(
+            "TaskService.getVariables",
+            () -> flowableTaskService.getVariables(taskId, variableNames),
+            taskId, variableNames
+        );
+    }
+
+    /**
+     * 获取任务可见变量的元数据（任务本地变量 + 所属执行及各级上级执行直到流程实例的变量）
+     *
+     * @param taskId 任务ID
+     * @param includeValues 是否返回未超过上限的变量值
+     * @return 变量元数据列表（同名变量只保留最近作用域的变量）
+     */
+    public List<VariableMetaDTO> getTaskVariableMeta(String taskId, boolean includeValues) {
+        Map<String, VariableMetaDTO> byName = new LinkedHashMap<>();
+        for (VariableMetaDTO meta : variableMetaMapper.findTaskVariables(taskId)) {
+            byName.putIfAbsent(meta.getName(), meta);
+        }
+        List<VariableMetaDTO> metas = markLarge(new ArrayList<>(byName.values()));
+        if (includeValues) {
+            fillValues(metas, getNamedTaskVariables(taskId, inlineNames(metas)));
+        }
+        return metas;
+    }
+
+    /**
+     * 获取历史流程实例变量（流程实例级变量的最终值，不含任务和子执行的本地变量）
+     *
+     * @param processInstanceId 流程实例ID
+     * @return 变量Map（按变量名排序）
+     */
     public Map<String, Object> getHistoricProcessInstanceVariables(
         String processInstanceId
     ) {
         return serviceTemplate.execute(
             "HistoryService.getHistoricVariableInstances",
             () -> {
-                return flowableHistoryService
+                // 流程实例级变量按名称唯一，本地变量同名时不再相互覆盖
+                Map<String, Object> variables = new LinkedHashMap<>();
+                flowableHistoryService
                     .createHistoricVariableInstanceQuery()
                     .processInstanceId(processInstanceId)
+                    .excludeLocalVariables()
+                    .orderByVariableName().asc()
                     .list()
-                    .stream()
-                    .collect(
-                        java.util.stream.Collectors.toMap(
-                            var -> var.getVariableName(),
-                            var -> var.getValue(),
-                            (v1, v2) -> v1
-                        )
-                    );
+                    .forEach(var -> variables.put(var.getVariableName(), var.getValue()));
+                return variables;
             },
             processInstanceId
         );
     }
 
+    /**
+     * 按游标分页获取变量的修订历史（按更新时间倒序）
+     * <p>启用 {@code lingflow.variable.history.detail-enabled} 时读取 ACT_HI_DETAIL 中的每次更新记录，
+     * 需要运维同时把引擎历史级别调为 full（每次变量更新多写一行明细，全局写入成本较高，默认不开启）。
+     * 未启用或该流程实例没有明细记录时，退回 ACT_HI_VARINST：每个作用域只有一行当前值，
+     * 只能看到变量在各作用域的最后一次取值，没有中间修订（revision 为空）。
+     * 排序和分页均在数据库中完成
+     *
+     * @param processInstanceId 流程实例ID
+     * @param variableName 变量名
+     * @param cursor 上一页返回的游标，首页为空
+     * @param limit 每页数量
+     * @return 修订记录分页
+     */
+    public KeysetPage<VariableRevisionDTO> getVariableRevisions(
+        String processInstanceId,
+        String variableName,
+        String cursor,
+        Integer limit
+    ) {
+        int pageSize = limit == null || limit <= 0 ? historyDefaultLimit : Math.min(limit, historyMaxLimit);
+        String[] cursorKeys = KeysetCursor.decode(cursor, 3);
+        if (cursorKeys == null) {
+            if (historyDetailEnabled) {
+                KeysetPage<VariableRevisionDTO> page =
+                    getDetailRevisions(processInstanceId, variableName, null, null, pageSize);
+                if (!page.getList().isEmpty()) {
+                    return page;
+                }
+            }
+            return getInstanceRevisions(processInstanceId, variableName, null, null, pageSize);
+        }
+
+        Date cursorTime;
+        try {
+            cursorTime = new Date(Long.parseLong(cursorKeys[1]));
+        } catch (NumberFormatException e) {
+            throw new BusinessException("无效的分页游标");
+        }
+        if (REVISION_SOURCE_DETAIL.equals(cursorKeys[0])) {
+            return getDetailRevisions(processInstanceId, variableName, cursorTime, cursorKeys[2], pageSize);
+        }
+        if (REVISION_SOURCE_INSTANCE.equals(cursorKeys[0])) {
+            return getInstanceRevisions(processInstanceId, variableName, cursorTime, cursorKeys[2], pageSize);
+        }
+        throw new BusinessException("无效的分页游标");
+    }
+
+    /**
+     * 从 ACT_HI_DETAIL 读取一页变量更新记录
+     */
+    private KeysetPage<VariableRevisionDTO> getDetailRevisions(
+        String processInstanceId,
+        String variableName,
+        Date cursorTime,
+        String cursorId,
+        int pageSize
+    ) {
+        // 多查一条用于判断是否还有下一页
+        List<HistoricDetail> details = serviceTemplate.execute(
+            "HistoryService.createNativeHistoricDetailQuery",
+            () -> {
+                NativeHistoricDetailQuery query = flowableHistoryService.createNativeHistoricDetailQuery()
+                    .parameter("processInstanceId", processInstanceId)
+                    .parameter("variableName", variableName);
+                String keyset = "";
+                if (cursorTime != null) {
+                    keyset = "AND (TIME_, ID_) < (#{cursorTime}, #{cursorId}) ";
+                    query.parameter("cursorTime", cursorTime).parameter("cursorId", cursorId);
+                }
+                return query.sql("SELECT * FROM ACT_HI_DETAIL "
+                        + "WHERE PROC_INST_ID_ = #{processInstanceId} AND NAME_ = #{variableName} "
+                        + "AND TYPE_ = 'VariableUpdate' " + keyset
+                        + "ORDER BY TIME_ DESC, ID_ DESC")
+                    .listPage(0, pageSize + 1);
+            },
+            processInstanceId, variableName
+        );
+        boolean hasMore = details.size() > pageSize;
+        if (hasMore) {
+            details = details.subList(0, pageSize);
+        }
+
+        List<VariableRevisionDTO> revisions = new ArrayList<>(details.size());
+        for (HistoricDetail detail : details) {
+            HistoricVariableUpdate update = (HistoricVariableUpdate) detail;
+            revisions.add(VariableRevisionDTO.builder()
+                .id(update.getId())
+                .variableName(update.getVariableName())
+                .variableType(update.getVariableTypeName())
+                .revision(update.getRevision())
+                .value(update.getValue())
+                .executionId(update.getExecutionId())
+                .taskId(update.getTaskId())
+                .activityInstanceId(update.getActivityInstanceId())
+                .time(update.getTime())
+                .source(REVISION_SOURCE_DETAIL)
+                .build());
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            HistoricDetail last = details.get(details.size() - 1);
+            nextCursor = KeysetCursor.encode(REVISION_SOURCE_DETAIL, last.getTime().getTime(), last.getId());
+        }
+
+        return KeysetPage.<VariableRevisionDTO>builder()
+            .list(revisions)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    /**
+     * 从 ACT_HI_VARINST 读取一页变量实例（每个作用域的当前值）
+     */
+    private KeysetPage<VariableRevisionDTO> getInstanceRevisions(
+        String processInstanceId,
+        String variableName,
+        Date cursorTime,
+        String cursorId,
+        int pageSize
+    ) {
+        // 多查一条用于判断是否还有下一页
+        List<HistoricVariableInstance> instances = serviceTemplate.execute(
+            "HistoryService.createNativeHistoricVariableInstanceQuery",
+            () -> {
+                NativeHistoricVariableInstanceQuery query = flowableHistoryService
+                    .createNativeHistoricVariableInstanceQuery()
+                    .parameter("processInstanceId", processInstanceId)
+                    .parameter("variableName", variableName);
+                String keyset = "";
+                if (cursorTime != null) {
+                    keyset = "AND (COALESCE(LAST_UPDATED_TIME_, CREATE_TIME_), ID_) < (#{cursorTime}, #{cursorId}) ";
+                    query.parameter("cursorTime", cursorTime).parameter("cursorId", cursorId);
+                }
+                return query.sql("SELECT * FROM ACT_HI_VARINST "
+                        + "WHERE PROC_INST_ID_ = #{processInstanceId} AND NAME_ = #{variableName} " + keyset
+                        + "ORDER BY COALESCE(LAST_UPDATED_TIME_, CREATE_TIME_) DESC, ID_ DESC")
+                    .listPage(0, pageSize + 1);
+            },
+            processInstanceId, variableName
+        );
+        boolean hasMore = instances.size() > pageSize;
+        if (hasMore) {
+            instances = instances.subList(0, pageSize);
+        }
+
+        List<VariableRevisionDTO> revisions = new ArrayList<>(instances.size());
+        for (HistoricVariableInstance instance : instances) {
+            revisions.add(VariableRevisionDTO.builder()
+                .id(instance.getId())
+                .variableName(instance.getVariableName())
+                .variableType(instance.getVariableTypeName())
+                .value(instance.getValue())
+                .executionId(instance.getExecutionId())
+                .taskId(instance.getTaskId())
+                .time(updatedTime(instance))
+                .source(REVISION_SOURCE_INSTANCE)
+                .build());
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            HistoricVariableInstance last = instances.get(instances.size() - 1);
+            nextCursor = KeysetCursor.encode(REVISION_SOURCE_INSTANCE, updatedTime(last).getTime(), last.getId());
+        }
+
+        return KeysetPage.<VariableRevisionDTO>builder()
+            .list(revisions)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    private static Date updatedTime(HistoricVariableInstance instance) {
+        return instance.getLastUpdatedTime() != null ? instance.getLastUpdatedTime() : instance.getCreateTime();
+    }
+
     /**
      * 获取历史任务变量
      *
@@ -294,6 +612,7 @@ public class ProcessVariableService {
 
     /**
      * 更新或插入流程变量
+     * <p>全部变量在一次 setVariables 中写入；值与已有值相同的变量同样写入，保留历史记录与变量事件
      *
      * @param processInstanceId 流程实例ID
      * @param variables 变量Map
@@ -305,35 +624,108 @@ public class ProcessVariableService {
         serviceTemplate.execute(
             "ProcessVariableService.upsertVariables",
             () -> {
-                for (Map.Entry<String, Object> entry : variables.entrySet()) {
-                    Object existingValue = flowableRuntimeService.getVariable(
-                        processInstanceId,
-                        entry.getKey()
-                    );
-                    if (existingValue != null) {
-                        // 更新现有变量
-                        flowableRuntimeService.setVariable(
-                            processInstanceId,
-                            entry.getKey(),
-                            entry.getValue()
-                        );
-                        log.debug("更新流程变量 - 名称: {}, 值: {}", entry.getKey(), entry.getValue());
-                    } else {
-                        // 插入新变量
-                        flowableRuntimeService.setVariable(
-                            processInstanceId,
-                            entry.getKey(),
-                            entry.getValue()
-                        );
-                        log.debug("插入流程变量 - 名称: {}, 值: {}", entry.getKey(), entry.getValue());
-                    }
-                }
+                flowableRuntimeService.setVariables(processInstanceId, variables);
+                log.debug("更新或插入流程变量 - 流程实例ID: {}, 数量: {}", processInstanceId, variables.size());
                 return null;
             },
             processInstanceId, variables
         );
     }
 
+    /**
+     * 批量获取多个流程实例的变量
+     * <p>按 instancesPerQuery 分批，每批一条变量查询，不逐个实例调用引擎
+     *
+     * @param processInstanceIds 流程实例ID集合
+     * @param variableNames 变量名集合（为空则返回全部流程级变量）
+     * @return 流程实例ID → 变量Map（实例不存在或没有变量时不包含该实例）
+     */
+    public Map<String, Map<String, Object>> getProcessInstanceVariables(
+        Collection<String> processInstanceIds,
+        Collection<String> variableNames
+    ) {
+        return serviceTemplate.execute(
+            "ProcessVariableService.batchGetVariables",
+            () -> {
+                Set<String> names = variableNames != null && !variableNames.isEmpty()
+                    ? new HashSet<>(variableNames) : null;
+                Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+                for (List<String> chunk : chunk(new ArrayList<>(new LinkedHashSet<>(processInstanceIds)), instancesPerQuery)) {
+                    // 流程级变量挂在流程实例的根执行上（执行ID即流程实例ID）
+                    VariableInstanceQuery query = flowableRuntimeService.createVariableInstanceQuery()
+                        .executionIds(new HashSet<>(chunk))
+                        .excludeTaskVariables();
+                    if (names != null && names.size() == 1) {
+                        query.variableName(names.iterator().next());
+                    }
+                    for (VariableInstance variable : query.list()) {
+                        if (names == null || names.contains(variable.getName())) {
+                            result.computeIfAbsent(variable.getExecutionId(), id -> new HashMap<>())
+                                .put(variable.getName(), variable.getValue());
+                        }
+                    }
+                }
+                return result;
+            },
+            processInstanceIds, variableNames
+        );
+    }
+
+    /**
+     * 批量设置多个流程实例的变量
+     * <p>先按批查询实例是否存在，再按 instancesPerCommand 分批，每批在一个引擎命令（一个事务）中写入
+     *
+     * @param variablesByInstance 流程实例ID → 变量Map
+     * @return 批量设置结果
+     */
+    public VariableBatchResult setProcessInstanceVariables(
+        Map<String, Map<String, Object>> variablesByInstance
+    ) {
+        return serviceTemplate.execute(
+            "ProcessVariableService.batchSetVariables",
+            () -> {
+                List<String> instanceIds = new ArrayList<>(variablesByInstance.keySet());
+                Set<String> existing = new HashSet<>();
+                for (List<String> chunk : chunk(instanceIds, instancesPerQuery)) {
+                    for (ProcessInstance instance : flowableRuntimeService.createProcessInstanceQuery()
+                            .processInstanceIds(new HashSet<>(chunk))
+                            .list()) {
+                        existing.add(instance.getId());
+                    }
+                }
+
+                List<String> targets = new ArrayList<>();
+                List<String> missing = new ArrayList<>();
+                for (String instanceId : instanceIds) {
+                    (existing.contains(instanceId) ? targets : missing).add(instanceId);
+                }
+
+                int updatedVariables = 0;
+                for (List<String> chunk : chunk(targets, instancesPerCommand)) {
+                    // 同一命令内的引擎调用复用命令上下文，整批一次刷新、一次提交
+                    flowableManagementService.executeCommand(commandContext -> {
+                        for (String instanceId : chunk) {
+                            flowableRuntimeService.setVariables(instanceId, variablesByInstance.get(instanceId));
+                        }
+                        return null;
+                    });
+                    for (String instanceId : chunk) {
+                        updatedVariables += variablesByInstance.get(instanceId).size();
+                    }
+                }
+
+                log.info("批量设置流程变量 - 实例数: {}, 变量数: {}, 不存在的实例数: {}",
+                    targets.size(), updatedVariables, missing.size());
+                return VariableBatchResult.builder()
+                    .updatedInstances(targets.size())
+                    .updatedVariables(updatedVariables)
+                    .missingProcessInstanceIds(missing)
+                    .build();
+            },
+            variablesByInstance.keySet()
+        );
+    }
+
     /**
      * 复制流程变量
      *
@@ -441,29 +833,13 @@ public class ProcessVariableService {
     /**
      * 获取变量历史（别名方法）
      */
-    public java.util.List<HistoricVariableInstance> getVariableHistory(
+    public KeysetPage<VariableRevisionDTO> getVariableHistory(
         String processInstanceId,
-        String variableName
+        String variableName,
+        String cursor,
+        Integer limit
     ) {
-        return serviceTemplate.execute(
-            "HistoryService.createHistoricVariableInstanceQuery",
-            () -> {
-                java.util.List<HistoricVariableInstance> list = flowableHistoryService
-                    .createHistoricVariableInstanceQuery()
-                    .processInstanceId(processInstanceId)
-                    .variableName(variableName)
-                    .list();
-                // 手动排序（按更新时间倒序）
-                return list.stream()
-                    .sorted((a, b) -> {
-                        if (a.getCreateTime() == null) return 1;
-                        if (b.getCreateTime() == null) return -1;
-                        return b.getCreateTime().compareTo(a.getCreateTime());
-                    })
-                    .collect(java.util.stream.Collectors.toList());
-            },
-            processInstanceId, variableName
-        );
+        return getVariableRevisions(processInstanceId, variableName, cursor, limit);
     }
 
     /**
@@ -480,4 +856,50 @@ public class ProcessVariableService {
             variableNames != null ? variableNames.toArray(new String[0]) : null
         );
     }
+
+    /**
+     * 按指定大小拆分列表
+     */
+    private static <T> List<List<T>> chunk(List<T> list, int size) {
+        int chunkSize = Math.max(1, size);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += chunkSize) {
+            chunks.add(list.subList(from, Math.min(from + chunkSize, list.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * 标记超过内联加载上限的变量
+     */
+    private List<VariableMetaDTO> markLarge(List<VariableMetaDTO> metas) {
+        for (VariableMetaDTO meta : metas) {
+            meta.setLarge(meta.getSize() != null && meta.getSize() > inlineValueMaxBytes);
+        }
+        return metas;
+    }
+
+    /**
+     * 未超过内联加载上限的变量名
+     */
+    private static List<String> inlineNames(List<VariableMetaDTO> metas) {
+        List<String> names = new ArrayList<>();
+        for (VariableMetaDTO meta : metas) {
+            if (!Boolean.TRUE.equals(meta.getLarge())) {
+                names.add(meta.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 填充变量值
+     */
+    private static void fillValues(List<VariableMetaDTO> metas, Map<String, Object> values) {
+        for (VariableMetaDTO meta : metas) {
+            if (!Boolean.TRUE.equals(meta.getLarge())) {
+                meta.setValue(values.get(meta.getName()));
+            }
+        }
+    }
 }
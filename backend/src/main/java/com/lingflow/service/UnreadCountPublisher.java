@@ -0,0 +1,342 @@
+package com.lingflow.service;
+
+import com.lingflow.util.JsonUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * 未读通知数量推送（SSE）
+ *
+ * <p>浏览器通过 SSE 订阅未读数量，通知新增、单条已读、全部已读时推送最新数量，
+ * 取代前端定时轮询。
+ *
+ * <p>推送的数量读取自 {@link NotificationUnreadCounter}（计数表 + 缓存），
+ * 在事务提交后推送，回滚的事务不会推送。
+ *
+ * <p>SSE 连接只保存在建立连接的节点上。多节点部署时，提交后同时通过 PostgreSQL NOTIFY 广播变化，
+ * 每个节点占用一个数据库连接 LISTEN 广播频道：收到其他节点的广播后使本节点的未读数量缓存失效，
+ * 并推送给本节点上该用户的连接。监听连接断开时定时重连。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class UnreadCountPublisher {
+
+    /**
+     * SSE 事件名称
+     */
+    public static final String EVENT_NAME = "unread-count";
+
+    /**
+     * 节点间广播频道
+     */
+    public static final String CHANNEL = "lf_unread_count";
+
+    /**
+     * 每条广播的用户数量（NOTIFY 载荷上限 8000 字节）
+     */
+    private static final int USERS_PER_NOTIFY = 50;
+
+    /**
+     * 监听等待广播的超时时间（毫秒）
+     */
+    private static final int LISTEN_TIMEOUT_MS = 10_000;
+
+    /**
+     * 监听连接断开后的重连间隔（毫秒）
+     */
+    private static final long RECONNECT_DELAY_MS = 5_000;
+
+    @Autowired
+    private NotificationUnreadCounter unreadCounter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * 是否通过数据库广播未读数量变化（多节点部署）
+     */
+    @Value("${lingflow.notification.sse.cluster-enabled:true}")
+    private boolean clusterEnabled;
+
+    /**
+     * SSE 连接超时时间（毫秒），超时后浏览器自动重连
+     */
+    @Value("${lingflow.notification.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点标识（忽略本节点发出的广播）
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean listening;
+
+    private Thread listener;
+
+    /**
+     * 启动广播监听
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListener() {
+        if (!clusterEnabled) {
+            return;
+        }
+        listening = true;
+        listener = new Thread(this::listen, "unread-count-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stopListener() {
+        listening = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * 订阅用户未读数量（连接建立后立即推送当前数量）
+     *
+     * @param userId 用户ID
+     * @return SSE 连接
+     */
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitters.computeIfAbsent(userId, key -> new CopyOnWriteArraySet<>()).add(emitter);
+        emitter.onCompletion(() -> unsubscribe(userId, emitter));
+        emitter.onTimeout(() -> unsubscribe(userId, emitter));
+        emitter.onError(e -> unsubscribe(userId, emitter));
+
+        send(userId, emitter, unreadCounter.get(userId), 0);
+        log.debug("订阅未读数量: userId={}, connections={}", userId, emitters.get(userId).size());
+        return emitter;
+    }
+
+    /**
+     * 推送未读数量变化（存在事务时于提交后推送，需在计数器更新之后调用）
+     *
+     * @param userId 用户ID
+     * @param delta 变化量（新增为正，已读为负）
+     */
+    public void publish(String userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    push(userId, delta);
+                    broadcast(Map.of(userId, delta));
+                }
+            });
+        } else {
+            push(userId, delta);
+            broadcast(Map.of(userId, delta));
+        }
+    }
+
+    /**
+     * 批量推送多个用户的未读数量变化（存在事务时于提交后推送）
+     *
+     * @param deltas 用户ID → 变化量
+     */
+    public void publishAll(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deltas.forEach(UnreadCountPublisher.this::push);
+                    broadcast(deltas);
+                }
+            });
+        } else {
+            deltas.forEach(this::push);
+            broadcast(deltas);
+        }
+    }
+
+    /**
+     * 心跳：保持连接不被代理关闭，同时清理已断开的连接
+     */
+    @Scheduled(fixedDelayString = "${lingflow.notification.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        emitters.forEach((userId, userEmitters) -> {
+            for (SseEmitter emitter : userEmitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(userId, emitter);
+                }
+            }
+        });
+    }
+
+    /**
+     * 处理其他节点的广播：使本节点缓存失效并推送给本节点的连接
+     *
+     * @param payload 广播内容
+     */
+    void onBroadcast(String payload) {
+        UnreadBroadcast broadcast = JsonUtil.fromJson(payload, UnreadBroadcast.class);
+        if (broadcast == null || broadcast.getDeltas() == null || nodeId.equals(broadcast.getNode())) {
+            return;
+        }
+        broadcast.getDeltas().forEach((userId, delta) -> {
+            unreadCounter.invalidate(userId);
+            push(userId, delta);
+        });
+    }
+
+    // ============ 私有辅助方法 ============
+
+    private void broadcast(Map<String, Long> deltas) {
+        if (!clusterEnabled) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            Map<String, Long> chunk = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                chunk.put(delta.getKey(), delta.getValue());
+                if (chunk.size() == USERS_PER_NOTIFY) {
+                    sendNotify(statement, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                sendNotify(statement, chunk);
+            }
+        } catch (SQLException e) {
+            log.warn("广播未读数量变化失败: users={}, error={}", deltas.size(), e.getMessage());
+        }
+    }
+
+    private void sendNotify(PreparedStatement statement, Map<String, Long> deltas) throws SQLException {
+        UnreadBroadcast broadcast = new UnreadBroadcast();
+        broadcast.setNode(nodeId);
+        broadcast.setDeltas(deltas);
+        statement.setString(1, CHANNEL);
+        statement.setString(2, JsonUtil.toJson(broadcast));
+        statement.execute();
+    }
+
+    private void listen() {
+        while (listening) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                try {
+                    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                    log.info("监听未读数量广播: channel={}", CHANNEL);
+                    while (listening) {
+                        PGNotification[] notifications = pgConnection.getNotifications(LISTEN_TIMEOUT_MS);
+                        if (notifications != null) {
+                            for (PGNotification notification : notifications) {
+                                onBroadcast(notification.getParameter());
+                            }
+                        }
+                    }
+                } finally {
+                    // 连接归还连接池前取消监听，避免闲置连接积压广播
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("UNLISTEN *");
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!listening) {
+                    return;
+                }
+                log.warn("未读数量广播监听断开，{}ms 后重连: {}", RECONNECT_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void push(String userId, long delta) {
+        Set<SseEmitter> userEmitters = emitters.get(userId);
+        if (userEmitters == null) {
+            return;
+        }
+        long count = unreadCounter.get(userId);
+        for (SseEmitter emitter : userEmitters) {
+            send(userId, emitter, count, delta);
+        }
+    }
+
+    private void send(String userId, SseEmitter emitter, long count, long delta) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("count", count);
+        data.put("delta", delta);
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("推送未读数量失败，关闭连接: userId={}", userId);
+            unsubscribe(userId, emitter);
+        }
+    }
+
+    private void unsubscribe(String userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (key, userEmitters) -> {
+            userEmitters.remove(emitter);
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+
+    /**
+     * 节点间广播内容
+     */
+    @Data
+    public static class UnreadBroadcast {
+        /**
+         * 发出广播的节点
+         */
+        private String node;
+
+        /**
+         * 用户ID → 变化量
+         */
+        private Map<String, Long> deltas;
+    }
+}
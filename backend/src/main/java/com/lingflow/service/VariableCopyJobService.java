@@ -0,0 +1,453 @@
+package com.lingflow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.lingflow.dto.BatchJobProgressDTO;
+import com.lingflow.dto.KeysetPage;
+import com.lingflow.entity.BatchJob;
+import com.lingflow.entity.BatchJobItem;
+import com.lingflow.exception.BusinessException;
+import com.lingflow.metrics.BatchJobMetrics;
+import com.lingflow.util.JsonUtil;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.RuntimeService;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 批量复制流程变量任务
+ *
+ * <p>把一个源流程实例的变量（全部或指定变量）复制到大量目标流程实例：
+ * 提交时读取一次源变量并序列化为快照保存在任务参数中，目标按分块在一个引擎命令（事务）内写入，
+ * 每个分块完成后记录进度与逐项结果；目标实例不存在时该项记为失败，不影响同一分块的其他目标。
+ * 分块命令失败时逐项写入，只有出错的目标记为失败。
+ *
+ * <p>进度无法记录时任务停止并保留续跑位置，续跑时从下一个未完成的分块继续，仍复制提交时的快照：
+ * 失败前后的目标得到同一份变量，源实例在续跑前结束也不影响续跑。
+ * 写入成功但进度未记录的分块（节点在两者之间停止）续跑时会再写一次，变量写入是幂等的。
+ *
+ * <p>快照以 JSON 保存变量名、类型名与文本值，不使用 Java 反序列化，任务参数被篡改也无法实例化任意类。
+ * 支持字符串、数值、布尔、日期时间、UUID、BigDecimal、字节数组、JSON 以及可转为 JSON 的 Map/List
+ * （Map/List 按 JSON 复制，元素类型以 JSON 解析结果为准），其他类型的变量在提交时拒绝。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class VariableCopyJobService {
+
+    public static final String JOB_TYPE = "VARIABLE_COPY";
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private BatchJobService batchJobService;
+
+    @Autowired
+    private BatchJobMetrics metrics;
+
+    /**
+     * 每个引擎命令（事务）写入的目标实例数
+     */
+    @Value("${lingflow.variable.copy-job.chunk-size:100}")
+    private int chunkSize;
+
+    /**
+     * 单个任务的目标实例数上限
+     */
+    @Value("${lingflow.variable.copy-job.max-targets:100000}")
+    private int maxTargets;
+
+    /**
+     * 提交批量复制任务
+     *
+     * @param sourceProcessInstanceId 源流程实例ID
+     * @param variableNames 要复制的变量名（为空则复制全部流程实例级变量）
+     * @param targetProcessInstanceIds 目标流程实例ID（重复的只处理一次）
+     * @param userId 操作人
+     * @return 任务进度（含任务ID）
+     */
+    public BatchJobProgressDTO submit(String sourceProcessInstanceId, List<String> variableNames,
+                                      List<String> targetProcessInstanceIds, String userId) {
+        if (sourceProcessInstanceId == null || sourceProcessInstanceId.isBlank()) {
+            throw new BusinessException("源流程实例ID不能为空");
+        }
+        Set<String> targets = new LinkedHashSet<>();
+        if (targetProcessInstanceIds != null) {
+            for (String targetId : targetProcessInstanceIds) {
+                if (targetId != null && !targetId.isBlank() && !targetId.equals(sourceProcessInstanceId)) {
+                    targets.add(targetId);
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            throw new BusinessException("目标流程实例不能为空");
+        }
+        if (targets.size() > maxTargets) {
+            throw new BusinessException("目标流程实例数量超过上限: " + maxTargets);
+        }
+        if (runtimeService.createProcessInstanceQuery().processInstanceId(sourceProcessInstanceId).count() == 0) {
+            throw new BusinessException("源流程实例不存在: " + sourceProcessInstanceId);
+        }
+
+        // 提交时读取源变量快照，所有分块与续跑都复制同一份
+        Map<String, Object> variables = variableNames == null || variableNames.isEmpty()
+                ? runtimeService.getVariables(sourceProcessInstanceId)
+                : runtimeService.getVariables(sourceProcessInstanceId, variableNames);
+        if (variables.isEmpty()) {
+            throw new BusinessException("源流程实例没有可复制的变量");
+        }
+
+        CopyParams params = new CopyParams();
+        params.setSourceProcessInstanceId(sourceProcessInstanceId);
+        params.setVariableNames(variableNames == null || variableNames.isEmpty() ? null : variableNames);
+        params.setVariables(serializeVariables(variables));
+        List<BatchJobItem> items = new ArrayList<>(targets.size());
+        for (String targetId : targets) {
+            BatchJobItem item = new BatchJobItem();
+            item.setItemKey(targetId);
+            items.add(item);
+        }
+
+        BatchJob job = batchJobService.create(JOB_TYPE, JsonUtil.toJson(params), items, userId);
+        batchJobService.submit(job.getJobId(), () -> run(job.getJobId()));
+        return BatchJobService.toProgress(job);
+    }
+
+    /**
+     * 续跑失败或中断的任务
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    public BatchJobProgressDTO resume(String jobId) {
+        BatchJob job = batchJobService.requireJob(jobId, JOB_TYPE);
+        batchJobService.checkResumable(job);
+        batchJobService.submit(jobId, () -> run(jobId));
+        return BatchJobService.toProgress(job);
+    }
+
+    /**
+     * 查询任务进度
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    public BatchJobProgressDTO getProgress(String jobId) {
+        return batchJobService.getProgress(jobId, JOB_TYPE);
+    }
+
+    /**
+     * 按游标分页查询任务明细
+     *
+     * @param jobId 任务ID
+     * @param status 状态（可选）
+     * @param cursor 游标
+     * @param limit 每页数量
+     * @return 明细分页
+     */
+    public KeysetPage<BatchJobItem> getItems(String jobId, String status, String cursor, Integer limit) {
+        return batchJobService.getItems(jobId, JOB_TYPE, status, cursor, limit);
+    }
+
+    /**
+     * 执行任务：从续跑位置开始按分块复制
+     *
+     * @param jobId 任务ID
+     */
+    void run(String jobId) {
+        BatchJob job = batchJobService.claim(jobId);
+        if (job == null) {
+            log.debug("批量复制任务不可执行，跳过: jobId={}", jobId);
+            return;
+        }
+        try {
+            CopyParams params = JsonUtil.fromJson(job.getParams(), CopyParams.class);
+            if (params == null) {
+                throw new BusinessException("任务参数无法读取，请重新提交任务");
+            }
+            Map<String, Object> variables = deserializeVariables(params.getVariables());
+
+            int cursor = job.getCursorSeq();
+            List<BatchJobItem> chunk;
+            while (!(chunk = batchJobService.nextChunk(jobId, cursor, chunkSize)).isEmpty()) {
+                long start = System.nanoTime();
+                List<BatchJobItem> results = copyChunk(chunk, variables);
+                batchJobService.recordChunk(jobId, job.getRunToken(), results);
+                int success = (int) results.stream()
+                        .filter(item -> BatchJobItem.STATUS_SUCCESS.equals(item.getStatus())).count();
+                metrics.recordChunk(JOB_TYPE, success, 0, results.size() - success, System.nanoTime() - start);
+                cursor = chunk.get(chunk.size() - 1).getSeq();
+            }
+            batchJobService.complete(jobId, job.getRunToken());
+            log.info("批量复制流程变量完成: jobId={}, source={}, variables={}",
+                    jobId, params.getSourceProcessInstanceId(), variables.size());
+        } catch (Exception e) {
+            log.error("批量复制流程变量失败: jobId={}", jobId, e);
+            batchJobService.fail(jobId, job.getRunToken(), e.getMessage());
+        }
+    }
+
+    /**
+     * 复制一个分块：一次查询确认目标存在，一个引擎命令写入全部存在的目标，失败时逐项写入以定位出错的目标
+     * <p>逐项写入时任何运行时异常（如目标实例已挂起、在查询后结束）只让该目标失败，
+     * 否则同一个坏目标会让任务在每次续跑时都失败
+     */
+    private List<BatchJobItem> copyChunk(List<BatchJobItem> chunk, Map<String, Object> variables) {
+        Set<String> keys = new HashSet<>();
+        for (BatchJobItem item : chunk) {
+            keys.add(item.getItemKey());
+        }
+        Set<String> existing = new HashSet<>();
+        for (ProcessInstance instance : runtimeService.createProcessInstanceQuery().processInstanceIds(keys).list()) {
+            existing.add(instance.getId());
+        }
+
+        try {
+            managementService.executeCommand(commandContext -> {
+                for (BatchJobItem item : chunk) {
+                    if (existing.contains(item.getItemKey())) {
+                        runtimeService.setVariables(item.getItemKey(), variables);
+                    }
+                }
+                return null;
+            });
+            for (BatchJobItem item : chunk) {
+                if (existing.contains(item.getItemKey())) {
+                    item.setStatus(BatchJobItem.STATUS_SUCCESS);
+                } else {
+                    markMissing(item);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("分块复制失败，逐项重试: size={}, error={}", chunk.size(), e.getMessage());
+            for (BatchJobItem item : chunk) {
+                if (!existing.contains(item.getItemKey())) {
+                    markMissing(item);
+                    continue;
+                }
+                try {
+                    managementService.executeCommand(commandContext -> {
+                        runtimeService.setVariables(item.getItemKey(), variables);
+                        return null;
+                    });
+                    item.setStatus(BatchJobItem.STATUS_SUCCESS);
+                } catch (RuntimeException itemError) {
+                    item.setStatus(BatchJobItem.STATUS_FAILED);
+                    item.setMessage(itemError.getMessage());
+                }
+            }
+        }
+        return chunk;
+    }
+
+    private static void markMissing(BatchJobItem item) {
+        item.setStatus(BatchJobItem.STATUS_FAILED);
+        item.setMessage("流程实例不存在");
+    }
+
+    /**
+     * 序列化变量快照（变量名 + 类型名 + 文本值）
+     */
+    static List<TypedVariable> serializeVariables(Map<String, Object> variables) {
+        List<TypedVariable> snapshot = new ArrayList<>(variables.size());
+        for (Map.Entry<String, Object> variable : variables.entrySet()) {
+            Object value = variable.getValue();
+            String type = typeOf(value);
+            if (type == null) {
+                throw new BusinessException("变量类型不支持批量复制: " + variable.getKey()
+                        + " (" + value.getClass().getName() + ")");
+            }
+            String text = encode(type, value);
+            if (value != null && text == null) {
+                throw new BusinessException("变量无法转为 JSON: " + variable.getKey());
+            }
+            snapshot.add(new TypedVariable(variable.getKey(), type, text));
+        }
+        return snapshot;
+    }
+
+    static Map<String, Object> deserializeVariables(List<TypedVariable> snapshot) {
+        if (snapshot == null || snapshot.isEmpty()) {
+            throw new BusinessException("任务缺少源变量快照");
+        }
+        Map<String, Object> variables = new LinkedHashMap<>();
+        for (TypedVariable variable : snapshot) {
+            try {
+                variables.put(variable.getName(), decode(variable.getType(), variable.getValue()));
+            } catch (RuntimeException e) {
+                throw new BusinessException("源变量快照无法读取: " + variable.getName() + ", " + e.getMessage());
+            }
+        }
+        return variables;
+    }
+
+    private static String typeOf(Object value) {
+        if (value == null) {
+            return "null";
+        } else if (value instanceof String) {
+            return "string";
+        } else if (value instanceof Integer) {
+            return "integer";
+        } else if (value instanceof Long) {
+            return "long";
+        } else if (value instanceof Short) {
+            return "short";
+        } else if (value instanceof Double) {
+            return "double";
+        } else if (value instanceof Boolean) {
+            return "boolean";
+        } else if (value instanceof Date) {
+            return "date";
+        } else if (value instanceof LocalDate) {
+            return "localdate";
+        } else if (value instanceof LocalDateTime) {
+            return "localdatetime";
+        } else if (value instanceof Instant) {
+            return "instant";
+        } else if (value instanceof UUID) {
+            return "uuid";
+        } else if (value instanceof BigDecimal) {
+            return "bigdecimal";
+        } else if (value instanceof byte[]) {
+            return "bytes";
+        } else if (value instanceof JsonNode) {
+            return "json";
+        } else if (value instanceof Map) {
+            return "map";
+        } else if (value instanceof List) {
+            return "list";
+        }
+        return null;
+    }
+
+    private static String encode(String type, Object value) {
+        switch (type) {
+            case "null":
+                return null;
+            case "date":
+                return String.valueOf(((Date) value).getTime());
+            case "bytes":
+                return Base64.getEncoder().encodeToString((byte[]) value);
+            case "map":
+            case "list":
+                return JsonUtil.toJson(value);
+            default:
+                return value.toString();
+        }
+    }
+
+    private static Object decode(String type, String text) {
+        if ("null".equals(type)) {
+            return null;
+        }
+        if (text == null) {
+            throw new IllegalArgumentException("缺少变量值");
+        }
+        switch (String.valueOf(type)) {
+            case "string":
+                return text;
+            case "integer":
+                return Integer.valueOf(text);
+            case "long":
+                return Long.valueOf(text);
+            case "short":
+                return Short.valueOf(text);
+            case "double":
+                return Double.valueOf(text);
+            case "boolean":
+                return Boolean.valueOf(text);
+            case "date":
+                return new Date(Long.parseLong(text));
+            case "localdate":
+                return LocalDate.parse(text);
+            case "localdatetime":
+                return LocalDateTime.parse(text);
+            case "instant":
+                return Instant.parse(text);
+            case "uuid":
+                return UUID.fromString(text);
+            case "bigdecimal":
+                return new BigDecimal(text);
+            case "bytes":
+                return Base64.getDecoder().decode(text);
+            case "json":
+                return readJson(text, JsonNode.class);
+            case "map":
+                return readJson(text, LinkedHashMap.class);
+            case "list":
+                return readJson(text, ArrayList.class);
+            default:
+                throw new IllegalArgumentException("未知变量类型 " + type);
+        }
+    }
+
+    private static <T> T readJson(String text, Class<T> type) {
+        try {
+            return JsonUtil.getObjectMapper().readValue(text, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * 批量复制任务参数
+     */
+    @Data
+    public static class CopyParams {
+        /**
+         * 源流程实例ID
+         */
+        private String sourceProcessInstanceId;
+
+        /**
+         * 要复制的变量名（为空则复制全部）
+         */
+        private List<String> variableNames;
+
+        /**
+         * 提交时的源变量快照
+         */
+        private List<TypedVariable> variables;
+    }
+
+    /**
+     * 变量快照条目
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TypedVariable {
+        /**
+         * 变量名
+         */
+        private String name;
+
+        /**
+         * 类型名（string/long/date/json/map 等）
+         */
+        private String type;
+
+        /**
+         * 文本值（null 类型为空）
+         */
+        private String value;
+    }
+}
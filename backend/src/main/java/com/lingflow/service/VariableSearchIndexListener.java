@@ -0,0 +1,86 @@
+package com.lingflow.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.flowable.common.engine.api.delegate.event.FlowableEngineEvent;
+import org.flowable.common.engine.api.delegate.event.FlowableEngineEventType;
+import org.flowable.common.engine.api.delegate.event.FlowableEvent;
+import org.flowable.common.engine.api.delegate.event.FlowableEventListener;
+import org.flowable.engine.RuntimeService;
+import org.flowable.variable.api.event.FlowableVariableEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 变量查找表维护监听器
+ *
+ * <p>注册为 Flowable 全局事件监听器，变量事件在引擎命令的事务内同步处理，
+ * 查找表与变量数据一起提交或回滚。只处理流程实例级变量（任务本地变量和子执行变量不参与查找）。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Component
+public class VariableSearchIndexListener implements FlowableEventListener {
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private VariableSearchService variableSearchService;
+
+    @PostConstruct
+    public void register() {
+        runtimeService.addEventListener(this,
+                FlowableEngineEventType.VARIABLE_CREATED,
+                FlowableEngineEventType.VARIABLE_UPDATED,
+                FlowableEngineEventType.VARIABLE_DELETED,
+                FlowableEngineEventType.PROCESS_COMPLETED,
+                FlowableEngineEventType.PROCESS_COMPLETED_WITH_TERMINATE_END_EVENT,
+                FlowableEngineEventType.PROCESS_COMPLETED_WITH_ERROR_END_EVENT,
+                FlowableEngineEventType.PROCESS_CANCELLED);
+    }
+
+    @Override
+    public void onEvent(FlowableEvent event) {
+        if (event instanceof FlowableVariableEvent variableEvent) {
+            if (variableEvent.getTaskId() != null || variableEvent.getProcessInstanceId() == null
+                    || !variableEvent.getProcessInstanceId().equals(variableEvent.getExecutionId())) {
+                return;
+            }
+            if (event.getType() == FlowableEngineEventType.VARIABLE_DELETED) {
+                variableSearchService.onVariableDeleted(variableEvent.getProcessDefinitionId(),
+                        variableEvent.getProcessInstanceId(), variableEvent.getVariableName());
+            } else {
+                variableSearchService.onVariableSet(variableEvent.getProcessDefinitionId(),
+                        variableEvent.getProcessInstanceId(), variableEvent.getVariableName(),
+                        variableEvent.getVariableValue());
+            }
+        } else if (event instanceof FlowableEngineEvent engineEvent
+                && engineEvent.getProcessInstanceId() != null
+                && engineEvent.getProcessInstanceId().equals(engineEvent.getExecutionId())) {
+            // 只在流程实例本身（含调用活动启动的子流程实例）结束时清理
+            variableSearchService.onProcessEnded(engineEvent.getProcessDefinitionId(),
+                    engineEvent.getProcessInstanceId());
+        }
+    }
+
+    /**
+     * 查找表与变量在同一事务中，写入失败时回滚整个引擎命令，避免查找表与变量不一致
+     */
+    @Override
+    public boolean isFailOnException() {
+        return true;
+    }
+
+    @Override
+    public boolean isFireOnTransactionLifecycleEvent() {
+        return false;
+    }
+
+    @Override
+    public String getOnTransaction() {
+        return null;
+    }
+}
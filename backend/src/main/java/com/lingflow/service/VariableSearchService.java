@@ -0,0 +1,319 @@
+package com.lingflow.service;
+
+import com.lingflow.dto.VariableSearchHitDTO;
+import com.lingflow.entity.SearchableVariable;
+import com.lingflow.exception.BusinessException;
+import com.lingflow.mapper.SearchableVariableMapper;
+import com.lingflow.mapper.VariableSearchIndexMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.flowable.engine.RepositoryService;
+import org.flowable.engine.repository.ProcessDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 可搜索变量服务
+ *
+ * <p>管理员按流程定义Key标记可搜索的变量名，流程实例级变量变更时由
+ * {@link VariableSearchIndexListener} 在引擎事务内维护 lf_variable_search_index 查找表，
+ * 业务字段（订单号、申请人ID等）按精确值或前缀查找流程实例时只查询该表的索引。
+ *
+ * <p>配置保存在内存快照中，变更后立即刷新，并定时刷新以同步其他节点的修改。
+ * 其他节点新增的配置在本节点刷新前，本节点设置的变量不会写入查找表，
+ * 因此定时刷新发现新增的 (流程定义Key, 变量名) 时在切换快照后再回填一次。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+@Service
+public class VariableSearchService {
+
+    /**
+     * 查找表中值的最大长度（与表字段长度一致）
+     */
+    static final int MAX_VALUE_LENGTH = 255;
+
+    @Autowired
+    private SearchableVariableMapper searchableVariableMapper;
+
+    @Autowired
+    private VariableSearchIndexMapper searchIndexMapper;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    /**
+     * 查找默认返回数量
+     */
+    @Value("${lingflow.variable.search.default-limit:50}")
+    private int defaultLimit;
+
+    /**
+     * 查找返回数量上限
+     */
+    @Value("${lingflow.variable.search.max-limit:500}")
+    private int maxLimit;
+
+    /**
+     * 流程定义Key → 可搜索变量名
+     */
+    private volatile Map<String, Set<String>> searchable = Collections.emptyMap();
+
+    /**
+     * 是否已完成首次加载（首次加载不回填，新增配置时已由新增节点回填）
+     */
+    private boolean loaded;
+
+    /**
+     * 流程定义ID → 流程定义Key（流程定义ID不可变，缓存后无需失效）
+     */
+    private final Map<String, String> definitionKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 重新加载可搜索变量配置，并回填快照中新出现的可搜索变量
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${lingflow.variable.search.refresh-ms:60000}")
+    public synchronized void reload() {
+        Map<String, Set<String>> previous = searchable;
+        Map<String, Set<String>> next = new HashMap<>();
+        for (SearchableVariable config : searchableVariableMapper.selectList(null)) {
+            next.computeIfAbsent(config.getProcessDefinitionKey(), key -> new HashSet<>())
+                    .add(config.getVariableName());
+        }
+        searchable = next;
+        if (!loaded) {
+            loaded = true;
+            return;
+        }
+
+        // 先切换快照使监听器开始维护，再回填刷新前本节点设置的变量
+        next.forEach((processDefinitionKey, names) -> {
+            Set<String> known = previous.getOrDefault(processDefinitionKey, Collections.emptySet());
+            for (String variableName : names) {
+                if (!known.contains(variableName)) {
+                    int backfilled = searchIndexMapper.backfill(processDefinitionKey, variableName, MAX_VALUE_LENGTH);
+                    log.info("同步新增的可搜索变量并回填: key={}, name={}, backfilled={}",
+                            processDefinitionKey, variableName, backfilled);
+                }
+            }
+        });
+    }
+
+    /**
+     * 查询可搜索变量配置
+     *
+     * @param processDefinitionKey 流程定义Key（可选）
+     * @return 配置列表
+     */
+    public List<SearchableVariable> listSearchableVariables(String processDefinitionKey) {
+        return searchableVariableMapper.selectList(
+                new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<SearchableVariable>()
+                        .eq(processDefinitionKey != null, SearchableVariable::getProcessDefinitionKey, processDefinitionKey)
+                        .orderByAsc(SearchableVariable::getProcessDefinitionKey, SearchableVariable::getVariableName));
+    }
+
+    /**
+     * 标记可搜索变量，并按运行中流程实例的现有值回填查找表
+     *
+     * @param processDefinitionKey 流程定义Key
+     * @param variableName 变量名
+     * @param userId 操作人
+     * @return 回填的流程实例数量
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int addSearchableVariable(String processDefinitionKey, String variableName, String userId) {
+        if (processDefinitionKey == null || processDefinitionKey.isBlank()
+                || variableName == null || variableName.isBlank()) {
+            throw new BusinessException("流程定义Key和变量名不能为空");
+        }
+        if (searchableVariableMapper.findByKeyAndName(processDefinitionKey, variableName) != null) {
+            throw new BusinessException("变量已配置为可搜索: " + processDefinitionKey + "." + variableName);
+        }
+
+        SearchableVariable config = new SearchableVariable();
+        config.setProcessDefinitionKey(processDefinitionKey);
+        config.setVariableName(variableName);
+        config.setCreateBy(userId);
+        config.setCreateTime(LocalDateTime.now());
+        searchableVariableMapper.insert(config);
+
+        // 先加入本节点快照（监听器开始维护），再回填现有值，刷新时不再重复回填
+        synchronized (this) {
+            Map<String, Set<String>> next = new HashMap<>(searchable);
+            Set<String> names = new HashSet<>(next.getOrDefault(processDefinitionKey, Collections.emptySet()));
+            names.add(variableName);
+            next.put(processDefinitionKey, names);
+            searchable = next;
+        }
+        int backfilled = searchIndexMapper.backfill(processDefinitionKey, variableName, MAX_VALUE_LENGTH);
+        reload();
+        log.info("新增可搜索变量: key={}, name={}, backfilled={}", processDefinitionKey, variableName, backfilled);
+        return backfilled;
+    }
+
+    /**
+     * 取消可搜索变量，并删除其查找记录
+     *
+     * @param processDefinitionKey 流程定义Key
+     * @param variableName 变量名
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void removeSearchableVariable(String processDefinitionKey, String variableName) {
+        SearchableVariable config = searchableVariableMapper.findByKeyAndName(processDefinitionKey, variableName);
+        if (config == null) {
+            throw new BusinessException("可搜索变量不存在: " + processDefinitionKey + "." + variableName);
+        }
+        searchableVariableMapper.deleteById(config.getId());
+        int removed = searchIndexMapper.deleteByKeyAndName(processDefinitionKey, variableName);
+        reload();
+        log.info("取消可搜索变量: key={}, name={}, removed={}", processDefinitionKey, variableName, removed);
+    }
+
+    /**
+     * 按变量值查找流程实例
+     *
+     * @param variableName 变量名
+     * @param value 变量值或前缀
+     * @param prefix 是否前缀查找
+     * @param processDefinitionKey 流程定义Key（可选）
+     * @param limit 返回数量
+     * @return 命中记录
+     */
+    public List<VariableSearchHitDTO> search(String variableName, String value, boolean prefix,
+                                             String processDefinitionKey, Integer limit) {
+        if (variableName == null || variableName.isBlank() || value == null || value.isEmpty()) {
+            throw new BusinessException("变量名和查找值不能为空");
+        }
+        boolean configured = processDefinitionKey != null
+                ? isSearchable(processDefinitionKey, variableName)
+                : searchable.values().stream().anyMatch(names -> names.contains(variableName));
+        if (!configured) {
+            throw new BusinessException("变量未配置为可搜索: " + variableName);
+        }
+        if (value.length() > MAX_VALUE_LENGTH) {
+            return Collections.emptyList();
+        }
+
+        int pageSize = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        String upperBound = prefix ? prefixUpperBound(value) : null;
+        return searchIndexMapper.search(variableName, value, prefix, upperBound, processDefinitionKey, pageSize);
+    }
+
+    /**
+     * 流程实例级变量新增或更新时维护查找表
+     *
+     * @param processDefinitionId 流程定义ID
+     * @param processInstanceId 流程实例ID
+     * @param variableName 变量名
+     * @param value 变量值
+     */
+    public void onVariableSet(String processDefinitionId, String processInstanceId, String variableName, Object value) {
+        String processDefinitionKey = searchableKey(processDefinitionId, variableName);
+        if (processDefinitionKey == null) {
+            return;
+        }
+        String valueType = valueType(value);
+        String text = value == null ? null : value.toString();
+        if (valueType == null || text.length() > MAX_VALUE_LENGTH) {
+            // 不支持的类型或超长值不可搜索，删除旧值避免查到过期记录
+            searchIndexMapper.delete(processInstanceId, variableName);
+            return;
+        }
+        searchIndexMapper.upsert(processInstanceId, variableName, processDefinitionKey, valueType, text);
+    }
+
+    /**
+     * 流程实例级变量删除时维护查找表
+     *
+     * @param processDefinitionId 流程定义ID
+     * @param processInstanceId 流程实例ID
+     * @param variableName 变量名
+     */
+    public void onVariableDeleted(String processDefinitionId, String processInstanceId, String variableName) {
+        if (searchableKey(processDefinitionId, variableName) != null) {
+            searchIndexMapper.delete(processInstanceId, variableName);
+        }
+    }
+
+    /**
+     * 流程实例结束时删除其查找记录
+     *
+     * @param processDefinitionId 流程定义ID
+     * @param processInstanceId 流程实例ID
+     */
+    public void onProcessEnded(String processDefinitionId, String processInstanceId) {
+        String processDefinitionKey = definitionKey(processDefinitionId);
+        if (processDefinitionKey != null && searchable.containsKey(processDefinitionKey)) {
+            searchIndexMapper.deleteByProcessInstanceId(processInstanceId);
+        }
+    }
+
+    // ============ 私有辅助方法 ============
+
+    private boolean isSearchable(String processDefinitionKey, String variableName) {
+        Set<String> names = searchable.get(processDefinitionKey);
+        return names != null && names.contains(variableName);
+    }
+
+    /**
+     * 变量可搜索时返回流程定义Key，否则返回null（变量名未被任何流程配置时不解析流程定义）
+     */
+    private String searchableKey(String processDefinitionId, String variableName) {
+        Map<String, Set<String>> current = searchable;
+        if (current.isEmpty() || current.values().stream().noneMatch(names -> names.contains(variableName))) {
+            return null;
+        }
+        String processDefinitionKey = definitionKey(processDefinitionId);
+        return processDefinitionKey != null && isSearchable(processDefinitionKey, variableName)
+                ? processDefinitionKey : null;
+    }
+
+    private String definitionKey(String processDefinitionId) {
+        if (processDefinitionId == null) {
+            return null;
+        }
+        return definitionKeys.computeIfAbsent(processDefinitionId, id -> {
+            ProcessDefinition definition = repositoryService.getProcessDefinition(id);
+            return definition.getKey();
+        });
+    }
+
+    /**
+     * 查找表的值类型，不支持的类型返回null
+     */
+    static String valueType(Object value) {
+        if (value instanceof String) {
+            return "string";
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            return "long";
+        }
+        if (value instanceof Boolean) {
+            return "boolean";
+        }
+        return null;
+    }
+
+    /**
+     * 前缀区间的上界（不包含）：最后一个字符的码点加一，无法递增时返回null
+     */
+    static String prefixUpperBound(String prefix) {
+        int last = prefix.codePointBefore(prefix.length());
+        int next = last + 1;
+        if (next >= Character.MIN_SURROGATE && next <= Character.MAX_SURROGATE) {
+            next = Character.MAX_SURROGATE + 1;
+        }
+        if (next > Character.MAX_CODE_POINT) {
+            return null;
+        }
+        return prefix.substring(0, prefix.length() - Character.charCount(last)) + new String(Character.toChars(next));
+    }
+}
@@ -0,0 +1,278 @@
+package com.lingflow.util;
+
+import com.lingflow.util.ProcessValidator.ValidationResult;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * BPMN XML 流式预校验器
+ *
+ * <p>基于 StAX 单遍扫描 BPMN XML，在构建完整 {@code BpmnModel} 之前快速发现结构性错误：
+ * <ul>
+ *   <li>缺少流程定义 / 流程ID</li>
+ *   <li>流程缺少开始节点（错误）或结束节点（警告）</li>
+ *   <li>元素ID重复</li>
+ *   <li>连线 sourceRef / targetRef 指向不存在的元素</li>
+ *   <li>用户任务未配置办理人或候选人/组（警告）</li>
+ * </ul>
+ *
+ * <p>扫描过程为 O(n)，每个元素只保留ID与连线引用，不构建对象图。
+ * 只有预校验通过后才需要进行完整的模型转换。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+@Slf4j
+public class BpmnStreamingValidator {
+
+    private static final String BPMN_MODEL_NS = "http://www.omg.org/spec/BPMN/20100524/MODEL";
+
+    private static final String FLOWABLE_NS = "http://flowable.org/bpmn";
+
+    private static final String ACTIVITI_NS = "http://activiti.org/bpmn";
+
+    /**
+     * StAX 工厂（创建 reader 线程安全），禁用 DTD 与外部实体
+     */
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private BpmnStreamingValidator() {
+    }
+
+    /**
+     * 流式校验 BPMN XML
+     *
+     * @param bpmnXml BPMN XML字符串
+     * @return 验证结果
+     */
+    public static ValidationResult validate(String bpmnXml) {
+        ValidationResult result = new ValidationResult();
+        result.setValid(true);
+
+        if (bpmnXml == null || bpmnXml.trim().isEmpty()) {
+            result.setValid(false);
+            result.addError("BPMN XML内容不能为空");
+            return result;
+        }
+
+        XMLStreamReader reader = null;
+        try {
+            reader = createReader(bpmnXml);
+            new Scanner(reader, result).scan();
+        } catch (XMLStreamException e) {
+            result.setMalformed(true);
+            result.addError("BPMN XML 解析失败: " + e.getMessage());
+        } finally {
+            closeQuietly(reader);
+        }
+
+        if (result.hasErrors()) {
+            result.setValid(false);
+        }
+        return result;
+    }
+
+    /**
+     * 基于字符串创建 XMLStreamReader（不经过字节数组中转）
+     *
+     * @param bpmnXml BPMN XML字符串
+     * @return XMLStreamReader
+     * @throws XMLStreamException XML解析异常
+     */
+    public static XMLStreamReader createReader(String bpmnXml) throws XMLStreamException {
+        return XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(bpmnXml));
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            log.debug("关闭XMLStreamReader失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 单次扫描状态
+     */
+    private static class Scanner {
+
+        private final XMLStreamReader reader;
+        private final ValidationResult result;
+
+        /** 文档内所有流程元素ID */
+        private final Set<String> ids = new HashSet<>();
+        /** 连线引用：[flowId, attribute, refId] */
+        private final List<String[]> flowRefs = new ArrayList<>();
+
+        private int depth;
+        private int processCount;
+
+        /** 当前流程（仅处理顶层流程节点） */
+        private int processDepth = -1;
+        private String processId;
+        private boolean hasStartEvent;
+        private boolean hasEndEvent;
+
+        /** 当前用户任务 */
+        private int userTaskDepth = -1;
+        private String userTaskId;
+        private String userTaskName;
+        private boolean userTaskAssigned;
+
+        Scanner(XMLStreamReader reader, ValidationResult result) {
+            this.reader = reader;
+            this.result = result;
+        }
+
+        void scan() throws XMLStreamException {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    onStartElement();
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    onEndElement();
+                    depth--;
+                }
+            }
+
+            if (processCount == 0) {
+                result.addError("BPMN XML 中没有找到流程定义");
+            }
+
+            for (String[] ref : flowRefs) {
+                if (ref[2] == null || ref[2].isEmpty()) {
+                    result.addError(String.format("连线【%s】缺少%s", ref[0], ref[1]));
+                } else if (!ids.contains(ref[2])) {
+                    result.addError(String.format("连线【%s】的%s指向不存在的元素: %s", ref[0], ref[1], ref[2]));
+                }
+            }
+        }
+
+        private void onStartElement() {
+            if (!BPMN_MODEL_NS.equals(reader.getNamespaceURI())) {
+                return;
+            }
+            String localName = reader.getLocalName();
+
+            if ("process".equals(localName)) {
+                startProcess();
+                return;
+            }
+            if (processDepth < 0) {
+                return;
+            }
+
+            String id = reader.getAttributeValue(null, "id");
+            if (id != null && !id.isEmpty() && !ids.add(id)) {
+                result.addError("元素ID重复: " + id);
+            }
+
+            boolean topLevel = depth == processDepth + 1;
+            switch (localName) {
+                case "startEvent":
+                    hasStartEvent |= topLevel;
+                    break;
+                case "endEvent":
+                    hasEndEvent |= topLevel;
+                    break;
+                case "sequenceFlow":
+                    String flowId = id != null ? id : "";
+                    flowRefs.add(new String[]{flowId, "sourceRef", reader.getAttributeValue(null, "sourceRef")});
+                    flowRefs.add(new String[]{flowId, "targetRef", reader.getAttributeValue(null, "targetRef")});
+                    break;
+                case "userTask":
+                    userTaskDepth = depth;
+                    userTaskId = id;
+                    userTaskName = reader.getAttributeValue(null, "name");
+                    userTaskAssigned = hasAssignment();
+                    break;
+                case "potentialOwner":
+                case "humanPerformer":
+                    if (userTaskDepth > 0) {
+                        userTaskAssigned = true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void onEndElement() {
+            if (depth == userTaskDepth) {
+                if (!userTaskAssigned) {
+                    result.addWarning(String.format(
+                        "用户任务【%s】未配置办理人或候选人/组: %s",
+                        userTaskName, userTaskId
+                    ));
+                }
+                userTaskDepth = -1;
+            } else if (depth == processDepth) {
+                endProcess();
+            }
+        }
+
+        private void startProcess() {
+            processCount++;
+            processDepth = depth;
+            processId = reader.getAttributeValue(null, "id");
+            hasStartEvent = false;
+            hasEndEvent = false;
+
+            if (processId == null || processId.isEmpty()) {
+                result.addError("流程缺少ID");
+            } else if (!ids.add(processId)) {
+                result.addError("元素ID重复: " + processId);
+            }
+
+            String name = reader.getAttributeValue(null, "name");
+            if (name == null || name.isEmpty()) {
+                result.addWarning("流程缺少名称");
+            }
+        }
+
+        private void endProcess() {
+            if (!hasStartEvent) {
+                result.addError("流程缺少开始节点: " + processId);
+            }
+            if (!hasEndEvent) {
+                result.addWarning("流程缺少结束节点: " + processId);
+            }
+            processDepth = -1;
+        }
+
+        private boolean hasAssignment() {
+            return hasAttribute("assignee") || hasAttribute("candidateUsers") || hasAttribute("candidateGroups");
+        }
+
+        private boolean hasAttribute(String name) {
+            String value = reader.getAttributeValue(FLOWABLE_NS, name);
+            if (value == null) {
+                value = reader.getAttributeValue(ACTIVITI_NS, name);
+            }
+            return value != null && !value.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.lingflow.util;
+
+import com.lingflow.dto.BpmnPatch;
+
+/**
+ * BPMN XML 文本差异工具类
+ *
+ * <p>通过裁剪公共前缀/后缀计算单段替换补丁。建模器自动保存时的改动通常集中在局部
+ * （拖动节点、修改属性），单段补丁即可将写入量压缩到改动本身的大小。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+public class BpmnTextDiff {
+
+    private static final String DIAGRAM_TAG = "BPMNDiagram";
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private BpmnTextDiff() {
+    }
+
+    /**
+     * 计算从 oldText 到 newText 的补丁
+     *
+     * @param oldText 原内容
+     * @param newText 新内容
+     * @return 补丁，内容相同时返回null
+     */
+    public static BpmnPatch diff(String oldText, String newText) {
+        if (oldText.equals(newText)) {
+            return null;
+        }
+
+        int oldLength = oldText.length();
+        int newLength = newText.length();
+        int maxPrefix = Math.min(oldLength, newLength);
+
+        int prefix = 0;
+        while (prefix < maxPrefix && oldText.charAt(prefix) == newText.charAt(prefix)) {
+            prefix++;
+        }
+
+        int maxSuffix = maxPrefix - prefix;
+        int suffix = 0;
+        while (suffix < maxSuffix
+                && oldText.charAt(oldLength - 1 - suffix) == newText.charAt(newLength - 1 - suffix)) {
+            suffix++;
+        }
+
+        return BpmnPatch.builder()
+                .offset(prefix)
+                .deleteLength(oldLength - prefix - suffix)
+                .insertText(newText.substring(prefix, newLength - suffix))
+                .build();
+    }
+
+    /**
+     * 应用补丁
+     *
+     * @param text 原内容
+     * @param patch 补丁
+     * @return 新内容
+     * @throws IllegalArgumentException 补丁范围超出原内容
+     */
+    public static String apply(String text, BpmnPatch patch) {
+        int offset = patch.getOffset() != null ? patch.getOffset() : -1;
+        int deleteLength = patch.getDeleteLength() != null ? patch.getDeleteLength() : 0;
+        if (offset < 0 || deleteLength < 0 || offset + deleteLength > text.length()) {
+            throw new IllegalArgumentException(String.format(
+                    "补丁范围无效: offset=%d, deleteLength=%d, length=%d", offset, deleteLength, text.length()));
+        }
+
+        String insertText = patch.getInsertText() != null ? patch.getInsertText() : "";
+        return new StringBuilder(text.length() - deleteLength + insertText.length())
+                .append(text, 0, offset)
+                .append(insertText)
+                .append(text, offset + deleteLength, text.length())
+                .toString();
+    }
+
+    /**
+     * 判断补丁是否只修改了图形信息（BPMNDiagram 元素内部，如节点坐标、连线路径）
+     *
+     * <p>此类改动不影响流程语义，无需重新校验流程模型。
+     *
+     * @param oldText 原内容
+     * @param patch 补丁
+     * @return 是否只修改了图形信息
+     */
+    public static boolean isDiagramOnly(String oldText, BpmnPatch patch) {
+        int diagramStart = oldText.indexOf(DIAGRAM_TAG);
+        int diagramEnd = oldText.lastIndexOf(DIAGRAM_TAG);
+        if (diagramStart < 0 || diagramEnd <= diagramStart) {
+            return false;
+        }
+
+        String insertText = patch.getInsertText() != null ? patch.getInsertText() : "";
+        return patch.getOffset() > diagramStart
+                && patch.getOffset() + patch.getDeleteLength() < diagramEnd
+                && !insertText.contains(DIAGRAM_TAG);
+    }
+
+    /**
+     * 补丁写入大小（字符数）
+     *
+     * @param patch 补丁
+     * @return 插入内容长度
+     */
+    public static int size(BpmnPatch patch) {
+        return patch.getInsertText() != null ? patch.getInsertText().length() : 0;
+    }
+}
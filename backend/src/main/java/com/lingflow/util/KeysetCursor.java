@@ -0,0 +1,67 @@
+package com.lingflow.util;
+
+import com.lingflow.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset 分页游标工具类
+ *
+ * <p>游标由排序键的各个值组成，编码为 URL 安全的 Base64 字符串，对客户端不透明。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+public class KeysetCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private KeysetCursor() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param keys 排序键（按排序顺序）
+     * @return 游标字符串
+     */
+    public static String encode(Object... keys) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor 游标字符串
+     * @param keyCount 排序键数量
+     * @return 排序键（字符串形式），游标为空时返回null
+     * @throws BusinessException 游标格式无效
+     */
+    public static String[] decode(String cursor, int keyCount) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = decoded.split(SEPARATOR, -1);
+            if (keys.length != keyCount) {
+                throw new BusinessException("无效的分页游标");
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("无效的分页游标");
+        }
+    }
+}
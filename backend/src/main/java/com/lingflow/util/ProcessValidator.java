@@ -11,8 +11,8 @@ import org.flowable.engine.repository.ProcessDefinition;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayInputStream;
-import java.nio.charset.StandardCharsets;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -34,20 +34,15 @@ public class ProcessValidator {
      * @return 验证结果
      */
     public ValidationResult validateBpmnXml(String bpmnXml) {
-        ValidationResult result = new ValidationResult();
-        result.setValid(true);
+        // 流式预校验：不构建对象图，快速发现结构性错误
+        ValidationResult result = BpmnStreamingValidator.validate(bpmnXml);
+        if (!result.isValid()) {
+            return result;
+        }
 
         try {
-            // 转换为BpmnModel验证格式
-            BpmnXMLConverter converter = new BpmnXMLConverter();
-
-            // 将 ByteArrayInputStream 转换为 XMLStreamReader
-            javax.xml.stream.XMLInputFactory factory = javax.xml.stream.XMLInputFactory.newFactory();
-            javax.xml.stream.XMLStreamReader reader = factory.createXMLStreamReader(
-                new ByteArrayInputStream(bpmnXml.getBytes(StandardCharsets.UTF_8))
-            );
-
-            BpmnModel model = converter.convertToBpmnModel(reader);
+            // 预校验通过后再转换为BpmnModel验证格式
+            BpmnModel model = convertToBpmnModel(bpmnXml);
 
             if (model == null) {
                 result.setValid(false);
@@ -63,9 +58,11 @@ public class ProcessValidator {
                 return result;
             }
 
-            // 验证流程定义
+            // 开始节点、用户任务等规则已由流式预校验覆盖
             for (Process process : processes) {
-                validateProcess(process, result);
+                if (process.getInitialFlowElement() == null) {
+                    result.addError("流程缺少开始节点");
+                }
             }
 
             if (!result.getErrors().isEmpty()) {
@@ -258,15 +255,7 @@ public class ProcessValidator {
 
         try {
             // 转换为BpmnModel
-            BpmnXMLConverter converter = new BpmnXMLConverter();
-
-            // 将 ByteArrayInputStream 转换为 XMLStreamReader
-            javax.xml.stream.XMLInputFactory factory = javax.xml.stream.XMLInputFactory.newFactory();
-            javax.xml.stream.XMLStreamReader reader = factory.createXMLStreamReader(
-                new ByteArrayInputStream(bpmnXml.getBytes(StandardCharsets.UTF_8))
-            );
-
-            BpmnModel model = converter.convertToBpmnModel(reader);
+            BpmnModel model = convertToBpmnModel(bpmnXml);
 
             // 验证流程ID
             Collection<Process> processes = model.getProcesses();
@@ -292,44 +281,18 @@ public class ProcessValidator {
     }
 
     /**
-     * 验证流程
+     * 转换为BpmnModel（直接基于字符串读取，不经过字节数组中转）
      *
-     * @param process 流程定义
-     * @param result 验证结果
+     * @param bpmnXml BPMN XML
+     * @return BpmnModel
+     * @throws XMLStreamException XML解析异常
      */
-    private void validateProcess(Process process, ValidationResult result) {
-        // 验证流程ID
-        if (process.getId() == null || process.getId().isEmpty()) {
-            result.addError("流程缺少ID");
-        }
-
-        // 验证流程名称
-        if (process.getName() == null || process.getName().isEmpty()) {
-            result.addWarning("流程缺少名称");
-        }
-
-        // 验证至少有一个开始节点
-        if (process.getInitialFlowElement() == null) {
-            result.addError("流程缺少开始节点");
-        }
-
-        // 验证用户任务配置
-        Collection<org.flowable.bpmn.model.FlowElement> flowElements = process.getFlowElements();
-        List<UserTask> userTasks = flowElements.stream()
-            .filter(element -> element instanceof UserTask)
-            .map(element -> (UserTask) element)
-            .collect(Collectors.toList());
-
-        for (UserTask userTask : userTasks) {
-            if (userTask.getAssignee() == null &&
-                (userTask.getCandidateUsers() == null || userTask.getCandidateUsers().isEmpty()) &&
-                (userTask.getCandidateGroups() == null || userTask.getCandidateGroups().isEmpty())) {
-
-                result.addWarning(String.format(
-                    "用户任务【%s】未配置办理人或候选人/组: %s",
-                    userTask.getName(), userTask.getId()
-                ));
-            }
+    private BpmnModel convertToBpmnModel(String bpmnXml) throws XMLStreamException {
+        XMLStreamReader reader = BpmnStreamingValidator.createReader(bpmnXml);
+        try {
+            return new BpmnXMLConverter().convertToBpmnModel(reader);
+        } finally {
+            reader.close();
         }
     }
 
@@ -339,6 +302,10 @@ public class ProcessValidator {
     @Data
     public static class ValidationResult {
         private boolean valid;
+        /**
+         * XML 本身无法解析（格式错误），区别于可解析但结构不完整的流程
+         */
+        private boolean malformed;
         private List<String> errors = new ArrayList<>();
         private List<String> warnings = new ArrayList<>();
 
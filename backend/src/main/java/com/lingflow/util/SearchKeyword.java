@@ -0,0 +1,72 @@
+package com.lingflow.util;
+
+/**
+ * 搜索关键词工具类
+ *
+ * <p>关键词以 ILIKE 子串匹配，配合 pg_trgm GIN 索引使用（见 V10 迁移脚本）。
+ * 关键词中的 LIKE 通配符会被转义，按字面匹配。
+ * 前缀匹配模式（如分类路径前缀）同样转义，可使用 text_pattern_ops B-tree 索引（见 V11 迁移脚本）。
+ *
+ * @author LingFlow Team
+ * @since 2026-01-22
+ */
+public class SearchKeyword {
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private SearchKeyword() {
+    }
+
+    /**
+     * 规范化关键词
+     *
+     * @param keyword 原始关键词
+     * @return 去除首尾空白后的关键词，为空时返回null
+     */
+    public static String normalize(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String trimmed = keyword.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * 构建子串匹配模式（%keyword%）
+     *
+     * @param keyword 规范化后的关键词
+     * @return LIKE 模式，关键词为空时返回null
+     */
+    public static String containsPattern(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder pattern = new StringBuilder(keyword.length() + 2).append('%');
+        return escape(keyword, pattern).append('%').toString();
+    }
+
+    /**
+     * 构建前缀匹配模式（prefix%）
+     *
+     * @param prefix 前缀
+     * @return LIKE 模式，前缀为空时返回null
+     */
+    public static String prefixPattern(String prefix) {
+        if (prefix == null) {
+            return null;
+        }
+        StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+        return escape(prefix, pattern).append('%').toString();
+    }
+
+    private static StringBuilder escape(String text, StringBuilder pattern) {
+        for (char c : text.toCharArray()) {
+            if (c == '%' || c == '_' || c == '\\') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern;
+    }
+}
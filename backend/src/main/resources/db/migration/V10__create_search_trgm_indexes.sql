@@ -0,0 +1,62 @@
+-- V10__create_search_trgm_indexes.sql
+-- 搜索索引：模板、分类、流程定义的关键词搜索使用 pg_trgm GIN 索引
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   关键词搜索为子串匹配（LIKE/ILIKE '%keyword%'），B-tree 索引无法使用。
+--   pg_trgm 的 GIN 索引按三元组检索，同时支持 LIKE / ILIKE 与 word_similarity 排序，
+--   对中文同样有效（按字符切分三元组，无需分词）。
+--   关键词少于 3 个字符时无法提取完整三元组，PostgreSQL 会退化为扫描整个索引，
+--   仍远小于扫描表数据。
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- =====================================================
+-- 1. 发布态模板：名称、描述、标签
+-- =====================================================
+CREATE INDEX IF NOT EXISTS idx_published_name_trgm
+    ON process_template_published USING gin (template_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_published_description_trgm
+    ON process_template_published USING gin (description gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_published_tags_trgm
+    ON process_template_published USING gin ((tags::text) gin_trgm_ops);
+
+-- =====================================================
+-- 2. 设计态模板：名称、描述、标签
+-- =====================================================
+CREATE INDEX IF NOT EXISTS idx_draft_name_trgm
+    ON process_template_draft USING gin (template_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_draft_description_trgm
+    ON process_template_draft USING gin (description gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_draft_tags_trgm
+    ON process_template_draft USING gin ((tags::text) gin_trgm_ops);
+
+-- =====================================================
+-- 3. 分类：名称、编码（仅未删除分类）
+-- =====================================================
+CREATE INDEX IF NOT EXISTS idx_category_name_trgm
+    ON process_category USING gin (name gin_trgm_ops)
+    WHERE is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_category_code_trgm
+    ON process_category USING gin (code gin_trgm_ops)
+    WHERE is_deleted = FALSE;
+
+-- =====================================================
+-- 4. Flowable 流程定义：名称、Key
+-- =====================================================
+-- ACT_RE_PROCDEF 由 Flowable 引擎建表，此处只追加索引（表不存在时跳过）
+DO $$
+BEGIN
+    IF to_regclass('act_re_procdef') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_lf_procdef_name_trgm
+            ON act_re_procdef USING gin (name_ gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_lf_procdef_key_trgm
+            ON act_re_procdef USING gin (key_ gin_trgm_ops);
+    END IF;
+END $$;
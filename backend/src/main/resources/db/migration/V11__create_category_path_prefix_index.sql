@@ -0,0 +1,17 @@
+-- V11__create_category_path_prefix_index.sql
+-- 分类路径前缀索引：支持子树查询与子树移动
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   子树查询与子树移动均按路径前缀匹配（path LIKE '/id1/id2/%'）。
+--   默认排序规则的 B-tree 索引无法用于 LIKE 前缀匹配，text_pattern_ops 按字节比较，
+--   可将前缀匹配转换为索引范围扫描。
+--   子树移动需要同时改写已软删除的后代，因此索引不再限定 is_deleted = FALSE。
+
+DROP INDEX IF EXISTS idx_category_path;
+
+CREATE INDEX IF NOT EXISTS idx_category_path_prefix
+    ON process_category(tenant_id, path text_pattern_ops);
+
+COMMENT ON INDEX idx_category_path_prefix IS '分类路径前缀索引（子树查询与子树移动）';
@@ -0,0 +1,40 @@
+-- V12__create_notification_unread_counter_table.sql
+-- 通知未读数量计数表：未读角标读取计数表，不再统计通知记录表
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   通知新增、单条已读、全部已读在同一事务内增减计数；
+--   定时校准任务按通知记录表重算，修正绕过服务层的数据变更造成的偏差。
+--   没有计数行的接收人视为没有未读通知。
+
+-- =====================================================
+-- 1. 未读数量计数表
+-- =====================================================
+CREATE TABLE IF NOT EXISTS lf_notification_unread_counter (
+    recipient_id VARCHAR(64) PRIMARY KEY,        -- 接收人ID
+    unread_count BIGINT NOT NULL DEFAULT 0,      -- 未读数量
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE lf_notification_unread_counter IS '通知未读数量计数表';
+COMMENT ON COLUMN lf_notification_unread_counter.recipient_id IS '接收人ID';
+COMMENT ON COLUMN lf_notification_unread_counter.unread_count IS '未读数量';
+COMMENT ON COLUMN lf_notification_unread_counter.update_time IS '更新时间';
+
+-- =====================================================
+-- 2. 未读通知部分索引（校准任务只扫描未读通知）
+-- =====================================================
+CREATE INDEX IF NOT EXISTS idx_notification_unread_recipient
+    ON lf_notification_record(recipient_id)
+    WHERE is_read = FALSE;
+
+-- =====================================================
+-- 3. 初始化计数
+-- =====================================================
+INSERT INTO lf_notification_unread_counter (recipient_id, unread_count)
+SELECT recipient_id, COUNT(*)
+FROM lf_notification_record
+WHERE is_read = FALSE
+GROUP BY recipient_id
+ON CONFLICT (recipient_id) DO UPDATE SET unread_count = EXCLUDED.unread_count;
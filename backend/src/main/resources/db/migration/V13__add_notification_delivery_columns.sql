@@ -0,0 +1,27 @@
+-- V13__add_notification_delivery_columns.sql
+-- 通知投递状态：通知记录提交后由异步投递调度器投递到各渠道，并回写投递结果
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   已有通知视为已投递（原同步发送逻辑未接入实际渠道），新通知默认待投递。
+--   补偿任务按 delivery_status = 'PENDING' 与 create_time 查询长时间未投递的通知。
+
+ALTER TABLE lf_notification_record
+    ADD COLUMN IF NOT EXISTS delivery_status VARCHAR(16) NOT NULL DEFAULT 'SENT',
+    ADD COLUMN IF NOT EXISTS delivery_attempts INT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS delivery_error VARCHAR(512),
+    ADD COLUMN IF NOT EXISTS delivered_time TIMESTAMP;
+
+ALTER TABLE lf_notification_record
+    ALTER COLUMN delivery_status SET DEFAULT 'PENDING';
+
+-- 待投递通知部分索引（补偿任务）
+CREATE INDEX IF NOT EXISTS idx_notification_delivery_pending
+    ON lf_notification_record(create_time)
+    WHERE delivery_status = 'PENDING';
+
+COMMENT ON COLUMN lf_notification_record.delivery_status IS '投递状态：PENDING, SENT, FAILED';
+COMMENT ON COLUMN lf_notification_record.delivery_attempts IS '投递尝试次数（各渠道累计）';
+COMMENT ON COLUMN lf_notification_record.delivery_error IS '最近一次投递错误';
+COMMENT ON COLUMN lf_notification_record.delivered_time IS '投递成功时间';
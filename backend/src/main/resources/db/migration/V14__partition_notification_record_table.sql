@@ -0,0 +1,146 @@
+-- V14__partition_notification_record_table.sql
+-- 通知记录表按月范围分区（create_time），配合保留策略归档并删除历史分区
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   1. 原表重命名为 lf_notification_record_legacy，数据复制到分区表后删除
+--   2. 分区命名：lf_notification_record_pYYYYMM，另有默认分区兜底超出范围的数据
+--   3. 分区表的主键/唯一约束必须包含分区键：主键为 (id, create_time)，
+--      notification_id 的唯一性由 UUID 生成保证，约束为 (notification_id, create_time)
+--   4. 索引按 Mapper 访问路径建立，在父表上创建后自动应用到所有分区
+--   5. 后续分区由 NotificationPartitionManager 定时调用 lf_notification_ensure_partitions 预创建
+
+-- =====================================================
+-- 1. 分区维护函数：创建从指定月份起的按月分区
+-- =====================================================
+CREATE OR REPLACE FUNCTION lf_notification_ensure_partitions(from_month DATE, months_ahead INT)
+RETURNS INT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::DATE;
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + make_interval(months => months_ahead))::DATE;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        partition_name := 'lf_notification_record_p' || to_char(month_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format(
+                'CREATE TABLE %I PARTITION OF lf_notification_record FOR VALUES FROM (%L) TO (%L)',
+                partition_name, month_start, (month_start + INTERVAL '1 month')::DATE);
+            created := created + 1;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION lf_notification_ensure_partitions(DATE, INT) IS '创建通知记录表从指定月份到当前月份之后若干个月的分区';
+
+-- =====================================================
+-- 2. 分区表
+-- =====================================================
+ALTER TABLE lf_notification_record RENAME TO lf_notification_record_legacy;
+ALTER TABLE lf_notification_record_legacy RENAME CONSTRAINT lf_notification_record_pkey TO lf_notification_record_legacy_pkey;
+
+DROP INDEX IF EXISTS idx_notification_recipient;
+DROP INDEX IF EXISTS idx_notification_process_instance;
+DROP INDEX IF EXISTS idx_notification_task;
+DROP INDEX IF EXISTS idx_notification_type;
+DROP INDEX IF EXISTS idx_notification_read;
+DROP INDEX IF EXISTS idx_notification_create_time;
+DROP INDEX IF EXISTS idx_notification_unread_recipient;
+DROP INDEX IF EXISTS idx_notification_delivery_pending;
+
+CREATE TABLE lf_notification_record (
+    id BIGINT NOT NULL DEFAULT nextval('lf_notification_record_id_seq'),
+    notification_id VARCHAR(64) NOT NULL,
+    type VARCHAR(32) NOT NULL,
+    recipient_id VARCHAR(64) NOT NULL,
+    recipient_name VARCHAR(128),
+    title VARCHAR(256) NOT NULL,
+    content TEXT,
+    process_instance_id VARCHAR(64),
+    process_definition_id VARCHAR(64),
+    process_definition_key VARCHAR(128),
+    process_name VARCHAR(256),
+    task_id VARCHAR(64),
+    task_name VARCHAR(256),
+    is_read BOOLEAN NOT NULL DEFAULT FALSE,
+    read_time TIMESTAMP,
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    extra_data TEXT,
+    delivery_status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    delivery_attempts INT NOT NULL DEFAULT 0,
+    delivery_error VARCHAR(512),
+    delivered_time TIMESTAMP,
+    PRIMARY KEY (id, create_time),
+    UNIQUE (notification_id, create_time)
+) PARTITION BY RANGE (create_time);
+
+ALTER SEQUENCE lf_notification_record_id_seq OWNED BY lf_notification_record.id;
+
+CREATE TABLE lf_notification_record_default PARTITION OF lf_notification_record DEFAULT;
+
+-- =====================================================
+-- 3. 索引（按 Mapper 访问路径）
+-- =====================================================
+-- 收件箱：按接收人倒序（findByRecipientIdWithLimit）
+CREATE INDEX idx_notification_recipient_time
+    ON lf_notification_record(recipient_id, create_time DESC);
+
+-- 未读数量校准、全部已读
+CREATE INDEX idx_notification_unread_recipient
+    ON lf_notification_record(recipient_id)
+    WHERE is_read = FALSE;
+
+-- 按类型倒序（findByTypeWithLimit）
+CREATE INDEX idx_notification_type_time
+    ON lf_notification_record(type, create_time DESC);
+
+-- 按流程实例/任务倒序（findByProcessInstanceId、findByTaskId）
+CREATE INDEX idx_notification_process_instance_time
+    ON lf_notification_record(process_instance_id, create_time DESC);
+
+CREATE INDEX idx_notification_task_time
+    ON lf_notification_record(task_id, create_time DESC);
+
+-- 单条已读（markAsRead 按 notification_id 定位）使用唯一约束 (notification_id, create_time) 的索引
+
+-- 待投递补偿
+CREATE INDEX idx_notification_delivery_pending
+    ON lf_notification_record(create_time)
+    WHERE delivery_status = 'PENDING';
+
+-- =====================================================
+-- 4. 迁移数据
+-- =====================================================
+SELECT lf_notification_ensure_partitions(
+    COALESCE((SELECT MIN(create_time) FROM lf_notification_record_legacy)::DATE, CURRENT_DATE), 2);
+
+INSERT INTO lf_notification_record
+SELECT id, notification_id, type, recipient_id, recipient_name, title, content,
+       process_instance_id, process_definition_id, process_definition_key, process_name,
+       task_id, task_name, is_read, read_time, create_time, update_time, extra_data,
+       delivery_status, delivery_attempts, delivery_error, delivered_time
+FROM lf_notification_record_legacy;
+
+DROP TABLE lf_notification_record_legacy;
+
+-- =====================================================
+-- 5. 注释
+-- =====================================================
+COMMENT ON TABLE lf_notification_record IS '流程通知记录表（按 create_time 月分区）';
+COMMENT ON COLUMN lf_notification_record.notification_id IS '通知UUID';
+COMMENT ON COLUMN lf_notification_record.type IS '通知类型：TASK_ASSIGNED, TASK_COMPLETED, TASK_DELEGATED, PROCESS_TIMEOUT, PROCESS_APPROVED, PROCESS_REJECTED, PROCESS_WITHDRAWN, CUSTOM';
+COMMENT ON COLUMN lf_notification_record.recipient_id IS '接收人ID';
+COMMENT ON COLUMN lf_notification_record.recipient_name IS '接收人名称';
+COMMENT ON COLUMN lf_notification_record.is_read IS '是否已读';
+COMMENT ON COLUMN lf_notification_record.read_time IS '读取时间';
+COMMENT ON COLUMN lf_notification_record.extra_data IS '扩展数据（JSON格式）';
+COMMENT ON COLUMN lf_notification_record.delivery_status IS '投递状态：PENDING, SENT, FAILED';
+COMMENT ON COLUMN lf_notification_record.delivery_attempts IS '投递尝试次数（各渠道累计）';
+COMMENT ON COLUMN lf_notification_record.delivery_error IS '最近一次投递错误';
+COMMENT ON COLUMN lf_notification_record.delivered_time IS '投递成功时间';
@@ -0,0 +1,27 @@
+-- V15__add_notification_inbox_index.sql
+-- 通知收件箱 Keyset 分页索引
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   1. 收件箱按 (create_time, id) 倒序游标分页，索引包含 id 作为排序决胜列，
+--      游标条件 (create_time, id) < (?, ?) 直接在索引上定位起点，翻页代价与页码无关
+--   2. 未读筛选使用部分索引，同时覆盖未读数量校准、全部已读（按 recipient_id 前缀）
+--   3. 类型、流程实例筛选在接收人范围内按索引顺序过滤，无需额外排序
+
+-- =====================================================
+-- 1. 收件箱（全部）
+-- =====================================================
+DROP INDEX IF EXISTS idx_notification_recipient_time;
+
+CREATE INDEX idx_notification_inbox
+    ON lf_notification_record(recipient_id, create_time DESC, id DESC);
+
+-- =====================================================
+-- 2. 收件箱（未读）
+-- =====================================================
+DROP INDEX IF EXISTS idx_notification_unread_recipient;
+
+CREATE INDEX idx_notification_inbox_unread
+    ON lf_notification_record(recipient_id, create_time DESC, id DESC)
+    WHERE is_read = FALSE;
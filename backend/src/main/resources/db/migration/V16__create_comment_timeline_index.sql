@@ -0,0 +1,30 @@
+-- V16__create_comment_timeline_index.sql
+-- 评论时间线索引：流程实例的评论按时间游标分页
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   1. 时间线查询条件为 process_instance_id = ? AND is_deleted = FALSE AND (create_time, id) > (?, ?)，
+--      按 (create_time, id) 正序取一页，索引末尾包含 id 作为排序决胜列
+--   2. 新索引以 process_instance_id 开头，覆盖原 idx_comment_process_instance 的用途
+--   3. 早期任务评论未记录 process_instance_id，按 Flowable 历史任务表回填后才能进入时间线
+
+DROP INDEX IF EXISTS idx_comment_process_instance;
+
+CREATE INDEX IF NOT EXISTS idx_comment_timeline
+    ON lf_process_comment(process_instance_id, is_deleted, create_time, id);
+
+COMMENT ON INDEX idx_comment_timeline IS '评论时间线索引（流程实例 + 删除标记 + 创建时间）';
+
+-- 回填任务评论的流程实例ID（Flowable 表尚未创建时跳过）
+DO $$
+BEGIN
+    IF to_regclass('act_hi_taskinst') IS NOT NULL THEN
+        UPDATE lf_process_comment c
+        SET process_instance_id = t.proc_inst_id_,
+            task_name = COALESCE(c.task_name, t.name_)
+        FROM act_hi_taskinst t
+        WHERE c.task_id = t.id_
+          AND c.process_instance_id IS NULL;
+    END IF;
+END $$;
@@ -0,0 +1,29 @@
+-- V17__create_variable_history_indexes.sql
+-- 变量历史查询索引：变量修订历史游标分页与流程实例级历史变量查询
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   1. 修订历史查询条件为 PROC_INST_ID_ = ? AND NAME_ = ? AND TYPE_ = 'VariableUpdate' AND (TIME_, ID_) < (?, ?)，
+--      按 (TIME_, ID_) 倒序取一页；Flowable 自带索引只有单列 PROC_INST_ID_ / NAME_ / TIME_，
+--      需要在内存中过滤和排序整个流程实例的明细
+--   2. 历史变量查询只取流程实例级变量（EXECUTION_ID_ = PROC_INST_ID_ 且 TASK_ID_ IS NULL），按变量名排序
+--   3. Flowable 表由引擎启动时创建，晚于迁移执行：表尚不存在时跳过，
+--      由 FlowableHistoryIndexConfigurer 在引擎构建完成后以 CREATE INDEX IF NOT EXISTS 补建
+
+DO $$
+BEGIN
+    IF to_regclass('act_hi_detail') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_hi_detail_var_revision
+            ON act_hi_detail(proc_inst_id_, name_, time_ DESC, id_ DESC)
+            WHERE type_ = 'VariableUpdate';
+        COMMENT ON INDEX idx_hi_detail_var_revision IS '变量修订历史索引（流程实例 + 变量名 + 更新时间）';
+    END IF;
+
+    IF to_regclass('act_hi_varinst') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_hi_varinst_proc_scope
+            ON act_hi_varinst(proc_inst_id_, name_)
+            WHERE task_id_ IS NULL;
+        COMMENT ON INDEX idx_hi_varinst_proc_scope IS '流程实例级历史变量索引（流程实例 + 变量名）';
+    END IF;
+END $$;
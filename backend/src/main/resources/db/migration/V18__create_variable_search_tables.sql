@@ -0,0 +1,54 @@
+-- V18__create_variable_search_tables.sql
+-- 可搜索变量：按业务字段（订单号、申请人等流程变量）查找流程实例
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   管理员按流程定义Key配置可搜索的变量名；流程实例级变量新增、更新、删除时
+--   在同一事务内维护查找表，流程结束时删除该实例的查找记录。
+--   查找表只保存字符串、整数、布尔类型且不超过255个字符的值，
+--   精确查找与前缀查找都走 (variable_name, text_value) 索引，不再扫描 ACT_RU_VARIABLE。
+
+-- =====================================================
+-- 1. 可搜索变量配置表
+-- =====================================================
+CREATE TABLE IF NOT EXISTS lf_searchable_variable (
+    id BIGSERIAL PRIMARY KEY,
+    process_definition_key VARCHAR(255) NOT NULL,   -- 流程定义Key
+    variable_name VARCHAR(255) NOT NULL,            -- 变量名
+    create_by VARCHAR(64),                          -- 创建人
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_searchable_variable UNIQUE (process_definition_key, variable_name)
+);
+
+COMMENT ON TABLE lf_searchable_variable IS '可搜索变量配置表';
+COMMENT ON COLUMN lf_searchable_variable.process_definition_key IS '流程定义Key';
+COMMENT ON COLUMN lf_searchable_variable.variable_name IS '变量名';
+COMMENT ON COLUMN lf_searchable_variable.create_by IS '创建人';
+COMMENT ON COLUMN lf_searchable_variable.create_time IS '创建时间';
+
+-- =====================================================
+-- 2. 变量查找表
+-- =====================================================
+CREATE TABLE IF NOT EXISTS lf_variable_search_index (
+    process_instance_id VARCHAR(64) NOT NULL,       -- 流程实例ID
+    variable_name VARCHAR(255) NOT NULL,            -- 变量名
+    process_definition_key VARCHAR(255) NOT NULL,   -- 流程定义Key
+    value_type VARCHAR(16) NOT NULL,                -- 值类型：string、long、boolean
+    text_value VARCHAR(255) NOT NULL,               -- 值的文本形式
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (process_instance_id, variable_name)
+);
+
+COMMENT ON TABLE lf_variable_search_index IS '变量查找表（可搜索变量值 → 流程实例ID）';
+COMMENT ON COLUMN lf_variable_search_index.process_instance_id IS '流程实例ID';
+COMMENT ON COLUMN lf_variable_search_index.variable_name IS '变量名';
+COMMENT ON COLUMN lf_variable_search_index.process_definition_key IS '流程定义Key';
+COMMENT ON COLUMN lf_variable_search_index.value_type IS '值类型';
+COMMENT ON COLUMN lf_variable_search_index.text_value IS '值的文本形式';
+COMMENT ON COLUMN lf_variable_search_index.update_time IS '更新时间';
+
+-- varchar_pattern_ops 按字节序排序，等值与前缀区间 (~>=~, ~<~) 查找都可使用（不受数据库排序规则影响）；
+-- 末尾的 process_instance_id 使同值结果按索引顺序返回，LIMIT 无需额外排序
+CREATE INDEX IF NOT EXISTS idx_variable_search_value
+    ON lf_variable_search_index(variable_name, text_value varchar_pattern_ops, process_instance_id);
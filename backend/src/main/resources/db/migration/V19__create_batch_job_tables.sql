@@ -0,0 +1,61 @@
+-- V19__create_batch_job_tables.sql
+-- 批量任务表：大批量引擎操作（批量复制变量等）分块执行，记录进度与逐项结果
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   1. 任务提交时写入任务行和全部明细行（按 seq 编号），明细行即待处理的目标
+--   2. 每个分块处理完成后回写明细状态，并把任务的 cursor_seq 推进到该分块最后一个 seq；
+--      任务中断或失败后从 cursor_seq 之后继续执行
+--   3. 明细查询按 (job_id, status, seq) 游标分页，失败项可单独列出
+
+-- =====================================================
+-- 1. 批量任务表
+-- =====================================================
+CREATE TABLE IF NOT EXISTS lf_batch_job (
+    job_id VARCHAR(64) PRIMARY KEY,                 -- 任务ID
+    job_type VARCHAR(32) NOT NULL,                  -- 任务类型
+    status VARCHAR(16) NOT NULL,                    -- 状态：PENDING、RUNNING、COMPLETED、FAILED、INTERRUPTED
+    params TEXT,                                    -- 任务参数（JSON）
+    total_count INTEGER NOT NULL DEFAULT 0,         -- 明细总数
+    processed_count INTEGER NOT NULL DEFAULT 0,     -- 已处理数
+    success_count INTEGER NOT NULL DEFAULT 0,       -- 成功数
+    failure_count INTEGER NOT NULL DEFAULT 0,       -- 失败数
+    cursor_seq INTEGER NOT NULL DEFAULT 0,          -- 已处理的最大明细序号
+    start_seq INTEGER NOT NULL DEFAULT 0,           -- 本次执行开始时的 cursor_seq（计算吞吐量）
+    error_message VARCHAR(1000),                    -- 任务失败原因
+    create_by VARCHAR(64),                          -- 创建人
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    start_time TIMESTAMP,                           -- 本次开始执行时间
+    end_time TIMESTAMP,                             -- 结束时间
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE lf_batch_job IS '批量任务表';
+COMMENT ON COLUMN lf_batch_job.job_type IS '任务类型';
+COMMENT ON COLUMN lf_batch_job.status IS '状态：PENDING、RUNNING、COMPLETED、FAILED、INTERRUPTED';
+COMMENT ON COLUMN lf_batch_job.params IS '任务参数（JSON）';
+COMMENT ON COLUMN lf_batch_job.cursor_seq IS '已处理的最大明细序号（续跑位置）';
+COMMENT ON COLUMN lf_batch_job.start_seq IS '本次执行开始时的续跑位置';
+
+CREATE INDEX IF NOT EXISTS idx_batch_job_status ON lf_batch_job(status, update_time);
+
+-- =====================================================
+-- 2. 批量任务明细表
+-- =====================================================
+CREATE TABLE IF NOT EXISTS lf_batch_job_item (
+    job_id VARCHAR(64) NOT NULL,                    -- 任务ID
+    seq INTEGER NOT NULL,                           -- 明细序号（从1开始）
+    item_key VARCHAR(255) NOT NULL,                 -- 明细标识（如目标流程实例ID）
+    payload TEXT,                                   -- 明细参数（JSON）
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',  -- 状态：PENDING、SUCCESS、FAILED
+    result VARCHAR(255),                            -- 处理结果
+    message VARCHAR(1000),                          -- 失败原因
+    PRIMARY KEY (job_id, seq)
+);
+
+COMMENT ON TABLE lf_batch_job_item IS '批量任务明细表';
+COMMENT ON COLUMN lf_batch_job_item.item_key IS '明细标识（如目标流程实例ID）';
+COMMENT ON COLUMN lf_batch_job_item.status IS '状态：PENDING、SUCCESS、FAILED';
+
+CREATE INDEX IF NOT EXISTS idx_batch_job_item_status ON lf_batch_job_item(job_id, status, seq);
@@ -0,0 +1,9 @@
+-- V20__add_batch_job_skipped_count.sql
+-- 批量任务跳过计数：去重跳过的明细（如业务Key已存在流程实例）单独计数，不计入失败
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+
+ALTER TABLE lf_batch_job ADD COLUMN IF NOT EXISTS skipped_count INTEGER NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN lf_batch_job.skipped_count IS '跳过数';
+COMMENT ON COLUMN lf_batch_job_item.status IS '状态：PENDING、SUCCESS、SKIPPED、FAILED';
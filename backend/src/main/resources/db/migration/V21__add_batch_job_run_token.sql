@@ -0,0 +1,8 @@
+-- V21__add_batch_job_run_token.sql
+-- 批量任务执行令牌：每次领取生成新令牌，推进进度与结束任务须携带当前令牌，被接管的旧执行无法再写入
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+
+ALTER TABLE lf_batch_job ADD COLUMN IF NOT EXISTS run_token VARCHAR(64);
+
+COMMENT ON COLUMN lf_batch_job.run_token IS '当前执行令牌（领取时生成）';
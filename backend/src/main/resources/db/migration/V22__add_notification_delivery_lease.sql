@@ -0,0 +1,12 @@
+-- V22__add_notification_delivery_lease.sql
+-- 通知投递租约：补偿任务领取待投递通知时写入租约到期时间，只重新领取租约已过期的通知
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   租约为空的通知以 create_time + recover-after-minutes 作为隐含租约（提交后进入投递队列）。
+--   重试时延长租约，多个节点同时补偿时通过 FOR UPDATE SKIP LOCKED 只有一个节点领取成功。
+
+ALTER TABLE lf_notification_record ADD COLUMN IF NOT EXISTS delivery_lease_until TIMESTAMP;
+
+COMMENT ON COLUMN lf_notification_record.delivery_lease_until IS '投递租约到期时间（到期仍为 PENDING 时由补偿任务重新投递）';
@@ -0,0 +1,11 @@
+-- V23__add_notification_coalesced_status.sql
+-- 通知合并投递：高频接收人超出限流的通知照常写入，投递状态为 COALESCED，由合并任务按 (接收人, 类型) 合成摘要投递
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+
+-- 合并任务按 (接收人, 类型) 分组领取等待合并的通知
+CREATE INDEX IF NOT EXISTS idx_notification_delivery_coalesced
+    ON lf_notification_record(recipient_id, type, create_time)
+    WHERE delivery_status = 'COALESCED';
+
+COMMENT ON COLUMN lf_notification_record.delivery_status IS '投递状态：PENDING, COALESCED, SENT, FAILED';
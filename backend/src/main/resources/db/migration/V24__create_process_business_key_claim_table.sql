@@ -0,0 +1,22 @@
+-- V24__create_process_business_key_claim_table.sql
+-- 业务Key占用表：批量启动流程实例时按 (流程定义Key, 业务Key) 原子去重
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+--
+-- 说明：
+--   1. 批量启动在启动实例的同一事务内先插入占用行（ON CONFLICT DO NOTHING），插入成功才启动实例，
+--      启动后回写流程实例ID；事务回滚时占用行一并回滚
+--   2. 并发任务插入同一业务Key时，后插入的事务等待先插入的事务结束：先者提交则插入0行并跳过，
+--      先者回滚则插入成功继续启动
+--   3. 占用行不随流程实例结束或删除而删除，与按历史流程实例表去重的语义一致
+
+CREATE TABLE IF NOT EXISTS lf_process_business_key_claim (
+    process_definition_key VARCHAR(255) NOT NULL,   -- 流程定义Key
+    business_key VARCHAR(255) NOT NULL,             -- 业务Key
+    process_instance_id VARCHAR(64),                -- 启动的流程实例ID
+    create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (process_definition_key, business_key)
+);
+
+COMMENT ON TABLE lf_process_business_key_claim IS '业务Key占用表（批量启动去重）';
+COMMENT ON COLUMN lf_process_business_key_claim.process_instance_id IS '占用该业务Key启动的流程实例ID';
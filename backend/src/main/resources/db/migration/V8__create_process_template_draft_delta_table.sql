@@ -0,0 +1,51 @@
+-- V8__create_process_template_draft_delta_table.sql
+-- 设计态模板增量保存：bpmn_xml 只保存基线，后续保存以补丁形式追加
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+
+-- =====================================================
+-- 1. 设计态模板表增加基线/增量统计字段
+-- =====================================================
+ALTER TABLE process_template_draft
+    ADD COLUMN IF NOT EXISTS bpmn_base_version INT NOT NULL DEFAULT 1,
+    ADD COLUMN IF NOT EXISTS bpmn_delta_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS bpmn_delta_size INT NOT NULL DEFAULT 0;
+
+-- 已有数据：bpmn_xml 即为当前版本的完整内容
+UPDATE process_template_draft SET bpmn_base_version = version WHERE bpmn_delta_count = 0;
+
+COMMENT ON COLUMN process_template_draft.bpmn_base_version IS 'bpmn_xml 基线对应的模板版本号';
+COMMENT ON COLUMN process_template_draft.bpmn_delta_count IS '基线之后的增量数量';
+COMMENT ON COLUMN process_template_draft.bpmn_delta_size IS '基线之后的增量累计大小（字符数）';
+
+-- =====================================================
+-- 2. 设计态模板增量表
+-- =====================================================
+CREATE TABLE IF NOT EXISTS process_template_draft_delta (
+    id VARCHAR(36) PRIMARY KEY,                       -- 增量ID (UUID)
+    draft_id VARCHAR(36) NOT NULL,                    -- 设计态模板ID
+    base_version INT NOT NULL,                        -- 补丁所基于的模板版本号
+    patch_offset INT NOT NULL,                        -- 替换起始位置
+    delete_length INT NOT NULL,                       -- 删除长度
+    insert_text TEXT,                                 -- 插入内容
+    base_length INT NOT NULL,                         -- 应用前内容长度（一致性校验）
+    created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(50),
+
+    CONSTRAINT fk_draft_delta_draft
+        FOREIGN KEY (draft_id)
+        REFERENCES process_template_draft(id)
+        ON DELETE CASCADE
+);
+
+-- 唯一约束：同一模板的同一版本只能有一个增量
+CREATE UNIQUE INDEX IF NOT EXISTS uk_draft_delta_version
+    ON process_template_draft_delta(draft_id, base_version);
+
+COMMENT ON TABLE process_template_draft_delta IS '设计态模板BPMN增量表';
+COMMENT ON COLUMN process_template_draft_delta.draft_id IS '设计态模板ID';
+COMMENT ON COLUMN process_template_draft_delta.base_version IS '补丁所基于的模板版本号';
+COMMENT ON COLUMN process_template_draft_delta.patch_offset IS '替换起始位置';
+COMMENT ON COLUMN process_template_draft_delta.delete_length IS '删除长度';
+COMMENT ON COLUMN process_template_draft_delta.insert_text IS '插入内容';
+COMMENT ON COLUMN process_template_draft_delta.base_length IS '应用补丁前的内容长度';
@@ -0,0 +1,137 @@
+-- V9__create_bpmn_content_blob_table.sql
+-- BPMN 内容寻址存储：相同的 BPMN XML 在设计态、发布态、快照之间只存储一份
+-- 作者：LingFlow Team
+-- 日期：2026-01-22
+
+-- =====================================================
+-- 1. BPMN 内容块表
+-- =====================================================
+CREATE TABLE IF NOT EXISTS bpmn_content_blob (
+    content_hash CHAR(64) PRIMARY KEY,                -- 内容哈希（UTF-8 字节的 SHA-256）
+    compression VARCHAR(16) NOT NULL,                 -- 压缩方式：DEFLATE / NONE
+    content BYTEA NOT NULL,                           -- 存储内容
+    raw_size INT NOT NULL,                            -- 原始大小（字节）
+    stored_size INT NOT NULL,                         -- 存储大小（字节）
+    created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_referenced_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 内容已在应用层压缩，关闭 TOAST 的二次压缩
+ALTER TABLE bpmn_content_blob ALTER COLUMN content SET STORAGE EXTERNAL;
+
+COMMENT ON TABLE bpmn_content_blob IS 'BPMN内容块表（内容寻址，去重存储）';
+COMMENT ON COLUMN bpmn_content_blob.content_hash IS '内容哈希（SHA-256，十六进制小写）';
+COMMENT ON COLUMN bpmn_content_blob.compression IS '压缩方式（DEFLATE/NONE）';
+COMMENT ON COLUMN bpmn_content_blob.content IS '存储内容';
+COMMENT ON COLUMN bpmn_content_blob.raw_size IS '原始大小（字节）';
+COMMENT ON COLUMN bpmn_content_blob.stored_size IS '存储大小（字节）';
+COMMENT ON COLUMN bpmn_content_blob.last_referenced_time IS '最近一次被引用的时间';
+
+-- =====================================================
+-- 2. 模板/快照表改为引用内容哈希
+-- =====================================================
+ALTER TABLE process_template_draft ADD COLUMN IF NOT EXISTS bpmn_hash CHAR(64);
+ALTER TABLE process_template_draft ALTER COLUMN bpmn_xml DROP NOT NULL;
+ALTER TABLE process_template_published ADD COLUMN IF NOT EXISTS bpmn_hash CHAR(64);
+ALTER TABLE process_template_published ALTER COLUMN bpmn_xml DROP NOT NULL;
+ALTER TABLE process_template_snapshot ADD COLUMN IF NOT EXISTS bpmn_hash CHAR(64);
+ALTER TABLE process_template_snapshot ALTER COLUMN bpmn_xml DROP NOT NULL;
+ALTER TABLE process_snapshot ADD COLUMN IF NOT EXISTS bpmn_hash CHAR(64);
+ALTER TABLE process_snapshot ALTER COLUMN bpmn_xml DROP NOT NULL;
+
+COMMENT ON COLUMN process_template_draft.bpmn_hash IS 'BPMN内容哈希（基线）';
+COMMENT ON COLUMN process_template_published.bpmn_hash IS 'BPMN内容哈希';
+COMMENT ON COLUMN process_template_snapshot.bpmn_hash IS 'BPMN内容哈希';
+COMMENT ON COLUMN process_snapshot.bpmn_hash IS 'BPMN内容哈希';
+
+-- =====================================================
+-- 3. 回填历史数据（未压缩存储，之后不再写入 bpmn_xml 列）
+-- =====================================================
+INSERT INTO bpmn_content_blob (content_hash, compression, content, raw_size, stored_size)
+SELECT DISTINCT ON (content_hash)
+       content_hash, 'NONE', content, octet_length(content), octet_length(content)
+FROM (
+    SELECT encode(sha256(convert_to(bpmn_xml, 'UTF8')), 'hex') AS content_hash,
+           convert_to(bpmn_xml, 'UTF8') AS content
+    FROM process_template_draft WHERE bpmn_xml IS NOT NULL
+    UNION ALL
+    SELECT encode(sha256(convert_to(bpmn_xml, 'UTF8')), 'hex'), convert_to(bpmn_xml, 'UTF8')
+    FROM process_template_published WHERE bpmn_xml IS NOT NULL
+    UNION ALL
+    SELECT encode(sha256(convert_to(bpmn_xml, 'UTF8')), 'hex'), convert_to(bpmn_xml, 'UTF8')
+    FROM process_template_snapshot WHERE bpmn_xml IS NOT NULL
+    UNION ALL
+    SELECT encode(sha256(convert_to(bpmn_xml, 'UTF8')), 'hex'), convert_to(bpmn_xml, 'UTF8')
+    FROM process_snapshot WHERE bpmn_xml IS NOT NULL
+) t
+ON CONFLICT (content_hash) DO NOTHING;
+
+UPDATE process_template_draft
+SET bpmn_hash = encode(sha256(convert_to(bpmn_xml, 'UTF8')), 'hex'), bpmn_xml = NULL
+WHERE bpmn_xml IS NOT NULL;
+
+UPDATE process_template_published
+SET bpmn_hash = encode(sha256(convert_to(bpmn_xml, 'UTF8')), 'hex'), bpmn_xml = NULL
+WHERE bpmn_xml IS NOT NULL;
+
+UPDATE process_template_snapshot
+SET bpmn_hash = encode(sha256(convert_to(bpmn_xml, 'UTF8')), 'hex'), bpmn_xml = NULL
+WHERE bpmn_xml IS NOT NULL;
+
+UPDATE process_snapshot
+SET bpmn_hash = encode(sha256(convert_to(bpmn_xml, 'UTF8')), 'hex'), bpmn_xml = NULL
+WHERE bpmn_xml IS NOT NULL;
+
+-- =====================================================
+-- 4. 索引（支持未引用内容回收）
+-- =====================================================
+CREATE INDEX IF NOT EXISTS idx_draft_bpmn_hash ON process_template_draft(bpmn_hash);
+CREATE INDEX IF NOT EXISTS idx_published_bpmn_hash ON process_template_published(bpmn_hash);
+CREATE INDEX IF NOT EXISTS idx_template_snapshot_bpmn_hash ON process_template_snapshot(bpmn_hash);
+CREATE INDEX IF NOT EXISTS idx_process_snapshot_bpmn_hash ON process_snapshot(bpmn_hash);
+CREATE INDEX IF NOT EXISTS idx_bpmn_blob_referenced_time ON bpmn_content_blob(last_referenced_time);
+
+-- =====================================================
+-- 5. 从快照恢复函数改为复制内容哈希
+-- =====================================================
+CREATE OR REPLACE FUNCTION restore_snapshot_to_draft(
+    p_snapshot_id VARCHAR,
+    p_new_draft_id VARCHAR,
+    p_restored_by VARCHAR
+)
+RETURNS VARCHAR AS $$
+DECLARE
+    v_template_key VARCHAR;
+    v_template_name VARCHAR;
+    v_bpmn_hash CHAR(64);
+    v_category_id VARCHAR;
+    v_tags JSONB;
+    v_form_config JSONB;
+    v_app_id VARCHAR;
+    v_context_id VARCHAR;
+    v_tenant_id VARCHAR;
+BEGIN
+    SELECT template_key, snapshot_name, bpmn_hash, category_id, tags, form_config,
+           app_id, context_id, tenant_id
+    INTO v_template_key, v_template_name, v_bpmn_hash, v_category_id, v_tags, v_form_config,
+         v_app_id, v_context_id, v_tenant_id
+    FROM process_template_snapshot
+    WHERE id = p_snapshot_id;
+
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'Snapshot not found: %', p_snapshot_id;
+    END IF;
+
+    INSERT INTO process_template_draft (
+        id, template_key, template_name, description, bpmn_hash, category_id,
+        tags, form_config, app_id, context_id, tenant_id, status, created_by, updated_by
+    ) VALUES (
+        p_new_draft_id, v_template_key, v_template_name,
+        'Restored from snapshot: ' || p_snapshot_id,
+        v_bpmn_hash, v_category_id, v_tags, v_form_config,
+        v_app_id, v_context_id, v_tenant_id, 'DRAFT', p_restored_by, p_restored_by
+    );
+
+    RETURN p_new_draft_id;
+END;
+$$ LANGUAGE plpgsql;
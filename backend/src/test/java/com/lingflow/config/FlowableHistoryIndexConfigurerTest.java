@@ -0,0 +1,49 @@
+package com.lingflow.config;
+
+import org.flowable.spring.SpringProcessEngineConfiguration;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * FlowableHistoryIndexConfigurer 单元测试
+ */
+class FlowableHistoryIndexConfigurerTest {
+
+    @Test
+    void testConfigure_CreatesIndexesAfterEngineBuilt() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        SpringProcessEngineConfiguration configuration = new SpringProcessEngineConfiguration();
+        configuration.setDataSource(dataSource);
+
+        new FlowableHistoryIndexConfigurer().configure(configuration);
+
+        // 引擎构建前不执行（表可能尚未创建）
+        verifyNoInteractions(dataSource);
+        assertEquals(1, configuration.getEngineLifecycleListeners().size());
+
+        configuration.getEngineLifecycleListeners().get(0).onEngineBuilt(null);
+
+        verify(statement).execute(startsWith("CREATE INDEX IF NOT EXISTS idx_hi_detail_var_revision"));
+        verify(statement).execute(startsWith("CREATE INDEX IF NOT EXISTS idx_hi_varinst_proc_scope"));
+        verify(connection).close();
+    }
+
+    @Test
+    void testCreateIndexes_FailureDoesNotPropagate() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertDoesNotThrow(() -> FlowableHistoryIndexConfigurer.createIndexes(dataSource));
+    }
+}
@@ -2,6 +2,7 @@ package com.lingflow.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lingflow.service.ProcessNotificationService;
+import com.lingflow.service.UnreadCountPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +30,9 @@ class ProcessNotificationControllerTest {
     @Mock
     private ProcessNotificationService notificationService;
 
+    @Mock
+    private UnreadCountPublisher unreadCountPublisher;
+
     @InjectMocks
     private ProcessNotificationController controller;
 
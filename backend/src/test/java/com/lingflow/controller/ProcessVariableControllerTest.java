@@ -1,6 +1,8 @@
 package com.lingflow.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lingflow.dto.KeysetPage;
+import com.lingflow.dto.VariableRevisionDTO;
 import com.lingflow.service.ProcessVariableService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -210,15 +212,18 @@ class ProcessVariableControllerTest {
 
     @Test
     void testGetVariableHistory_Success() throws Exception {
-        List<org.flowable.variable.api.history.HistoricVariableInstance> history = new ArrayList<>();
-        when(variableService.getVariableHistory("process1", "var1")).thenReturn(history);
+        KeysetPage<VariableRevisionDTO> history = KeysetPage.<VariableRevisionDTO>builder()
+                .list(new ArrayList<>()).hasMore(false).build();
+        when(variableService.getVariableHistory("process1", "var1", "c1", 10)).thenReturn(history);
 
-        mockMvc.perform(get("/api/variables/history/process1/variable/var1"))
+        mockMvc.perform(get("/api/variables/history/process1/variable/var1")
+                        .param("cursor", "c1")
+                        .param("limit", "10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.code").value(200))
-                .andExpect(jsonPath("$.data").isArray());
+                .andExpect(jsonPath("$.data.list").isArray());
 
-        verify(variableService, times(1)).getVariableHistory("process1", "var1");
+        verify(variableService, times(1)).getVariableHistory("process1", "var1", "c1", 10);
     }
 
     @Test
@@ -0,0 +1,131 @@
+package com.lingflow.service;
+
+import com.lingflow.dto.BatchJobProgressDTO;
+import com.lingflow.entity.BatchJob;
+import com.lingflow.entity.BatchJobItem;
+import com.lingflow.exception.BusinessException;
+import com.lingflow.mapper.BatchJobItemMapper;
+import com.lingflow.mapper.BatchJobMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * BatchJobService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchJobServiceTest {
+
+    @Mock
+    private BatchJobMapper jobMapper;
+
+    @Mock
+    private BatchJobItemMapper itemMapper;
+
+    @InjectMocks
+    private BatchJobService batchJobService;
+
+    @Test
+    void testCreate_NumbersItemsAndInsertsInBatches() {
+        List<BatchJobItem> items = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            BatchJobItem item = new BatchJobItem();
+            item.setItemKey("p" + i);
+            items.add(item);
+        }
+
+        BatchJob job = batchJobService.create("VARIABLE_COPY", "{}", items, "admin");
+
+        assertEquals(BatchJob.STATUS_PENDING, job.getStatus());
+        assertEquals(2500, job.getTotalCount());
+        assertEquals(1, items.get(0).getSeq());
+        assertEquals(2500, items.get(2499).getSeq());
+        assertEquals(job.getJobId(), items.get(2499).getJobId());
+        verify(jobMapper).insert(job);
+        verify(itemMapper, times(3)).insertBatch(anyList());
+        verify(jobMapper).updateTotalCount(job.getJobId(), 2500);
+    }
+
+    @Test
+    void testRecordChunk_AdvancesCursorToLastSeq() {
+        BatchJobItem ok = new BatchJobItem();
+        ok.setSeq(11);
+        ok.setStatus(BatchJobItem.STATUS_SUCCESS);
+        BatchJobItem failed = new BatchJobItem();
+        failed.setSeq(12);
+        failed.setStatus(BatchJobItem.STATUS_FAILED);
+        List<BatchJobItem> results = List.of(ok, failed);
+
+        when(jobMapper.advance("job1", "token1", 12, 2, 1, 0, 1)).thenReturn(1);
+
+        batchJobService.recordChunk("job1", "token1", results);
+
+        verify(itemMapper).updateResults("job1", results);
+    }
+
+    @Test
+    void testRecordChunk_RejectsSupersededRun() {
+        BatchJobItem ok = new BatchJobItem();
+        ok.setSeq(11);
+        ok.setStatus(BatchJobItem.STATUS_SUCCESS);
+        when(jobMapper.advance("job1", "stale", 11, 1, 1, 0, 0)).thenReturn(0);
+
+        assertThrows(BusinessException.class, () -> batchJobService.recordChunk("job1", "stale", List.of(ok)));
+
+        verify(itemMapper, never()).updateResults(anyString(), anyList());
+    }
+
+    @Test
+    void testClaim_ReturnsJobWithNewRunToken() {
+        BatchJob job = new BatchJob();
+        job.setJobId("job1");
+        when(jobMapper.claim(eq("job1"), anyString())).thenReturn(1);
+        when(jobMapper.selectById("job1")).thenReturn(job);
+
+        BatchJob claimed = batchJobService.claim("job1");
+
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        verify(jobMapper).claim(eq("job1"), token.capture());
+        assertEquals(token.getValue(), claimed.getRunToken());
+    }
+
+    @Test
+    void testCheckResumable_PendingOnlyAfterStaleTimeout() {
+        ReflectionTestUtils.setField(batchJobService, "staleMinutes", 10L);
+        BatchJob job = new BatchJob();
+        job.setStatus(BatchJob.STATUS_PENDING);
+        job.setUpdateTime(LocalDateTime.now().minusMinutes(1));
+
+        assertThrows(BusinessException.class, () -> batchJobService.checkResumable(job));
+
+        job.setUpdateTime(LocalDateTime.now().minusMinutes(11));
+        assertDoesNotThrow(() -> batchJobService.checkResumable(job));
+    }
+
+    @Test
+    void testToProgress_ThroughputCountsCurrentRunOnly() {
+        BatchJob job = new BatchJob();
+        job.setJobId("job1");
+        job.setStatus(BatchJob.STATUS_COMPLETED);
+        job.setStartSeq(100);
+        job.setCursorSeq(300);
+        job.setStartTime(LocalDateTime.of(2026, 1, 22, 10, 0, 0));
+        job.setEndTime(LocalDateTime.of(2026, 1, 22, 10, 0, 4));
+
+        BatchJobProgressDTO progress = BatchJobService.toProgress(job);
+
+        assertEquals(50.0, progress.getThroughputPerSecond());
+    }
+}
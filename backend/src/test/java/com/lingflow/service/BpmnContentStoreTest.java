@@ -0,0 +1,71 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.BpmnContentBlob;
+import com.lingflow.exception.BusinessException;
+import com.lingflow.repository.BpmnContentBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * BpmnContentStore 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class BpmnContentStoreTest {
+
+    private static final String BPMN_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<definitions><process id=\"p1\" name=\"测试流程\"><startEvent id=\"start\"/></process></definitions>";
+
+    @Mock
+    private BpmnContentBlobRepository blobRepository;
+
+    @InjectMocks
+    private BpmnContentStore contentStore;
+
+    @Test
+    void testPutAndGet_RoundTrip() {
+        when(blobRepository.touch(anyString(), any(LocalDateTime.class))).thenReturn(0);
+
+        String hash = contentStore.put(BPMN_XML);
+
+        ArgumentCaptor<BpmnContentBlob> captor = ArgumentCaptor.forClass(BpmnContentBlob.class);
+        verify(blobRepository).save(captor.capture());
+        BpmnContentBlob blob = captor.getValue();
+        assertEquals(64, hash.length());
+        assertEquals(hash, blob.getContentHash());
+        assertEquals(BpmnContentBlob.COMPRESSION_DEFLATE, blob.getCompression());
+
+        when(blobRepository.findByHash(hash)).thenReturn(blob);
+        assertEquals(BPMN_XML, contentStore.get(hash));
+        // 第二次读取命中缓存
+        assertEquals(BPMN_XML, contentStore.get(hash));
+        verify(blobRepository, times(1)).findByHash(hash);
+    }
+
+    @Test
+    void testPut_ExistingContent() {
+        when(blobRepository.touch(anyString(), any(LocalDateTime.class))).thenReturn(1);
+
+        String hash = contentStore.put(BPMN_XML);
+
+        assertEquals(contentStore.hashOf(BPMN_XML), hash);
+        verify(blobRepository, never()).save(any());
+    }
+
+    @Test
+    void testGet_NotFound() {
+        when(blobRepository.findByHash("missing")).thenReturn(null);
+
+        assertThrows(BusinessException.class, () -> contentStore.get("missing"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.NotificationRecord;
+import org.flowable.engine.IdentityService;
+import org.flowable.idm.api.User;
+import org.flowable.idm.api.UserQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * MailNotificationChannel 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class MailNotificationChannelTest {
+
+    @Mock
+    private IdentityService identityService;
+
+    @InjectMocks
+    private MailNotificationChannel channel;
+
+    @Test
+    void testDeliver_FailsRecipientsWithoutEmail() throws Exception {
+        UserQuery query = mock(UserQuery.class, RETURNS_SELF);
+        when(identityService.createUserQuery()).thenReturn(query);
+        User noEmail = mock(User.class);
+        when(noEmail.getEmail()).thenReturn(null);
+        doReturn(List.of(noEmail)).when(query).list();
+        NotificationRecord known = new NotificationRecord("CUSTOM", "user1", "标题", "内容");
+        NotificationRecord unknown = new NotificationRecord("CUSTOM", "user2", "标题", "内容");
+
+        Map<String, String> failures = channel.deliver(List.of(known, unknown));
+
+        // 都查不到邮箱时不建立 SMTP 连接，每条通知单独失败
+        assertEquals(2, failures.size());
+        assertEquals("未找到接收人邮箱: user1", failures.get(known.getNotificationId()));
+        assertEquals("未找到接收人邮箱: user2", failures.get(unknown.getNotificationId()));
+        verify(query).userIds(argThat(ids -> ids.containsAll(List.of("user1", "user2"))));
+    }
+}
@@ -0,0 +1,128 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.NotificationRecord;
+import com.lingflow.mapper.NotificationRecordMapper;
+import com.lingflow.service.ProcessNotificationService.NotificationMessage;
+import com.lingflow.service.ProcessNotificationService.NotificationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * NotificationCoalescer 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationCoalescerTest {
+
+    @Mock
+    private NotificationRecordMapper notificationRecordMapper;
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @InjectMocks
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        ReflectionTestUtils.setField(coalescer, "coalesceTypes", Set.of("TASK_ASSIGNED"));
+        ReflectionTestUtils.setField(coalescer, "windowMs", 60_000L);
+        ReflectionTestUtils.setField(coalescer, "immediateLimit", 2);
+        ReflectionTestUtils.setField(coalescer, "maxItems", 2);
+        ReflectionTestUtils.setField(coalescer, "flushGroups", 500);
+        ReflectionTestUtils.setField(coalescer, "leaseMinutes", 10L);
+    }
+
+    @Test
+    void testShouldCoalesce_BeyondImmediateLimit() {
+        assertFalse(coalescer.shouldCoalesce(message(NotificationType.TASK_ASSIGNED, "user1", "task1")));
+        assertFalse(coalescer.shouldCoalesce(message(NotificationType.TASK_ASSIGNED, "user1", "task2")));
+        assertTrue(coalescer.shouldCoalesce(message(NotificationType.TASK_ASSIGNED, "user1", "task3")));
+        assertTrue(coalescer.shouldCoalesce(message(NotificationType.TASK_ASSIGNED, "user1", "task4")));
+
+        // 其他接收人与不可合并的类型不受影响
+        assertFalse(coalescer.shouldCoalesce(message(NotificationType.TASK_ASSIGNED, "user2", "task5")));
+        assertFalse(coalescer.shouldCoalesce(message(NotificationType.PROCESS_TIMEOUT, "user1", "task6")));
+    }
+
+    @Test
+    void testShouldCoalesce_RolledBackTransactionNotCounted() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            coalescer.shouldCoalesce(message(NotificationType.TASK_ASSIGNED, "user1", "task1"));
+            coalescer.shouldCoalesce(message(NotificationType.TASK_ASSIGNED, "user1", "task2"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(coalescer.shouldCoalesce(message(NotificationType.TASK_ASSIGNED, "user1", "task3")));
+    }
+
+    @Test
+    void testFlush_MergesGroupIntoOneDigestDelivery() {
+        NotificationRecord first = record("user1", "task1", 1);
+        NotificationRecord second = record("user1", "task2", 2);
+        NotificationRecord third = record("user1", "task3", 3);
+        NotificationRecord single = record("user2", "task4", 1);
+        when(notificationRecordMapper.claimCoalesced(any(), any(), eq(500)))
+                .thenReturn(List.of(third, single, first, second));
+
+        coalescer.flush();
+
+        ArgumentCaptor<NotificationRecord> digest = ArgumentCaptor.forClass(NotificationRecord.class);
+        verify(notificationDispatcher).dispatchDigest(digest.capture(), eq(List.of(
+                first.getNotificationId(), second.getNotificationId(), third.getNotificationId())));
+        assertEquals("user1", digest.getValue().getRecipientId());
+        assertEquals("新任务分配（共3条）", digest.getValue().getTitle());
+        assertTrue(digest.getValue().getContent().startsWith("1. 您有一个新的待办任务：task1"));
+        assertTrue(digest.getValue().getContent().endsWith("……等3条"));
+        assertTrue(digest.getValue().getExtraData().contains("\"taskIds\":[\"task1\",\"task2\",\"task3\"]"));
+        // 分组只有一条时按原通知投递
+        verify(notificationDispatcher).dispatch(single);
+    }
+
+    @Test
+    void testFlush_NothingClaimed() {
+        when(notificationRecordMapper.claimCoalesced(any(), any(), anyInt())).thenReturn(List.of());
+
+        coalescer.flush();
+
+        verifyNoInteractions(notificationDispatcher);
+    }
+
+    private static NotificationMessage message(NotificationType type, String recipient, String taskId) {
+        NotificationMessage message = new NotificationMessage();
+        message.setType(type);
+        message.setRecipient(recipient);
+        message.setTitle("新任务分配");
+        message.setContent("您有一个新的待办任务：" + taskId);
+        message.setTaskId(taskId);
+        return message;
+    }
+
+    private static NotificationRecord record(String recipient, String taskId, int minute) {
+        NotificationRecord record = new NotificationRecord("TASK_ASSIGNED", recipient, "新任务分配",
+                "您有一个新的待办任务：" + taskId);
+        record.setTaskId(taskId);
+        record.setCreateTime(LocalDateTime.of(2026, 1, 22, 10, minute));
+        return record;
+    }
+}
@@ -0,0 +1,169 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.NotificationRecord;
+import com.lingflow.mapper.NotificationRecordMapper;
+import com.lingflow.metrics.NotificationDispatchMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * NotificationDispatcher 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock
+    private NotificationRecordMapper notificationRecordMapper;
+
+    private final StubChannel channel = new StubChannel();
+
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new NotificationDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "channels", List.<NotificationChannel>of(channel));
+        ReflectionTestUtils.setField(dispatcher, "notificationRecordMapper", notificationRecordMapper);
+        ReflectionTestUtils.setField(dispatcher, "metrics", new NotificationDispatchMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(dispatcher, "workerThreads", 2);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitialMs", 10L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMs", 100L);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void testDispatch_DeliversInBatchesAndWritesBack() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            NotificationRecord record = new NotificationRecord("CUSTOM", "user" + i, "标题", "内容");
+            ids.add(record.getNotificationId());
+            dispatcher.dispatch(record);
+        }
+
+        verify(notificationRecordMapper, timeout(2000).atLeastOnce())
+                .updateDelivery(anyList(), eq(NotificationRecord.DELIVERY_SENT), isNull(), any(), isNull());
+        assertEquals(new HashSet<>(ids), new HashSet<>(channel.delivered));
+        assertTrue(channel.batches.get() < 5);
+    }
+
+    @Test
+    void testDispatch_RetriesWithBackoffUntilDelivered() {
+        channel.failuresLeft.set(2);
+        NotificationRecord record = new NotificationRecord("CUSTOM", "user1", "标题", "内容");
+
+        dispatcher.dispatch(record);
+
+        verify(notificationRecordMapper, timeout(2000))
+                .updateDelivery(eq(List.of(record.getNotificationId())), eq(NotificationRecord.DELIVERY_SENT), isNull(), any(),
+                        isNull());
+        verify(notificationRecordMapper, times(2))
+                .updateDelivery(eq(List.of(record.getNotificationId())), isNull(), startsWith("stub: "), isNull(),
+                        notNull());
+        assertEquals(3, channel.batches.get());
+    }
+
+    @Test
+    void testDispatch_MarksFailedAfterMaxAttempts() {
+        channel.failuresLeft.set(10);
+        NotificationRecord record = new NotificationRecord("CUSTOM", "user1", "标题", "内容");
+
+        dispatcher.dispatch(record);
+
+        verify(notificationRecordMapper, timeout(2000))
+                .updateDelivery(eq(List.of(record.getNotificationId())), eq(NotificationRecord.DELIVERY_FAILED),
+                        startsWith("stub: "), isNull(), isNull());
+        assertEquals(3, channel.batches.get());
+    }
+
+    @Test
+    void testDispatchDigest_WritesBackAllMembers() {
+        NotificationRecord digest = new NotificationRecord("TASK_ASSIGNED", "user1", "新任务分配（共2条）", "内容");
+        List<String> memberIds = List.of("n1", "n2");
+
+        dispatcher.dispatchDigest(digest, memberIds);
+
+        verify(notificationRecordMapper, timeout(2000))
+                .updateDelivery(eq(memberIds), eq(NotificationRecord.DELIVERY_SENT), isNull(), any(), isNull());
+        assertEquals(List.of(digest.getNotificationId()), channel.delivered);
+    }
+
+    @Test
+    void testRecover_RedeliversOnlyClaimedRecords() {
+        ReflectionTestUtils.setField(dispatcher, "recoverAfterMinutes", 10L);
+        NotificationRecord record = new NotificationRecord("CUSTOM", "user1", "标题", "内容");
+        when(notificationRecordMapper.claimExpiredDeliveries(any(), any(), any(), eq(50))).thenReturn(List.of(record));
+
+        dispatcher.recover();
+
+        verify(notificationRecordMapper, timeout(2000))
+                .updateDelivery(eq(List.of(record.getNotificationId())), eq(NotificationRecord.DELIVERY_SENT), isNull(), any(),
+                        isNull());
+        verify(notificationRecordMapper).claimExpiredDeliveries(
+                argThat(before -> before.isBefore(LocalDateTime.now().minusMinutes(9))),
+                any(),
+                argThat(leaseUntil -> leaseUntil.isAfter(LocalDateTime.now().plusMinutes(9))),
+                eq(50));
+        assertEquals(List.of(record.getNotificationId()), channel.delivered);
+    }
+
+    @Test
+    void testBackoff_DoublesUpToMax() {
+        assertEquals(10L, dispatcher.backoffMillis(1));
+        assertEquals(40L, dispatcher.backoffMillis(3));
+        assertEquals(100L, dispatcher.backoffMillis(10));
+    }
+
+    /**
+     * 测试用渠道：前 failuresLeft 批整批失败，之后全部成功
+     */
+    private static class StubChannel implements NotificationChannel {
+
+        final AtomicInteger failuresLeft = new AtomicInteger();
+        final AtomicInteger batches = new AtomicInteger();
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String getName() {
+            return "stub";
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public Map<String, String> deliver(List<NotificationRecord> records) throws Exception {
+            batches.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("连接失败");
+            }
+            records.forEach(record -> delivered.add(record.getNotificationId()));
+            return Collections.emptyMap();
+        }
+    }
+}
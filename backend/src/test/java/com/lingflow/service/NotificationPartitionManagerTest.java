@@ -0,0 +1,80 @@
+package com.lingflow.service;
+
+import com.lingflow.mapper.NotificationPartitionMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * NotificationPartitionManager 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationPartitionManagerTest {
+
+    @Mock
+    private NotificationPartitionMapper partitionMapper;
+
+    @Mock
+    private NotificationUnreadCounter unreadCounter;
+
+    @Mock
+    private DataSource dataSource;
+
+    @InjectMocks
+    private NotificationPartitionManager partitionManager;
+
+    @TempDir
+    Path archiveDir;
+
+    @Test
+    void testExpiredPartitions_OnlyMonthsBeforeCutoff() {
+        List<String> expired = NotificationPartitionManager.expiredPartitions(Arrays.asList(
+                "lf_notification_record_p202412",
+                "lf_notification_record_p202501",
+                "lf_notification_record_p202502",
+                "lf_notification_record_default",
+                "lf_notification_record_p2025"), YearMonth.of(2025, 2));
+
+        assertEquals(Arrays.asList("lf_notification_record_p202412", "lf_notification_record_p202501"), expired);
+    }
+
+    @Test
+    void testArchiveExpired_ExportFailureKeepsPartition() throws Exception {
+        ReflectionTestUtils.setField(partitionManager, "retentionMonths", 12);
+        ReflectionTestUtils.setField(partitionManager, "archiveDir", archiveDir.toString());
+        when(partitionMapper.findMonthlyPartitions())
+                .thenReturn(List.of("lf_notification_record_p200001", "lf_notification_record_p200002"));
+        when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertEquals(0, partitionManager.archiveExpired());
+
+        verify(dataSource, times(1)).getConnection();
+        verify(partitionMapper, never()).detachPartition(anyString());
+        verify(partitionMapper, never()).dropPartition(anyString());
+        verify(unreadCounter, never()).reconcile();
+    }
+
+    @Test
+    void testArchiveExpired_DisabledWhenRetentionNotPositive() {
+        ReflectionTestUtils.setField(partitionManager, "retentionMonths", 0);
+
+        assertEquals(0, partitionManager.archiveExpired());
+
+        verifyNoInteractions(partitionMapper, dataSource);
+    }
+}
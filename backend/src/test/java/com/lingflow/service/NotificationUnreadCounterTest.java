@@ -0,0 +1,96 @@
+package com.lingflow.service;
+
+import com.lingflow.mapper.NotificationUnreadCounterMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * NotificationUnreadCounter 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationUnreadCounterTest {
+
+    @Mock
+    private NotificationUnreadCounterMapper counterMapper;
+
+    @InjectMocks
+    private NotificationUnreadCounter unreadCounter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(unreadCounter, "cacheTtlSeconds", 30L);
+    }
+
+    @Test
+    void testGet_CachesCounterRow() {
+        when(counterMapper.findUnreadCount("user1")).thenReturn(3L);
+
+        assertEquals(3L, unreadCounter.get("user1"));
+        assertEquals(3L, unreadCounter.get("user1"));
+
+        verify(counterMapper, times(1)).findUnreadCount("user1");
+    }
+
+    @Test
+    void testGet_MissingRowIsZero() {
+        assertEquals(0L, unreadCounter.get("user2"));
+    }
+
+    @Test
+    void testAdjust_UpdatesTableAndEvictsCache() {
+        when(counterMapper.findUnreadCount("user1")).thenReturn(3L, 4L);
+        unreadCounter.get("user1");
+
+        unreadCounter.adjust("user1", 1);
+
+        verify(counterMapper).increment("user1", 1);
+        assertEquals(4L, unreadCounter.get("user1"));
+    }
+
+    @Test
+    void testGet_InvalidationDuringLoadSkipsCachePut() {
+        // 读取加载旧值期间，并发事务提交并使缓存失效
+        when(counterMapper.findUnreadCount("user1")).thenAnswer(invocation -> {
+            unreadCounter.adjust("user1", 1);
+            return 3L;
+        }).thenReturn(4L);
+
+        assertEquals(3L, unreadCounter.get("user1"));
+
+        assertEquals(4L, unreadCounter.get("user1"));
+        verify(counterMapper, times(2)).findUnreadCount("user1");
+    }
+
+    @Test
+    void testGet_ExpiredEntryReloaded() {
+        ReflectionTestUtils.setField(unreadCounter, "cacheTtlSeconds", 0L);
+        when(counterMapper.findUnreadCount("user1")).thenReturn(3L, 5L);
+
+        assertEquals(3L, unreadCounter.get("user1"));
+        assertEquals(5L, unreadCounter.get("user1"));
+    }
+
+    @Test
+    void testReconcile_ClearsCacheWhenCorrected() {
+        when(counterMapper.findUnreadCount("user1")).thenReturn(3L, 5L);
+        when(counterMapper.reconcileUnread(any())).thenReturn(1);
+        ReflectionTestUtils.setField(unreadCounter, "reconcileGraceMinutes", 5L);
+        unreadCounter.get("user1");
+
+        unreadCounter.reconcile();
+
+        assertEquals(5L, unreadCounter.get("user1"));
+        // 只校准最近没有增减的计数行
+        verify(counterMapper).reconcileUnread(argThat(before -> before.isBefore(LocalDateTime.now().minusMinutes(4))));
+    }
+}
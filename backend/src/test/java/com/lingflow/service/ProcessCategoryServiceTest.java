@@ -0,0 +1,202 @@
+package com.lingflow.service;
+
+import com.lingflow.dto.ProcessCategoryTreeDTO;
+import com.lingflow.dto.SortOrderDTO;
+import com.lingflow.entity.CategoryProcessCount;
+import com.lingflow.entity.ProcessCategory;
+import com.lingflow.repository.ProcessCategoryRepository;
+import com.lingflow.repository.ProcessDefinitionExtensionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProcessCategoryService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ProcessCategoryServiceTest {
+
+    @Mock
+    private ProcessCategoryRepository categoryRepository;
+
+    @Mock
+    private ProcessDefinitionExtensionRepository extensionRepository;
+
+    @Mock
+    private ProcessSearchIndex searchIndex;
+
+    @Spy
+    private CategoryTreeCache treeCache = new CategoryTreeCache();
+
+    @InjectMocks
+    private ProcessCategoryService categoryService;
+
+    @Test
+    void testGetCategoryTree_TwoQueries() {
+        when(categoryRepository.findTree("t1", null, null)).thenReturn(List.of(
+                category("root", null, "/root", 0),
+                category("hr", "root", "/root/hr", 1),
+                category("leave", "hr", "/root/hr/leave", 2),
+                category("finance", "root", "/root/finance", 1)
+        ));
+        when(extensionRepository.countGroupByCategory("t1", null, null)).thenReturn(List.of(
+                new CategoryProcessCount("root", 1),
+                new CategoryProcessCount("hr", 2),
+                new CategoryProcessCount("leave", 3)
+        ));
+
+        List<ProcessCategoryTreeDTO> tree = categoryService.getCategoryTree("t1", null, null);
+
+        assertEquals(1, tree.size());
+        ProcessCategoryTreeDTO root = tree.get(0);
+        assertEquals(6, root.getProcessCount());
+        assertTrue(root.getHasChildren());
+
+        ProcessCategoryTreeDTO hr = root.getChildren().get(0);
+        assertEquals(5, hr.getProcessCount());
+        ProcessCategoryTreeDTO leave = hr.getChildren().get(0);
+        assertEquals(3, leave.getProcessCount());
+        assertFalse(leave.getHasChildren());
+        assertEquals("root-name/hr-name/leave-name", leave.getPathNames());
+        assertEquals(0, root.getChildren().get(1).getProcessCount());
+
+        verify(categoryRepository, never()).findById(anyString());
+        verify(extensionRepository, never()).countByCategoryId(anyString());
+    }
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(treeCache, "ttlMinutes", 5L);
+    }
+
+    @Test
+    void testGetCategoryTree_CachedUntilInvalidated() {
+        when(categoryRepository.findTree("t1", null, null)).thenReturn(List.of(category("root", null, "/root", 0)));
+        when(extensionRepository.countGroupByCategory("t1", null, null)).thenReturn(List.of());
+
+        assertNull(categoryService.getCategoryTreeETag("t1", null, null));
+        CategoryTreeCache.Snapshot first = categoryService.getCategoryTreeSnapshot("t1", null, null);
+        CategoryTreeCache.Snapshot second = categoryService.getCategoryTreeSnapshot("t1", null, null);
+
+        assertSame(first, second);
+        assertEquals(first.getEtag(), categoryService.getCategoryTreeETag("t1", null, null));
+        verify(categoryRepository, times(1)).findTree("t1", null, null);
+
+        ProcessCategory root = category("root", null, "/root", 0);
+        root.setTenantId("t1");
+        when(categoryRepository.findById("root")).thenReturn(root);
+        categoryService.updateSortOrder("root", 5);
+
+        assertNull(categoryService.getCategoryTreeETag("t1", null, null));
+        CategoryTreeCache.Snapshot third = categoryService.getCategoryTreeSnapshot("t1", null, null);
+        assertTrue(third.getVersion() > first.getVersion());
+        assertNotEquals(first.getEtag(), third.getEtag());
+        verify(categoryRepository, times(2)).findTree("t1", null, null);
+    }
+
+    @Test
+    void testGetCategoryTree_RebuiltAfterTtlWithNewETag() {
+        // 有效期为负数：每次读取都视为过期（模拟其他节点修改后本节点快照到期）
+        ReflectionTestUtils.setField(treeCache, "ttlMinutes", -1L);
+        when(categoryRepository.findTree("t1", null, null))
+                .thenReturn(List.of(category("root", null, "/root", 0)))
+                .thenReturn(List.of(category("root", null, "/root", 0), category("hr", "root", "/root/hr", 1)));
+        when(extensionRepository.countGroupByCategory("t1", null, null)).thenReturn(List.of());
+
+        CategoryTreeCache.Snapshot first = categoryService.getCategoryTreeSnapshot("t1", null, null);
+        assertNull(categoryService.getCategoryTreeETag("t1", null, null));
+        CategoryTreeCache.Snapshot second = categoryService.getCategoryTreeSnapshot("t1", null, null);
+
+        assertEquals(first.getVersion(), second.getVersion());
+        assertNotEquals(first.getEtag(), second.getEtag());
+        assertEquals(1, second.getTree().get(0).getChildren().size());
+        verify(categoryRepository, times(2)).findTree("t1", null, null);
+    }
+
+    @Test
+    void testMoveCategory_SingleSubtreeStatement() {
+        ProcessCategory hr = category("hr", "root", "/root/hr", 1);
+        hr.setTenantId("t1");
+        ProcessCategory finance = category("finance", "other", "/other/finance", 1);
+        when(categoryRepository.findById("hr")).thenReturn(hr);
+        when(categoryRepository.findById("finance")).thenReturn(finance);
+        when(categoryRepository.moveSubtree("/root/hr", "/other/finance/hr", 1, "/root/hr/%", "t1"))
+                .thenReturn(10000);
+
+        categoryService.moveCategory("hr", "finance");
+
+        assertEquals("/other/finance/hr", hr.getPath());
+        assertEquals(2, hr.getLevel());
+        verify(categoryRepository).update(hr);
+        verify(categoryRepository).moveSubtree("/root/hr", "/other/finance/hr", 1, "/root/hr/%", "t1");
+        verify(categoryRepository, never()).findByParentId(any(), any(), any(), any());
+        verify(searchIndex).invalidate("t1");
+    }
+
+    @Test
+    void testMoveCategory_RejectsDescendantTarget() {
+        ProcessCategory hr = category("hr", "root", "/root/hr", 1);
+        ProcessCategory leave = category("leave", "hr", "/root/hr/leave", 2);
+        when(categoryRepository.findById("hr")).thenReturn(hr);
+        when(categoryRepository.findById("leave")).thenReturn(leave);
+
+        assertThrows(RuntimeException.class, () -> categoryService.moveCategory("hr", "leave"));
+        verify(categoryRepository, never()).moveSubtree(any(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testBatchUpdateSortOrder_SingleStatement() {
+        List<SortOrderDTO> items = List.of(
+                new SortOrderDTO("a", 0, 3),
+                new SortOrderDTO("b", 1, 1),
+                new SortOrderDTO("c", 2, null));
+        when(categoryRepository.batchUpdateSortOrder("t1", items)).thenReturn(3);
+        long before = treeCache.currentVersion("t1");
+
+        assertEquals(3, categoryService.batchUpdateSortOrder("t1", items));
+
+        assertEquals(before + 1, categoryService.getCategoryTreeVersion("t1"));
+        verify(categoryRepository, never()).findById(anyString());
+        verify(categoryRepository, never()).update(any());
+    }
+
+    @Test
+    void testBatchUpdateSortOrder_VersionConflict() {
+        List<SortOrderDTO> items = List.of(new SortOrderDTO("a", 0, 3), new SortOrderDTO("b", 1, 1));
+        when(categoryRepository.batchUpdateSortOrder("t1", items)).thenReturn(1);
+        long before = treeCache.currentVersion("t1");
+
+        assertThrows(RuntimeException.class, () -> categoryService.batchUpdateSortOrder("t1", items));
+        assertEquals(before, categoryService.getCategoryTreeVersion("t1"));
+    }
+
+    @Test
+    void testBatchUpdateSortOrder_RejectsDuplicates() {
+        List<SortOrderDTO> items = List.of(new SortOrderDTO("a", 0, null), new SortOrderDTO("a", 1, null));
+
+        assertThrows(RuntimeException.class, () -> categoryService.batchUpdateSortOrder("t1", items));
+        verify(categoryRepository, never()).batchUpdateSortOrder(any(), any());
+    }
+
+    private ProcessCategory category(String id, String parentId, String path, int level) {
+        ProcessCategory category = new ProcessCategory();
+        category.setId(id);
+        category.setName(id + "-name");
+        category.setParentId(parentId);
+        category.setPath(path);
+        category.setLevel(level);
+        category.setSortOrder(0);
+        return category;
+    }
+}
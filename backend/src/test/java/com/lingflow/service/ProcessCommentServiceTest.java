@@ -1,16 +1,29 @@
 package com.lingflow.service;
 
+import com.lingflow.dto.CommentCountDTO;
+import com.lingflow.dto.KeysetPage;
+import com.lingflow.dto.TaskVO;
 import com.lingflow.entity.ProcessComment;
 import com.lingflow.mapper.ProcessCommentMapper;
+import com.lingflow.util.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -22,6 +35,9 @@ class ProcessCommentServiceTest {
     @Mock
     private ExtendedTaskService extendedTaskService;
 
+    @Mock
+    private ExtendedHistoryService extendedHistoryService;
+
     @Mock
     private ProcessCommentMapper processCommentMapper;
 
@@ -78,15 +94,18 @@ class ProcessCommentServiceTest {
         comment.setProcessInstanceId("process1");
         comment.setUserId("user1");
         comment.setContent("测试评论");
+        comment.setType("PROCESS");
         comments.add(comment);
 
-        when(processCommentMapper.findByProcessInstanceId("process1")).thenReturn(comments);
+        // 只查询流程级评论，任务评论不出现在该接口
+        when(processCommentMapper.findByProcessInstanceIdAndTaskIdIsNullAndIsDeleted("process1", false))
+                .thenReturn(comments);
 
         java.util.List<ProcessCommentService.Comment> result = processCommentService.getProcessComments("process1");
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(processCommentMapper, times(1)).findByProcessInstanceId("process1");
+        verify(processCommentMapper, never()).findByProcessInstanceIdAndIsDeleted(any(), any());
     }
 
     @Test
@@ -107,4 +126,74 @@ class ProcessCommentServiceTest {
         assertEquals(1, result.size());
         verify(processCommentMapper, times(1)).findByTaskId("task1");
     }
+
+    @Test
+    void testGetCommentStatistics_SingleAggregateQuery() {
+        when(processCommentMapper.countStatistics("process1", "PROCESS"))
+                .thenReturn(CommentCountDTO.builder()
+                        .processCommentCount(3L)
+                        .taskCommentCount(120L)
+                        .participantCount(7L)
+                        .build());
+
+        ProcessCommentService.CommentStatistics stats = processCommentService.getCommentStatistics("process1");
+
+        assertEquals(3, stats.getProcessCommentCount());
+        assertEquals(120, stats.getTaskCommentCount());
+        assertEquals(123, stats.getTotalCommentCount());
+        assertEquals(7, stats.getParticipantCount());
+        verify(processCommentMapper, times(1)).countStatistics("process1", "PROCESS");
+        verifyNoMoreInteractions(processCommentMapper);
+    }
+
+    @Test
+    void testAddTaskComment_RecordsProcessInstance() {
+        TaskVO task = new TaskVO();
+        task.setId("task1");
+        task.setName("审批");
+        task.setProcessInstanceId("process1");
+        // 已完成的任务只在历史任务表中
+        when(extendedHistoryService.getHistoricTask("task1")).thenReturn(task);
+
+        processCommentService.addTaskComment("task1", "user1", "任务评论");
+
+        verify(processCommentMapper).insert(argThat((ProcessComment comment) ->
+                "process1".equals(comment.getProcessInstanceId()) && "审批".equals(comment.getTaskName())));
+        verify(extendedTaskService, never()).getTask(any());
+    }
+
+    @Test
+    void testGetCommentTimeline_ReturnsNextCursorFromLastRow() {
+        ReflectionTestUtils.setField(processCommentService, "timelineDefaultLimit", 50);
+        ReflectionTestUtils.setField(processCommentService, "timelineMaxLimit", 200);
+        LocalDateTime base = LocalDateTime.of(2026, 1, 22, 10, 0);
+        List<ProcessComment> comments = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            ProcessComment comment = new ProcessComment(id == 2 ? "TASK" : "PROCESS", "评论" + id);
+            comment.setId(id);
+            comment.setCommentId("comment" + id);
+            comment.setProcessInstanceId("process1");
+            comment.setCreateTime(base.plusMinutes(id));
+            comments.add(comment);
+        }
+        when(processCommentMapper.findTimelinePage("process1", null, null, 3)).thenReturn(comments);
+
+        KeysetPage<ProcessCommentService.Comment> page =
+                processCommentService.getCommentTimeline("process1", null, 2);
+
+        assertEquals(2, page.getList().size());
+        assertEquals(ProcessCommentService.CommentType.TASK, page.getList().get(1).getType());
+        assertTrue(page.isHasMore());
+        assertEquals(KeysetCursor.encode(base.plusMinutes(2), 2L), page.getNextCursor());
+
+        when(processCommentMapper.findTimelinePage("process1", base.plusMinutes(2), 2L, 3))
+                .thenReturn(comments.subList(2, 3));
+
+        KeysetPage<ProcessCommentService.Comment> next =
+                processCommentService.getCommentTimeline("process1", page.getNextCursor(), 2);
+
+        assertEquals(1, next.getList().size());
+        assertFalse(next.isHasMore());
+        assertNull(next.getNextCursor());
+    }
 }
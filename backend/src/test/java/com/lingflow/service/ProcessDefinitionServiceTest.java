@@ -70,6 +70,12 @@ class ProcessDefinitionServiceTest {
     @Mock
     private ProcessSnapshotRepository processSnapshotRepository;
 
+    @Mock
+    private BpmnContentStore bpmnContentStore;
+
+    @Mock
+    private ProcessSearchIndex processSearchIndex;
+
     @Mock
     private BpmnElementExtensionRepository bpmnElementExtensionRepository;
 
@@ -86,11 +92,14 @@ class ProcessDefinitionServiceTest {
 
     @Test
     void testDeployProcess_Success() {
-        doNothing().when(extendedRepositoryService).deploy(anyString(), anyString());
+        when(extendedRepositoryService.deploy(anyString(), anyString())).thenReturn("deployment1");
+        stubDeploymentDefinitions("deployment1", "def1");
 
         processDefinitionService.deployProcess("测试流程", "<xml>content</xml>");
 
         verify(extendedRepositoryService, times(1)).deploy("测试流程", "<xml>content</xml>");
+        verify(processSearchIndex).upsert("def1");
+        verify(processSearchIndex, never()).invalidateAll();
     }
 
     @Test
@@ -113,11 +122,13 @@ class ProcessDefinitionServiceTest {
 
     @Test
     void testDeleteProcessDefinition_Success() {
+        stubDeploymentDefinitions("deployment1", "def1");
         doNothing().when(extendedRepositoryService).deleteDeployment(anyString(), anyBoolean(), anyBoolean());
 
         processDefinitionService.deleteProcessDefinition("deployment1");
 
         verify(extendedRepositoryService, times(1)).deleteDeployment("deployment1", true, false);
+        verify(processSearchIndex).upsert("def1");
     }
 
     @Test
@@ -370,11 +381,22 @@ class ProcessDefinitionServiceTest {
 
         when(processSnapshotRepository.findById("snapshot1")).thenReturn(snapshot);
 
-        doNothing().when(extendedRepositoryService).deploy(anyString(), anyString());
+        when(extendedRepositoryService.deploy(anyString(), anyString())).thenReturn("deployment2");
+        stubDeploymentDefinitions("deployment2", "def2");
 
         processDefinitionService.rollbackToSnapshot("snapshot1");
 
         verify(extendedRepositoryService, times(1)).deploy(contains("v1.0_rollback_"), eq("<xml>content</xml>"));
+        verify(processSearchIndex).upsert("def2");
+    }
+
+    private void stubDeploymentDefinitions(String deploymentId, String processDefinitionId) {
+        ProcessDefinition definition = mock(ProcessDefinition.class);
+        when(definition.getId()).thenReturn(processDefinitionId);
+        org.flowable.engine.repository.ProcessDefinitionQuery query =
+                mock(org.flowable.engine.repository.ProcessDefinitionQuery.class, RETURNS_SELF);
+        when(repositoryService.createProcessDefinitionQuery()).thenReturn(query);
+        doReturn(List.of(definition)).when(query).list();
     }
 
     @Test
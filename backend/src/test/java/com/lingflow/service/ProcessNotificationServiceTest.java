@@ -1,19 +1,34 @@
 package com.lingflow.service;
 
+import com.lingflow.dto.KeysetPage;
 import com.lingflow.entity.NotificationRecord;
+import com.lingflow.exception.BusinessException;
 import com.lingflow.mapper.NotificationRecordMapper;
+import com.lingflow.util.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,6 +43,18 @@ class ProcessNotificationServiceTest {
     @Mock
     private NotificationRecordMapper notificationRecordMapper;
 
+    @Mock
+    private NotificationUnreadCounter unreadCounter;
+
+    @Mock
+    private UnreadCountPublisher unreadCountPublisher;
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @Mock
+    private NotificationCoalescer notificationCoalescer;
+
     @InjectMocks
     private ProcessNotificationService notificationService;
 
@@ -47,17 +74,28 @@ class ProcessNotificationServiceTest {
 
     @Test
     void testSendTaskCompletedNotification_Success() {
-        doAnswer(invocation -> {
-            NotificationRecord record = invocation.getArgument(0);
-            record.setId(2L);
-            return null;
-        }).when(notificationRecordMapper).insert(any(NotificationRecord.class));
+        ReflectionTestUtils.setField(notificationService, "insertBatchSize", 500);
 
         String result = notificationService.sendTaskCompletedNotification(
                 "task1", "user1", "审批任务", List.of("user2", "user3"));
 
         assertNotNull(result);
-        verify(notificationRecordMapper, atLeastOnce()).insert(any(NotificationRecord.class));
+        verify(notificationRecordMapper, times(1)).insertBatch(anyList());
+        verify(notificationRecordMapper, never()).insert(any(NotificationRecord.class));
+    }
+
+    @Test
+    void testSendCustomNotifications_ChunkedInsert() {
+        ReflectionTestUtils.setField(notificationService, "insertBatchSize", 2);
+        List<String> recipients = List.of("user1", "user2", "user3", "user1", "user4");
+
+        List<String> ids = notificationService.sendCustomNotifications(recipients, "标题", "内容", null);
+
+        assertEquals(5, ids.size());
+        assertEquals(5, new HashSet<>(ids).size());
+        verify(notificationRecordMapper, times(3)).insertBatch(anyList());
+        verify(unreadCounter).adjustAll(Map.of("user1", 2L, "user2", 1L, "user3", 1L, "user4", 1L));
+        verify(notificationDispatcher).dispatchAll(argThat(records -> records.size() == 5));
     }
 
     @Test
@@ -95,4 +133,105 @@ class ProcessNotificationServiceTest {
         assertEquals(1, result.size());
         verify(notificationRecordMapper, times(1)).findByRecipientIdWithLimit("user1", 20);
     }
+
+    @Test
+    void testGetUserInbox_ReturnsNextCursorFromLastRow() {
+        ReflectionTestUtils.setField(notificationService, "inboxDefaultLimit", 20);
+        ReflectionTestUtils.setField(notificationService, "inboxMaxLimit", 100);
+        LocalDateTime base = LocalDateTime.of(2026, 1, 22, 10, 0);
+        List<NotificationRecord> records = new ArrayList<>();
+        for (long id = 3; id >= 1; id--) {
+            NotificationRecord record = new NotificationRecord();
+            record.setId(id);
+            record.setNotificationId("n" + id);
+            record.setCreateTime(base.plusMinutes(id));
+            records.add(record);
+        }
+        when(notificationRecordMapper.findInboxPage("user1", null, false, null, null, null, 3))
+                .thenReturn(records);
+
+        KeysetPage<ProcessNotificationService.NotificationRecordVO> page =
+                notificationService.getUserInbox("user1", "", false, null, null, 2);
+
+        assertEquals(2, page.getList().size());
+        assertTrue(page.isHasMore());
+        assertEquals(KeysetCursor.encode(base.plusMinutes(2), 2L), page.getNextCursor());
+
+        when(notificationRecordMapper.findInboxPage("user1", null, false, null, base.plusMinutes(2), 2L, 3))
+                .thenReturn(records.subList(2, 3));
+
+        KeysetPage<ProcessNotificationService.NotificationRecordVO> next =
+                notificationService.getUserInbox("user1", null, false, null, page.getNextCursor(), 2);
+
+        assertEquals(1, next.getList().size());
+        assertFalse(next.isHasMore());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void testGetUserInbox_InvalidCursor() {
+        String cursor = KeysetCursor.encode("not-a-time", 1L);
+
+        assertThrows(BusinessException.class,
+                () -> notificationService.getUserInbox("user1", null, null, null, cursor, 20));
+        verifyNoInteractions(notificationRecordMapper);
+    }
+
+    @Test
+    void testSendTaskCompletedNotification_CoalescedRecipientPersistedWithoutDispatch() {
+        ReflectionTestUtils.setField(notificationService, "insertBatchSize", 500);
+        when(notificationCoalescer.shouldCoalesce(any())).thenAnswer(invocation -> "user2".equals(
+                invocation.<ProcessNotificationService.NotificationMessage>getArgument(0).getRecipient()));
+
+        String result = notificationService.sendTaskCompletedNotification(
+                "task1", "user1", "审批任务", List.of("user3", "user2"));
+
+        assertNotNull(result);
+        // 合并投递的通知同样在事务内写入并计入未读，只是不立即投递
+        verify(notificationRecordMapper).insertBatch(argThat(records -> records.size() == 2
+                && NotificationRecord.DELIVERY_PENDING.equals(records.get(0).getDeliveryStatus())
+                && NotificationRecord.DELIVERY_COALESCED.equals(records.get(1).getDeliveryStatus())));
+        verify(unreadCounter).adjustAll(Map.of("user3", 1L, "user2", 1L));
+        verify(notificationDispatcher).dispatchAll(argThat(records ->
+                records.size() == 1 && "user3".equals(records.get(0).getRecipientId())));
+    }
+
+    @Test
+    void testSendTaskAssignedNotification_CoalescedNotDispatched() {
+        when(notificationCoalescer.shouldCoalesce(any())).thenReturn(true);
+
+        String result = notificationService.sendTaskAssignedNotification("task1", "user1", "审批任务");
+
+        assertNotNull(result);
+        verify(notificationRecordMapper).insert(argThat((NotificationRecord record) ->
+                NotificationRecord.DELIVERY_COALESCED.equals(record.getDeliveryStatus())));
+        verify(unreadCounter).adjust("user1", 1);
+        verify(notificationDispatcher, never()).dispatch(any());
+    }
+
+    @Test
+    void testSendNotification_PublishesUnreadDelta() {
+        notificationService.sendTaskAssignedNotification("task1", "user1", "审批任务");
+
+        verify(unreadCounter).adjust("user1", 1);
+        verify(unreadCountPublisher).publish("user1", 1);
+        verify(notificationDispatcher).dispatch(any(NotificationRecord.class));
+    }
+
+    @Test
+    void testMarkNotificationAsRead_PublishesUnreadDelta() {
+        when(notificationRecordMapper.markAsRead(eq("notification1"), eq("user1"), any())).thenReturn(1);
+
+        assertTrue(notificationService.markNotificationAsRead("user1", "notification1"));
+        verify(unreadCounter).adjust("user1", -1);
+        verify(unreadCountPublisher).publish("user1", -1);
+    }
+
+    @Test
+    void testGetUnreadNotificationCount_UsesCounter() {
+        when(unreadCounter.get("user1")).thenReturn(7L);
+
+        assertEquals(7L, notificationService.getUnreadNotificationCount("user1"));
+        verify(notificationRecordMapper, never()).countByRecipientIdAndIsRead(any(), any());
+    }
 }
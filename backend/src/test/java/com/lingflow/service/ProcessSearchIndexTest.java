@@ -0,0 +1,155 @@
+package com.lingflow.service;
+
+import com.lingflow.dto.ProcessSearchResultDTO;
+import com.lingflow.entity.ProcessCategory;
+import com.lingflow.entity.ProcessDefinitionExtension;
+import com.lingflow.repository.ProcessCategoryRepository;
+import com.lingflow.repository.ProcessDefinitionExtensionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProcessSearchIndex 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ProcessSearchIndexTest {
+
+    @Mock
+    private ProcessDefinitionExtensionRepository extensionRepository;
+
+    @Mock
+    private ProcessCategoryRepository categoryRepository;
+
+    @InjectMocks
+    private ProcessSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(searchIndex, "ttlMinutes", 10L);
+
+        ProcessCategory root = new ProcessCategory();
+        root.setId("c1");
+        root.setName("人事");
+        root.setPath("/c1");
+        ProcessCategory child = new ProcessCategory();
+        child.setId("c2");
+        child.setName("考勤");
+        child.setPath("/c1/c2");
+        when(categoryRepository.findTree("t1", null, null)).thenReturn(List.of(root, child));
+
+        List<ProcessDefinitionExtension> entries = new ArrayList<>();
+        entries.add(entry("pd1", "leave", "请假流程", "c2", "/c1/c2"));
+        entries.add(entry("pd2", "overtime", "加班申请", "c2", "/c1/c2"));
+        entries.add(entry("pd3", "expense", "报销流程", "c1", "/c1"));
+        when(extensionRepository.findSearchEntries("t1")).thenReturn(entries);
+    }
+
+    @Test
+    void testSuggest_RankedByName() {
+        List<ProcessSearchResultDTO> results = searchIndex.suggest("流程", null, "t1", null, null, 10);
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(r -> r.getName().contains("流程")));
+        assertEquals("人事/考勤", results.stream()
+                .filter(r -> r.getId().equals("pd1")).findFirst().orElseThrow().getCategoryPathNames());
+    }
+
+    @Test
+    void testSuggest_KeyPrefixAndCategoryPath() {
+        assertEquals("pd2", searchIndex.suggest("OVER", null, "t1", null, null, 10).get(0).getId());
+        assertEquals(2, searchIndex.suggest("考勤", null, "t1", null, null, 10).size());
+        assertTrue(searchIndex.suggest("不存在", null, "t1", null, null, 10).isEmpty());
+
+        // 索引只构建一次
+        verify(extensionRepository, times(1)).findSearchEntries("t1");
+    }
+
+    @Test
+    void testUpsert_Incremental() {
+        searchIndex.suggest("请假", null, "t1", null, null, 10);
+        when(extensionRepository.findSearchEntry("pd1"))
+                .thenReturn(entry("pd1", "leave", "年假申请", "c1", "/c1"));
+
+        searchIndex.upsert("t1", "pd1");
+
+        assertTrue(searchIndex.suggest("请假", null, "t1", null, null, 10).isEmpty());
+        List<ProcessSearchResultDTO> results = searchIndex.suggest("年假", null, "t1", null, null, 10);
+        assertEquals(1, results.size());
+        assertEquals("c1", results.get(0).getCategoryId());
+        verify(extensionRepository, times(1)).findSearchEntries("t1");
+    }
+
+    @Test
+    void testUpsert_WithoutTenantRemovesDeletedDefinition() {
+        searchIndex.suggest("请假", null, "t1", null, null, 10);
+        when(extensionRepository.findSearchEntry("pd1")).thenReturn(null);
+
+        searchIndex.upsert("pd1");
+
+        assertTrue(searchIndex.suggest("请假", null, "t1", null, null, 10).isEmpty());
+        assertEquals(1, searchIndex.suggest("加班", null, "t1", null, null, 10).size());
+        verify(extensionRepository, times(1)).findSearchEntries("t1");
+    }
+
+    @Test
+    void testSuggest_ReturnsCopies() {
+        ProcessSearchResultDTO first = searchIndex.suggest("请假", null, "t1", null, null, 10).get(0);
+        first.setName("已修改");
+        first.getPathIds().clear();
+
+        ProcessSearchResultDTO again = searchIndex.suggest("请假", null, "t1", null, null, 10).get(0);
+        assertEquals("请假流程", again.getName());
+        assertEquals(List.of("c1", "c2"), again.getPathIds());
+    }
+
+    @Test
+    void testUpsert_DeferredUntilCommit() {
+        searchIndex.suggest("请假", null, "t1", null, null, 10);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchIndex.upsert("t1", "pd1");
+            searchIndex.invalidate("t1");
+
+            // 提交前不读取未提交的数据，索引保持不变
+            verify(extensionRepository, never()).findSearchEntry("pd1");
+            assertEquals(1, searchIndex.suggest("请假", null, "t1", null, null, 10).size());
+            verify(extensionRepository, times(1)).findSearchEntries("t1");
+
+            when(extensionRepository.findSearchEntry("pd1"))
+                    .thenReturn(entry("pd1", "leave", "年假申请", "c1", "/c1"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(extensionRepository).findSearchEntry("pd1");
+        searchIndex.suggest("请假", null, "t1", null, null, 10);
+        verify(extensionRepository, times(2)).findSearchEntries("t1");
+    }
+
+    private ProcessDefinitionExtension entry(String id, String key, String name, String categoryId, String path) {
+        ProcessDefinitionExtension extension = new ProcessDefinitionExtension();
+        extension.setId("ext-" + id);
+        extension.setProcessDefinitionId(id);
+        extension.setProcessKey(key);
+        extension.setProcessName(name);
+        extension.setProcessVersion(1);
+        extension.setCategoryId(categoryId);
+        extension.setCategoryPath(path);
+        extension.setTenantId("t1");
+        return extension;
+    }
+}
@@ -0,0 +1,231 @@
+package com.lingflow.service;
+
+import com.lingflow.dto.BulkStartItem;
+import com.lingflow.dto.ProcessInstanceVO;
+import com.lingflow.entity.BatchJob;
+import com.lingflow.entity.BatchJobItem;
+import com.lingflow.exception.BusinessException;
+import com.lingflow.mapper.ProcessInstanceKeyMapper;
+import com.lingflow.metrics.BatchJobMetrics;
+import org.flowable.common.engine.api.FlowableException;
+import org.flowable.common.engine.impl.interceptor.Command;
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.RepositoryService;
+import org.flowable.engine.RuntimeService;
+import org.flowable.engine.repository.ProcessDefinitionQuery;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ProcessStartJobService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ProcessStartJobServiceTest {
+
+    @Mock
+    private RuntimeService runtimeService;
+
+    @Mock
+    private RepositoryService repositoryService;
+
+    @Mock
+    private ManagementService managementService;
+
+    @Mock
+    private ProcessInstanceKeyMapper processInstanceKeyMapper;
+
+    @Mock
+    private BatchJobService batchJobService;
+
+    @Mock
+    private BatchJobMetrics metrics;
+
+    @InjectMocks
+    private ProcessStartJobService startJobService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(startJobService, "chunkSize", 2);
+        ReflectionTestUtils.setField(startJobService, "workerThreads", 2);
+        ReflectionTestUtils.setField(startJobService, "maxItems", 100);
+        lenient().when(processInstanceKeyMapper.claimBusinessKey(anyString(), anyString())).thenReturn(1);
+        startJobService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        startJobService.stop();
+    }
+
+    @Test
+    void testRun_SkipsExistingAndDuplicateBusinessKeys() {
+        when(batchJobService.claim("job1")).thenReturn(job());
+        BatchJobItem unkeyed = item(4, "");
+        unkeyed.setPayload("{\"amount\":1}");
+        List<BatchJobItem> wave = List.of(item(1, "A"), item(2, "B"), item(3, "B"), unkeyed);
+        when(batchJobService.nextChunk("job1", 0, 4)).thenReturn(wave);
+        when(batchJobService.nextChunk("job1", 4, 4)).thenReturn(List.of());
+        when(processInstanceKeyMapper.findByBusinessKeys("leave", Set.of("A", "B")))
+                .thenReturn(List.of(instance("old-A", "A")));
+        when(managementService.executeCommand(any())).thenAnswer(invocation ->
+                invocation.<Command<?>>getArgument(0).execute(null));
+        ProcessInstance b = started("pi-B");
+        ProcessInstance fourth = started("pi-4");
+        when(runtimeService.startProcessInstanceByKey("leave", "B", null)).thenReturn(b);
+        when(runtimeService.startProcessInstanceByKey("leave", null, Map.of("amount", 1))).thenReturn(fourth);
+
+        startJobService.run("job1");
+
+        verify(runtimeService, never()).startProcessInstanceByKey(eq("leave"), eq("A"), any());
+        verify(runtimeService, times(1)).startProcessInstanceByKey("leave", "B", null);
+        assertEquals(BatchJobItem.STATUS_SKIPPED, wave.get(0).getStatus());
+        assertEquals("old-A", wave.get(0).getResult());
+        assertEquals(BatchJobItem.STATUS_SUCCESS, wave.get(1).getStatus());
+        assertEquals("pi-B", wave.get(1).getResult());
+        assertEquals(BatchJobItem.STATUS_SKIPPED, wave.get(2).getStatus());
+        assertEquals("pi-B", wave.get(2).getResult());
+        assertEquals(BatchJobItem.STATUS_SUCCESS, wave.get(3).getStatus());
+        verify(batchJobService).recordChunk("job1", "token1", wave);
+        verify(metrics).recordChunk(eq(ProcessStartJobService.JOB_TYPE), eq(2), eq(2), eq(0), anyLong());
+        verify(batchJobService).complete("job1", "token1");
+    }
+
+    @Test
+    void testRun_ChunkFailureFallsBackToSingleStarts() {
+        when(batchJobService.claim("job1")).thenReturn(job());
+        List<BatchJobItem> wave = List.of(item(1, "A"), item(2, "B"));
+        when(batchJobService.nextChunk("job1", 0, 4)).thenReturn(wave);
+        when(batchJobService.nextChunk("job1", 2, 4)).thenReturn(List.of());
+        when(processInstanceKeyMapper.findByBusinessKeys("leave", Set.of("A", "B"))).thenReturn(List.of());
+        when(managementService.executeCommand(any())).thenAnswer(invocation ->
+                invocation.<Command<?>>getArgument(0).execute(null));
+        ProcessInstance a = started("pi-A");
+        when(runtimeService.startProcessInstanceByKey("leave", "A", null)).thenReturn(a);
+        when(runtimeService.startProcessInstanceByKey("leave", "B", null))
+                .thenThrow(new FlowableException("Unknown property used in expression"));
+
+        startJobService.run("job1");
+
+        // 分块整体回滚后逐项重试
+        verify(runtimeService, times(2)).startProcessInstanceByKey("leave", "A", null);
+        assertEquals(BatchJobItem.STATUS_SUCCESS, wave.get(0).getStatus());
+        assertEquals("pi-A", wave.get(0).getResult());
+        assertEquals(BatchJobItem.STATUS_FAILED, wave.get(1).getStatus());
+        assertEquals("Unknown property used in expression", wave.get(1).getMessage());
+        verify(metrics).recordChunk(eq(ProcessStartJobService.JOB_TYPE), eq(1), eq(0), eq(1), anyLong());
+        verify(batchJobService).complete("job1", "token1");
+        verify(batchJobService, never()).fail(anyString(), anyString(), any());
+    }
+
+    @Test
+    void testRun_SkipsBusinessKeyClaimedConcurrently() {
+        when(batchJobService.claim("job1")).thenReturn(job());
+        List<BatchJobItem> wave = List.of(item(1, "A"), item(2, "B"));
+        when(batchJobService.nextChunk("job1", 0, 4)).thenReturn(wave);
+        when(batchJobService.nextChunk("job1", 2, 4)).thenReturn(List.of());
+        // 去重查询时尚未启动，启动前已被另一个任务占用
+        when(processInstanceKeyMapper.findByBusinessKeys("leave", Set.of("A", "B"))).thenReturn(List.of());
+        when(processInstanceKeyMapper.claimBusinessKey("leave", "A")).thenReturn(0);
+        when(processInstanceKeyMapper.findClaimedInstance("leave", "A")).thenReturn("other-A");
+        when(managementService.executeCommand(any())).thenAnswer(invocation ->
+                invocation.<Command<?>>getArgument(0).execute(null));
+        ProcessInstance b = started("pi-B");
+        when(runtimeService.startProcessInstanceByKey("leave", "B", null)).thenReturn(b);
+
+        startJobService.run("job1");
+
+        verify(runtimeService, never()).startProcessInstanceByKey(eq("leave"), eq("A"), any());
+        assertEquals(BatchJobItem.STATUS_SKIPPED, wave.get(0).getStatus());
+        assertEquals("other-A", wave.get(0).getResult());
+        assertEquals(BatchJobItem.STATUS_SUCCESS, wave.get(1).getStatus());
+        verify(processInstanceKeyMapper).bindClaim("leave", "B", "pi-B");
+        verify(processInstanceKeyMapper, never()).bindClaim(eq("leave"), eq("A"), any());
+        verify(batchJobService).complete("job1", "token1");
+    }
+
+    @Test
+    void testRun_RuntimeExceptionFailsOnlyThatItem() {
+        when(batchJobService.claim("job1")).thenReturn(job());
+        BatchJobItem badPayload = item(3, "C");
+        badPayload.setPayload("{not json");
+        List<BatchJobItem> wave = List.of(item(1, "A"), item(2, "B"), badPayload);
+        when(batchJobService.nextChunk("job1", 0, 4)).thenReturn(wave);
+        when(batchJobService.nextChunk("job1", 3, 4)).thenReturn(List.of());
+        when(processInstanceKeyMapper.findByBusinessKeys("leave", Set.of("A", "B", "C"))).thenReturn(List.of());
+        when(managementService.executeCommand(any())).thenAnswer(invocation ->
+                invocation.<Command<?>>getArgument(0).execute(null));
+        ProcessInstance a = started("pi-A");
+        when(runtimeService.startProcessInstanceByKey("leave", "A", null)).thenReturn(a);
+        when(runtimeService.startProcessInstanceByKey("leave", "B", null))
+                .thenThrow(new IllegalStateException("delegate failed"));
+
+        startJobService.run("job1");
+
+        assertEquals(BatchJobItem.STATUS_SUCCESS, wave.get(0).getStatus());
+        assertEquals(BatchJobItem.STATUS_FAILED, wave.get(1).getStatus());
+        assertEquals("delegate failed", wave.get(1).getMessage());
+        assertEquals(BatchJobItem.STATUS_FAILED, wave.get(2).getStatus());
+        verify(runtimeService, never()).startProcessInstanceByKey(eq("leave"), eq("C"), any());
+        verify(batchJobService).recordChunk("job1", "token1", wave);
+        verify(batchJobService).complete("job1", "token1");
+        verify(batchJobService, never()).fail(anyString(), anyString(), any());
+    }
+
+    @Test
+    void testSubmit_RejectsMissingProcessDefinition() {
+        ProcessDefinitionQuery query = mock(ProcessDefinitionQuery.class, RETURNS_SELF);
+        when(repositoryService.createProcessDefinitionQuery()).thenReturn(query);
+        doReturn(0L).when(query).count();
+
+        assertThrows(BusinessException.class, () -> startJobService.submit("leave",
+                List.of(BulkStartItem.builder().businessKey("A").build()).iterator(), "admin"));
+
+        verifyNoInteractions(batchJobService);
+    }
+
+    private static BatchJob job() {
+        BatchJob job = new BatchJob();
+        job.setJobId("job1");
+        job.setJobType(ProcessStartJobService.JOB_TYPE);
+        job.setCursorSeq(0);
+        job.setRunToken("token1");
+        job.setParams("{\"processDefinitionKey\":\"leave\"}");
+        return job;
+    }
+
+    private static BatchJobItem item(int seq, String businessKey) {
+        BatchJobItem item = new BatchJobItem();
+        item.setJobId("job1");
+        item.setSeq(seq);
+        item.setItemKey(businessKey);
+        return item;
+    }
+
+    private static ProcessInstanceVO instance(String id, String businessKey) {
+        ProcessInstanceVO instance = new ProcessInstanceVO();
+        instance.setId(id);
+        instance.setBusinessKey(businessKey);
+        return instance;
+    }
+
+    private static ProcessInstance started(String id) {
+        ProcessInstance instance = mock(ProcessInstance.class);
+        when(instance.getId()).thenReturn(id);
+        return instance;
+    }
+}
@@ -1,17 +1,38 @@
 package com.lingflow.service;
 
+import com.lingflow.dto.KeysetPage;
+import com.lingflow.dto.VariableBatchResult;
+import com.lingflow.dto.VariableMetaDTO;
+import com.lingflow.dto.VariableRevisionDTO;
 import com.lingflow.extension.wrapper.FlowableServiceTemplate;
+import com.lingflow.mapper.VariableMetaMapper;
+import org.flowable.common.engine.impl.interceptor.Command;
+import org.flowable.engine.history.HistoricVariableUpdate;
+import org.flowable.engine.history.NativeHistoricDetailQuery;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.engine.runtime.ProcessInstanceQuery;
+import org.flowable.variable.api.history.HistoricVariableInstance;
+import org.flowable.variable.api.history.NativeHistoricVariableInstanceQuery;
+import org.flowable.variable.api.persistence.entity.VariableInstance;
+import org.flowable.variable.api.runtime.VariableInstanceQuery;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -30,9 +51,15 @@ class ProcessVariableServiceTest {
     @Mock
     private org.flowable.engine.HistoryService flowableHistoryService;
 
+    @Mock
+    private org.flowable.engine.ManagementService flowableManagementService;
+
     @Mock
     private FlowableServiceTemplate serviceTemplate;
 
+    @Mock
+    private VariableMetaMapper variableMetaMapper;
+
     @InjectMocks
     private ProcessVariableService processVariableService;
 
@@ -100,4 +127,198 @@ class ProcessVariableServiceTest {
         assertNotNull(result);
         assertEquals("localValue", result);
     }
+
+    @Test
+    void testUpsertProcessInstanceVariables_WritesAllInOneCall() {
+        runServiceTemplate("ProcessVariableService.upsertVariables");
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("same", "v1");
+        variables.put("changed", "v2");
+        variables.put("added", "v3");
+
+        processVariableService.upsertProcessInstanceVariables("process1", variables);
+
+        // 值未变化的变量同样写入，保留历史记录与变量事件
+        verify(flowableRuntimeService).setVariables("process1", Map.of("same", "v1", "changed", "v2", "added", "v3"));
+        verify(flowableRuntimeService, never()).setVariable(anyString(), anyString(), any());
+        verify(flowableRuntimeService, never()).getVariable(anyString(), anyString());
+    }
+
+    @Test
+    void testBatchGetVariables_OneQueryPerChunk() {
+        runServiceTemplate("ProcessVariableService.batchGetVariables");
+        ReflectionTestUtils.setField(processVariableService, "instancesPerQuery", 2);
+        VariableInstanceQuery query = mock(VariableInstanceQuery.class, RETURNS_SELF);
+        when(flowableRuntimeService.createVariableInstanceQuery()).thenReturn(query);
+        VariableInstance amount = variable("process1", "amount", 100);
+        VariableInstance other = variable("process1", "other", "x");
+        VariableInstance approver = variable("process3", "approver", "user1");
+        doReturn(List.of(amount, other), List.of(approver)).when(query).list();
+
+        Map<String, Map<String, Object>> result = processVariableService.getProcessInstanceVariables(
+                List.of("process1", "process2", "process3"), List.of("amount", "approver"));
+
+        verify(flowableRuntimeService, times(2)).createVariableInstanceQuery();
+        assertEquals(Map.of("amount", 100), result.get("process1"));
+        assertEquals(Map.of("approver", "user1"), result.get("process3"));
+        assertFalse(result.containsKey("process2"));
+    }
+
+    @Test
+    void testBatchSetVariables_ChunksCommandsAndReportsMissing() {
+        runServiceTemplate("ProcessVariableService.batchSetVariables");
+        ReflectionTestUtils.setField(processVariableService, "instancesPerQuery", 500);
+        ReflectionTestUtils.setField(processVariableService, "instancesPerCommand", 2);
+        ProcessInstanceQuery query = mock(ProcessInstanceQuery.class, RETURNS_SELF);
+        when(flowableRuntimeService.createProcessInstanceQuery()).thenReturn(query);
+        ProcessInstance p1 = mock(ProcessInstance.class);
+        ProcessInstance p2 = mock(ProcessInstance.class);
+        ProcessInstance p3 = mock(ProcessInstance.class);
+        when(p1.getId()).thenReturn("process1");
+        when(p2.getId()).thenReturn("process2");
+        when(p3.getId()).thenReturn("process3");
+        doReturn(List.of(p1, p2, p3)).when(query).list();
+        when(flowableManagementService.executeCommand(any())).thenAnswer(invocation ->
+                invocation.<Command<?>>getArgument(0).execute(null));
+
+        Map<String, Map<String, Object>> variables = new LinkedHashMap<>();
+        variables.put("process1", Map.of("a", 1));
+        variables.put("process2", Map.of("a", 2, "b", 3));
+        variables.put("missing", Map.of("a", 4));
+        variables.put("process3", Map.of("a", 5));
+
+        VariableBatchResult result = processVariableService.setProcessInstanceVariables(variables);
+
+        assertEquals(3, result.getUpdatedInstances());
+        assertEquals(4, result.getUpdatedVariables());
+        assertEquals(List.of("missing"), result.getMissingProcessInstanceIds());
+        verify(flowableManagementService, times(2)).executeCommand(any());
+        verify(flowableRuntimeService).setVariables("process2", Map.of("a", 2, "b", 3));
+        verify(flowableRuntimeService, never()).setVariables(eq("missing"), any());
+    }
+
+    @Test
+    void testGetProcessVariableMeta_SkipsLargeValues() {
+        runServiceTemplate("RuntimeService.getVariables");
+        ReflectionTestUtils.setField(processVariableService, "inlineValueMaxBytes", 1024L);
+        when(variableMetaMapper.findProcessInstanceVariables("process1")).thenReturn(List.of(
+                meta("attachment", "serializable", "process", 4096L),
+                meta("amount", "integer", "process", 0L)));
+        when(flowableRuntimeService.getVariables("process1", List.of("amount"))).thenReturn(Map.of("amount", 100));
+
+        List<VariableMetaDTO> result = processVariableService.getProcessInstanceVariableMeta("process1", true);
+
+        assertEquals(2, result.size());
+        assertTrue(result.get(0).getLarge());
+        assertNull(result.get(0).getValue());
+        assertFalse(result.get(1).getLarge());
+        assertEquals(100, result.get(1).getValue());
+    }
+
+    @Test
+    void testGetTaskVariableMeta_NearestScopeShadowsOuterScopes() {
+        ReflectionTestUtils.setField(processVariableService, "inlineValueMaxBytes", 1024L);
+        when(variableMetaMapper.findTaskVariables("task1")).thenReturn(List.of(
+                meta("comment", "string", "task", 10L),
+                meta("comment", "string", "process", 20L),
+                meta("amount", "integer", "process", 0L),
+                meta("loopItem", "string", "execution", 5L),
+                meta("loopItem", "string", "process", 5L)));
+
+        List<VariableMetaDTO> result = processVariableService.getTaskVariableMeta("task1", false);
+
+        assertEquals(3, result.size());
+        assertEquals("task", result.get(0).getScope());
+        assertEquals("amount", result.get(1).getName());
+        // 多实例子执行的局部变量遮蔽同名流程实例变量
+        assertEquals("loopItem", result.get(2).getName());
+        assertEquals("execution", result.get(2).getScope());
+        verifyNoInteractions(serviceTemplate, flowableTaskService);
+    }
+
+    @Test
+    void testGetVariableRevisions_PagesWithCursor() {
+        runServiceTemplate("HistoryService.createNativeHistoricDetailQuery");
+        ReflectionTestUtils.setField(processVariableService, "historyDefaultLimit", 20);
+        ReflectionTestUtils.setField(processVariableService, "historyMaxLimit", 200);
+        ReflectionTestUtils.setField(processVariableService, "historyDetailEnabled", true);
+        NativeHistoricDetailQuery query = mock(NativeHistoricDetailQuery.class, RETURNS_SELF);
+        when(flowableHistoryService.createNativeHistoricDetailQuery()).thenReturn(query);
+        HistoricVariableUpdate r3 = revision("d3", 3, 3000L);
+        HistoricVariableUpdate r2 = revision("d2", 2, 2000L);
+        HistoricVariableUpdate r1 = revision("d1", 1, 1000L);
+        doReturn(List.of(r3, r2, r1)).when(query).listPage(0, 3);
+
+        KeysetPage<VariableRevisionDTO> page = processVariableService.getVariableRevisions(
+                "process1", "amount", null, 2);
+
+        assertEquals(2, page.getList().size());
+        assertEquals(3, page.getList().get(0).getRevision());
+        assertTrue(page.isHasMore());
+        verify(query, never()).parameter(eq("cursorTime"), any());
+
+        doReturn(List.of(r1)).when(query).listPage(0, 3);
+        KeysetPage<VariableRevisionDTO> next = processVariableService.getVariableRevisions(
+                "process1", "amount", page.getNextCursor(), 2);
+
+        assertEquals(1, next.getList().size());
+        assertFalse(next.isHasMore());
+        assertNull(next.getNextCursor());
+        verify(query).parameter("cursorTime", new Date(2000L));
+        verify(query).parameter("cursorId", "d2");
+    }
+
+    @Test
+    void testGetVariableRevisions_FallsBackToVariableInstancesWithoutDetail() {
+        runServiceTemplate("HistoryService.createNativeHistoricDetailQuery");
+        runServiceTemplate("HistoryService.createNativeHistoricVariableInstanceQuery");
+        ReflectionTestUtils.setField(processVariableService, "historyDefaultLimit", 20);
+        ReflectionTestUtils.setField(processVariableService, "historyMaxLimit", 200);
+        ReflectionTestUtils.setField(processVariableService, "historyDetailEnabled", true);
+        NativeHistoricDetailQuery detailQuery = mock(NativeHistoricDetailQuery.class, RETURNS_SELF);
+        when(flowableHistoryService.createNativeHistoricDetailQuery()).thenReturn(detailQuery);
+        doReturn(List.of()).when(detailQuery).listPage(0, 3);
+        NativeHistoricVariableInstanceQuery instanceQuery =
+                mock(NativeHistoricVariableInstanceQuery.class, RETURNS_SELF);
+        when(flowableHistoryService.createNativeHistoricVariableInstanceQuery()).thenReturn(instanceQuery);
+        HistoricVariableInstance current = mock(HistoricVariableInstance.class);
+        when(current.getId()).thenReturn("v1");
+        when(current.getValue()).thenReturn(300);
+        when(current.getLastUpdatedTime()).thenReturn(new Date(3000L));
+        doReturn(List.of(current)).when(instanceQuery).listPage(0, 3);
+
+        KeysetPage<VariableRevisionDTO> page = processVariableService.getVariableRevisions(
+                "process1", "amount", null, 2);
+
+        assertEquals(1, page.getList().size());
+        assertEquals(300, page.getList().get(0).getValue());
+        assertNull(page.getList().get(0).getRevision());
+        assertEquals(ProcessVariableService.REVISION_SOURCE_INSTANCE, page.getList().get(0).getSource());
+        assertFalse(page.isHasMore());
+    }
+
+    private static HistoricVariableUpdate revision(String id, int revision, long time) {
+        HistoricVariableUpdate update = mock(HistoricVariableUpdate.class);
+        lenient().when(update.getId()).thenReturn(id);
+        lenient().when(update.getRevision()).thenReturn(revision);
+        lenient().when(update.getTime()).thenReturn(new Date(time));
+        return update;
+    }
+
+    private static VariableMetaDTO meta(String name, String type, String scope, Long size) {
+        return VariableMetaDTO.builder().name(name).type(type).scope(scope).size(size).build();
+    }
+
+    private void runServiceTemplate(String operation) {
+        when(serviceTemplate.execute(eq(operation), any(), any(Object[].class))).thenAnswer(invocation ->
+                invocation.<FlowableServiceTemplate.ServiceSupplier<?>>getArgument(1).get());
+    }
+
+    private static VariableInstance variable(String executionId, String name, Object value) {
+        VariableInstance variable = mock(VariableInstance.class);
+        lenient().when(variable.getExecutionId()).thenReturn(executionId);
+        lenient().when(variable.getName()).thenReturn(name);
+        lenient().when(variable.getValue()).thenReturn(value);
+        return variable;
+    }
 }
@@ -0,0 +1,95 @@
+package com.lingflow.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UnreadCountPublisher 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class UnreadCountPublisherTest {
+
+    @Mock
+    private NotificationUnreadCounter unreadCounter;
+
+    @Mock
+    private DataSource dataSource;
+
+    @InjectMocks
+    private UnreadCountPublisher publisher;
+
+    @Test
+    void testSubscribe_SendsCurrentCount() {
+        when(unreadCounter.get("user1")).thenReturn(3L);
+
+        publisher.subscribe("user1");
+
+        verify(unreadCounter, times(1)).get("user1");
+    }
+
+    @Test
+    void testPublish_ReadsCounterForSubscribedUser() {
+        when(unreadCounter.get("user1")).thenReturn(3L, 4L);
+        publisher.subscribe("user1");
+
+        publisher.publish("user1", 1);
+
+        verify(unreadCounter, times(2)).get("user1");
+    }
+
+    @Test
+    void testPublish_IgnoresUnsubscribedUser() {
+        publisher.publish("user2", 1);
+
+        verifyNoInteractions(unreadCounter);
+    }
+
+    @Test
+    void testPublish_BroadcastsToOtherNodes() throws SQLException {
+        ReflectionTestUtils.setField(publisher, "clusterEnabled", true);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT pg_notify(?, ?)")).thenReturn(statement);
+
+        publisher.publish("user2", 1);
+
+        verify(statement).setString(1, UnreadCountPublisher.CHANNEL);
+        verify(statement).setString(eq(2), contains("\"deltas\":{\"user2\":1}"));
+        verify(statement).execute();
+    }
+
+    @Test
+    void testOnBroadcast_InvalidatesCacheAndPushesToLocalConnections() {
+        when(unreadCounter.get("user1")).thenReturn(3L, 4L);
+        publisher.subscribe("user1");
+
+        publisher.onBroadcast("{\"node\":\"other-node\",\"deltas\":{\"user1\":1,\"user2\":1}}");
+
+        verify(unreadCounter).invalidate("user1");
+        verify(unreadCounter).invalidate("user2");
+        verify(unreadCounter, times(2)).get("user1");
+        verify(unreadCounter, never()).get("user2");
+    }
+
+    @Test
+    void testOnBroadcast_IgnoresOwnNode() {
+        String nodeId = (String) ReflectionTestUtils.getField(publisher, "nodeId");
+
+        publisher.onBroadcast("{\"node\":\"" + nodeId + "\",\"deltas\":{\"user1\":1}}");
+
+        verifyNoInteractions(unreadCounter);
+    }
+}
@@ -0,0 +1,219 @@
+package com.lingflow.service;
+
+import com.lingflow.entity.BatchJob;
+import com.lingflow.entity.BatchJobItem;
+import com.lingflow.exception.BusinessException;
+import com.lingflow.metrics.BatchJobMetrics;
+import com.lingflow.util.JsonUtil;
+import org.flowable.common.engine.api.FlowableException;
+import org.flowable.common.engine.impl.interceptor.Command;
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.RuntimeService;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.engine.runtime.ProcessInstanceQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * VariableCopyJobService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class VariableCopyJobServiceTest {
+
+    @Mock
+    private RuntimeService runtimeService;
+
+    @Mock
+    private ManagementService managementService;
+
+    @Mock
+    private BatchJobService batchJobService;
+
+    @Mock
+    private BatchJobMetrics metrics;
+
+    @InjectMocks
+    private VariableCopyJobService copyJobService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(copyJobService, "chunkSize", 2);
+        ReflectionTestUtils.setField(copyJobService, "maxTargets", 100);
+    }
+
+    @Test
+    void testRun_CopiesSnapshotFromCursor() {
+        BatchJob job = job(2);
+        when(batchJobService.claim("job1")).thenReturn(job);
+        List<BatchJobItem> chunk = List.of(item(3, "p3"), item(4, "missing"));
+        when(batchJobService.nextChunk("job1", 2, 2)).thenReturn(chunk);
+        when(batchJobService.nextChunk("job1", 4, 2)).thenReturn(List.of());
+        ProcessInstanceQuery query = mock(ProcessInstanceQuery.class, RETURNS_SELF);
+        when(runtimeService.createProcessInstanceQuery()).thenReturn(query);
+        ProcessInstance p3 = mock(ProcessInstance.class);
+        when(p3.getId()).thenReturn("p3");
+        doReturn(List.of(p3)).when(query).list();
+        when(managementService.executeCommand(any())).thenAnswer(invocation ->
+                invocation.<Command<?>>getArgument(0).execute(null));
+
+        copyJobService.run("job1");
+
+        // 复制提交时的快照，不再读取源实例
+        verify(runtimeService, never()).getVariables(anyString(), anyCollection());
+        verify(runtimeService).setVariables("p3", Map.of("orderNo", "SO-1"));
+        verify(runtimeService, never()).setVariables(eq("missing"), any());
+        ArgumentCaptor<List<BatchJobItem>> results = ArgumentCaptor.forClass(List.class);
+        verify(batchJobService).recordChunk(eq("job1"), eq("token1"), results.capture());
+        assertEquals(BatchJobItem.STATUS_SUCCESS, results.getValue().get(0).getStatus());
+        assertEquals(BatchJobItem.STATUS_FAILED, results.getValue().get(1).getStatus());
+        verify(metrics).recordChunk(eq(VariableCopyJobService.JOB_TYPE), eq(1), eq(0), eq(1), anyLong());
+        verify(batchJobService).complete("job1", "token1");
+    }
+
+    @Test
+    void testRun_ChunkFailureFallsBackToPerItem() {
+        when(batchJobService.claim("job1")).thenReturn(job(0));
+        when(batchJobService.nextChunk("job1", 0, 2)).thenReturn(List.of(item(1, "p1"), item(2, "p2")));
+        when(batchJobService.nextChunk("job1", 2, 2)).thenReturn(List.of());
+        ProcessInstanceQuery query = mock(ProcessInstanceQuery.class, RETURNS_SELF);
+        when(runtimeService.createProcessInstanceQuery()).thenReturn(query);
+        ProcessInstance p1 = mock(ProcessInstance.class);
+        when(p1.getId()).thenReturn("p1");
+        ProcessInstance p2 = mock(ProcessInstance.class);
+        when(p2.getId()).thenReturn("p2");
+        doReturn(List.of(p1, p2)).when(query).list();
+        when(managementService.executeCommand(any())).thenAnswer(invocation ->
+                invocation.<Command<?>>getArgument(0).execute(null));
+        // p2 在查询后被挂起：分块命令与逐项写入都失败
+        lenient().doThrow(new FlowableException("process instance is suspended"))
+                .when(runtimeService).setVariables(eq("p2"), any());
+
+        copyJobService.run("job1");
+
+        verify(runtimeService, times(2)).setVariables("p1", Map.of("orderNo", "SO-1"));
+        ArgumentCaptor<List<BatchJobItem>> results = ArgumentCaptor.forClass(List.class);
+        verify(batchJobService).recordChunk(eq("job1"), eq("token1"), results.capture());
+        assertEquals(BatchJobItem.STATUS_SUCCESS, results.getValue().get(0).getStatus());
+        assertEquals(BatchJobItem.STATUS_FAILED, results.getValue().get(1).getStatus());
+        assertEquals("process instance is suspended", results.getValue().get(1).getMessage());
+        verify(batchJobService).complete("job1", "token1");
+        verify(batchJobService, never()).fail(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void testRun_RecordFailureKeepsCursorForResume() {
+        when(batchJobService.claim("job1")).thenReturn(job(0));
+        when(batchJobService.nextChunk("job1", 0, 2)).thenReturn(List.of(item(1, "p1")));
+        ProcessInstanceQuery query = mock(ProcessInstanceQuery.class, RETURNS_SELF);
+        when(runtimeService.createProcessInstanceQuery()).thenReturn(query);
+        doReturn(List.of()).when(query).list();
+        doThrow(new IllegalStateException("connection reset"))
+                .when(batchJobService).recordChunk(eq("job1"), eq("token1"), anyList());
+
+        copyJobService.run("job1");
+
+        verify(batchJobService).fail("job1", "token1", "connection reset");
+        verify(batchJobService, never()).complete(anyString(), anyString());
+    }
+
+    @Test
+    void testSubmit_SnapshotsSourceVariables() {
+        ProcessInstanceQuery query = mock(ProcessInstanceQuery.class, RETURNS_SELF);
+        when(runtimeService.createProcessInstanceQuery()).thenReturn(query);
+        doReturn(1L).when(query).count();
+        when(runtimeService.getVariables("source", List.of("orderNo"))).thenReturn(Map.of("orderNo", "SO-1"));
+        BatchJob created = job(0);
+        when(batchJobService.create(eq(VariableCopyJobService.JOB_TYPE), anyString(), anyList(), eq("admin")))
+                .thenReturn(created);
+
+        copyJobService.submit("source", List.of("orderNo"), List.of("p1"), "admin");
+
+        ArgumentCaptor<String> params = ArgumentCaptor.forClass(String.class);
+        verify(batchJobService).create(eq(VariableCopyJobService.JOB_TYPE), params.capture(), anyList(), eq("admin"));
+        VariableCopyJobService.CopyParams copyParams =
+                JsonUtil.fromJson(params.getValue(), VariableCopyJobService.CopyParams.class);
+        assertEquals(Map.of("orderNo", "SO-1"), VariableCopyJobService.deserializeVariables(copyParams.getVariables()));
+        verify(batchJobService).submit(eq("job1"), any(Runnable.class));
+    }
+
+    @Test
+    void testSnapshot_RoundTripsTypedValues() throws Exception {
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("orderNo", "SO-1");
+        variables.put("amount", 12L);
+        variables.put("count", 3);
+        variables.put("price", new BigDecimal("9.90"));
+        variables.put("approved", true);
+        variables.put("dueDate", new Date(1769040000000L));
+        variables.put("startDay", LocalDate.of(2026, 1, 22));
+        variables.put("form", JsonUtil.getObjectMapper().readTree("{\"a\":1}"));
+        variables.put("items", List.of("x", "y"));
+        variables.put("empty", null);
+
+        Map<String, Object> restored = VariableCopyJobService.deserializeVariables(
+                VariableCopyJobService.serializeVariables(variables));
+
+        assertEquals(variables, restored);
+        assertEquals(Long.class, restored.get("amount").getClass());
+        assertEquals(Date.class, restored.get("dueDate").getClass());
+    }
+
+    @Test
+    void testSnapshot_RejectsUnsupportedTypeAndUnknownTypeName() {
+        assertThrows(BusinessException.class,
+                () -> VariableCopyJobService.serializeVariables(Map.of("file", new java.io.File("/tmp"))));
+        assertThrows(BusinessException.class, () -> VariableCopyJobService.deserializeVariables(
+                List.of(new VariableCopyJobService.TypedVariable("x", "serializable", "rO0AB"))));
+    }
+
+    @Test
+    void testSubmit_RejectsMissingSource() {
+        ProcessInstanceQuery query = mock(ProcessInstanceQuery.class, RETURNS_SELF);
+        when(runtimeService.createProcessInstanceQuery()).thenReturn(query);
+        doReturn(0L).when(query).count();
+
+        assertThrows(BusinessException.class,
+                () -> copyJobService.submit("source", null, List.of("p1", "p1", "source"), "admin"));
+
+        verifyNoInteractions(batchJobService);
+    }
+
+    private static BatchJob job(int cursorSeq) {
+        BatchJob job = new BatchJob();
+        job.setJobId("job1");
+        job.setJobType(VariableCopyJobService.JOB_TYPE);
+        job.setCursorSeq(cursorSeq);
+        job.setRunToken("token1");
+        VariableCopyJobService.CopyParams params = new VariableCopyJobService.CopyParams();
+        params.setSourceProcessInstanceId("source");
+        params.setVariableNames(List.of("orderNo"));
+        params.setVariables(VariableCopyJobService.serializeVariables(Map.of("orderNo", "SO-1")));
+        job.setParams(JsonUtil.toJson(params));
+        return job;
+    }
+
+    private static BatchJobItem item(int seq, String key) {
+        BatchJobItem item = new BatchJobItem();
+        item.setJobId("job1");
+        item.setSeq(seq);
+        item.setItemKey(key);
+        return item;
+    }
+}
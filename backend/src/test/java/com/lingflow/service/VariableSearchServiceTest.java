@@ -0,0 +1,127 @@
+package com.lingflow.service;
+
+import com.lingflow.dto.VariableSearchHitDTO;
+import com.lingflow.entity.SearchableVariable;
+import com.lingflow.exception.BusinessException;
+import com.lingflow.mapper.SearchableVariableMapper;
+import com.lingflow.mapper.VariableSearchIndexMapper;
+import org.flowable.engine.RepositoryService;
+import org.flowable.engine.repository.ProcessDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * VariableSearchService 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class VariableSearchServiceTest {
+
+    @Mock
+    private SearchableVariableMapper searchableVariableMapper;
+
+    @Mock
+    private VariableSearchIndexMapper searchIndexMapper;
+
+    @Mock
+    private RepositoryService repositoryService;
+
+    @InjectMocks
+    private VariableSearchService variableSearchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(variableSearchService, "defaultLimit", 50);
+        ReflectionTestUtils.setField(variableSearchService, "maxLimit", 500);
+        SearchableVariable config = new SearchableVariable();
+        config.setProcessDefinitionKey("order");
+        config.setVariableName("orderNo");
+        when(searchableVariableMapper.selectList(null)).thenReturn(List.of(config));
+        variableSearchService.reload();
+    }
+
+    @Test
+    void testSearch_PrefixUsesIndexRange() {
+        List<VariableSearchHitDTO> hits = List.of(VariableSearchHitDTO.builder().processInstanceId("p1").build());
+        when(searchIndexMapper.search("orderNo", "SO-2026", true, "SO-2027", null, 500)).thenReturn(hits);
+
+        assertSame(hits, variableSearchService.search("orderNo", "SO-2026", true, null, 1000));
+    }
+
+    @Test
+    void testSearch_RejectsUnconfiguredVariable() {
+        assertThrows(BusinessException.class,
+                () -> variableSearchService.search("applicant", "u1", false, null, null));
+        assertThrows(BusinessException.class,
+                () -> variableSearchService.search("orderNo", "SO-1", false, "leave", null));
+        verifyNoInteractions(searchIndexMapper);
+    }
+
+    @Test
+    void testOnVariableSet_MaintainsOnlySearchableVariables() {
+        ProcessDefinition definition = mock(ProcessDefinition.class);
+        when(definition.getKey()).thenReturn("order");
+        when(repositoryService.getProcessDefinition("order:1:100")).thenReturn(definition);
+
+        variableSearchService.onVariableSet("order:1:100", "p1", "orderNo", "SO-1");
+        variableSearchService.onVariableSet("order:1:100", "p2", "orderNo", 42L);
+        variableSearchService.onVariableSet("order:1:100", "p3", "orderNo", List.of("x"));
+        variableSearchService.onVariableSet("order:1:100", "p1", "amount", 100);
+
+        verify(searchIndexMapper).upsert("p1", "orderNo", "order", "string", "SO-1");
+        verify(searchIndexMapper).upsert("p2", "orderNo", "order", "long", "42");
+        verify(searchIndexMapper).delete("p3", "orderNo");
+        verify(searchIndexMapper, never()).upsert(anyString(), eq("amount"), anyString(), anyString(), anyString());
+        verify(repositoryService, times(1)).getProcessDefinition("order:1:100");
+    }
+
+    @Test
+    void testReload_BackfillsVariablesAddedOnOtherNodes() {
+        SearchableVariable orderNo = new SearchableVariable();
+        orderNo.setProcessDefinitionKey("order");
+        orderNo.setVariableName("orderNo");
+        SearchableVariable applicant = new SearchableVariable();
+        applicant.setProcessDefinitionKey("order");
+        applicant.setVariableName("applicant");
+        when(searchableVariableMapper.selectList(null)).thenReturn(List.of(orderNo, applicant));
+
+        variableSearchService.reload();
+        variableSearchService.reload();
+
+        verify(searchIndexMapper, times(1)).backfill("order", "applicant", VariableSearchService.MAX_VALUE_LENGTH);
+        verify(searchIndexMapper, never()).backfill(eq("order"), eq("orderNo"), anyInt());
+    }
+
+    @Test
+    void testAddSearchableVariable_BackfillsOnce() {
+        SearchableVariable orderNo = new SearchableVariable();
+        orderNo.setProcessDefinitionKey("order");
+        orderNo.setVariableName("orderNo");
+        SearchableVariable applicant = new SearchableVariable();
+        applicant.setProcessDefinitionKey("order");
+        applicant.setVariableName("applicant");
+        when(searchableVariableMapper.selectList(null)).thenReturn(List.of(orderNo, applicant));
+        when(searchIndexMapper.backfill("order", "applicant", VariableSearchService.MAX_VALUE_LENGTH)).thenReturn(3);
+
+        assertEquals(3, variableSearchService.addSearchableVariable("order", "applicant", "admin"));
+
+        verify(searchIndexMapper, times(1)).backfill("order", "applicant", VariableSearchService.MAX_VALUE_LENGTH);
+    }
+
+    @Test
+    void testPrefixUpperBound() {
+        assertEquals("ab", VariableSearchService.prefixUpperBound("aa"));
+        assertEquals("SO-:", VariableSearchService.prefixUpperBound("SO-9"));
+        assertEquals("a\uE000", VariableSearchService.prefixUpperBound("a\uD7FF"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.lingflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BpmnStreamingValidator 单元测试
+ */
+class BpmnStreamingValidatorTest {
+
+    private static final String HEADER =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<definitions xmlns=\"http://www.omg.org/spec/BPMN/20100524/MODEL\""
+            + " xmlns:flowable=\"http://flowable.org/bpmn\" targetNamespace=\"test\">";
+
+    private static final String FOOTER = "</definitions>";
+
+    @Test
+    void testValidate_Success() {
+        String xml = HEADER
+                + "<process id=\"p1\" name=\"测试流程\">"
+                + "<startEvent id=\"start\"/>"
+                + "<userTask id=\"task1\" name=\"审批\" flowable:assignee=\"user1\"/>"
+                + "<endEvent id=\"end\"/>"
+                + "<sequenceFlow id=\"f1\" sourceRef=\"start\" targetRef=\"task1\"/>"
+                + "<sequenceFlow id=\"f2\" sourceRef=\"task1\" targetRef=\"end\"/>"
+                + "</process>"
+                + FOOTER;
+
+        ProcessValidator.ValidationResult result = BpmnStreamingValidator.validate(xml);
+
+        assertTrue(result.isValid());
+        assertFalse(result.hasErrors());
+        assertFalse(result.hasWarnings());
+    }
+
+    @Test
+    void testValidate_StructuralErrors() {
+        String xml = HEADER
+                + "<process id=\"p1\" name=\"测试流程\">"
+                + "<userTask id=\"task1\" name=\"审批\"/>"
+                + "<userTask id=\"task1\" name=\"重复\" flowable:candidateGroups=\"g1\"/>"
+                + "<sequenceFlow id=\"f1\" sourceRef=\"task1\" targetRef=\"missing\"/>"
+                + "</process>"
+                + FOOTER;
+
+        ProcessValidator.ValidationResult result = BpmnStreamingValidator.validate(xml);
+
+        assertFalse(result.isValid());
+        assertTrue(result.getErrors().stream().anyMatch(e -> e.contains("元素ID重复: task1")));
+        assertTrue(result.getErrors().stream().anyMatch(e -> e.contains("missing")));
+        assertTrue(result.getErrors().stream().anyMatch(e -> e.contains("开始节点")));
+        assertTrue(result.getWarnings().stream().anyMatch(w -> w.contains("结束节点")));
+        assertTrue(result.getWarnings().stream().anyMatch(w -> w.contains("未配置办理人")));
+    }
+
+    @Test
+    void testValidate_NoProcess() {
+        ProcessValidator.ValidationResult result = BpmnStreamingValidator.validate(HEADER + FOOTER);
+
+        assertFalse(result.isValid());
+        assertEquals(1, result.getErrors().size());
+        assertFalse(result.isMalformed());
+    }
+
+    @Test
+    void testValidate_MalformedXml() {
+        ProcessValidator.ValidationResult result = BpmnStreamingValidator.validate(HEADER + "<process id=\"p1\">");
+
+        assertFalse(result.isValid());
+        assertTrue(result.getErrors().get(0).startsWith("BPMN XML 解析失败"));
+        assertTrue(result.isMalformed());
+    }
+}
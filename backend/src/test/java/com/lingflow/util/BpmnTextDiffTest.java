@@ -0,0 +1,52 @@
+package com.lingflow.util;
+
+import com.lingflow.dto.BpmnPatch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BpmnTextDiff 单元测试
+ */
+class BpmnTextDiffTest {
+
+    private static final String XML =
+            "<definitions><process id=\"p1\"><startEvent id=\"start\"/></process>"
+            + "<bpmndi:BPMNDiagram><bpmndi:BPMNShape bpmnElement=\"start\"><dc:Bounds x=\"100\" y=\"100\"/>"
+            + "</bpmndi:BPMNShape></bpmndi:BPMNDiagram></definitions>";
+
+    @Test
+    void testDiffAndApply_RoundTrip() {
+        String changed = XML.replace("<startEvent id=\"start\"/>", "<startEvent id=\"start\" name=\"开始\"/>");
+
+        BpmnPatch patch = BpmnTextDiff.diff(XML, changed);
+
+        assertNotNull(patch);
+        assertEquals(" name=\"开始\"", patch.getInsertText());
+        assertEquals(0, patch.getDeleteLength());
+        assertEquals(changed, BpmnTextDiff.apply(XML, patch));
+        assertFalse(BpmnTextDiff.isDiagramOnly(XML, patch));
+    }
+
+    @Test
+    void testDiff_Identical() {
+        assertNull(BpmnTextDiff.diff(XML, XML));
+    }
+
+    @Test
+    void testIsDiagramOnly_MoveShape() {
+        String moved = XML.replace("x=\"100\"", "x=\"240\"");
+
+        BpmnPatch patch = BpmnTextDiff.diff(XML, moved);
+
+        assertTrue(BpmnTextDiff.isDiagramOnly(XML, patch));
+        assertEquals(moved, BpmnTextDiff.apply(XML, patch));
+    }
+
+    @Test
+    void testApply_InvalidRange() {
+        BpmnPatch patch = BpmnPatch.builder().offset(XML.length()).deleteLength(1).insertText("x").build();
+
+        assertThrows(IllegalArgumentException.class, () -> BpmnTextDiff.apply(XML, patch));
+    }
+}
@@ -0,0 +1,34 @@
+package com.lingflow.util;
+
+import com.lingflow.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KeysetCursor 单元测试
+ */
+class KeysetCursorTest {
+
+    @Test
+    void testEncodeDecode_RoundTrip() {
+        String cursor = KeysetCursor.encode(0.42f, "a1b2-c3");
+
+        String[] keys = KeysetCursor.decode(cursor, 2);
+
+        assertEquals(Float.valueOf(0.42f), Float.valueOf(keys[0]));
+        assertEquals("a1b2-c3", keys[1]);
+    }
+
+    @Test
+    void testDecode_Empty() {
+        assertNull(KeysetCursor.decode(null, 2));
+        assertNull(KeysetCursor.decode("", 2));
+    }
+
+    @Test
+    void testDecode_Invalid() {
+        assertThrows(BusinessException.class, () -> KeysetCursor.decode("not base64!", 2));
+        assertThrows(BusinessException.class, () -> KeysetCursor.decode(KeysetCursor.encode("only-one"), 2));
+    }
+}
@@ -0,0 +1,25 @@
+package com.lingflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SearchKeyword 单元测试
+ */
+class SearchKeywordTest {
+
+    @Test
+    void testNormalize() {
+        assertEquals("请假", SearchKeyword.normalize("  请假 "));
+        assertNull(SearchKeyword.normalize("   "));
+        assertNull(SearchKeyword.normalize(null));
+    }
+
+    @Test
+    void testContainsPattern_EscapesWildcards() {
+        assertEquals("%请假%", SearchKeyword.containsPattern("请假"));
+        assertEquals("%100\\%\\_a\\\\b%", SearchKeyword.containsPattern("100%_a\\b"));
+        assertNull(SearchKeyword.containsPattern(null));
+    }
+}
@@ -206,6 +206,18 @@ export const sendCustomNotification = (data: {
   return request.post('/api/notifications/custom', data)
 }
 
+/**
+ * 批量发送自定义通知（大量接收人，返回全部通知ID）
+ */
+export const sendCustomNotifications = (data: {
+  recipients: string[]
+  title: string
+  content: string
+  processInstanceId?: string
+}) => {
+  return request.post('/api/notifications/custom/batch', data)
+}
+
 /**
  * 获取用户的通知列表
  */
@@ -215,6 +227,19 @@ export const getUserNotifications = (userId: string, limit: number = 20) => {
   })
 }
 
+/**
+ * 按游标分页获取用户收件箱（返回 { list, nextCursor, hasMore }）
+ */
+export const getUserInbox = (userId: string, params: {
+  type?: string
+  read?: boolean
+  processInstanceId?: string
+  cursor?: string
+  limit?: number
+} = {}) => {
+  return request.get(`/api/notifications/user/${userId}/inbox`, { params })
+}
+
 /**
  * 获取未读通知数量
  */
@@ -222,6 +247,13 @@ export const getUnreadNotificationCount = (userId: string) => {
   return request.get(`/api/notifications/user/${userId}/unread-count`)
 }
 
+/**
+ * 订阅未读通知数量（SSE，事件数据：{ count, delta }）
+ */
+export const subscribeUnreadCount = (userId: string) => {
+  return new EventSource(`${request.defaults.baseURL}/api/notifications/user/${encodeURIComponent(userId)}/unread-count/stream`)
+}
+
 /**
  * 标记通知为已读
  */
@@ -291,6 +323,16 @@ export const getAllCommentsForProcess = (processInstanceId: string) => {
   return request.get(`/api/comments/process/${processInstanceId}/all`)
 }
 
+/**
+ * 按游标分页获取流程实例的评论时间线（流程、任务、系统评论按时间正序，返回 { list, nextCursor, hasMore }）
+ */
+export const getCommentTimeline = (processInstanceId: string, params: {
+  cursor?: string
+  limit?: number
+} = {}) => {
+  return request.get(`/api/comments/process/${processInstanceId}/timeline`, { params })
+}
+
 /**
  * 删除评论
  */
@@ -321,10 +363,21 @@ export const getCommentStatistics = (processInstanceId: string) => {
 // ==================== 流程变量相关接口 ====================
 
 /**
- * 获取流程实例的所有变量
+ * 获取流程实例的变量（指定 names 时只加载这些变量）
  */
-export const getProcessVariables = (processInstanceId: string) => {
-  return request.get(`/api/variables/process/${processInstanceId}`)
+export const getProcessVariables = (processInstanceId: string, names?: string[]) => {
+  return request.get(`/api/variables/process/${processInstanceId}`, {
+    params: { names: names?.join(',') }
+  })
+}
+
+/**
+ * 获取流程实例变量的元数据（名称、类型、大小；large 为 true 的变量需单独获取值）
+ */
+export const getProcessVariableMeta = (processInstanceId: string, includeValues: boolean = false) => {
+  return request.get(`/api/variables/process/${processInstanceId}/meta`, {
+    params: { includeValues }
+  })
 }
 
 /**
@@ -363,10 +416,21 @@ export const removeProcessVariable = (processInstanceId: string, variableName: s
 }
 
 /**
- * 获取任务的所有本地变量
+ * 获取任务的变量（指定 names 时只加载这些变量）
  */
-export const getTaskVariables = (taskId: string) => {
-  return request.get(`/api/variables/task/${taskId}`)
+export const getTaskVariables = (taskId: string, names?: string[]) => {
+  return request.get(`/api/variables/task/${taskId}`, {
+    params: { names: names?.join(',') }
+  })
+}
+
+/**
+ * 获取任务可见变量的元数据（名称、类型、大小；large 为 true 的变量需单独获取值）
+ */
+export const getTaskVariableMeta = (taskId: string, includeValues: boolean = false) => {
+  return request.get(`/api/variables/task/${taskId}/meta`, {
+    params: { includeValues }
+  })
 }
 
 /**
@@ -405,10 +469,90 @@ export const getHistoricVariables = (processInstanceId: string) => {
 }
 
 /**
- * 获取变量的历史变更记录
+ * 按游标分页获取变量的历史变更记录（按更新时间倒序，返回 { list, nextCursor, hasMore }）
+ */
+export const getVariableHistory = (processInstanceId: string, variableName: string, params: {
+  cursor?: string
+  limit?: number
+} = {}) => {
+  return request.get(`/api/variables/history/${processInstanceId}/variable/${variableName}`, { params })
+}
+
+/**
+ * 提交批量复制变量任务（返回任务进度，含 jobId）
+ */
+export const submitVariableCopyJob = (data: {
+  sourceProcessInstanceId: string
+  variableNames?: string[]
+  targetProcessInstanceIds: string[]
+  userId?: string
+}) => {
+  return request.post('/api/variables/copy/jobs', data)
+}
+
+/**
+ * 查询批量复制变量任务进度
+ */
+export const getVariableCopyJob = (jobId: string) => {
+  return request.get(`/api/variables/copy/jobs/${jobId}`)
+}
+
+/**
+ * 按游标分页查询批量复制变量任务的逐项结果（返回 { list, nextCursor, hasMore }）
+ */
+export const getVariableCopyJobItems = (jobId: string, params: {
+  status?: string
+  cursor?: string
+  limit?: number
+} = {}) => {
+  return request.get(`/api/variables/copy/jobs/${jobId}/items`, { params })
+}
+
+/**
+ * 续跑失败或中断的批量复制变量任务
+ */
+export const resumeVariableCopyJob = (jobId: string) => {
+  return request.post(`/api/variables/copy/jobs/${jobId}/resume`)
+}
+
+/**
+ * 按可搜索变量的值查找流程实例（prefix 为 true 时前缀查找）
+ */
+export const searchByVariable = (params: {
+  name: string
+  value: string
+  prefix?: boolean
+  processDefinitionKey?: string
+  limit?: number
+}) => {
+  return request.get('/api/variables/search', { params })
+}
+
+/**
+ * 查询可搜索变量配置
+ */
+export const getSearchableVariables = (processDefinitionKey?: string) => {
+  return request.get('/api/variables/searchable', {
+    params: { processDefinitionKey }
+  })
+}
+
+/**
+ * 标记可搜索变量（返回回填的流程实例数量）
+ */
+export const addSearchableVariable = (data: {
+  processDefinitionKey: string
+  variableName: string
+  userId?: string
+}) => {
+  return request.post('/api/variables/searchable', data)
+}
+
+/**
+ * 取消可搜索变量
  */
-export const getVariableHistory = (processInstanceId: string, variableName: string) => {
-  return request.get(`/api/variables/history/${processInstanceId}/variable/${variableName}`)
+export const removeSearchableVariable = (processDefinitionKey: string, variableName: string) => {
+  return request.delete(`/api/variables/searchable/${processDefinitionKey}/${variableName}`)
 }
 
 /**
@@ -76,6 +76,51 @@ export const startProcess = (processKey: string, variables?: any) => {
   return request.post(`/process/start/${processKey}`, variables)
 }
 
+/**
+ * 批量启动流程实例（后台按分块执行，返回含任务ID的任务进度；已存在实例的业务Key会跳过）
+ */
+export const startProcessBatch = (processKey: string, data: {
+  items: { businessKey?: string; variables?: Record<string, any> }[]
+  userId?: string
+}) => {
+  return request.post(`/process/start/${processKey}/batch`, data)
+}
+
+/**
+ * 批量启动流程实例（NDJSON，每行一个 { businessKey, variables }，适合超大批量）
+ */
+export const startProcessBatchStream = (processKey: string, ndjson: Blob | string, userId?: string) => {
+  return request.post(`/process/start/${processKey}/batch`, ndjson, {
+    params: { userId },
+    headers: { 'Content-Type': 'application/x-ndjson' }
+  })
+}
+
+/**
+ * 查询批量启动任务进度（含成功、跳过、失败数与吞吐量）
+ */
+export const getProcessStartJob = (jobId: string) => {
+  return request.get(`/process/start/jobs/${jobId}`)
+}
+
+/**
+ * 按游标分页查询批量启动任务的逐项结果（返回 { list, nextCursor, hasMore }）
+ */
+export const getProcessStartJobItems = (jobId: string, params: {
+  status?: string
+  cursor?: string
+  limit?: number
+} = {}) => {
+  return request.get(`/process/start/jobs/${jobId}/items`, { params })
+}
+
+/**
+ * 续跑失败或中断的批量启动任务
+ */
+export const resumeProcessStartJob = (jobId: string) => {
+  return request.post(`/process/start/jobs/${jobId}/resume`)
+}
+
 export const getRunningInstances = () => {
   return request.get('/process/running')
 }
@@ -253,6 +298,13 @@ export const listTemplateSnapshots = (templateKey: string, params: {
   return request.get(`/api/process/template/snapshot/${templateKey}`, { params })
 }
 
+/**
+ * 查询模板快照详情（包含BPMN内容）
+ */
+export const getTemplateSnapshot = (snapshotId: string) => {
+  return request.get(`/api/process/template/snapshot/detail/${snapshotId}`)
+}
+
 /**
  * 从快照恢复到设计态
  */
@@ -11,6 +11,7 @@ export interface ProcessCategory {
   description?: string
   sortOrder?: number
   icon?: string
+  version?: number
   appId?: string
   contextId?: string
   tenantId: string
@@ -40,6 +41,7 @@ export interface ProcessSearchResult {
 export interface SortOrderDTO {
   id: string
   sortOrder: number
+  version?: number  // 乐观锁版本号（分类已被他人修改时整体失败）
 }
 
 /**
@@ -112,12 +114,13 @@ export function updateSortOrder(id: string, sortOrder: number) {
 }
 
 /**
- * 批量更新排序（拖拽排序）
+ * 批量更新排序（拖拽排序），返回更新后的分类树版本号
  */
-export function batchUpdateSortOrder(sortOrderList: SortOrderDTO[]) {
+export function batchUpdateSortOrder(tenantId: string, sortOrderList: SortOrderDTO[]) {
   return request({
     url: '/api/process-category/sort/batch',
     method: 'put',
+    params: { tenantId },
     data: sortOrderList
   })
 }
@@ -158,7 +161,25 @@ export function setProcessCategory(
 }
 
 /**
- * 搜索流程模板（返回分类路径）
+ * 流程输入联想（服务端内存索引，返回分类路径）
+ */
+export function suggestProcesses(params: {
+  keyword: string
+  categoryId?: string
+  tenantId: string
+  appId?: string
+  contextId?: string
+  limit?: number
+}) {
+  return request({
+    url: '/api/process-category/processes/suggest',
+    method: 'get',
+    params
+  })
+}
+
+/**
+ * 搜索流程模板（按相关度排序，游标分页，返回分类路径）
  */
 export function searchProcesses(params: {
   keyword: string
@@ -166,6 +187,8 @@ export function searchProcesses(params: {
   tenantId: string
   appId?: string
   contextId?: string
+  cursor?: string
+  limit?: number
 }) {
   return request({
     url: '/api/process-category/processes/search',